@@ -0,0 +1,324 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.LineUnavailableException;
+import javax.sound.sampled.SourceDataLine;
+import javax.sound.sampled.UnsupportedAudioFileException;
+
+// Decoded PCM for question and explanation audio, kept under a byte budget with LRU eviction.
+// Clips for upcoming questions are decoded in the background so playback starts from memory,
+// and played through a pooled, already-open SourceDataLine. Clips inside an AudioPack are not cached:
+// they are streamed to the line straight from the mapped pack.
+class AudioClipCache {
+    private static final int LINE_POOL_SIZE = 1;
+    private static final int WRITE_CHUNK = 16 * 1024;
+
+    static final class DecodedClip {
+        final AudioFormat format;
+        final byte[] pcm;
+
+        DecodedClip(AudioFormat format, byte[] pcm) {
+            this.format = format;
+            this.pcm = pcm;
+        }
+    }
+
+    // Handle for one playback; stop() can be called from any thread
+    static final class Playback {
+        private volatile boolean stopped;
+        private volatile SourceDataLine line;
+        private final QuizMetrics.Span startup; // From the play request until the line starts
+
+        Playback() {
+            this(null);
+        }
+
+        Playback(QuizMetrics.Span startup) {
+            this.startup = startup;
+        }
+
+        void stop() {
+            stopped = true;
+            SourceDataLine current = line;
+            if (current != null) {
+                current.stop();
+                current.flush(); // Unblocks a pending write()
+            }
+        }
+
+        boolean isStopped() {
+            return stopped;
+        }
+    }
+
+    private final long maxBytes;
+    private final LinkedHashMap<String, DecodedClip> clips = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, CompletableFuture<DecodedClip>> pending = new ConcurrentHashMap<>();
+    private final List<SourceDataLine> idleLines = new ArrayList<>();
+    private final ThreadPoolExecutor prefetcher;
+    private long cachedBytes;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final AtomicInteger openLines = new AtomicInteger();
+
+    AudioClipCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+        // One background decoder; when navigation outruns it the oldest prefetch requests are dropped
+        prefetcher = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(32), r -> {
+            Thread thread = new Thread(r, "audio-prefetch");
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.DiscardOldestPolicy());
+    }
+
+    // Returns the decoded clip, decoding it on the calling thread on a miss
+    DecodedClip get(String filePath) throws IOException {
+        synchronized (this) {
+            DecodedClip clip = clips.get(filePath);
+            if (clip != null) {
+                hits.increment();
+                return clip;
+            }
+        }
+        misses.increment();
+        return load(filePath);
+    }
+
+    // Queues the question and explanation audio for questions [from, from + count)
+    void prefetch(List<MCQ> questions, int from, int count) {
+        int end = Math.min(questions.size(), from + count);
+        for (int i = Math.max(0, from); i < end; i++) {
+            MCQ question = questions.get(i);
+            prefetch(question.getQuestionAudioPath());
+            prefetch(question.getExplanationAudioPath());
+        }
+    }
+
+    private void prefetch(String filePath) {
+        if (AudioPack.isPackPath(filePath)) {
+            prefetcher.execute(() -> {
+                try {
+                    AudioPack.entry(filePath).pcm().load(); // Only warms the page cache
+                } catch (IOException e) {
+                    // Reported when the clip is actually played
+                }
+            });
+            return;
+        }
+        synchronized (this) {
+            if (clips.containsKey(filePath) || pending.containsKey(filePath)) {
+                return;
+            }
+        }
+        prefetcher.execute(() -> {
+            try {
+                load(filePath);
+            } catch (IOException e) {
+                // Reported when the clip is actually played
+            }
+        });
+    }
+
+    private DecodedClip load(String filePath) throws IOException {
+        CompletableFuture<DecodedClip> future = new CompletableFuture<>();
+        CompletableFuture<DecodedClip> inFlight = pending.putIfAbsent(filePath, future);
+        if (inFlight != null) {
+            try {
+                return inFlight.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof IOException ? (IOException) e.getCause()
+                        : new IOException(e.getCause().getMessage(), e.getCause());
+            }
+        }
+        try {
+            DecodedClip clip;
+            synchronized (this) {
+                clip = clips.get(filePath);
+            }
+            if (clip == null) {
+                clip = decode(filePath);
+                put(filePath, clip);
+            }
+            future.complete(clip);
+            return clip;
+        } catch (IOException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            pending.remove(filePath, future);
+        }
+    }
+
+    private static DecodedClip decode(String filePath) throws IOException {
+        if (AudioPack.isPackPath(filePath)) {
+            AudioPack.Entry entry = AudioPack.entry(filePath);
+            byte[] pcm = new byte[Math.toIntExact(entry.length)];
+            entry.pcm().get(pcm);
+            return new DecodedClip(entry.format, pcm);
+        }
+        try (AudioInputStream pcm = openPcm(new File(filePath))) {
+            return new DecodedClip(pcm.getFormat(), pcm.readAllBytes());
+        }
+    }
+
+    // Opens an audio file as signed or unsigned PCM, converting other encodings to 16-bit signed
+    static AudioInputStream openPcm(File file) throws IOException {
+        try {
+            AudioInputStream source = AudioSystem.getAudioInputStream(file);
+            AudioFormat format = source.getFormat();
+            if (format.getEncoding() == AudioFormat.Encoding.PCM_SIGNED
+                    || format.getEncoding() == AudioFormat.Encoding.PCM_UNSIGNED) {
+                return source;
+            }
+            format = new AudioFormat(format.getSampleRate(), 16, format.getChannels(), true, false);
+            try {
+                return AudioSystem.getAudioInputStream(format, source);
+            } catch (IllegalArgumentException e) {
+                source.close();
+                throw e;
+            }
+        } catch (UnsupportedAudioFileException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    private synchronized void put(String filePath, DecodedClip clip) {
+        if (clip.pcm.length > maxBytes || clips.containsKey(filePath)) {
+            return; // Too large to cache, or already added
+        }
+        clips.put(filePath, clip);
+        cachedBytes += clip.pcm.length;
+        Iterator<DecodedClip> eldest = clips.values().iterator();
+        while (cachedBytes > maxBytes && eldest.hasNext()) {
+            cachedBytes -= eldest.next().pcm.length;
+            eldest.remove();
+            evictions.increment();
+        }
+    }
+
+    // Plays a file or pack clip on the calling thread; pack clips stream from the mapping
+    void play(String filePath, Playback playback) throws IOException, LineUnavailableException {
+        if (AudioPack.isPackPath(filePath)) {
+            AudioPack.Entry entry = AudioPack.entry(filePath);
+            play(entry.format, entry.pcm(), playback);
+        } else {
+            play(get(filePath), playback);
+        }
+    }
+
+    // Plays a clip on the calling thread until it finishes or the playback is stopped
+    void play(DecodedClip clip, Playback playback) throws LineUnavailableException {
+        play(clip.format, ByteBuffer.wrap(clip.pcm), playback);
+    }
+
+    private void play(AudioFormat format, ByteBuffer pcm, Playback playback) throws LineUnavailableException {
+        SourceDataLine line = acquireLine(format);
+        playback.line = line;
+        try {
+            if (playback.isStopped()) {
+                return;
+            }
+            line.start();
+            if (playback.startup != null) {
+                playback.startup.end();
+            }
+            // Heap clips are written from their array; mapped ones are copied through a small chunk
+            byte[] chunk = pcm.hasArray() ? pcm.array() : new byte[WRITE_CHUNK];
+            while (pcm.hasRemaining() && !playback.isStopped()) {
+                int length = Math.min(WRITE_CHUNK, pcm.remaining());
+                if (pcm.hasArray()) {
+                    line.write(chunk, pcm.arrayOffset() + pcm.position(), length);
+                    pcm.position(pcm.position() + length);
+                } else {
+                    pcm.get(chunk, 0, length);
+                    line.write(chunk, 0, length);
+                }
+            }
+            if (!playback.isStopped()) {
+                line.drain();
+            }
+        } finally {
+            playback.line = null;
+            line.stop();
+            line.flush();
+            releaseLine(line);
+        }
+    }
+
+    private SourceDataLine acquireLine(AudioFormat format) throws LineUnavailableException {
+        synchronized (idleLines) {
+            for (Iterator<SourceDataLine> it = idleLines.iterator(); it.hasNext();) {
+                SourceDataLine line = it.next();
+                it.remove();
+                if (line.getFormat().matches(format)) {
+                    return line;
+                }
+                closeLine(line); // Close before opening another so idle lines never pile up
+            }
+        }
+        SourceDataLine line = AudioSystem.getSourceDataLine(format);
+        line.open(format);
+        openLines.incrementAndGet();
+        return line;
+    }
+
+    private void releaseLine(SourceDataLine line) {
+        synchronized (idleLines) {
+            if (idleLines.size() < LINE_POOL_SIZE) {
+                idleLines.add(line);
+                return;
+            }
+        }
+        closeLine(line);
+    }
+
+    private void closeLine(SourceDataLine line) {
+        line.close();
+        openLines.decrementAndGet();
+    }
+
+    // Lines currently open, whether playing or idle in the pool
+    int getOpenLines() {
+        return openLines.get();
+    }
+
+    long getHits() {
+        return hits.sum();
+    }
+
+    long getMisses() {
+        return misses.sum();
+    }
+
+    long getEvictions() {
+        return evictions.sum();
+    }
+
+    synchronized long getCachedBytes() {
+        return cachedBytes;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("AudioClipCache[hits=%d, misses=%d, evictions=%d, bytes=%d/%d]", getHits(),
+                getMisses(), getEvictions(), getCachedBytes(), maxBytes);
+    }
+}
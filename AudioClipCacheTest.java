@@ -0,0 +1,143 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.sound.sampled.AudioFileFormat;
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+
+public class AudioClipCacheTest {
+    // 8-bit mono: one byte of PCM per frame
+    private static final AudioFormat FORMAT = new AudioFormat(8000, 8, 1, false, false);
+
+    private static String writeWav(File base, String name, int frames) throws IOException {
+        byte[] pcm = new byte[frames];
+        for (int i = 0; i < pcm.length; i++) {
+            pcm[i] = (byte) (i * 31 + name.length());
+        }
+        File file = new File(base, name);
+        AudioSystem.write(new AudioInputStream(new ByteArrayInputStream(pcm), FORMAT, frames),
+                AudioFileFormat.Type.WAVE, file);
+        file.deleteOnExit();
+        return file.getPath();
+    }
+
+    private static File tempBase() throws IOException {
+        File base = File.createTempFile("audio_cache", "");
+        base.delete();
+        base.mkdirs();
+        base.deleteOnExit();
+        return base;
+    }
+
+    // testBudgetAndEviction(): Decoded clips stay within the byte budget; the least recently used clip is
+    // evicted first, a clip larger than the budget is never cached, and hits and misses are counted.
+    @Test
+    void testBudgetAndEviction() throws IOException {
+        File base = tempBase();
+        String a = writeWav(base, "a.wav", 1000);
+        String b = writeWav(base, "b.wav", 1000);
+        String c = writeWav(base, "c.wav", 1000);
+        String d = writeWav(base, "d.wav", 1000);
+        String large = writeWav(base, "large.wav", 5000);
+        AudioClipCache cache = new AudioClipCache(3000);
+
+        AudioClipCache.DecodedClip first = cache.get(a);
+        assertEquals(1000, first.pcm.length);
+        assertEquals(36, first.pcm[1]); // As written: i * 31 + 5
+        cache.get(b);
+        cache.get(c);
+        assertEquals(3000, cache.getCachedBytes());
+        assertEquals(0, cache.getEvictions());
+        assertSame(first, cache.get(a)); // Now b is the least recently used
+        assertEquals(1, cache.getHits());
+        assertEquals(3, cache.getMisses());
+
+        cache.get(d);
+        assertEquals(3000, cache.getCachedBytes());
+        assertEquals(1, cache.getEvictions());
+        assertSame(first, cache.get(a));
+        cache.get(c);
+        assertEquals(3, cache.getHits());
+        cache.get(b); // Evicted: decoded again, and pushes out d
+        assertEquals(5, cache.getMisses());
+        assertEquals(2, cache.getEvictions());
+        cache.get(a);
+        cache.get(c);
+        assertEquals(5, cache.getHits());
+
+        AudioClipCache.DecodedClip big = cache.get(large);
+        assertEquals(5000, big.pcm.length);
+        assertNotSame(big, cache.get(large)); // Decoded on every request, never cached
+        assertEquals(7, cache.getMisses());
+        assertEquals(3000, cache.getCachedBytes());
+        assertEquals(2, cache.getEvictions());
+    }
+
+    // testConcurrentMissDecodesOnce(): Threads missing on the same clip at the same time share one decode
+    // and all get the same clip, which is then cached once.
+    @Test
+    void testConcurrentMissDecodesOnce() throws Exception {
+        File base = tempBase();
+        String path = writeWav(base, "shared.wav", 2_000_000);
+        AudioClipCache cache = new AudioClipCache(1 << 24);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            for (int round = 0; round < 5; round++) {
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<AudioClipCache.DecodedClip>> results = new ArrayList<>();
+                for (int i = 0; i < 8; i++) {
+                    results.add(pool.submit(() -> {
+                        start.await();
+                        return cache.get(path);
+                    }));
+                }
+                start.countDown();
+                AudioClipCache.DecodedClip clip = results.get(0).get();
+                for (Future<AudioClipCache.DecodedClip> result : results) {
+                    assertSame(clip, result.get());
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+        assertEquals(2_000_000, cache.getCachedBytes());
+        assertEquals(40, cache.getHits() + cache.getMisses());
+        assertEquals(0, cache.getEvictions());
+    }
+
+    // testPrefetch(): Prefetched clips are decoded in the background, so playing them afterwards is a hit
+    // on the same clip.
+    @Test
+    void testPrefetch() throws IOException, InterruptedException {
+        File base = tempBase();
+        String question = writeWav(base, "question.wav", 1000);
+        String explanation = writeWav(base, "explanation.wav", 500);
+        AudioClipCache cache = new AudioClipCache(1 << 20);
+        cache.prefetch(List.of(MCQ.of("Question?", new String[] { "A) a", "B) b", "C) c", "D) d" }, "A", "Reason",
+                question, explanation)), 0, 1);
+
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (cache.getCachedBytes() < 1500) {
+            assertTrue(System.nanoTime() < deadline, "Timed out waiting for the prefetch");
+            Thread.sleep(10);
+        }
+        cache.get(question);
+        cache.get(explanation);
+        assertEquals(2, cache.getHits());
+        assertEquals(0, cache.getMisses());
+    }
+}
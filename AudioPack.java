@@ -0,0 +1,291 @@
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+
+// Every clip of an audio directory as decoded PCM in one file, so a bank with thousands of narrated
+// questions is one open file instead of thousands of small ones. A clip is memory-mapped when it is
+// played and streamed from the mapping to the line, never copied whole onto the heap.
+//
+// Layout (big-endian):
+//   header  magic, version, entryCount, reserved int, index offset (long), reserved long
+//   data    PCM of each clip, each starting on a 4 KB boundary
+//   index   per clip: name (modified UTF-8, relative to the packed directory with '/' separators),
+//           data offset, length, sample rate, sample bits, channels, signed, big-endian
+//
+// A clip inside a pack is addressed as "<pack path>!/<name>", e.g.
+// ".../audio/complete.pack!/question1/question 1.wav".
+class AudioPack {
+    static final String EXTENSION = ".pack";
+    private static final String SEPARATOR = "!/";
+    private static final int MAGIC = 0x4D435141; // "MCQA"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 32;
+    private static final int ALIGNMENT = 4096;
+
+    // The pack last opened at each path. A lookup checks the file against it at most once a second, so a
+    // pack built or rebuilt while the quiz is running is opened within a second and a deleted one is
+    // dropped. Loading a bank looks up every question's audio; checking on each of those would cost a
+    // stat per clip, and a thrown NoSuchFileException per clip when there is no pack.
+    static final long RECHECK_NANOS = 1_000_000_000L;
+    private static final Map<String, Opened> PACKS = new ConcurrentHashMap<>();
+
+    // A pack as opened, with the file's identity at the time: pack() moves a new file into place, so a
+    // rebuilt pack has a new file key (the inode) even when its size and time are unchanged
+    private static final class Opened {
+        final Object fileKey;
+        final long modified; // -1 when there was no pack
+        final long size;
+        final AudioPack pack; // Null when there was no pack or it could not be read
+        volatile long checked = System.nanoTime(); // When the file was last found unchanged
+
+        Opened(BasicFileAttributes attributes, AudioPack pack) {
+            fileKey = attributes == null ? null : attributes.fileKey();
+            modified = attributes == null ? -1 : attributes.lastModifiedTime().toMillis();
+            size = attributes == null ? -1 : attributes.size();
+            this.pack = pack;
+        }
+
+        boolean matches(BasicFileAttributes attributes) {
+            if (attributes == null) {
+                return modified < 0;
+            }
+            return modified == attributes.lastModifiedTime().toMillis() && size == attributes.size()
+                    && Objects.equals(fileKey, attributes.fileKey());
+        }
+    }
+
+    static final class Entry {
+        final String name;
+        final long offset;
+        final long length;
+        final AudioFormat format;
+        private final FileChannel channel;
+
+        private Entry(String name, long offset, long length, AudioFormat format, FileChannel channel) {
+            this.name = name;
+            this.offset = offset;
+            this.length = length;
+            this.format = format;
+            this.channel = channel;
+        }
+
+        // Maps the clip's PCM; pages are read from the file as the line consumes them
+        MappedByteBuffer pcm() throws IOException {
+            return channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+        }
+    }
+
+    private final File file;
+    private final FileChannel channel;
+    private final Map<String, Entry> entries;
+
+    private AudioPack(File file, FileChannel channel, Map<String, Entry> entries) {
+        this.file = file;
+        this.channel = channel;
+        this.entries = entries;
+    }
+
+    static AudioPack open(File file) throws IOException {
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            while (header.hasRemaining() && channel.read(header, header.position()) > 0) {
+            }
+            if (header.position() < HEADER_SIZE || header.getInt(0) != MAGIC) {
+                throw new IOException("Not an audio pack: " + file.getName());
+            }
+            if (header.getInt(4) != VERSION) {
+                throw new IOException("Unsupported audio pack version " + header.getInt(4) + " in " + file.getName());
+            }
+            int count = header.getInt(8);
+            long indexOffset = header.getLong(16);
+            if (indexOffset < HEADER_SIZE || channel.size() - indexOffset > Integer.MAX_VALUE) {
+                throw new IOException("Corrupt audio pack: " + file.getName());
+            }
+            byte[] index = new byte[(int) (channel.size() - indexOffset)];
+            channel.map(FileChannel.MapMode.READ_ONLY, indexOffset, index.length).get(index);
+
+            Map<String, Entry> entries = new HashMap<>(count * 2);
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(index));
+            for (int i = 0; i < count; i++) {
+                String name = in.readUTF();
+                long offset = in.readLong();
+                long length = in.readLong();
+                float sampleRate = in.readFloat();
+                int bits = in.readInt();
+                int channels = in.readInt();
+                boolean signed = in.readBoolean();
+                boolean bigEndian = in.readBoolean();
+                if (offset < HEADER_SIZE || length < 0 || offset + length > indexOffset) {
+                    throw new IOException("Corrupt audio pack entry " + name + " in " + file.getName());
+                }
+                entries.put(name, new Entry(name, offset, length,
+                        new AudioFormat(sampleRate, bits, channels, signed, bigEndian), channel));
+            }
+            return new AudioPack(file, channel, entries);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    // The pack built from the given audio directory (the directory's path plus ".pack"), or null when
+    // there is none or it cannot be read, in which case callers use the directory's own files
+    static AudioPack forDirectory(File directory) {
+        return lookup(new File(directory.getAbsolutePath() + EXTENSION));
+    }
+
+    // A replaced pack is not closed: clips already handed out keep mapping from its channel until they
+    // are done with it
+    private static AudioPack lookup(File packFile) {
+        Opened opened = PACKS.get(packFile.getAbsolutePath());
+        long now = System.nanoTime();
+        if (opened != null && now - opened.checked < RECHECK_NANOS) {
+            return opened.pack;
+        }
+        BasicFileAttributes attributes = attributes(packFile);
+        if (opened != null && opened.matches(attributes)) {
+            opened.checked = now;
+            return opened.pack;
+        }
+        return PACKS.compute(packFile.getAbsolutePath(), (path, current) -> {
+            if (current != null && current.matches(attributes)) {
+                return current; // Opened by another thread in the meantime
+            }
+            if (attributes == null) {
+                return new Opened(null, null);
+            }
+            try {
+                return new Opened(attributes, open(packFile));
+            } catch (IOException e) {
+                System.err.println("Error opening audio pack " + packFile + ": " + e.getMessage());
+                return new Opened(attributes, null); // Not reported again until the file changes
+            }
+        }).pack;
+    }
+
+    // The pack file's attributes, or null when there is no such file
+    private static BasicFileAttributes attributes(File packFile) {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(packFile.toPath(), BasicFileAttributes.class);
+            return attributes.isRegularFile() ? attributes : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    static boolean isPackPath(String path) {
+        return path.contains(EXTENSION + SEPARATOR);
+    }
+
+    // Resolves a "<pack>!/<name>" path to its clip
+    static Entry entry(String path) throws IOException {
+        int split = path.indexOf(EXTENSION + SEPARATOR) + EXTENSION.length();
+        AudioPack pack = lookup(new File(path.substring(0, split)));
+        Entry entry = pack == null ? null : pack.entries.get(path.substring(split + SEPARATOR.length()));
+        if (entry == null) {
+            throw new FileNotFoundException(path);
+        }
+        return entry;
+    }
+
+    boolean contains(String name) {
+        return entries.containsKey(name);
+    }
+
+    String path(String name) {
+        return file.getAbsolutePath() + SEPARATOR + name;
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    // Decodes every .wav under the directory into a new pack. The pack is written next to the output
+    // and moved into place, so a quiz that has the old one mapped keeps playing from it.
+    static int pack(File directory, File output) throws IOException {
+        Path root = directory.toPath();
+        List<Path> clips;
+        try (Stream<Path> walk = Files.walk(root)) {
+            clips = walk.filter(p -> p.toString().endsWith(".wav") && Files.isRegularFile(p)).sorted()
+                    .collect(Collectors.toList());
+        }
+
+        File temp = new File(output.getAbsolutePath() + ".tmp");
+        List<Entry> entries = new ArrayList<>(clips.size());
+        long position = HEADER_SIZE;
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+            out.write(new byte[HEADER_SIZE]); // Filled in once the index offset is known
+            for (Path clip : clips) {
+                int padding = (int) (-position & (ALIGNMENT - 1));
+                out.write(new byte[padding]);
+                position += padding;
+                try (AudioInputStream pcm = AudioClipCache.openPcm(clip.toFile())) {
+                    long length = pcm.transferTo(out);
+                    String name = root.relativize(clip).toString().replace(File.separatorChar, '/');
+                    entries.add(new Entry(name, position, length, pcm.getFormat(), null));
+                    position += length;
+                }
+            }
+            for (Entry entry : entries) {
+                out.writeUTF(entry.name);
+                out.writeLong(entry.offset);
+                out.writeLong(entry.length);
+                out.writeFloat(entry.format.getSampleRate());
+                out.writeInt(entry.format.getSampleSizeInBits());
+                out.writeInt(entry.format.getChannels());
+                out.writeBoolean(entry.format.getEncoding() == AudioFormat.Encoding.PCM_SIGNED);
+                out.writeBoolean(entry.format.isBigEndian());
+            }
+        }
+        try (RandomAccessFile header = new RandomAccessFile(temp, "rw")) {
+            header.writeInt(MAGIC);
+            header.writeInt(VERSION);
+            header.writeInt(entries.size());
+            header.writeInt(0);
+            header.writeLong(position);
+        }
+        Files.move(temp.toPath(), output.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        return entries.size();
+    }
+
+    // Usage: java AudioPack audio/complete [audio/complete.pack]
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: java AudioPack <audio directory> [<output" + EXTENSION + ">]");
+            System.exit(1);
+        }
+        File directory = new File(args[0]).getAbsoluteFile();
+        File output = args.length > 1 ? new File(args[1]) : new File(directory.getPath() + EXTENSION);
+        long start = System.nanoTime();
+        int count = pack(directory, output);
+        System.out.printf("Packed %d clips (%d bytes) into %s in %.1f ms%n", count, output.length(), output,
+                (System.nanoTime() - start) / 1e6);
+    }
+}
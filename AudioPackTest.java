@@ -0,0 +1,128 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import javax.sound.sampled.AudioFileFormat;
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+
+public class AudioPackTest {
+    private static File tempBase() throws IOException {
+        File base = File.createTempFile("audio_pack", "");
+        base.delete();
+        base.mkdirs();
+        return base;
+    }
+
+    private static byte[] writeWav(File base, String name, AudioFormat format, int frames) throws IOException {
+        byte[] pcm = new byte[frames * format.getFrameSize()];
+        for (int i = 0; i < pcm.length; i++) {
+            pcm[i] = (byte) (i * 31 + name.length());
+        }
+        File file = new File(base, QuestionBankLoader.AUDIO_DIRECTORY + "/" + name);
+        file.getParentFile().mkdirs();
+        AudioSystem.write(new AudioInputStream(new ByteArrayInputStream(pcm), format, frames),
+                AudioFileFormat.Type.WAVE, file);
+        return pcm;
+    }
+
+    // testPackRoundTrip(): Every clip comes back from the pack with its format and exact PCM, whether
+    // streamed from the mapping or decoded through the clip cache.
+    @Test
+    void testPackRoundTrip() throws IOException {
+        File base = tempBase();
+        AudioFormat mono = new AudioFormat(22050, 16, 1, true, false);
+        AudioFormat stereo = new AudioFormat(8000, 8, 2, false, false);
+        byte[] question = writeWav(base, "question1/question 1.wav", mono, 30_001);
+        byte[] explanation = writeWav(base, "question1/question 1(explanation).wav", stereo, 777);
+
+        File directory = new File(base, QuestionBankLoader.AUDIO_DIRECTORY);
+        File packFile = new File(directory.getPath() + AudioPack.EXTENSION);
+        assertEquals(2, AudioPack.pack(directory, packFile));
+        AudioPack pack = AudioPack.open(packFile);
+        assertEquals(2, pack.size());
+
+        AudioPack.Entry entry = AudioPack.entry(pack.path("question1/question 1.wav"));
+        assertTrue(entry.format.matches(mono));
+        assertEquals(0, entry.offset % 4096);
+        ByteBuffer mapped = entry.pcm();
+        byte[] streamed = new byte[mapped.remaining()];
+        mapped.get(streamed);
+        assertArrayEquals(question, streamed);
+
+        String explanationPath = pack.path("question1/question 1(explanation).wav");
+        AudioClipCache.DecodedClip clip = new AudioClipCache(1 << 20).get(explanationPath);
+        assertTrue(clip.format.matches(stereo));
+        assertArrayEquals(explanation, clip.pcm);
+    }
+
+    // testPathResolution(): Audio paths point into the pack once the directory is packed, and fall
+    // back to the .wav files for clips the pack does not hold or when there is no pack.
+    @Test
+    void testPathResolution() throws IOException {
+        File unpacked = tempBase();
+        assertEquals(new File(unpacked, "audio/complete/question1/question 1.wav").getAbsolutePath(),
+                QuestionBankLoader.questionAudioPath(unpacked, 1));
+
+        File base = tempBase();
+        AudioFormat format = new AudioFormat(16000, 16, 1, true, false);
+        writeWav(base, "question1/question 1.wav", format, 100);
+        writeWav(base, "question1/question 1(explanation).wav", format, 100);
+        File directory = new File(base, QuestionBankLoader.AUDIO_DIRECTORY);
+        AudioPack.pack(directory, new File(directory.getPath() + AudioPack.EXTENSION));
+
+        String packed = QuestionBankLoader.explanationAudioPath(base, 1);
+        assertTrue(AudioPack.isPackPath(packed), packed);
+        assertEquals(new File(directory.getPath() + AudioPack.EXTENSION).getAbsolutePath()
+                + "!/question1/question 1(explanation).wav", packed);
+        String missing = QuestionBankLoader.questionAudioPath(base, 2);
+        assertFalse(AudioPack.isPackPath(missing));
+        assertEquals(new File(directory, "question2/question 2.wav").getAbsolutePath(), missing);
+    }
+
+    // testRebuiltPack(): A pack rebuilt while the quiz is running is used once the next check comes round,
+    // and a deleted pack falls back to the .wav files.
+    @Test
+    void testRebuiltPack() throws IOException, InterruptedException {
+        File base = tempBase();
+        AudioFormat format = new AudioFormat(16000, 16, 1, true, false);
+        writeWav(base, "question1/question 1.wav", format, 100);
+        File directory = new File(base, QuestionBankLoader.AUDIO_DIRECTORY);
+        File packFile = new File(directory.getPath() + AudioPack.EXTENSION);
+        AudioPack.pack(directory, packFile);
+        AudioPack first = AudioPack.forDirectory(directory);
+        AudioPack.Entry before = AudioPack.entry(first.path("question1/question 1.wav"));
+        assertSame(first, AudioPack.forDirectory(directory));
+        assertFalse(AudioPack.isPackPath(QuestionBankLoader.questionAudioPath(base, 2)));
+
+        byte[] pcm = writeWav(base, "question2/question 2.wav", format, 200);
+        AudioPack.pack(directory, packFile);
+        assertSame(first, AudioPack.forDirectory(directory)); // Checked less than a second ago
+        Thread.sleep(AudioPack.RECHECK_NANOS / 1_000_000 + 100);
+        AudioPack second = AudioPack.forDirectory(directory);
+        assertNotSame(first, second);
+        assertEquals(2, second.size());
+        assertTrue(AudioPack.isPackPath(QuestionBankLoader.questionAudioPath(base, 2)));
+        ByteBuffer read = AudioPack.entry(second.path("question2/question 2.wav")).pcm();
+        byte[] actual = new byte[read.remaining()];
+        read.get(actual);
+        assertArrayEquals(pcm, actual);
+        assertEquals(200, before.pcm().remaining()); // Handed out before the rebuild, still readable
+
+        assertTrue(packFile.delete());
+        Thread.sleep(AudioPack.RECHECK_NANOS / 1_000_000 + 100);
+        assertNull(AudioPack.forDirectory(directory));
+        assertFalse(AudioPack.isPackPath(QuestionBankLoader.questionAudioPath(base, 1)));
+    }
+}
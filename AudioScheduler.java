@@ -0,0 +1,89 @@
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.sound.sampled.LineUnavailableException;
+
+// Single-lane audio playback. All clips play on one daemon thread, one at a time; a newer
+// request stops the clip that is playing and supersedes any request still waiting, so rapid
+// navigation never creates more than one thread or holds more than one line.
+class AudioScheduler {
+    // Plays one clip on the lane thread until it ends or the playback is stopped
+    interface ClipPlayer {
+        void play(String filePath, AudioClipCache.Playback playback)
+                throws IOException, LineUnavailableException;
+    }
+
+    private final ClipPlayer player;
+    private final ThreadPoolExecutor lane;
+    private final AtomicLong generation = new AtomicLong();
+    private volatile AudioClipCache.Playback current;
+    // AUDIO_START span of the request waiting for the lane; dropped when a newer request replaces it
+    private final AtomicReference<QuizMetrics.Span> waiting = new AtomicReference<>();
+
+    AudioScheduler(AudioClipCache cache) {
+        this(cache::play);
+    }
+
+    AudioScheduler(ClipPlayer player) {
+        this.player = player;
+        // Only the newest waiting request matters, so the queue holds one and drops older ones
+        lane = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(1), r -> {
+            Thread thread = new Thread(r, "audio-lane");
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.DiscardOldestPolicy());
+    }
+
+    void play(String filePath) {
+        long request = generation.incrementAndGet();
+        QuizMetrics.Span startup = QuizMetrics.begin(QuizMetrics.Phase.AUDIO_START).detail(filePath);
+        QuizMetrics.Span replaced = waiting.getAndSet(startup);
+        if (replaced != null) {
+            replaced.cancel(); // Its task may have been dropped from the queue without running
+        }
+        stopCurrent();
+        lane.execute(() -> {
+            waiting.compareAndSet(startup, null);
+            try {
+                if (generation.get() != request) {
+                    return; // Superseded while waiting
+                }
+                AudioClipCache.Playback playback = new AudioClipCache.Playback(startup);
+                current = playback;
+                // A stop() racing with the assignment above either sees this playback or bumps the generation
+                if (generation.get() != request) {
+                    return;
+                }
+                try {
+                    player.play(filePath, playback);
+                } catch (IOException | LineUnavailableException | IllegalArgumentException e) {
+                    System.err.println("Error playing audio: " + e.getMessage());
+                } finally {
+                    current = null;
+                }
+            } finally {
+                startup.cancel(); // Ended when the line started; otherwise the clip never started
+            }
+        });
+    }
+
+    void stop() {
+        generation.incrementAndGet();
+        QuizMetrics.Span replaced = waiting.getAndSet(null);
+        if (replaced != null) {
+            replaced.cancel();
+        }
+        stopCurrent();
+    }
+
+    private void stopCurrent() {
+        AudioClipCache.Playback playback = current;
+        if (playback != null) {
+            playback.stop();
+        }
+    }
+}
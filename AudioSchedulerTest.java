@@ -0,0 +1,55 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class AudioSchedulerTest {
+    // testRapidPlayStop(): Fires thousands of play/stop calls from several threads, as when a user clicks
+    // through questions quickly. At most one clip may play at any time and no extra threads may pile up.
+    @Test
+    void testRapidPlayStop() throws InterruptedException {
+        AtomicInteger playing = new AtomicInteger();
+        AtomicInteger maxPlaying = new AtomicInteger();
+        AtomicInteger started = new AtomicInteger();
+        AudioScheduler scheduler = new AudioScheduler((filePath, playback) -> {
+            int now = playing.incrementAndGet();
+            maxPlaying.accumulateAndGet(now, Math::max);
+            started.incrementAndGet();
+            try {
+                // Simulated clip: runs until stopped or 2 ms pass
+                long end = System.nanoTime() + 2_000_000;
+                while (!playback.isStopped() && System.nanoTime() < end) {
+                    Thread.onSpinWait();
+                }
+            } finally {
+                playing.decrementAndGet();
+            }
+        });
+
+        int threadsBefore = Thread.activeCount();
+        Thread[] clickers = new Thread[4];
+        for (int t = 0; t < clickers.length; t++) {
+            int id = t;
+            clickers[t] = new Thread(() -> {
+                for (int i = 0; i < 2500; i++) {
+                    scheduler.play("question" + id + "_" + i + ".wav");
+                    if (i % 3 == 0) {
+                        scheduler.stop();
+                    }
+                }
+            });
+            clickers[t].start();
+        }
+        for (Thread clicker : clickers) {
+            clicker.join();
+        }
+        scheduler.play("last.wav");
+        Thread.sleep(100);
+
+        assertEquals(1, maxPlaying.get(), "Only one clip may play at a time");
+        assertTrue(started.get() < 10_000, "Superseded requests should be dropped, not played");
+        assertTrue(Thread.activeCount() <= threadsBefore + 1, "Playback must reuse the single audio thread");
+        assertEquals(0, playing.get());
+    }
+}
@@ -0,0 +1,364 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Headless grading of paper and offline exams. Reads an answer sheet with one candidate per line,
+//
+//   candidate,answer1,answer2,...
+//
+// where each answer is a letter (any case), a choice as printed ("B) Natural causes"), the choice
+// text without its letter, or empty / "-" when the question was skipped. Cells may be quoted as in any
+// CSV file ("B) 4, or more"), with doubled quotes inside them. Answers are graded with the same rule as
+// the quiz (QuizSession.isCorrect against MCQ.getAnswer()); an answer that matches no choice is wrong,
+// and is counted apart from the skips so that typos in a sheet show up. Blank lines and lines starting
+// with '#' are ignored.
+//
+// Lines are graded in batches on a pool of worker threads while the reader keeps going; scores are
+// written in input order as each batch finishes, so memory stays bounded however long the sheet
+// is. Per-question counts are merged from the batches and written once the sheet is done.
+class BatchGrader {
+    private static final int BATCH_LINES = 2048;
+    private static final int UNRECOGNIZED = 5; // Column code for an answer that matches no choice
+
+    private final List<MCQ> questions;
+    private final List<Map<String, String>> letterByText; // Choice text -> letter, per question
+    private final int threads;
+
+    // Per-question counts over a set of candidates; batches fill their own and are merged in order
+    static final class Tally {
+        final int questionCount;
+        long candidates;
+        long malformed; // Rows with more answers than questions; the extra answers are ignored
+        final long[] correct;
+        final long[] chosen; // A, B, C, D, skipped per question
+        final long[] unrecognized; // Answers matching no choice, per question
+        double scoreSum;
+        double scoreSquares;
+        final double[] scoreCorrectSum;
+
+        Tally(int questionCount) {
+            this.questionCount = questionCount;
+            correct = new long[questionCount];
+            chosen = new long[questionCount * 5];
+            unrecognized = new long[questionCount];
+            scoreCorrectSum = new double[questionCount];
+        }
+
+        void add(Tally other) {
+            candidates += other.candidates;
+            malformed += other.malformed;
+            scoreSum += other.scoreSum;
+            scoreSquares += other.scoreSquares;
+            for (int i = 0; i < questionCount; i++) {
+                correct[i] += other.correct[i];
+                unrecognized[i] += other.unrecognized[i];
+                scoreCorrectSum[i] += other.scoreCorrectSum[i];
+            }
+            for (int i = 0; i < chosen.length; i++) {
+                chosen[i] += other.chosen[i];
+            }
+        }
+
+        long unrecognized() {
+            long total = 0;
+            for (long count : unrecognized) {
+                total += count;
+            }
+            return total;
+        }
+
+        double difficulty(int question) {
+            return candidates == 0 ? Double.NaN : (double) correct[question] / candidates;
+        }
+
+        double discrimination(int question) {
+            return ItemAnalysis.pointBiserial((int) candidates, (int) correct[question], scoreSum, scoreSquares,
+                    scoreCorrectSum[question]);
+        }
+    }
+
+    // A graded batch: its score lines, ready to write, and its counts
+    private static final class Batch {
+        final StringBuilder scores = new StringBuilder();
+        final Tally tally;
+
+        Batch(int questionCount) {
+            tally = new Tally(questionCount);
+        }
+    }
+
+    BatchGrader(List<MCQ> questions, int threads) {
+        this.questions = questions;
+        this.threads = Math.max(1, threads);
+        letterByText = new ArrayList<>(questions.size());
+        for (MCQ question : questions) {
+            Map<String, String> letters = new HashMap<>();
+            for (String letter : new String[] { "A", "B", "C", "D" }) {
+                String text = QuizSession.answerText(letter, question.getChoices());
+                letters.putIfAbsent(text.trim().toLowerCase(), letter);
+            }
+            letterByText.add(letters);
+        }
+    }
+
+    // Grades every row of the sheet, writing "candidate,correct,answered,total,percentage" lines
+    Tally grade(Reader sheet, Writer scores) throws IOException {
+        Tally total = new Tally(questions.size());
+        AtomicInteger workerIds = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "grader-" + workerIds.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        ArrayDeque<CompletableFuture<Batch>> inFlight = new ArrayDeque<>();
+        try (BufferedReader reader = new BufferedReader(sheet, 1 << 16)) {
+            scores.write("candidate,correct,answered,total,percentage\n");
+            List<String> lines = new ArrayList<>(BATCH_LINES);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(line);
+                if (lines.size() == BATCH_LINES) {
+                    List<String> batch = lines;
+                    inFlight.add(CompletableFuture.supplyAsync(() -> gradeBatch(batch), pool));
+                    lines = new ArrayList<>(BATCH_LINES);
+                    // Keep a few batches per worker queued; beyond that the reader waits for the writer
+                    while (inFlight.size() > threads * 2) {
+                        write(inFlight.poll().join(), scores, total);
+                    }
+                }
+            }
+            if (!lines.isEmpty()) {
+                List<String> batch = lines;
+                inFlight.add(CompletableFuture.supplyAsync(() -> gradeBatch(batch), pool));
+            }
+            while (!inFlight.isEmpty()) {
+                write(inFlight.poll().join(), scores, total);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        scores.flush();
+        return total;
+    }
+
+    private static void write(Batch batch, Writer scores, Tally total) throws IOException {
+        scores.append(batch.scores);
+        total.add(batch.tally);
+    }
+
+    private Batch gradeBatch(List<String> lines) {
+        Batch batch = new Batch(questions.size());
+        Tally tally = batch.tally;
+        int[] columns = new int[questions.size()];
+        for (String line : lines) {
+            if (line.isBlank() || line.startsWith("#")) {
+                continue;
+            }
+            int comma = cellEnd(line, 0);
+            String candidate = cell(line, 0, comma < 0 ? line.length() : comma);
+            int right = 0;
+            int answered = 0;
+            int question = 0;
+            int start = comma + 1;
+            while (comma >= 0) {
+                int end = cellEnd(line, start);
+                if (question == questions.size()) {
+                    if (!emptyCells(line, start)) { // Trailing commas after the last answer end the row
+                        tally.malformed++;
+                    }
+                    break;
+                }
+                String answer = cell(line, start, end < 0 ? line.length() : end);
+                String letter = letter(question, answer);
+                boolean correct = QuizSession.isCorrect(questions.get(question), letter);
+                if (letter != null) {
+                    columns[question] = letter.charAt(0) - 'A';
+                    answered++;
+                } else if (answer.isEmpty() || answer.equals("-")) {
+                    columns[question] = ItemAnalysis.SKIPPED;
+                } else {
+                    columns[question] = UNRECOGNIZED; // Answered, but wrong whatever was meant
+                    answered++;
+                }
+                if (correct) {
+                    right++;
+                    columns[question] |= 8; // Marks the answer as right for the tally below
+                }
+                question++;
+                if (end < 0) {
+                    break;
+                }
+                start = end + 1;
+            }
+            for (; question < questions.size(); question++) {
+                columns[question] = ItemAnalysis.SKIPPED; // Missing answers at the end of the row
+            }
+
+            double score = questions.isEmpty() ? 0 : (double) right / questions.size() * 100;
+            tally.candidates++;
+            tally.scoreSum += score;
+            tally.scoreSquares += score * score;
+            for (int i = 0; i < columns.length; i++) {
+                if ((columns[i] & 7) == UNRECOGNIZED) {
+                    tally.unrecognized[i]++;
+                } else {
+                    tally.chosen[i * 5 + (columns[i] & 7)]++;
+                }
+                if ((columns[i] & 8) != 0) {
+                    tally.correct[i]++;
+                    tally.scoreCorrectSum[i] += score;
+                }
+            }
+            batch.scores.append(quote(candidate)).append(',').append(right).append(',').append(answered).append(',')
+                    .append(questions.size()).append(',');
+            long hundredths = Math.round(score * 100);
+            batch.scores.append(hundredths / 100).append('.').append(hundredths / 10 % 10).append(hundredths % 10)
+                    .append('\n');
+        }
+        return batch;
+    }
+
+    // Index of the comma ending the cell that starts at start, or -1 for the last cell of the line. Commas
+    // inside a quoted cell do not end it; an unclosed quote runs to the end of the line.
+    private static int cellEnd(String line, int start) {
+        int i = start;
+        while (i < line.length() && line.charAt(i) == ' ') {
+            i++;
+        }
+        if (i < line.length() && line.charAt(i) == '"') {
+            for (i++; i < line.length(); i++) {
+                if (line.charAt(i) == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        i++; // A doubled quote inside the cell
+                    } else {
+                        break;
+                    }
+                }
+            }
+        }
+        return line.indexOf(',', i);
+    }
+
+    // The text of a cell, trimmed, without its quotes and with doubled quotes made single
+    // Whether every cell from start to the end of the line is empty
+    private static boolean emptyCells(String line, int start) {
+        while (true) {
+            int end = cellEnd(line, start);
+            if (!cell(line, start, end < 0 ? line.length() : end).isEmpty()) {
+                return false;
+            }
+            if (end < 0) {
+                return true;
+            }
+            start = end + 1;
+        }
+    }
+
+    private static String cell(String line, int start, int end) {
+        String cell = line.substring(start, end).trim();
+        if (cell.length() >= 2 && cell.charAt(0) == '"' && cell.charAt(cell.length() - 1) == '"') {
+            return cell.substring(1, cell.length() - 1).replace("\"\"", "\"").trim();
+        }
+        return cell;
+    }
+
+    // A value as a CSV cell, quoted when it holds a comma or a quote
+    private static String quote(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    // The letter an answer cell stands for, or null when it is empty, "-" or matches no choice
+    String letter(int question, String cell) {
+        String answer = cell.trim();
+        if (answer.isEmpty() || answer.equals("-")) {
+            return null;
+        }
+        if (answer.length() == 1 || answer.length() >= 2 && answer.charAt(1) == ')') {
+            char c = Character.toUpperCase(answer.charAt(0));
+            if (c >= 'A' && c <= 'D') {
+                return String.valueOf(c);
+            }
+        }
+        return letterByText.get(question).get(answer.toLowerCase());
+    }
+
+    // "question,answered,correct,difficulty,discrimination,A,B,C,D,skipped,unrecognized,text" per question;
+    // answered counts the unrecognized answers too
+    void writeItems(Tally tally, Writer out) throws IOException {
+        out.write("question,answered,correct,difficulty,discrimination,A,B,C,D,skipped,unrecognized,text\n");
+        for (int i = 0; i < questions.size(); i++) {
+            long skipped = tally.chosen[i * 5 + ItemAnalysis.SKIPPED];
+            out.write(String.format(Locale.ROOT, "%d,%d,%d,%.3f,%.3f,%d,%d,%d,%d,%d,%d,\"%s\"\n", i + 1,
+                    tally.candidates - skipped, tally.correct[i], tally.difficulty(i), tally.discrimination(i),
+                    tally.chosen[i * 5], tally.chosen[i * 5 + 1], tally.chosen[i * 5 + 2], tally.chosen[i * 5 + 3],
+                    skipped, tally.unrecognized[i], questions.get(i).getQuestion().replace("\"", "\"\"")));
+        }
+        out.flush();
+    }
+
+    // Usage: java BatchGrader [--threads n] [--items items.csv] bank.txt answers.csv scores.csv
+    public static void main(String[] args) throws IOException {
+        int threads = Runtime.getRuntime().availableProcessors();
+        File items = null;
+        List<String> files = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--threads" -> threads = Integer.parseInt(args[++i]);
+                case "--items" -> items = new File(args[++i]);
+                default -> files.add(args[i]);
+            }
+        }
+        if (files.size() != 3) {
+            System.err.println("Usage: java BatchGrader [--threads n] [--items items.csv] <bank.txt> <answers.csv> "
+                    + "<scores.csv>");
+            System.exit(1);
+        }
+        File bank = new File(files.get(0)).getAbsoluteFile();
+        List<MCQ> questions = QuestionBankLoader.loadAll(List.of(bank), bank.getParentFile(), (file, e) -> {
+            System.err.println("Error reading " + file + ": " + e.getMessage());
+            System.exit(1);
+        });
+
+        BatchGrader grader = new BatchGrader(questions, threads);
+        long start = System.nanoTime();
+        Tally tally;
+        try (Reader sheet = new FileReader(files.get(1));
+                Writer scores = new BufferedWriter(new FileWriter(files.get(2)), 1 << 16)) {
+            tally = grader.grade(sheet, scores);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        if (items != null) {
+            try (Writer out = new BufferedWriter(new FileWriter(items))) {
+                grader.writeItems(tally, out);
+            }
+        }
+        System.out.printf("Graded %d candidates on %d questions in %.2f s (%.0f rows/s, %d threads)%n",
+                tally.candidates, questions.size(), seconds, tally.candidates / seconds, threads);
+        if (tally.malformed > 0) {
+            System.err.println(tally.malformed + " rows had more answers than questions; the extra answers were "
+                    + "ignored");
+        }
+        if (tally.unrecognized() > 0) {
+            System.err.println(tally.unrecognized() + " answers matched no choice and were marked wrong"
+                    + (items == null ? "" : "; see the unrecognized column of " + items));
+        }
+    }
+}
@@ -0,0 +1,127 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class BatchGraderTest {
+    private static final List<MCQ> BANK = List.of(
+            MCQ.of("What is the primary focus of science?", new String[] { "A) Supernatural causes",
+                    "B) Natural causes", "C) Untestable ideas", "D) Subjective experiences" }, "B", "Reason", "", ""),
+            MCQ.of("What is 2+2?", new String[] { "A) 3", "B) 4", "C) 5", "D) 22" }, "B", "Arithmetic", "", ""),
+            MCQ.of("Which is a theory?", new String[] { "A) A guess", "B) A hunch", "C) A tested explanation",
+                    "D) An opinion" }, "C", "Reason", "", ""));
+
+    // testGradingRules(): Letters in any case, printed choices and bare choice text all grade like the
+    // quiz does; skipped and missing answers count as unanswered, extra answers are ignored and counted as
+    // malformed, and empty cells after the last answer are not.
+    @Test
+    void testGradingRules() throws IOException {
+        String sheet = "# candidate,q1,q2,q3\n"
+                + "alice,B,b,C\n"
+                + "bob,B) Natural causes,4, a tested explanation \n"
+                + "\n"
+                + "carol,A,-,\n"
+                + "dave,D\n"
+                + "erin,B,B,C,D\n"
+                + "frank,B,B,C,\n"
+                + "gina,B,B,C, ,\n";
+        StringWriter scores = new StringWriter();
+        BatchGrader grader = new BatchGrader(BANK, 2);
+        BatchGrader.Tally tally = grader.grade(new StringReader(sheet), scores);
+
+        assertEquals("candidate,correct,answered,total,percentage\n"
+                + "alice,3,3,3,100.00\n"
+                + "bob,3,3,3,100.00\n"
+                + "carol,0,1,3,0.00\n"
+                + "dave,0,1,3,0.00\n"
+                + "erin,3,3,3,100.00\n"
+                + "frank,3,3,3,100.00\n"
+                + "gina,3,3,3,100.00\n", scores.toString());
+        assertEquals(7, tally.candidates);
+        assertEquals(1, tally.malformed);
+        assertEquals(5, tally.correct[0]);
+        assertEquals(1, tally.chosen[0 * 5 + 0]); // carol picked A
+        assertEquals(2, tally.chosen[1 * 5 + ItemAnalysis.SKIPPED]); // carol and dave skipped question 2
+        assertEquals(5.0 / 7, tally.difficulty(2), 1e-9);
+    }
+
+    // testQuotedCells(): Quoted cells may hold commas and doubled quotes, in the candidate column too;
+    // answers that match no choice count as answered and wrong, apart from the skips.
+    @Test
+    void testQuotedCells() throws IOException {
+        List<MCQ> bank = List.of(
+                MCQ.of("Which list is sorted?", new String[] { "A) 3, 1, 2", "B) 1, 2, 3", "C) 2, 3, 1",
+                        "D) None" }, "B", "Reason", "", ""),
+                MCQ.of("What did he say?", new String[] { "A) \"Yes\"", "B) \"No\"", "C) Nothing", "D) Both" },
+                        "A", "Reason", "", ""));
+        String sheet = "\"Smith, Alice\",\"1, 2, 3\",\"\"\"Yes\"\"\"\n"
+                + "bob, \"B) 1, 2, 3\" ,Yes\n"
+                + "carol,E,\"\"\n"
+                + "dave,\"1, 2\n";
+        StringWriter scores = new StringWriter();
+        BatchGrader.Tally tally = new BatchGrader(bank, 1).grade(new StringReader(sheet), scores);
+
+        assertEquals("candidate,correct,answered,total,percentage\n"
+                + "\"Smith, Alice\",2,2,2,100.00\n"
+                + "bob,1,2,2,50.00\n"
+                + "carol,0,1,2,0.00\n"
+                + "dave,0,1,2,0.00\n", scores.toString());
+        assertEquals(0, tally.malformed);
+        assertEquals(2, tally.unrecognized[0]); // carol's E and dave's unclosed "1, 2
+        assertEquals(1, tally.unrecognized[1]); // bob's Yes without its quotes
+        assertEquals(3, tally.unrecognized());
+        assertEquals(2, tally.chosen[1 * 5 + ItemAnalysis.SKIPPED]); // carol's empty quotes, dave's missing cell
+
+        StringWriter items = new StringWriter();
+        new BatchGrader(bank, 1).writeItems(tally, items);
+        String[] first = items.toString().split("\n")[1].split(",");
+        assertEquals("4", first[1]); // Answered, unrecognized answers included
+        assertEquals("2", first[10]); // Unrecognized
+    }
+
+    // testParallelMatchesItemAnalysis(): Thousands of random rows graded on several threads give the
+    // same scores in the same order as one thread, and the same difficulty and discrimination as
+    // ItemAnalysis fed the same attempts.
+    @Test
+    void testParallelMatchesItemAnalysis() throws IOException {
+        Random random = new Random(19);
+        StringBuilder sheet = new StringBuilder();
+        ItemAnalysis analysis = new ItemAnalysis();
+        for (int row = 0; row < 20_000; row++) {
+            sheet.append("c").append(row);
+            boolean[] right = new boolean[BANK.size()];
+            int correct = 0;
+            for (int q = 0; q < BANK.size(); q++) {
+                String letter = random.nextInt(10) == 0 ? null
+                        : random.nextInt(3) == 0 ? BANK.get(q).getAnswer()
+                                : String.valueOf((char) ('A' + random.nextInt(4)));
+                sheet.append(',').append(letter == null ? "-" : letter);
+                right[q] = QuizSession.isCorrect(BANK.get(q), letter);
+                correct += right[q] ? 1 : 0;
+                analysis.recordAnswer(BANK.get(q), letter, right[q], 0);
+            }
+            analysis.recordAttempt(BANK, right, (double) correct / BANK.size() * 100);
+            sheet.append('\n');
+        }
+
+        StringWriter parallel = new StringWriter();
+        BatchGrader.Tally tally = new BatchGrader(BANK, 4).grade(new StringReader(sheet.toString()), parallel);
+        StringWriter sequential = new StringWriter();
+        new BatchGrader(BANK, 1).grade(new StringReader(sheet.toString()), sequential);
+
+        assertEquals(sequential.toString(), parallel.toString());
+        List<String> lines = new ArrayList<>(List.of(parallel.toString().split("\n")));
+        assertEquals(20_001, lines.size());
+        assertEquals("c19999", lines.get(20_000).split(",")[0]);
+        for (int q = 0; q < BANK.size(); q++) {
+            int id = analysis.id(BANK.get(q));
+            assertEquals(analysis.difficulty(id), tally.difficulty(q), 1e-9);
+            assertEquals(analysis.discrimination(id), tally.discrimination(q), 1e-9);
+        }
+    }
+}
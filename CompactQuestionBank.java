@@ -0,0 +1,284 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.BiConsumer;
+
+// In-heap bank for very large question sets. An MCQ costs several hundred bytes beyond its text: a String
+// and byte[] per field, the "A) " prefix on every choice, a String for the answer letter and two absolute
+// audio paths. Here the text of every question lives in one shared byte arena, Latin-1 when it fits and
+// UTF-8 otherwise, and each question is six int offsets, its number, a byte answer and a few flag bits.
+// Choices are stored without their prefix and audio paths are rebuilt from the question number, so
+// get() hands out a small MCQ view that decodes its fields when they are asked for.
+class CompactQuestionBank {
+    private static final int FIELDS = 6; // Question, four choices, reason
+    private static final int UTF8 = 1 << 8; // Flag bits 0-3: choice i had its prefix removed; 4-7: choice i is null
+    private static final String[] LETTERS = new String[26];
+
+    static {
+        for (int i = 0; i < LETTERS.length; i++) {
+            LETTERS[i] = String.valueOf((char) ('A' + i));
+        }
+    }
+
+    private final File baseDirectory;
+    private final byte[] text;
+    private final int[] offsets; // FIELDS per question, then the end of the text
+    private final int[] numbers; // Question number within its file, for the audio paths
+    private final byte[] answers; // Answer letter minus 'A'
+    private final short[] flags;
+    private final int size;
+
+    private CompactQuestionBank(File baseDirectory, byte[] text, int[] offsets, int[] numbers, byte[] answers,
+            short[] flags) {
+        this.baseDirectory = baseDirectory;
+        this.text = text;
+        this.offsets = offsets;
+        this.numbers = numbers;
+        this.answers = answers;
+        this.flags = flags;
+        this.size = numbers.length;
+    }
+
+    // Parses the files in parallel straight into the arena, keeping file order like loadAll. A file that
+    // cannot be read or parsed is reported and left out.
+    static CompactQuestionBank load(List<File> files, File baseDirectory, BiConsumer<File, IOException> onError) {
+        List<ForkJoinTask<Builder>> tasks = new ArrayList<>(files.size());
+        for (File file : files) {
+            tasks.add(ForkJoinTask.adapt(() -> {
+                Builder builder = new Builder();
+                QuestionBankLoader.parse(file, builder::add);
+                return builder;
+            }));
+        }
+        tasks.forEach(ForkJoinPool.commonPool()::execute);
+
+        List<Builder> parts = new ArrayList<>(files.size());
+        long textLength = 0;
+        int count = 0;
+        for (int i = 0; i < tasks.size(); i++) {
+            try {
+                Builder part = tasks.get(i).get();
+                if (textLength + part.textLength > Integer.MAX_VALUE - 8) {
+                    throw new IOException("Question text exceeds 2 GB at " + files.get(i).getName());
+                }
+                parts.add(part);
+                textLength += part.textLength;
+                count += part.count;
+            } catch (ExecutionException | InterruptedException | IOException e) {
+                onError.accept(files.get(i), QuestionBankLoader.asIOException(e));
+            }
+        }
+
+        // Concatenate the parts, moving each part's offsets past the text before it
+        byte[] text = new byte[(int) textLength];
+        int[] offsets = new int[count * FIELDS + 1];
+        int[] numbers = new int[count];
+        byte[] answers = new byte[count];
+        short[] flags = new short[count];
+        int textAt = 0;
+        int at = 0;
+        for (Builder part : parts) {
+            System.arraycopy(part.text, 0, text, textAt, part.textLength);
+            for (int i = 0; i < part.count * FIELDS; i++) {
+                offsets[at * FIELDS + i] = part.offsets[i] + textAt;
+            }
+            System.arraycopy(part.numbers, 0, numbers, at, part.count);
+            System.arraycopy(part.answers, 0, answers, at, part.count);
+            System.arraycopy(part.flags, 0, flags, at, part.count);
+            textAt += part.textLength;
+            at += part.count;
+        }
+        offsets[count * FIELDS] = textAt;
+        return new CompactQuestionBank(baseDirectory, text, offsets, numbers, answers, flags);
+    }
+
+    int size() {
+        return size;
+    }
+
+    // A new view of question i; views of the same question are equal
+    MCQ get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Question " + index + " of " + size);
+        }
+        return new View(index);
+    }
+
+    // Bytes held for all questions: the arena plus the per-question arrays
+    long heapBytes() {
+        return text.length + offsets.length * 4L + numbers.length * 4L + answers.length + flags.length * 2L;
+    }
+
+    // List view in bank order; questions are decoded as they are read
+    List<MCQ> asList() {
+        return new QuestionList();
+    }
+
+    private String field(int index, int field) {
+        int start = offsets[index * FIELDS + field];
+        int length = offsets[index * FIELDS + field + 1] - start;
+        return new String(text, start, length, (flags[index] & UTF8) != 0 ? StandardCharsets.UTF_8
+                : StandardCharsets.ISO_8859_1);
+    }
+
+    private String choice(int index, int choice) {
+        int flag = flags[index];
+        if ((flag & 1 << (4 + choice)) != 0) {
+            return null;
+        }
+        String text = field(index, 1 + choice);
+        return (flag & 1 << choice) != 0 ? (char) ('A' + choice) + ") " + text : text;
+    }
+
+    private class QuestionList extends AbstractList<MCQ> implements RandomAccess {
+        @Override
+        public MCQ get(int index) {
+            return CompactQuestionBank.this.get(index);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    // An MCQ backed by the arena. It holds no text of its own, so views are made per use and never cached.
+    private final class View extends MCQ {
+        private final int index;
+
+        View(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public String getQuestion() {
+            return field(index, 0);
+        }
+
+        @Override
+        public String[] getChoices() {
+            String[] choices = new String[4];
+            for (int i = 0; i < 4; i++) {
+                choices[i] = choice(index, i);
+            }
+            return choices;
+        }
+
+        @Override
+        public String getAnswer() {
+            int letter = 'A' + answers[index];
+            return letter >= 'A' && letter <= 'Z' ? LETTERS[letter - 'A'] : String.valueOf((char) letter);
+        }
+
+        @Override
+        public String getReason() {
+            return field(index, 5);
+        }
+
+        @Override
+        public String getQuestionAudioPath() {
+            return QuestionBankLoader.questionAudioPath(baseDirectory, numbers[index]);
+        }
+
+        @Override
+        public String getExplanationAudioPath() {
+            return QuestionBankLoader.explanationAudioPath(baseDirectory, numbers[index]);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof View && ((View) other).bank() == CompactQuestionBank.this
+                    && ((View) other).index == index;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(CompactQuestionBank.this) * 31 + index;
+        }
+
+        private CompactQuestionBank bank() {
+            return CompactQuestionBank.this;
+        }
+    }
+
+    // Arena for one file, filled on the thread that parses it
+    private static final class Builder {
+        private byte[] text = new byte[64 * 1024];
+        private int textLength;
+        private int[] offsets = new int[64 * FIELDS];
+        private int[] numbers = new int[64];
+        private byte[] answers = new byte[64];
+        private short[] flags = new short[64];
+        private int count;
+
+        void add(File source, int number, String question, String[] choices, String answer, String reason) {
+            char letter = answer.charAt(0);
+            if (letter >= 128) {
+                throw new UncheckedIOException(new IOException("Answer of question " + number
+                        + " is not a letter in " + source.getName()));
+            }
+            if (count == numbers.length) {
+                offsets = Arrays.copyOf(offsets, count * 2 * FIELDS);
+                numbers = Arrays.copyOf(numbers, count * 2);
+                answers = Arrays.copyOf(answers, count * 2);
+                flags = Arrays.copyOf(flags, count * 2);
+            }
+            int flag = latin1(question) && latin1(reason) ? 0 : UTF8;
+            for (String choice : choices) {
+                flag |= choice == null || latin1(choice) ? 0 : UTF8;
+            }
+            String[] fields = new String[FIELDS];
+            fields[0] = question;
+            for (int i = 0; i < 4; i++) {
+                String choice = choices[i];
+                if (choice == null) {
+                    flag |= 1 << (4 + i);
+                    choice = "";
+                } else if (choice.length() >= 3 && choice.charAt(0) == 'A' + i && choice.startsWith(") ", 1)) {
+                    flag |= 1 << i;
+                    choice = choice.substring(3);
+                }
+                fields[1 + i] = choice;
+            }
+            fields[5] = reason;
+            for (int f = 0; f < FIELDS; f++) {
+                offsets[count * FIELDS + f] = textLength;
+                append(fields[f], (flag & UTF8) != 0);
+            }
+            numbers[count] = number;
+            answers[count] = (byte) (letter - 'A');
+            flags[count++] = (short) flag;
+        }
+
+        private void append(String field, boolean utf8) {
+            byte[] bytes = field.getBytes(utf8 ? StandardCharsets.UTF_8 : StandardCharsets.ISO_8859_1);
+            if (textLength + (long) bytes.length > Integer.MAX_VALUE - 8) {
+                throw new UncheckedIOException(new IOException("Question text exceeds 2 GB"));
+            }
+            if (textLength + bytes.length > text.length) {
+                text = Arrays.copyOf(text, (int) Math.min(Integer.MAX_VALUE - 8,
+                        Math.max(text.length * 2L, textLength + (long) bytes.length)));
+            }
+            System.arraycopy(bytes, 0, text, textLength, bytes.length);
+            textLength += bytes.length;
+        }
+
+        private static boolean latin1(String s) {
+            for (int i = 0; i < s.length(); i++) {
+                if (s.charAt(i) > 0xFF) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
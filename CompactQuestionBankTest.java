@@ -0,0 +1,133 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+public class CompactQuestionBankTest {
+    private static File bank(int count, long seed) throws IOException {
+        Random random = new Random(seed);
+        return TestBanks.write("compact", count, i -> {
+            String[] choices = { "A) The mean is " + random.nextInt(100), "B) The variance is " + random.nextInt(100),
+                    "C) The sample is biased", "D) None of the above" };
+            return MCQ.of("Which statement about sample " + i + " of the survey design is correct?", choices,
+                    String.valueOf((char) ('A' + random.nextInt(4))),
+                    "Because the sampling frame excludes part of the population (case " + i + ").", "", "");
+        });
+    }
+
+    private static void assertSame(MCQ expected, MCQ actual) {
+        assertEquals(expected.getQuestion(), actual.getQuestion());
+        assertArrayEquals(expected.getChoices(), actual.getChoices());
+        assertEquals(expected.getAnswer(), actual.getAnswer());
+        assertEquals(expected.getReason(), actual.getReason());
+        assertEquals(expected.getQuestionAudioPath(), actual.getQuestionAudioPath());
+        assertEquals(expected.getExplanationAudioPath(), actual.getExplanationAudioPath());
+    }
+
+    // testSameQuestions(): Every field reads back as loadAll parses it across several files, including
+    // non-Latin-1 text, choices out of letter order and a missing choice; views of a question are equal.
+    @Test
+    void testSameQuestions() throws IOException {
+        File first = bank(50, 1);
+        File second = File.createTempFile("compact", ".txt");
+        Files.writeString(second.toPath(), "Question 1:\nWhich symbol is the Greek letter sigma?\n"
+                + "A) \u03a3\nB) \u03a9\nC) \u03bc\nD) caf\u00e9\nAnswer: A) \u03a3\nExplanation: \u03a3 is sigma\n\n"
+                + "Question 2:\nOrder?\nB) second\nA) first\nC) third\nD) fourth\nAnswer: b\n"
+                + "Explanation: Letters need not be in order\n\n"
+                + "Question 3:\nOnly two choices?\nA) yes\nB) no\nAnswer: A\nExplanation: Short\n");
+        List<File> files = List.of(first, second);
+        File base = first.getParentFile();
+        List<MCQ> expected = QuestionBankLoader.loadAll(files, base, (f, e) -> {
+            throw new AssertionError(e);
+        });
+        CompactQuestionBank bank = CompactQuestionBank.load(files, base, (f, e) -> {
+            throw new AssertionError(e);
+        });
+        first.delete();
+        second.delete();
+
+        assertEquals(53, bank.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertSame(expected.get(i), bank.get(i));
+        }
+        assertEquals("\u03a3", QuizSession.answerText(bank.get(50).getAnswer(), bank.get(50).getChoices()));
+        assertEquals(bank.get(7), bank.asList().get(7));
+        assertEquals(bank.get(7).hashCode(), bank.asList().get(7).hashCode());
+        assertNotEquals(bank.get(7), bank.get(8));
+    }
+
+    // testSameQuiz(): With -Dmcq.compact=true a filtered, deduplicated quiz holds the same questions in the
+    // same order as one built from MCQ objects.
+    @Test
+    void testSameQuiz() throws IOException {
+        File first = bank(300, 4);
+        File[] files = { first, first, bank(200, 5) }; // The first bank twice: every question in it is repeated
+        List<MCQ> objects = Main.buildQuiz(files, 11, 0, false, false, null, count -> "sample mean");
+        List<MCQ> compact;
+        System.setProperty("mcq.compact", "true");
+        try {
+            compact = Main.buildQuiz(files, 11, 0, false, false, null, count -> {
+                assertEquals(500, count);
+                return "sample mean";
+            });
+        } finally {
+            System.clearProperty("mcq.compact");
+            first.delete();
+            files[2].delete();
+        }
+
+        assertEquals(objects.size(), compact.size());
+        for (int i = 0; i < objects.size(); i++) {
+            assertSame(objects.get(i), compact.get(i));
+        }
+    }
+
+    // testHeapSavings(): A large bank holds its text and per-question columns in under half of what the same
+    // questions take as MCQ objects, counting every distinct String, array and MCQ at its smallest size.
+    @Test
+    void testHeapSavings() throws IOException {
+        List<File> files = List.of(bank(10_000, 2), bank(10_000, 3));
+        File base = files.get(0).getParentFile();
+        List<MCQ> objects = QuestionBankLoader.loadAll(files, base, (f, e) -> {
+        });
+        CompactQuestionBank bank = CompactQuestionBank.load(files, base, (f, e) -> {
+        });
+        files.forEach(File::delete);
+
+        Set<String> counted = Collections.newSetFromMap(new IdentityHashMap<>());
+        long objectBytes = 0;
+        long textBytes = 0;
+        for (MCQ question : objects) {
+            objectBytes += 12 + 6 * 4; // Header and six compressed references
+            objectBytes += 16 + 4L * question.getChoices().length;
+            List<String> fields = new ArrayList<>(List.of(question.getQuestion(), question.getAnswer(),
+                    question.getReason(), question.getQuestionAudioPath(), question.getExplanationAudioPath()));
+            fields.addAll(List.of(question.getChoices()));
+            for (String field : fields) {
+                if (counted.add(field)) {
+                    objectBytes += 24 + 16 + field.length(); // String and its Latin-1 byte[]
+                }
+            }
+            textBytes += question.getQuestion().length() + question.getReason().length();
+            for (String choice : question.getChoices()) {
+                textBytes += choice.length() - 3; // Stored without "A) "
+            }
+        }
+
+        assertEquals(20_000, bank.size());
+        assertEquals(objects.get(12_345).getReason(), bank.get(12_345).getReason());
+        assertEquals(textBytes + 4L * (20_000 * 6 + 1) + 4 * 20_000 + 20_000 + 2 * 20_000, bank.heapBytes());
+        assertTrue(bank.heapBytes() * 2 < objectBytes, bank.heapBytes() + " vs " + objectBytes);
+    }
+}
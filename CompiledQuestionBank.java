@@ -0,0 +1,358 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.zip.CRC32C;
+
+// Binary form of one or more text banks. Compiling once removes the text parse from startup,
+// and the reader only decodes a question when the quiz actually shows it.
+//
+// Layout (big-endian):
+//   header   magic, version, questionCount, stringCount, baseDirectory string id, flags, 2 reserved ints;
+//            baseDirectory is relative to the .mcqb file's directory, so a bank can move with its audio;
+//            flag UNIQUE marks a bank compiled without exact duplicates (older banks may have them)
+//   records  questionCount fixed-width rows, so question i starts at HEADER_SIZE + i * RECORD_SIZE:
+//            question id, 4 choice ids (-1 for a missing choice), reason id, question number,
+//            answer letter (+3 bytes padding)
+//   offsets  stringCount + 1 ints, start of each string relative to the string data
+//   strings  UTF-8 bytes of every distinct string, each stored once
+class CompiledQuestionBank {
+    static final String EXTENSION = ".mcqb";
+    private static final int MAGIC = 0x4D435142; // "MCQB"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 32;
+    private static final int RECORD_SIZE = 32;
+    private static final int ABSENT = -1; // String id of a choice the question does not have
+    private static final int UNIQUE = 1; // Flag: exact duplicates were dropped when compiling
+
+    private final ByteBuffer buffer;
+    private final int questionCount;
+    private final int stringCount;
+    private final int offsetsStart;
+    private final int stringsStart;
+    private final File baseDirectory;
+    private final boolean unique;
+    private final AtomicReferenceArray<MCQ> decoded;
+    private volatile long checksum; // CRC32C and length of the mapped file, 0 until a fingerprint asks for it
+
+    private CompiledQuestionBank(ByteBuffer buffer, File source) throws IOException {
+        this.buffer = buffer;
+        if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a compiled question bank: " + source.getName());
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException("Unsupported question bank version " + buffer.getInt(4) + " in " + source.getName());
+        }
+        questionCount = buffer.getInt(8);
+        stringCount = buffer.getInt(12);
+        offsetsStart = HEADER_SIZE + questionCount * RECORD_SIZE;
+        stringsStart = offsetsStart + (stringCount + 1) * 4;
+        if (stringsStart > buffer.limit() || stringsStart + buffer.getInt(stringsStart - 4) > buffer.limit()) {
+            throw new IOException("Truncated question bank: " + source.getName());
+        }
+        // Absolute when the bank was compiled onto another root than its audio
+        baseDirectory = source.getAbsoluteFile().toPath().getParent().resolve(string(buffer.getInt(16)))
+                .normalize().toFile();
+        unique = (buffer.getInt(20) & UNIQUE) != 0;
+        decoded = new AtomicReferenceArray<>(questionCount);
+    }
+
+    // Maps a compiled bank; nothing is decoded until a question is requested
+    static CompiledQuestionBank open(File file) throws IOException {
+        QuizMetrics.Span span = QuizMetrics.begin(QuizMetrics.Phase.LOAD).detail(file.getName());
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Question bank too large to map: " + file.getName());
+            }
+            return new CompiledQuestionBank(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), file);
+        } finally {
+            span.end();
+        }
+    }
+
+    // Compiles text banks into one binary bank. Audio paths resolve against baseDirectory, as in main(). Exact
+    // duplicates are dropped here, keeping the first, so opening the bank does not have to look for them.
+    static int compile(List<File> textBanks, File baseDirectory, File output) throws IOException {
+        Map<String, Integer> ids = new HashMap<>();
+        List<String> strings = new ArrayList<>();
+        List<int[]> records = new ArrayList<>();
+        List<MCQ> questions = new ArrayList<>(); // For the duplicate check; audio paths are not compared
+        Path base = baseDirectory.getAbsoluteFile().toPath().normalize();
+        Path outputDirectory = output.getAbsoluteFile().toPath().getParent().normalize();
+        intern(base.getRoot().equals(outputDirectory.getRoot()) ? outputDirectory.relativize(base).toString()
+                : base.toString(), ids, strings);
+
+        for (File bank : textBanks) {
+            QuestionBankLoader.parse(bank, (source, number, question, choices, answer, reason) -> {
+                int[] record = new int[8];
+                record[0] = intern(question, ids, strings);
+                for (int i = 0; i < 4; i++) {
+                    record[1 + i] = choices[i] == null ? ABSENT : intern(choices[i], ids, strings);
+                }
+                record[5] = intern(reason, ids, strings);
+                record[6] = number;
+                record[7] = answer.charAt(0);
+                records.add(record);
+                questions.add(MCQ.of(question, choices, answer, reason, "", ""));
+            });
+        }
+        QuestionDeduplicator.Result duplicates = QuestionDeduplicator.find(questions, Double.POSITIVE_INFINITY);
+        List<int[]> kept = new ArrayList<>(duplicates.uniqueCount());
+        for (int i = 0; i < records.size(); i++) {
+            if (!duplicates.isDuplicate(i)) {
+                kept.add(records.get(i));
+            }
+        }
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(output)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(kept.size());
+            out.writeInt(strings.size());
+            out.writeInt(0); // Base directory is always the first string
+            out.writeInt(UNIQUE);
+            out.writeInt(0);
+            out.writeInt(0);
+
+            for (int[] record : kept) {
+                for (int i = 0; i < 7; i++) {
+                    out.writeInt(record[i]);
+                }
+                out.writeByte(record[7]);
+                out.write(new byte[3]);
+            }
+
+            List<byte[]> encoded = new ArrayList<>(strings.size());
+            int offset = 0;
+            for (String s : strings) {
+                byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+                encoded.add(bytes);
+                out.writeInt(offset);
+                offset += bytes.length;
+            }
+            out.writeInt(offset);
+            for (byte[] bytes : encoded) {
+                out.write(bytes);
+            }
+        }
+        return kept.size();
+    }
+
+    private static int intern(String s, Map<String, Integer> ids, List<String> strings) {
+        Integer id = ids.get(s);
+        if (id == null) {
+            id = strings.size();
+            ids.put(s, id);
+            strings.add(s);
+        }
+        return id;
+    }
+
+    int size() {
+        return questionCount;
+    }
+
+    // Whether the bank was compiled without exact duplicates
+    boolean isUnique() {
+        return unique;
+    }
+
+    // Decodes question i on first use; later calls return the same MCQ instance
+    MCQ get(int index) {
+        MCQ question = decoded.get(index);
+        if (question == null) {
+            decoded.compareAndSet(index, null, decode(index));
+            question = decoded.get(index);
+        }
+        return question;
+    }
+
+    private MCQ decode(int index) {
+        if (index < 0 || index >= questionCount) {
+            throw new IndexOutOfBoundsException("Question " + index + " of " + questionCount);
+        }
+        int record = HEADER_SIZE + index * RECORD_SIZE;
+        String[] choices = new String[4];
+        for (int i = 0; i < 4; i++) {
+            choices[i] = string(buffer.getInt(record + 4 + i * 4));
+        }
+        int number = buffer.getInt(record + 24);
+        return MCQ.of(string(buffer.getInt(record)), choices, String.valueOf((char) buffer.get(record + 28)),
+                string(buffer.getInt(record + 20)), QuestionBankLoader.questionAudioPath(baseDirectory, number),
+                QuestionBankLoader.explanationAudioPath(baseDirectory, number));
+    }
+
+    private String string(int id) {
+        if (id == ABSENT) {
+            return null;
+        }
+        checkString(id);
+        int start = buffer.getInt(offsetsStart + id * 4);
+        int end = buffer.getInt(offsetsStart + id * 4 + 4);
+        byte[] bytes = new byte[end - start];
+        buffer.get(stringsStart + start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private void checkString(int id) {
+        if (id < 0 || id >= stringCount) {
+            throw new IllegalStateException("Corrupt question bank: string " + id + " of " + stringCount);
+        }
+    }
+
+    // ReviewScheduler.key of question i, hashed from the mapped UTF-8 without decoding the question
+    long reviewKey(int index) {
+        if (index < 0 || index >= questionCount) {
+            throw new IndexOutOfBoundsException("Question " + index + " of " + questionCount);
+        }
+        int record = HEADER_SIZE + index * RECORD_SIZE;
+        long hash = hashString(ReviewScheduler.FNV_OFFSET, buffer.getInt(record));
+        for (int i = 0; i < 4; i++) {
+            hash = hashString(hash * ReviewScheduler.FNV_PRIME, buffer.getInt(record + 4 + i * 4));
+        }
+        return ReviewScheduler.finishKey(hash);
+    }
+
+    private long hashString(long hash, int id) {
+        if (id == ABSENT) {
+            return hash; // ReviewScheduler.key hashes a missing choice as empty
+        }
+        checkString(id);
+        return ReviewScheduler.fnv(hash, buffer, stringsStart + buffer.getInt(offsetsStart + id * 4),
+                stringsStart + buffer.getInt(offsetsStart + id * 4 + 4));
+    }
+
+    // List view in bank order
+    List<MCQ> asList() {
+        return new QuestionList(allIndices());
+    }
+
+    // List view of the given questions, in the given order
+    List<MCQ> list(int[] order) {
+        return new QuestionList(order);
+    }
+
+    // List view in a random order. Only the int order is shuffled, so no question is decoded here.
+    List<MCQ> shuffledList(Random random) {
+        return shuffledList(allIndices(), random);
+    }
+
+    // List view of the given questions in a random order; shuffles order in place
+    List<MCQ> shuffledList(int[] order, Random random) {
+        for (int i = order.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = order[i];
+            order[i] = order[j];
+            order[j] = tmp;
+        }
+        return new QuestionList(order);
+    }
+
+    private int[] allIndices() {
+        int[] order = new int[questionCount];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        return order;
+    }
+
+    // List view in bank order that decodes a question on every get and keeps none, for one pass over the
+    // whole bank (a search or a duplicate check) that should not leave every question on the heap
+    List<MCQ> scanList() {
+        return new AbstractList<MCQ>() {
+            @Override
+            public MCQ get(int index) {
+                MCQ question = decoded.get(index);
+                return question != null ? question : decode(index);
+            }
+
+            @Override
+            public int size() {
+                return questionCount;
+            }
+        };
+    }
+
+    // Identifies the bank's contents, as ProgressiveBank.fingerprint does for text files
+    private long checksum() {
+        long value = checksum;
+        if (value == 0) {
+            CRC32C crc = new CRC32C();
+            crc.update(buffer.duplicate().position(0));
+            value = crc.getValue() | (long) buffer.limit() << 32;
+            checksum = value;
+        }
+        return value;
+    }
+
+    class QuestionList extends AbstractList<MCQ> implements RandomAccess, ReviewScheduler.KeyedList {
+        private final int[] order;
+
+        QuestionList(int[] order) {
+            this.order = order;
+        }
+
+        @Override
+        public MCQ get(int index) {
+            return CompiledQuestionBank.this.get(order[index]);
+        }
+
+        @Override
+        public int size() {
+            return order.length;
+        }
+
+        @Override
+        public long reviewKey(int index) {
+            return CompiledQuestionBank.this.reviewKey(order[index]);
+        }
+
+        // A copy of the order rather than a view, so a sample is still a QuestionList
+        @Override
+        public List<MCQ> subList(int fromIndex, int toIndex) {
+            Objects.checkFromToIndex(fromIndex, toIndex, order.length);
+            return new QuestionList(Arrays.copyOfRange(order, fromIndex, toIndex));
+        }
+
+        // Identifies the bank file and this order without decoding a question; see SessionJournal.fingerprint
+        long fingerprint() {
+            long hash = checksum();
+            for (int index : order) {
+                hash = (hash ^ index) * 0x100000001b3L;
+            }
+            return hash ^ order.length;
+        }
+    }
+
+    // Usage: java CompiledQuestionBank output.mcqb bank1.txt [bank2.txt ...]
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: java CompiledQuestionBank <output" + EXTENSION + "> <bank.txt>...");
+            System.exit(1);
+        }
+        List<File> banks = new ArrayList<>();
+        for (int i = 1; i < args.length; i++) {
+            banks.add(new File(args[i]).getAbsoluteFile());
+        }
+        long start = System.nanoTime();
+        int count = compile(banks, banks.get(0).getParentFile(), new File(args[0]));
+        System.out.printf("Compiled %d questions into %s in %.1f ms%n", count, args[0],
+                (System.nanoTime() - start) / 1e6);
+    }
+}
@@ -0,0 +1,144 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class CompiledQuestionBankTest {
+    // testCompiledQuestionBank(): A compiled bank must decode to the same questions as the text file it
+    // was built from, and hand out the same MCQ instance each time a question is requested.
+    @Test
+    void testCompiledQuestionBank() throws IOException {
+        File tempFile = TestBanks.sample();
+        File compiled = File.createTempFile("temp_quiz", CompiledQuestionBank.EXTENSION);
+
+        ArrayList<MCQ> expected = Main.loadQuestionsFromFile(tempFile.getAbsolutePath(), tempFile.getParentFile());
+        assertEquals(3, CompiledQuestionBank.compile(List.of(tempFile), tempFile.getParentFile(), compiled));
+        CompiledQuestionBank bank = CompiledQuestionBank.open(compiled);
+
+        assertEquals(expected.size(), bank.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getQuestion(), bank.get(i).getQuestion());
+            assertArrayEquals(expected.get(i).getChoices(), bank.get(i).getChoices());
+            assertEquals(expected.get(i).getAnswer(), bank.get(i).getAnswer());
+            assertEquals(expected.get(i).getReason(), bank.get(i).getReason());
+            assertEquals(expected.get(i).getQuestionAudioPath(), bank.get(i).getQuestionAudioPath());
+        }
+        assertSame(bank.get(1), bank.asList().get(1));
+
+        tempFile.delete();
+        compiled.delete();
+    }
+
+    // testCompiledBankMoves(): A compiled bank copied to another directory together with its audio resolves
+    // the audio in the new directory, not where it was compiled.
+    @Test
+    void testCompiledBankMoves() throws IOException {
+        File tempFile = TestBanks.sample();
+        File directory = new File(tempFile.getParentFile(), tempFile.getName() + ".bank");
+        File moved = new File(tempFile.getParentFile(), tempFile.getName() + ".moved");
+        directory.mkdirs();
+        CompiledQuestionBank.compile(List.of(tempFile), directory, new File(directory, "quiz.mcqb"));
+        assertTrue(directory.renameTo(moved));
+
+        CompiledQuestionBank bank = CompiledQuestionBank.open(new File(moved, "quiz.mcqb"));
+        ArrayList<MCQ> expected = Main.loadQuestionsFromFile(tempFile.getAbsolutePath(), moved);
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getQuestionAudioPath(), bank.get(i).getQuestionAudioPath());
+            assertEquals(expected.get(i).getExplanationAudioPath(), bank.get(i).getExplanationAudioPath());
+        }
+
+        tempFile.delete();
+        new File(moved, "quiz.mcqb").delete();
+        moved.delete();
+    }
+
+    // testFingerprint(): A compiled order is fingerprinted from the mapped file: the same seed on a reopened bank
+    // gives the same fingerprint, another seed, a sample or a changed file does not.
+    @Test
+    void testFingerprint() throws IOException {
+        File tempFile = TestBanks.sample();
+        File compiled = File.createTempFile("temp_quiz", CompiledQuestionBank.EXTENSION);
+        CompiledQuestionBank.compile(List.of(tempFile), tempFile.getParentFile(), compiled);
+
+        List<MCQ> order = CompiledQuestionBank.open(compiled).shuffledList(new Random(42));
+        long fingerprint = SessionJournal.fingerprint(order);
+        assertEquals(fingerprint, SessionJournal.fingerprint(CompiledQuestionBank.open(compiled)
+                .shuffledList(new Random(42))));
+        assertNotEquals(fingerprint, SessionJournal.fingerprint(CompiledQuestionBank.open(compiled).asList()));
+        List<MCQ> sample = order.subList(0, 2);
+        assertTrue(sample instanceof CompiledQuestionBank.QuestionList);
+        assertEquals(List.of(order.get(0), order.get(1)), sample);
+        assertNotEquals(fingerprint, SessionJournal.fingerprint(sample));
+
+        try (FileWriter writer = new FileWriter(tempFile, true)) {
+            writer.write("Question 4\nQuestion 4 Text\nA) A4\nB) B4\nC) C4\nD) D4\nAnswer: D\nExplanation: 4\n");
+        }
+        CompiledQuestionBank.compile(List.of(tempFile), tempFile.getParentFile(), compiled);
+        assertNotEquals(fingerprint, SessionJournal.fingerprint(CompiledQuestionBank.open(compiled)
+                .shuffledList(new Random(42)).subList(0, 3)));
+
+        tempFile.delete();
+        compiled.delete();
+    }
+
+    // testSameQuiz(): A compiled bank gives the same deduplicated, filtered quiz in the same order as the text
+    // files it was compiled from, and the filter is offered the number of unique questions.
+    @Test
+    void testSameQuiz() throws IOException {
+        File tempFile = TestBanks.sample();
+        File[] files = { tempFile, tempFile }; // Every question twice
+        File compiled = new File(tempFile.getParentFile(), tempFile.getName() + CompiledQuestionBank.EXTENSION);
+        assertEquals(3, CompiledQuestionBank.compile(List.of(files), tempFile.getParentFile(), compiled));
+
+        List<MCQ> text = Main.buildQuiz(files, 5, 0, false, false, null, count -> "a2 OR c3");
+        List<MCQ> binary = Main.buildQuiz(new File[] { compiled }, 5, 0, false, false, null, count -> {
+            assertEquals(3, count);
+            return "a2 OR c3";
+        });
+        assertEquals(2, text.size());
+        assertEquals(text.size(), binary.size());
+        for (int i = 0; i < text.size(); i++) {
+            assertEquals(text.get(i).getQuestion(), binary.get(i).getQuestion());
+            assertEquals(text.get(i).getQuestionAudioPath(), binary.get(i).getQuestionAudioPath());
+        }
+
+        tempFile.delete();
+        compiled.delete();
+    }
+
+    // testMissingChoices(): A bank whose questions have fewer than four choices compiles; the missing
+    // choices decode as null, as the text loader leaves them, and review keys match ReviewScheduler.key.
+    @Test
+    void testMissingChoices() throws IOException {
+        File text = File.createTempFile("three_choices", ".txt");
+        QuestionBankLoader.write(List.of(
+                MCQ.of("Which is largest?", new String[] { "A) 1", "B) 2", "C) 3" }, "C", "Three", "", ""),
+                MCQ.of("Which is smallest?", new String[] { "A) 1", "B) 2", "C) 3" }, "A", "One", "", "")), text);
+        File compiled = File.createTempFile("three_choices", CompiledQuestionBank.EXTENSION);
+        List<MCQ> expected = QuestionBankLoader.loadAll(List.of(text), text.getParentFile(), (f, e) -> {
+            throw new AssertionError(e);
+        });
+
+        assertEquals(2, CompiledQuestionBank.compile(List.of(text), text.getParentFile(), compiled));
+        CompiledQuestionBank bank = CompiledQuestionBank.open(compiled);
+        for (int i = 0; i < expected.size(); i++) {
+            assertArrayEquals(expected.get(i).getChoices(), bank.get(i).getChoices());
+            assertEquals(expected.get(i).getAnswer(), bank.get(i).getAnswer());
+            assertEquals(ReviewScheduler.key(expected.get(i)), bank.reviewKey(i));
+        }
+        assertNull(bank.get(0).getChoices()[3]);
+
+        text.delete();
+        compiled.delete();
+    }
+}
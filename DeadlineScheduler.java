@@ -0,0 +1,195 @@
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+// Hashed timing wheel shared by every quiz countdown. One daemon thread advances the wheel a tick
+// at a time and runs the timeouts that fall due, so scheduling and cancelling are O(1) and the
+// thread count stays at one however many sessions are running. Callbacks run on the wheel thread
+// and must be short; Swing code should hand off to the EDT with invokeLater.
+class DeadlineScheduler {
+    private static final long DEFAULT_TICK_MILLIS = 50;
+    private static final int DEFAULT_WHEEL_SIZE = 512;
+    private static DeadlineScheduler shared;
+
+    private final long tickNanos;
+    private final ArrayDeque<Timeout>[] wheel;
+    private final int mask;
+    private final Queue<Timeout> added = new ConcurrentLinkedQueue<>();
+    private final Thread worker;
+    private volatile long startNanos;
+    private volatile boolean running = true;
+
+    // A scheduled callback; cancel() only flags it and the wheel drops it when its bucket comes round
+    static final class Timeout {
+        private static final int PENDING = 0;
+        private static final int CANCELLED = 1;
+        private static final int EXPIRED = 2;
+
+        private final long deadlineNanos;
+        private final Runnable task;
+        private final AtomicInteger state = new AtomicInteger(PENDING);
+        private long remainingRounds;
+
+        private Timeout(long deadlineNanos, Runnable task) {
+            this.deadlineNanos = deadlineNanos;
+            this.task = task;
+        }
+
+        // Returns false if the timeout already fired or was cancelled
+        boolean cancel() {
+            return state.compareAndSet(PENDING, CANCELLED);
+        }
+
+        boolean isCancelled() {
+            return state.get() == CANCELLED;
+        }
+    }
+
+    // Per-second countdown, e.g. the time left on a question
+    final class Countdown {
+        private final long startNanos = System.nanoTime();
+        private final int seconds;
+        private final IntConsumer onTick;
+        private final Runnable onExpire;
+        private volatile boolean cancelled;
+        private volatile Timeout next;
+        private int elapsed;
+
+        private Countdown(int seconds, IntConsumer onTick, Runnable onExpire) {
+            this.seconds = seconds;
+            this.onTick = onTick;
+            this.onExpire = onExpire;
+        }
+
+        private void scheduleNext() {
+            // Ticks are anchored to the start so per-tick lateness does not accumulate
+            long due = startNanos + TimeUnit.SECONDS.toNanos(elapsed + 1);
+            next = scheduleAt(due, this::tick);
+            if (cancelled) {
+                next.cancel();
+            }
+        }
+
+        private void tick() {
+            if (cancelled) {
+                return;
+            }
+            elapsed++;
+            int left = seconds - elapsed;
+            onTick.accept(left);
+            if (left <= 0) {
+                onExpire.run();
+            } else {
+                scheduleNext();
+            }
+        }
+
+        void cancel() {
+            cancelled = true;
+            Timeout timeout = next;
+            if (timeout != null) {
+                timeout.cancel();
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    DeadlineScheduler(long tickMillis, int wheelSize) {
+        if (Integer.bitCount(wheelSize) != 1) {
+            throw new IllegalArgumentException("Wheel size must be a power of two: " + wheelSize);
+        }
+        tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMillis);
+        wheel = (ArrayDeque<Timeout>[]) new ArrayDeque<?>[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            wheel[i] = new ArrayDeque<>();
+        }
+        mask = wheelSize - 1;
+        worker = new Thread(this::run, "deadline-scheduler");
+        worker.setDaemon(true);
+        startNanos = System.nanoTime();
+        worker.start();
+    }
+
+    // The process-wide scheduler used by Main and QuizServer
+    static synchronized DeadlineScheduler shared() {
+        if (shared == null) {
+            shared = new DeadlineScheduler(DEFAULT_TICK_MILLIS, DEFAULT_WHEEL_SIZE);
+        }
+        return shared;
+    }
+
+    Timeout schedule(long delayMillis, Runnable task) {
+        return scheduleAt(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMillis), task);
+    }
+
+    Timeout scheduleAt(long deadlineNanos, Runnable task) {
+        Timeout timeout = new Timeout(deadlineNanos, task);
+        added.add(timeout); // Placed in its bucket by the wheel thread on the next tick
+        return timeout;
+    }
+
+    // Calls onTick with the seconds left after each second, then onExpire when it reaches zero
+    Countdown countdown(int seconds, IntConsumer onTick, Runnable onExpire) {
+        Countdown countdown = new Countdown(seconds, onTick, onExpire);
+        countdown.scheduleNext();
+        return countdown;
+    }
+
+    void shutdown() {
+        running = false;
+        worker.interrupt();
+    }
+
+    private void run() {
+        long tick = 0;
+        while (running) {
+            long sleep = startNanos + (tick + 1) * tickNanos - System.nanoTime();
+            if (sleep > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(sleep);
+                } catch (InterruptedException e) {
+                    if (!running) {
+                        return;
+                    }
+                }
+            }
+            transferAdded(tick);
+            expire(wheel[(int) (tick & mask)]);
+            tick++;
+        }
+    }
+
+    private void transferAdded(long tick) {
+        Timeout timeout;
+        while ((timeout = added.poll()) != null) {
+            if (timeout.isCancelled()) {
+                continue;
+            }
+            long dueTick = Math.max(0, (timeout.deadlineNanos - startNanos + tickNanos - 1) / tickNanos);
+            timeout.remainingRounds = Math.max(0, (dueTick - tick) / wheel.length);
+            wheel[(int) (Math.max(dueTick, tick) & mask)].addLast(timeout);
+        }
+    }
+
+    private void expire(ArrayDeque<Timeout> bucket) {
+        for (int i = bucket.size(); i > 0; i--) {
+            Timeout timeout = bucket.pollFirst();
+            if (timeout.isCancelled()) {
+                continue;
+            }
+            if (timeout.remainingRounds > 0) {
+                timeout.remainingRounds--;
+                bucket.addLast(timeout);
+            } else if (timeout.state.compareAndSet(Timeout.PENDING, Timeout.EXPIRED)) {
+                try {
+                    timeout.task.run();
+                } catch (RuntimeException e) {
+                    System.err.println("Timeout callback failed: " + e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,63 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class DeadlineSchedulerTest {
+    // testTimeoutsFireInOrder(): Timeouts scheduled out of order fire in deadline order, including one
+    // more than a full turn of the wheel away.
+    @Test
+    void testTimeoutsFireInOrder() throws InterruptedException {
+        DeadlineScheduler scheduler = new DeadlineScheduler(5, 8);
+        List<Integer> fired = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(3);
+        scheduler.schedule(120, () -> { fired.add(3); done.countDown(); }); // 24 ticks, three turns of the wheel
+        scheduler.schedule(10, () -> { fired.add(1); done.countDown(); });
+        scheduler.schedule(50, () -> { fired.add(2); done.countDown(); });
+        assertTrue(done.await(2, TimeUnit.SECONDS));
+        assertEquals(List.of(1, 2, 3), fired);
+        scheduler.shutdown();
+    }
+
+    // testCancel(): A cancelled timeout never runs, and cancelling twice or after firing reports false.
+    @Test
+    void testCancel() throws InterruptedException {
+        DeadlineScheduler scheduler = new DeadlineScheduler(5, 64);
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch fired = new CountDownLatch(1);
+        DeadlineScheduler.Timeout cancelled = scheduler.schedule(20, runs::incrementAndGet);
+        DeadlineScheduler.Timeout kept = scheduler.schedule(60, fired::countDown);
+        assertTrue(cancelled.cancel());
+        assertFalse(cancelled.cancel());
+        assertTrue(fired.await(2, TimeUnit.SECONDS));
+        assertEquals(0, runs.get());
+        assertFalse(kept.cancel());
+        scheduler.shutdown();
+    }
+
+    // testCountdown(): A countdown ticks down to zero once per second and then expires; a cancelled
+    // one stops ticking.
+    @Test
+    void testCountdown() throws InterruptedException {
+        DeadlineScheduler scheduler = new DeadlineScheduler(10, 64);
+        List<Integer> ticks = new CopyOnWriteArrayList<>();
+        CountDownLatch expired = new CountDownLatch(1);
+        scheduler.countdown(2, ticks::add, expired::countDown);
+
+        AtomicInteger cancelledTicks = new AtomicInteger();
+        DeadlineScheduler.Countdown cancelled = scheduler.countdown(2, left -> cancelledTicks.incrementAndGet(),
+                () -> cancelledTicks.addAndGet(100));
+        cancelled.cancel();
+
+        assertTrue(expired.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of(1, 0), ticks);
+        assertEquals(0, cancelledTicks.get());
+        scheduler.shutdown();
+    }
+}
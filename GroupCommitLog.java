@@ -0,0 +1,184 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.zip.CRC32;
+
+// Group commit for an append-only file of fixed-size records, shared by SessionJournal and ReviewStore.
+// Callers queue a record and return at once; a writer thread writes everything queued while the previous
+// write was being forced in one write and one force, so a burst of records costs one trip to the disk.
+// Each record ends with the CRC32 of its other bytes, so a reader stops at a record torn by a crash.
+class GroupCommitLog implements AutoCloseable {
+    // Puts one record's fields, recordSize - 4 bytes; the log adds the checksum
+    interface Record {
+        void write(ByteBuffer buffer);
+    }
+
+    // Opens the file for the next write: before the first one, and after Committed replaced the file
+    interface Opener {
+        FileChannel open() throws IOException;
+    }
+
+    // Called by the writer thread after each forced write with the number of records it held. Returns true when
+    // it replaced the file (e.g. compacted it), so the log closes its channel and opens the new file.
+    interface Committed {
+        boolean committed(int records) throws IOException;
+    }
+
+    private final String description;
+    private final int recordSize;
+    private final Opener opener;
+    private final Committed committed;
+    private ByteBuffer pending; // Guarded by this
+    private ByteBuffer writing; // Owned by the writer thread
+    private long appended; // Records queued; guarded by this
+    private long durable; // Records written and forced; guarded by this
+    private int commits; // Forced writes so far; guarded by this
+    private IOException failure; // Guarded by this
+    private boolean closed; // Guarded by this
+    private FileChannel channel; // Owned by the writer thread; opened by its first write
+    private final Thread writer;
+
+    // description names the file in errors, e.g. "session journal"
+    GroupCommitLog(String description, String threadName, int recordSize, Opener opener, Committed committed) {
+        this.description = description;
+        this.recordSize = recordSize;
+        this.opener = opener;
+        this.committed = committed;
+        pending = ByteBuffer.allocate(64 * recordSize);
+        writing = ByteBuffer.allocate(64 * recordSize);
+        writer = new Thread(this::writeLoop, threadName);
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    // Queues one record; returns false, queuing nothing, once the log is closed or a write has failed
+    synchronized boolean append(Record record) {
+        if (closed || failure != null) {
+            return false;
+        }
+        if (pending.remaining() < recordSize) {
+            ByteBuffer larger = ByteBuffer.allocate(pending.capacity() * 2);
+            pending.flip();
+            pending = larger.put(pending);
+        }
+        int start = pending.position();
+        record.write(pending);
+        if (pending.position() != start + recordSize - 4) {
+            int length = pending.position() - start;
+            pending.position(start);
+            throw new IllegalStateException("Record of " + length + " bytes, expected " + (recordSize - 4));
+        }
+        CRC32 crc = new CRC32();
+        crc.update(pending.array(), start, recordSize - 4);
+        pending.putInt((int) crc.getValue());
+        appended++;
+        notifyAll();
+        return true;
+    }
+
+    // Throws the write failure, if any, or an IOException once the log is closed
+    synchronized void checkOpen() throws IOException {
+        if (failure != null) {
+            throw failure;
+        }
+        if (closed) {
+            throw new IOException("Closed " + description);
+        }
+    }
+
+    // Waits until every record queued so far is on disk
+    synchronized void flush() throws IOException {
+        long target = appended;
+        while (durable < target && failure == null) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while flushing the " + description, e);
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    // Forced writes so far; each one covers every record queued while the previous one was forced
+    synchronized int commits() {
+        return commits;
+    }
+
+    // The error that stopped the writer thread, or null
+    synchronized IOException failure() {
+        return failure;
+    }
+
+    // Writes what is queued, stops the writer thread and closes the channel it opened
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            notifyAll();
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    private void writeLoop() {
+        while (true) {
+            long batch;
+            synchronized (this) {
+                while (pending.position() == 0 && !closed) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (pending.position() == 0) {
+                    return; // Closed and drained
+                }
+                ByteBuffer full = pending;
+                pending = writing;
+                writing = full;
+                batch = appended;
+            }
+            try {
+                if (channel == null) {
+                    channel = opener.open();
+                }
+                writing.flip();
+                int records = writing.remaining() / recordSize;
+                while (writing.hasRemaining()) {
+                    channel.write(writing);
+                }
+                channel.force(false);
+                writing.clear();
+                if (committed.committed(records)) { // Before flush() returns, so it also waits for a compaction
+                    channel.close();
+                    channel = null; // Reopened on the replacement file by the next batch
+                }
+                synchronized (this) {
+                    durable = batch;
+                    commits++;
+                    notifyAll();
+                }
+            } catch (IOException e) {
+                System.err.println("Error writing " + description + ": " + e.getMessage());
+                synchronized (this) {
+                    failure = e;
+                    notifyAll();
+                }
+                return;
+            }
+        }
+    }
+}
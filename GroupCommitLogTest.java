@@ -0,0 +1,77 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+public class GroupCommitLogTest {
+    // testRecords(): Every queued record reaches the file followed by the CRC32 of its fields, in queue order,
+    // and a burst of records takes fewer forced writes than records.
+    @Test
+    void testRecords() throws IOException {
+        File file = File.createTempFile("group_commit", ".log");
+        GroupCommitLog log = new GroupCommitLog("test log", "test-log", 8,
+                () -> FileChannel.open(file.toPath(), StandardOpenOption.WRITE), records -> false);
+        for (int i = 0; i < 1000; i++) {
+            int value = i;
+            assertTrue(log.append(record -> record.putInt(value)));
+        }
+        log.flush();
+        assertTrue(log.commits() < 1000, "commits: " + log.commits());
+        log.close();
+        assertFalse(log.append(record -> record.putInt(-1)));
+        assertThrows(IOException.class, log::checkOpen);
+
+        ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+        assertEquals(1000 * 8, bytes.limit());
+        CRC32 crc = new CRC32();
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, bytes.getInt(i * 8));
+            crc.reset();
+            crc.update(bytes.array(), i * 8, 4);
+            assertEquals((int) crc.getValue(), bytes.getInt(i * 8 + 4));
+        }
+        file.delete();
+    }
+
+    // testReplacedFile(): When the committed hook replaces the file, the next batch goes to a newly opened one.
+    @Test
+    void testReplacedFile() throws IOException {
+        List<File> files = new ArrayList<>();
+        GroupCommitLog log = new GroupCommitLog("test log", "test-log", 8, () -> {
+            File file = File.createTempFile("group_commit", ".log");
+            files.add(file);
+            return FileChannel.open(file.toPath(), StandardOpenOption.WRITE);
+        }, records -> true);
+        log.append(record -> record.putInt(1));
+        log.flush();
+        log.append(record -> record.putInt(2));
+        log.close();
+
+        assertEquals(2, files.size());
+        for (int i = 0; i < 2; i++) {
+            assertEquals(i + 1, ByteBuffer.wrap(Files.readAllBytes(files.get(i).toPath())).getInt(0));
+            files.get(i).delete();
+        }
+    }
+
+    // testRecordSize(): A record that writes the wrong number of bytes is refused rather than corrupting the file.
+    @Test
+    void testRecordSize() throws IOException {
+        GroupCommitLog log = new GroupCommitLog("test log", "test-log", 8, () -> {
+            throw new IOException("Nothing should be written");
+        }, records -> false);
+        assertThrows(IllegalStateException.class, () -> log.append(record -> record.putLong(1)));
+        log.close();
+    }
+}
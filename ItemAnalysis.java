@@ -0,0 +1,338 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Streaming item analysis. Every answer and every finished attempt is folded into running per-question
+// counters, kept in primitive arrays indexed by a dense question id, so the statistics below come
+// straight from the counters without keeping or rescanning raw events.
+//
+//   difficulty      p = correct / attempts
+//   discrimination  point-biserial r = (M1 - M0) / s * sqrt(p (1 - p)), where M1 and M0 are the mean
+//                   attempt scores of candidates who got the question right and wrong and s is the
+//                   standard deviation of those scores; computed from sums and sums of squares
+//
+// Questions are identified across runs by ReviewScheduler.key. Several quiz processes can share one
+// statistics file: each save adds only what this process counted since its last load or save.
+class ItemAnalysis {
+    static final String STATS_FILE = "item_stats.dat";
+    static final int SKIPPED = 4; // Column after A-D in the choice distribution
+    private static final int MAGIC = 0x4D435149; // "MCQI"
+    private static final int VERSION = 1;
+
+    // Question key -> dense id, open addressing
+    private long[] table = new long[1024];
+    private int[] tableIds = new int[1024];
+    private long[] keys = new long[256];
+    private int size;
+
+    private int[] attempts = new int[256];
+    private int[] correct = new int[256];
+    private int[] chosen = new int[256 * 5]; // A, B, C, D, skipped per question
+    private long[] answerNanos = new long[256];
+    // Score sums over finished attempts that included the question, for discrimination
+    private int[] scored = new int[256];
+    private int[] scoredCorrect = new int[256];
+    private double[] scoreSum = new double[256];
+    private double[] scoreSquares = new double[256];
+    private double[] scoreCorrectSum = new double[256];
+    private ItemAnalysis saved; // Counters as of the last load or save, or null when nothing was read or written
+
+    synchronized int size() {
+        return size;
+    }
+
+    // Dense id for the question, assigned on first sight
+    synchronized int id(MCQ question) {
+        return id(ReviewScheduler.key(question));
+    }
+
+    // One answer; letter is "A".."D", or null when the question was skipped
+    synchronized void recordAnswer(MCQ question, String letter, boolean right, long nanosToAnswer) {
+        int id = id(ReviewScheduler.key(question));
+        attempts[id]++;
+        if (right) {
+            correct[id]++;
+        }
+        int column = letter == null || letter.length() != 1 || letter.charAt(0) < 'A' || letter.charAt(0) > 'D'
+                ? SKIPPED : letter.charAt(0) - 'A';
+        chosen[id * 5 + column]++;
+        answerNanos[id] += Math.max(0, nanosToAnswer);
+    }
+
+    // A finished attempt: which questions it contained, which were right and its overall score
+    synchronized void recordAttempt(List<MCQ> questions, boolean[] right, double score) {
+        for (int i = 0; i < questions.size(); i++) {
+            int id = id(ReviewScheduler.key(questions.get(i)));
+            scored[id]++;
+            scoreSum[id] += score;
+            scoreSquares[id] += score * score;
+            if (right[i]) {
+                scoredCorrect[id]++;
+                scoreCorrectSum[id] += score;
+            }
+        }
+    }
+
+    // Convenience for a scored QuizSession
+    void recordAttempt(QuizSession session) {
+        boolean[] right = new boolean[session.size()];
+        for (int i = 0; i < right.length; i++) {
+            right[i] = session.isCorrect(i);
+        }
+        recordAttempt(session.getQuestions(), right, session.getScorePercentage());
+    }
+
+    synchronized int attempts(int id) {
+        return attempts[id];
+    }
+
+    synchronized int chosen(int id, int column) {
+        return chosen[id * 5 + column];
+    }
+
+    // Proportion answered correctly, NaN before the first answer
+    synchronized double difficulty(int id) {
+        return attempts[id] == 0 ? Double.NaN : (double) correct[id] / attempts[id];
+    }
+
+    synchronized double meanSecondsToAnswer(int id) {
+        return attempts[id] == 0 ? Double.NaN : answerNanos[id] / 1e9 / attempts[id];
+    }
+
+    // Point-biserial correlation between getting the question right and the attempt score; NaN
+    // when everyone got it right, everyone got it wrong or all scores were equal
+    synchronized double discrimination(int id) {
+        return pointBiserial(scored[id], scoredCorrect[id], scoreSum[id], scoreSquares[id], scoreCorrectSum[id]);
+    }
+
+    // The correlation above from n scores, the number right, the sum and sum of squares of all n
+    // scores and the sum of the scores of those who got it right
+    static double pointBiserial(int n, int right, double scoreSum, double scoreSquares, double scoreCorrectSum) {
+        if (n == 0 || right == 0 || right == n) {
+            return Double.NaN;
+        }
+        double mean = scoreSum / n;
+        double variance = scoreSquares / n - mean * mean;
+        if (variance <= 1e-12) {
+            return Double.NaN;
+        }
+        double meanRight = scoreCorrectSum / right;
+        double meanWrong = (scoreSum - scoreCorrectSum) / (n - right);
+        double p = (double) right / n;
+        return (meanRight - meanWrong) / Math.sqrt(variance) * Math.sqrt(p * (1 - p));
+    }
+
+    // One line per question that has been answered, hardest first
+    String report(List<MCQ> questions) {
+        List<MCQ> known = new ArrayList<>();
+        List<Integer> ids = new ArrayList<>();
+        synchronized (this) {
+            for (MCQ question : questions) {
+                int slot = slot(ReviewScheduler.key(question));
+                if (table[slot] != 0 && attempts[tableIds[slot]] > 0) {
+                    known.add(question);
+                    ids.add(tableIds[slot]);
+                }
+            }
+        }
+        Integer[] order = new Integer[ids.size()];
+        Arrays.setAll(order, i -> i);
+        Arrays.sort(order, (a, b) -> Double.compare(difficulty(ids.get(a)), difficulty(ids.get(b))));
+
+        StringBuilder sb = new StringBuilder(
+                String.format("%-50s %8s %6s %6s %7s %6s %6s %6s %6s %6s%n", "Question", "Attempts", "p", "r_pb",
+                        "Secs", "A", "B", "C", "D", "Skip"));
+        for (int i : order) {
+            int id = ids.get(i);
+            String text = known.get(i).getQuestion().replaceAll("\\s+", " ");
+            sb.append(String.format("%-50s %8d %6.2f %6.2f %7.1f %6d %6d %6d %6d %6d%n",
+                    text.length() > 50 ? text.substring(0, 47) + "..." : text, attempts(id), difficulty(id),
+                    discrimination(id), meanSecondsToAnswer(id), chosen(id, 0), chosen(id, 1), chosen(id, 2),
+                    chosen(id, 3), chosen(id, SKIPPED)));
+        }
+        return sb.toString();
+    }
+
+    // Adds the counts since the last load or save to the file. The file is read, merged and replaced under a
+    // lock on a side file, as in QuizHistoryLog, so saves from other processes are added to and not lost.
+    synchronized void save(File file) throws IOException {
+        try (FileChannel lockChannel = FileChannel.open(new File(file.getPath() + ".lock").toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            lockChannel.lock(); // Held until the channel is closed
+            ItemAnalysis merged = read(file);
+            merged.add(this, saved);
+            merged.write(file);
+        }
+        saved = new ItemAnalysis();
+        saved.add(this, null);
+    }
+
+    // Replaces the file with these counters; the caller holds the lock, so the temporary file is its own
+    private void write(File file) throws IOException {
+        File tmp = new File(file.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(size);
+            for (int id = 0; id < size; id++) {
+                out.writeLong(keys[id]);
+                out.writeInt(attempts[id]);
+                out.writeInt(correct[id]);
+                for (int c = 0; c < 5; c++) {
+                    out.writeInt(chosen[id * 5 + c]);
+                }
+                out.writeLong(answerNanos[id]);
+                out.writeInt(scored[id]);
+                out.writeInt(scoredCorrect[id]);
+                out.writeDouble(scoreSum[id]);
+                out.writeDouble(scoreSquares[id]);
+                out.writeDouble(scoreCorrectSum[id]);
+            }
+        }
+        Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Counters saved by save(), or empty ones when the file does not exist yet
+    static ItemAnalysis load(File file) throws IOException {
+        ItemAnalysis analysis = read(file);
+        analysis.saved = new ItemAnalysis();
+        analysis.saved.add(analysis, null);
+        return analysis;
+    }
+
+    private static ItemAnalysis read(File file) throws IOException {
+        ItemAnalysis analysis = new ItemAnalysis();
+        if (!file.exists() || file.length() == 0) {
+            return analysis;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Not an item statistics file: " + file.getName());
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                int id = analysis.id(in.readLong());
+                analysis.attempts[id] = in.readInt();
+                analysis.correct[id] = in.readInt();
+                for (int c = 0; c < 5; c++) {
+                    analysis.chosen[id * 5 + c] = in.readInt();
+                }
+                analysis.answerNanos[id] = in.readLong();
+                analysis.scored[id] = in.readInt();
+                analysis.scoredCorrect[id] = in.readInt();
+                analysis.scoreSum[id] = in.readDouble();
+                analysis.scoreSquares[id] = in.readDouble();
+                analysis.scoreCorrectSum[id] = in.readDouble();
+            }
+        }
+        return analysis;
+    }
+
+    // Adds other's counters, less base's (null for none), question by question
+    private void add(ItemAnalysis other, ItemAnalysis base) {
+        for (int i = 0; i < other.size; i++) {
+            int id = id(other.keys[i]);
+            int b = base == null ? -1 : base.find(other.keys[i]);
+            attempts[id] += other.attempts[i] - (b < 0 ? 0 : base.attempts[b]);
+            correct[id] += other.correct[i] - (b < 0 ? 0 : base.correct[b]);
+            for (int c = 0; c < 5; c++) {
+                chosen[id * 5 + c] += other.chosen[i * 5 + c] - (b < 0 ? 0 : base.chosen[b * 5 + c]);
+            }
+            answerNanos[id] += other.answerNanos[i] - (b < 0 ? 0 : base.answerNanos[b]);
+            scored[id] += other.scored[i] - (b < 0 ? 0 : base.scored[b]);
+            scoredCorrect[id] += other.scoredCorrect[i] - (b < 0 ? 0 : base.scoredCorrect[b]);
+            scoreSum[id] += other.scoreSum[i] - (b < 0 ? 0 : base.scoreSum[b]);
+            scoreSquares[id] += other.scoreSquares[i] - (b < 0 ? 0 : base.scoreSquares[b]);
+            scoreCorrectSum[id] += other.scoreCorrectSum[i] - (b < 0 ? 0 : base.scoreCorrectSum[b]);
+        }
+    }
+
+    // Id of a question already seen, or -1
+    private int find(long key) {
+        int slot = slot(key);
+        return table[slot] == key ? tableIds[slot] : -1;
+    }
+
+    private int id(long key) {
+        int slot = slot(key);
+        if (table[slot] == key) {
+            return tableIds[slot];
+        }
+        if ((size + 1) * 4L > table.length * 3L) {
+            rehash();
+            slot = slot(key);
+        }
+        if (size == keys.length) {
+            grow();
+        }
+        table[slot] = key;
+        tableIds[slot] = size;
+        keys[size] = key;
+        return size++;
+    }
+
+    private int slot(long key) {
+        int mask = table.length - 1;
+        int slot = (int) (key ^ (key >>> 29)) * 0x9E3779B9 & mask;
+        while (table[slot] != 0 && table[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void rehash() {
+        table = new long[table.length * 2];
+        tableIds = new int[table.length];
+        for (int id = 0; id < size; id++) {
+            int slot = slot(keys[id]);
+            table[slot] = keys[id];
+            tableIds[slot] = id;
+        }
+    }
+
+    private void grow() {
+        int capacity = keys.length * 2;
+        keys = Arrays.copyOf(keys, capacity);
+        attempts = Arrays.copyOf(attempts, capacity);
+        correct = Arrays.copyOf(correct, capacity);
+        chosen = Arrays.copyOf(chosen, capacity * 5);
+        answerNanos = Arrays.copyOf(answerNanos, capacity);
+        scored = Arrays.copyOf(scored, capacity);
+        scoredCorrect = Arrays.copyOf(scoredCorrect, capacity);
+        scoreSum = Arrays.copyOf(scoreSum, capacity);
+        scoreSquares = Arrays.copyOf(scoreSquares, capacity);
+        scoreCorrectSum = Arrays.copyOf(scoreCorrectSum, capacity);
+    }
+
+    // Usage: java ItemAnalysis [item_stats.dat] bank1.txt [bank2.txt ...]
+    public static void main(String[] args) throws IOException {
+        List<File> banks = new ArrayList<>();
+        File stats = new File(STATS_FILE);
+        for (String arg : args) {
+            if (arg.endsWith(".dat")) {
+                stats = new File(arg);
+            } else {
+                banks.add(new File(arg).getAbsoluteFile());
+            }
+        }
+        if (banks.isEmpty()) {
+            System.err.println("Usage: java ItemAnalysis [item_stats.dat] <bank.txt>...");
+            System.exit(1);
+        }
+        ArrayList<MCQ> questions = QuestionBankLoader.loadAll(banks, banks.get(0).getParentFile(),
+                (file, ex) -> System.err.println("Error reading file: " + file.getName() + ": " + ex.getMessage()));
+        System.out.print(load(stats).report(questions));
+    }
+}
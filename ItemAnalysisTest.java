@@ -0,0 +1,146 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class ItemAnalysisTest {
+    private static List<MCQ> bank(int size) {
+        List<MCQ> bank = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            bank.add(MCQ.of("Question " + i, new String[] { "A) a" + i, "B) b", "C) c", "D) d" }, "A", "Reason",
+                    "q.wav", "e.wav"));
+        }
+        return bank;
+    }
+
+    // testStatistics(): Difficulty, choice counts and point-biserial discrimination computed from the
+    // running counters match the textbook formulas applied to the raw answers.
+    @Test
+    void testStatistics() {
+        List<MCQ> bank = bank(5);
+        ItemAnalysis analysis = new ItemAnalysis();
+        Random random = new Random(7);
+        int candidates = 400;
+        boolean[][] right = new boolean[candidates][bank.size()];
+        double[] scores = new double[candidates];
+        for (int c = 0; c < candidates; c++) {
+            double ability = random.nextDouble();
+            int correct = 0;
+            for (int q = 0; q < bank.size(); q++) {
+                // Question q is harder for higher q; able candidates get more right
+                right[c][q] = random.nextDouble() < ability * (1 - q * 0.15);
+                String letter = right[c][q] ? "A"
+                        : random.nextInt(5) == 0 ? null : String.valueOf("BCD".charAt(random.nextInt(3)));
+                analysis.recordAnswer(bank.get(q), letter, right[c][q], 2_000_000_000L);
+                correct += right[c][q] ? 1 : 0;
+            }
+            scores[c] = 100.0 * correct / bank.size();
+            analysis.recordAttempt(bank, right[c], scores[c]);
+        }
+
+        for (int q = 0; q < bank.size(); q++) {
+            int id = analysis.id(bank.get(q));
+            int correct = 0;
+            double sumRight = 0, sumWrong = 0, sum = 0;
+            for (int c = 0; c < candidates; c++) {
+                sum += scores[c];
+                if (right[c][q]) {
+                    correct++;
+                    sumRight += scores[c];
+                } else {
+                    sumWrong += scores[c];
+                }
+            }
+            double mean = sum / candidates;
+            double squares = 0;
+            for (double score : scores) {
+                squares += (score - mean) * (score - mean);
+            }
+            double sd = Math.sqrt(squares / candidates);
+            double p = (double) correct / candidates;
+            double expected = (sumRight / correct - sumWrong / (candidates - correct)) / sd * Math.sqrt(p * (1 - p));
+
+            assertEquals(p, analysis.difficulty(id), 1e-12);
+            assertEquals(expected, analysis.discrimination(id), 1e-9);
+            assertTrue(analysis.discrimination(id) > 0.2); // Able candidates do better on every question
+            assertEquals(correct, analysis.chosen(id, 0));
+            assertEquals(candidates, analysis.chosen(id, 0) + analysis.chosen(id, 1) + analysis.chosen(id, 2)
+                    + analysis.chosen(id, 3) + analysis.chosen(id, ItemAnalysis.SKIPPED));
+            assertEquals(2.0, analysis.meanSecondsToAnswer(id), 1e-9);
+        }
+        assertTrue(analysis.difficulty(analysis.id(bank.get(0))) > analysis.difficulty(analysis.id(bank.get(4))));
+    }
+
+    // testSaveAndLoad(): Counters survive a save and load, and a report lists every answered question.
+    @Test
+    void testSaveAndLoad() throws IOException {
+        List<MCQ> bank = bank(3);
+        ItemAnalysis analysis = new ItemAnalysis();
+        analysis.recordAnswer(bank.get(0), "A", true, 1_000_000_000L);
+        analysis.recordAnswer(bank.get(1), "C", false, 3_000_000_000L);
+        analysis.recordAttempt(bank.subList(0, 2), new boolean[] { true, false }, 50.0);
+
+        File file = File.createTempFile("item_stats", ".dat");
+        analysis.save(file);
+        ItemAnalysis loaded = ItemAnalysis.load(file);
+        file.delete();
+        new File(file.getPath() + ".lock").delete();
+
+        assertEquals(2, loaded.size());
+        int id = loaded.id(bank.get(1));
+        assertEquals(1, loaded.chosen(id, 2));
+        assertEquals(0.0, loaded.difficulty(id), 0);
+        assertEquals(3.0, loaded.meanSecondsToAnswer(id), 1e-9);
+        String report = loaded.report(bank);
+        assertTrue(report.contains("Question 0") && report.contains("Question 1") && !report.contains("Question 2"),
+                report);
+    }
+
+    // testSavesFromSeveralProcesses(): Two quiz processes that loaded the same file each add their own
+    // answers when they save, and saving again adds only what was recorded since.
+    @Test
+    void testSavesFromSeveralProcesses() throws IOException {
+        List<MCQ> bank = bank(2);
+        File file = File.createTempFile("item_stats", ".dat");
+        ItemAnalysis first = ItemAnalysis.load(file);
+        ItemAnalysis second = ItemAnalysis.load(file);
+        first.recordAnswer(bank.get(0), "A", true, 1_000_000_000L);
+        second.recordAnswer(bank.get(0), "B", false, 1_000_000_000L);
+        second.recordAnswer(bank.get(1), "A", true, 1_000_000_000L);
+        first.save(file);
+        second.save(file);
+        first.recordAnswer(bank.get(1), "D", false, 1_000_000_000L);
+        first.save(file);
+        first.save(file);
+        ItemAnalysis loaded = ItemAnalysis.load(file);
+        file.delete();
+        new File(file.getPath() + ".lock").delete();
+
+        int id = loaded.id(bank.get(0));
+        assertEquals(2, loaded.attempts(id));
+        assertEquals(1, loaded.chosen(id, 0));
+        assertEquals(1, loaded.chosen(id, 1));
+        assertEquals(2, loaded.attempts(loaded.id(bank.get(1))));
+        assertEquals(1, loaded.chosen(loaded.id(bank.get(1)), 3));
+    }
+
+    // testMillionsOfEvents(): Two million answers over 100k questions are absorbed by the primitive
+    // counters without growing per event.
+    @Test
+    void testMillionsOfEvents() {
+        List<MCQ> bank = bank(100_000);
+        ItemAnalysis analysis = new ItemAnalysis();
+        for (int i = 0; i < 2_000_000; i++) {
+            int q = (int) ((long) i * 7919 % bank.size());
+            analysis.recordAnswer(bank.get(q), "ABCD".substring(i & 3, (i & 3) + 1), (i & 3) == 0, 1_000_000L);
+        }
+        assertEquals(100_000, analysis.size());
+        assertEquals(20, analysis.attempts(analysis.id(bank.get(0))));
+        assertEquals(20, analysis.attempts(analysis.id(bank.get(99_999))));
+    }
+}
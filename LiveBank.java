@@ -0,0 +1,228 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.zip.CRC32C;
+
+// A question bank that follows edits to its text files while the quiz keeps running. Each file is
+// split into question blocks (a "Question" header up to the next one) and every block is
+// fingerprinted; when a file changes, only the blocks whose fingerprint changed are parsed again,
+// and unchanged blocks keep their MCQ objects. The updated bank is published as a new immutable
+// snapshot, so sessions that already copied the old one carry on undisturbed.
+//
+// A block that moves (because a question was inserted or removed above it) is parsed again, since
+// its question number and so its audio paths change. If a changed file no longer parses, for example
+// while it is half saved, the previous version of that file stays in the bank.
+class LiveBank implements AutoCloseable {
+    private static final long SETTLE_MILLIS = 10; // Editors save in several writes; wait for the last one
+
+    private final List<File> files;
+    private final File baseDirectory;
+    private final BiConsumer<File, IOException> onError;
+    private final BankFile[] banks; // Guarded by this
+    private volatile List<MCQ> snapshot = List.of();
+    private volatile long version;
+    private volatile int lastBlocksParsed;
+    private WatchService watcher;
+
+    // One file's questions by block, with the fingerprint each block had when it was parsed
+    private static final class BankFile {
+        final long[] fingerprints;
+        final MCQ[][] questions;
+
+        BankFile(long[] fingerprints, MCQ[][] questions) {
+            this.fingerprints = fingerprints;
+            this.questions = questions;
+        }
+    }
+
+    LiveBank(List<File> files, File baseDirectory, BiConsumer<File, IOException> onError) {
+        this.files = files.stream().map(LiveBank::canonical).toList();
+        this.baseDirectory = baseDirectory;
+        this.onError = onError;
+        banks = new BankFile[files.size()];
+
+        List<ForkJoinTask<BankFile>> tasks = new ArrayList<>(files.size());
+        for (File file : this.files) {
+            tasks.add(ForkJoinPool.commonPool().submit(() -> parse(file, Files.readAllBytes(file.toPath()), null)));
+        }
+        for (int i = 0; i < tasks.size(); i++) {
+            try {
+                banks[i] = tasks.get(i).get();
+            } catch (Exception e) {
+                onError.accept(this.files.get(i), QuestionBankLoader.asIOException(e));
+            }
+        }
+        synchronized (this) {
+            publish();
+        }
+    }
+
+    // The current questions in file order; never changes once returned
+    List<MCQ> snapshot() {
+        return snapshot;
+    }
+
+    // Incremented every time a new snapshot is published
+    long version() {
+        return version;
+    }
+
+    // Blocks parsed by the most recent reload
+    int lastBlocksParsed() {
+        return lastBlocksParsed;
+    }
+
+    // Re-reads one bank file and publishes a new snapshot if its questions changed. Reloads run one
+    // at a time; readers of snapshot() are never blocked.
+    synchronized boolean reload(File file) {
+        int index = files.indexOf(canonical(file));
+        if (index < 0) {
+            return false;
+        }
+        try (QuizMetrics.Span span = QuizMetrics.begin(QuizMetrics.Phase.RELOAD)) {
+            byte[] bytes = Files.readAllBytes(file.toPath());
+            BankFile old = banks[index];
+            int[] parsed = new int[1];
+            BankFile updated = parse(file, bytes, old, parsed);
+            span.detail(file.getName() + ": " + parsed[0] + " blocks parsed");
+            lastBlocksParsed = parsed[0];
+            if (parsed[0] == 0 && old != null && old.questions.length == updated.questions.length) {
+                return false; // Saved without changes
+            }
+            banks[index] = updated;
+            publish();
+            return true;
+        } catch (IOException e) {
+            onError.accept(file, e);
+            return false;
+        }
+    }
+
+    private BankFile parse(File file, byte[] bytes, BankFile old) throws IOException {
+        return parse(file, bytes, old, new int[1]);
+    }
+
+    private BankFile parse(File file, byte[] bytes, BankFile old, int[] parsed) throws IOException {
+        QuestionBankLoader.Blocks split = QuestionBankLoader.split(bytes);
+        int blocks = split.count;
+        long[] fingerprints = new long[blocks];
+        MCQ[][] questions = new MCQ[blocks][];
+        CRC32C crc = new CRC32C();
+        for (int b = 0; b < blocks; b++) {
+            int from = split.starts[b];
+            int to = split.end(b);
+            crc.reset();
+            crc.update(bytes, from, to - from);
+            fingerprints[b] = crc.getValue() | (long) (to - from) << 32;
+            if (old != null && b < old.fingerprints.length && old.fingerprints[b] == fingerprints[b]) {
+                questions[b] = old.questions[b];
+                continue;
+            }
+            List<MCQ> block = new ArrayList<>(1);
+            QuestionBankLoader.parse(file, bytes, from, to, b, split.linesBefore[b],
+                    QuestionBankLoader.toMCQ(baseDirectory, block::add));
+            questions[b] = block.toArray(new MCQ[0]);
+            parsed[0]++;
+        }
+        return new BankFile(fingerprints, questions);
+    }
+
+    private static File canonical(File file) {
+        return file.toPath().toAbsolutePath().normalize().toFile();
+    }
+
+    // Caller holds the lock
+    private void publish() {
+        int size = 0;
+        for (BankFile bank : banks) {
+            if (bank != null) {
+                for (MCQ[] block : bank.questions) {
+                    size += block.length;
+                }
+            }
+        }
+        ArrayList<MCQ> questions = new ArrayList<>(size);
+        for (BankFile bank : banks) {
+            if (bank != null) {
+                for (MCQ[] block : bank.questions) {
+                    Collections.addAll(questions, block);
+                }
+            }
+        }
+        snapshot = Collections.unmodifiableList(questions);
+        version++;
+    }
+
+    // Starts a daemon thread that reloads bank files as they are saved
+    synchronized void watch() throws IOException {
+        if (watcher != null) {
+            return;
+        }
+        watcher = FileSystems.getDefault().newWatchService();
+        Map<WatchKey, Path> directories = new HashMap<>();
+        for (File file : files) {
+            Path directory = file.getParentFile().toPath();
+            if (!directories.containsValue(directory)) {
+                directories.put(directory.register(watcher, StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY), directory);
+            }
+        }
+        WatchService service = watcher;
+        Thread thread = new Thread(() -> watchLoop(service, directories), "bank-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void watchLoop(WatchService service, Map<WatchKey, Path> directories) {
+        try {
+            while (true) {
+                BitSet changed = new BitSet(files.size());
+                WatchKey key = service.take();
+                // Collect everything that arrives until the files have been quiet for a moment
+                while (key != null) {
+                    Path directory = directories.get(key);
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        if (event.context() instanceof Path name && directory != null) {
+                            int index = files.indexOf(canonical(directory.resolve(name).toFile()));
+                            if (index >= 0) {
+                                changed.set(index);
+                            }
+                        }
+                    }
+                    key.reset();
+                    key = service.poll(SETTLE_MILLIS, TimeUnit.MILLISECONDS);
+                }
+                for (int i = changed.nextSetBit(0); i >= 0; i = changed.nextSetBit(i + 1)) {
+                    reload(files.get(i));
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Closed
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (watcher != null) {
+            watcher.close();
+            watcher = null;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class LiveBankTest {
+    private static File bank(int count) throws IOException {
+        return TestBanks.write("live_bank", count, i -> MCQ.of("Question text " + i,
+                new String[] { "A) a" + i, "B) b", "C) c", "D) d" }, "A", "Reason " + i, "", ""));
+    }
+
+    private static void assertSameQuestions(List<MCQ> expected, List<MCQ> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getQuestion(), actual.get(i).getQuestion());
+            assertEquals(List.of(expected.get(i).getChoices()), List.of(actual.get(i).getChoices()));
+            assertEquals(expected.get(i).getAnswer(), actual.get(i).getAnswer());
+            assertEquals(expected.get(i).getReason(), actual.get(i).getReason());
+            assertEquals(expected.get(i).getQuestionAudioPath(), actual.get(i).getQuestionAudioPath());
+        }
+    }
+
+    // testIncrementalReload(): An edited question is the only block parsed again, unchanged questions
+    // keep their MCQ objects, earlier snapshots are left alone, and the result always matches a full
+    // parse. A broken edit keeps the previous version of the file.
+    @Test
+    void testIncrementalReload() throws IOException {
+        File file = bank(2000);
+        AtomicInteger errors = new AtomicInteger();
+        LiveBank bank = new LiveBank(List.of(file), file.getParentFile(), (f, e) -> errors.incrementAndGet());
+        List<MCQ> before = bank.snapshot();
+        assertSameQuestions(QuestionBankLoader.loadAll(List.of(file), file.getParentFile(), (f, e) -> {
+        }), before);
+
+        String text = Files.readString(file.toPath());
+        Files.writeString(file.toPath(), text.replace("Question text 1000\n", "Question text one thousand\n"));
+        assertTrue(bank.reload(file));
+        assertEquals(1, bank.lastBlocksParsed());
+        List<MCQ> after = bank.snapshot();
+        assertEquals("Question text one thousand", after.get(1000).getQuestion());
+        assertEquals("Question text 1000", before.get(1000).getQuestion());
+        assertSame(before.get(999), after.get(999));
+        assertSame(before.get(1001), after.get(1001));
+        assertSameQuestions(QuestionBankLoader.loadAll(List.of(file), file.getParentFile(), (f, e) -> {
+        }), after);
+
+        assertFalse(bank.reload(file)); // Saved again without changes
+        long version = bank.version();
+
+        // An empty answer is a parse error; the bank keeps the last good version of the file
+        Files.writeString(file.toPath(), Files.readString(file.toPath()).replace("Answer: A) a5\n", "Answer:\n"));
+        assertFalse(bank.reload(file));
+        assertEquals(1, errors.get());
+        assertEquals(version, bank.version());
+        assertSame(after, bank.snapshot());
+        file.delete();
+    }
+
+    // testWatch(): Saving a bank file is picked up by the watcher without any call from the test.
+    @Test
+    void testWatch() throws IOException, InterruptedException {
+        File file = bank(500);
+        try (LiveBank bank = new LiveBank(List.of(file), file.getParentFile(), (f, e) -> {
+        })) {
+            bank.watch();
+            long version = bank.version();
+            Thread.sleep(50); // Let the watcher register before the edit
+            long deadline = System.nanoTime() + 5_000_000_000L;
+            Files.writeString(file.toPath(), Files.readString(file.toPath()).replace("Reason 250\n",
+                    "Reason two hundred fifty\n"));
+            while (bank.version() == version && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+            assertEquals("Reason two hundred fifty", bank.snapshot().get(250).getReason());
+        }
+        file.delete();
+    }
+}
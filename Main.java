@@ -5,75 +5,113 @@ import java.awt.event.*;
 import java.io.*;
 import java.nio.file.Paths;
 import java.util.*;
-import java.util.Queue;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.IntFunction;
 
 import javax.sound.sampled.*;
 import javax.swing.*;
-import javax.swing.Timer;
 
-class MCQ {
-    private final String question;
-    private final String[] choices;
-    private final String answer;
-    private final String reason;
-    private final String questionAudioPath;
-    private final String explanationAudioPath;
-
-    public MCQ(String question, String[] choices, String answer, String reason, String questionAudioPath,
+// A question with its choices, answer and audio. Where the text is kept is up to the subclass: a question
+// parsed from a bank owns its strings (of), while a view such as CompactQuestionBank's decodes them on demand.
+abstract class MCQ {
+    public static MCQ of(String question, String[] choices, String answer, String reason, String questionAudioPath,
             String explanationAudioPath) {
-        this.question = question;
-        this.choices = choices;
-        this.answer = answer.trim().substring(0, 1); // Extract only the letter (e.g., 'A', 'B', etc.)
-        this.reason = reason;
-        this.questionAudioPath = questionAudioPath;
-        this.explanationAudioPath = explanationAudioPath;
+        return new Fields(question, choices, answer, reason, questionAudioPath, explanationAudioPath);
     }
 
-    public String getQuestion() {
-        return question;
-    }
+    public abstract String getQuestion();
 
-    public String[] getChoices() {
-        return choices;
-    }
+    public abstract String[] getChoices();
 
-    public String getAnswer() {
-        return answer;
-    } // Return only the answer letter (e.g., "B")
+    public abstract String getAnswer(); // Return only the answer letter (e.g., "B")
 
-    public String getReason() {
-        return reason;
-    }
+    public abstract String getReason();
 
-    public String getQuestionAudioPath() {
-        return questionAudioPath;
-    }
+    public abstract String getQuestionAudioPath();
 
-    public String getExplanationAudioPath() {
-        return explanationAudioPath;
-    }
+    public abstract String getExplanationAudioPath();
 
     public static void shuffleQuestions(ArrayList<MCQ> questions) {
         long seed = System.nanoTime();
         Collections.shuffle(questions, new Random(seed));
     }
+
+    // A question holding its own fields
+    private static final class Fields extends MCQ {
+        private final String question;
+        private final String[] choices;
+        private final String answer;
+        private final String reason;
+        private final String questionAudioPath;
+        private final String explanationAudioPath;
+
+        Fields(String question, String[] choices, String answer, String reason, String questionAudioPath,
+                String explanationAudioPath) {
+            this.question = question;
+            this.choices = choices;
+            this.answer = answer.trim().substring(0, 1); // Extract only the letter (e.g., 'A', 'B', etc.)
+            this.reason = reason;
+            this.questionAudioPath = questionAudioPath;
+            this.explanationAudioPath = explanationAudioPath;
+        }
+
+        @Override
+        public String getQuestion() {
+            return question;
+        }
+
+        @Override
+        public String[] getChoices() {
+            return choices;
+        }
+
+        @Override
+        public String getAnswer() {
+            return answer;
+        }
+
+        @Override
+        public String getReason() {
+            return reason;
+        }
+
+        @Override
+        public String getQuestionAudioPath() {
+            return questionAudioPath;
+        }
+
+        @Override
+        public String getExplanationAudioPath() {
+            return explanationAudioPath;
+        }
+    }
 }
 
 public class Main extends JFrame {
-    private static final Map<String, Queue<Double>> quizHistory = new LinkedHashMap<>(); // Record-keeping structure
-    private static final String HISTORY_FILE = "quiz_history.dat"; // File for storing history
+    private static final String LEGACY_HISTORY_FILE = "quiz_history.dat"; // Old serialized history, imported once
+    private static final String HISTORY_FILE = "quiz_history.log"; // Append-only history log
+    private static final QuizHistoryLog quizHistory = QuizHistoryLog.open(new File(HISTORY_FILE));
+    private static final ScoreHistory scoreHistory = ScoreHistory.open(new File(ScoreHistory.DIRECTORY)); // For trends
+    private static final String JOURNAL_FILE = "quiz_session.journal"; // Quiz in progress, for resuming after a crash
+    private static final ItemAnalysis itemStats = loadItemStats(); // Per-question statistics across quizzes
+    private static QuizMetrics.Span startup; // From choosing the files until the first question is painted
     private final String quizFileName; // Store the filename of the quiz
-    private ArrayList<MCQ> questions;
-    private final ArrayList<String> userAnswers = new ArrayList<>();
-    private final ArrayList<MCQ> incorrectQuestions = new ArrayList<>(); // Store incorrect answers
-    int currentQuestionIndex = 0;
-    private int correctAnswers = 0;
+    private final QuizSession session; // Quiz state; this frame only renders it
+    private final ReviewScheduler reviews; // Spaced-repetition state to update, or null when not enabled
+    private SessionJournal journal; // Records each answer until the quiz is scored, or null
     private final JLabel questionLabel;
+    private final QuestionPrefetcher prefetcher; // Parses the next question's label off the EDT
+    private QuizMetrics.Span pendingFrame; // Open from a question swap until the label is painted
     private JButton[] choiceButtons;
     private final JLabel timerLabel;
     private final JLabel remainingQuestionsLabel;
-    private Timer timer;
+    private DeadlineScheduler.Countdown countdown; // Current question's countdown on the shared scheduler
+    private int countdownGeneration; // Bumped on stop so callbacks already queued on the EDT are ignored
     private int timeLeft = 60;
+    private long questionShownNanos; // When the current question appeared
+    private long answerNanos = -1; // Time taken to answer the current question, -1 until answered
+    private boolean retrying; // Retries of incorrect questions are left out of the item statistics
     @SuppressWarnings("unused")
     private final String[] optionLetters = { "A", "B", "C", "D" };
     private JButton selectedButton = null;
@@ -81,10 +119,23 @@ public class Main extends JFrame {
     private int fontSize = 24; // Default font size for question and choices
 
     // Constructor that takes in the font size and time between questions
-    public Main(ArrayList<MCQ> questions, int fontSize, int timeBetweenQuestions, String quizFileName) {
-        loadHistoryFromFile();
+    public Main(List<MCQ> questions, int fontSize, int timeBetweenQuestions, String quizFileName) {
+        this(questions, fontSize, timeBetweenQuestions, quizFileName, null);
+    }
+
+    // Records every answer in the user's review schedule when reviews is not null
+    public Main(List<MCQ> questions, int fontSize, int timeBetweenQuestions, String quizFileName,
+            ReviewScheduler reviews) {
+        this(new QuizSession(questions), fontSize, timeBetweenQuestions, quizFileName, reviews, null);
+    }
+
+    // Shows a session that may already be under way (resumed from a journal) and keeps journaling it
+    Main(QuizSession session, int fontSize, int timeBetweenQuestions, String quizFileName, ReviewScheduler reviews,
+            SessionJournal journal) {
         this.quizFileName = quizFileName;
-        this.questions = questions;
+        this.session = session;
+        this.reviews = reviews;
+        this.journal = journal;
         this.fontSize = fontSize;
         this.timeBetweenQuestions = timeBetweenQuestions;
 
@@ -94,11 +145,27 @@ public class Main extends JFrame {
         setLayout(new BorderLayout());
         getContentPane().setBackground(Color.DARK_GRAY);
 
-        questionLabel = new JLabel("", SwingConstants.CENTER);
+        questionLabel = new JLabel("", SwingConstants.CENTER) {
+            @Override
+            protected void paintComponent(Graphics g) {
+                super.paintComponent(g);
+                if (pendingFrame != null) {
+                    pendingFrame.end(); // The swapped-in question is now on screen
+                    pendingFrame = null;
+                    if (startup != null) {
+                        startup.end();
+                        startup = null;
+                    }
+                }
+            }
+        };
         questionLabel.setForeground(new Color(255, 165, 0)); // Orange text for the question
-        // choiceButtons[i].setFont(new Font("Arial", Font.PLAIN, fontSize)); // Set the
-        // font size
+        // Fonts are created once; every question reuses them
+        Font questionFont = new Font("Arial", Font.PLAIN, fontSize);
+        Font choiceFont = new Font("MS Mincho", Font.PLAIN, fontSize);
+        questionLabel.setFont(questionFont); // Apply the selected font size
         add(questionLabel, BorderLayout.NORTH);
+        prefetcher = new QuestionPrefetcher(questionLabel);
 
         JPanel choicesPanel = new JPanel(new GridLayout(4, 1, 10, 10));
         choicesPanel.setBackground(Color.DARK_GRAY);
@@ -110,8 +177,7 @@ public class Main extends JFrame {
             choiceButtons[i].setFocusPainted(false);
             choiceButtons[i].setBorderPainted(false);
             choiceButtons[i].setOpaque(true);
-            questionLabel.setFont(new Font("Arial", Font.PLAIN, fontSize)); // Apply the selected font size
-            choiceButtons[i].setFont(new Font("MS Mincho", Font.PLAIN, fontSize)); // Correctly set the font size here
+            choiceButtons[i].setFont(choiceFont); // Correctly set the font size here
 
             int finalI = i;
             choiceButtons[i].addActionListener(e -> selectChoice(finalI));
@@ -141,7 +207,7 @@ public class Main extends JFrame {
         timerLabel.setForeground(Color.YELLOW);
         bottomPanel.add(timerLabel, BorderLayout.WEST);
 
-        remainingQuestionsLabel = new JLabel("Questions left: " + (questions.size() - currentQuestionIndex),
+        remainingQuestionsLabel = new JLabel("Questions left: " + session.size(),
                 SwingConstants.CENTER);
         remainingQuestionsLabel.setForeground(Color.WHITE);
         bottomPanel.add(remainingQuestionsLabel, BorderLayout.CENTER);
@@ -156,15 +222,25 @@ public class Main extends JFrame {
         startTimer();
     }
 
+    QuizSession getSession() {
+        return session;
+    }
+
     private void loadQuestion() {
-        if (currentQuestionIndex >= questions.size()) {
+        if (session.getState() != QuizSession.State.ANSWERING) {
             showResults();
             return;
         }
 
-        MCQ question = questions.get(currentQuestionIndex);
-        questionLabel.setText("<html><h2>" + question.getQuestion() + "</h2></html>");
-        questionLabel.setFont(new Font("Arial", Font.PLAIN, fontSize)); // Dynamically set font size for each question
+        QuizMetrics.Span render = QuizMetrics.begin(QuizMetrics.Phase.RENDER);
+        pendingFrame = QuizMetrics.begin(QuizMetrics.Phase.FRAME);
+        MCQ question = session.currentQuestion();
+        QuestionPrefetcher.Prepared prepared = prefetcher.take(question);
+        if (prepared != null) {
+            QuestionPrefetcher.install(questionLabel, prepared); // Parsed and laid out while the last question showed
+        } else {
+            questionLabel.setText(QuestionPrefetcher.html(question)); // First question, or the prefetch is not done
+        }
 
         String[] choices = question.getChoices();
         for (int i = 0; i < 4; i++) {
@@ -172,52 +248,73 @@ public class Main extends JFrame {
             choiceButtons[i].setBackground(Color.GRAY); // Reset button background
         }
 
-        remainingQuestionsLabel.setText("Questions left: " + (questions.size() - currentQuestionIndex - 1));
+        remainingQuestionsLabel.setText("Questions left: " + (session.size() - session.getCurrentQuestionIndex() - 1));
+        render.end();
+        questionShownNanos = System.nanoTime();
+        answerNanos = -1;
 
-        // Play question audio
+        int nextIndex = session.getCurrentQuestionIndex() + 1;
+        if (nextIndex < session.size()) {
+            prefetcher.prefetch(session.getQuestions().get(nextIndex));
+        }
+
+        // Play question audio and decode the upcoming clips while this one plays
         AudioPlayer.playAudioAsync(question.getQuestionAudioPath());
+        AudioPlayer.prefetch(session.getQuestions(), session.getCurrentQuestionIndex());
     }
 
     public class AudioPlayer {
-        private static Clip currentClip;
+        // Decoded PCM budget and how many questions ahead to decode; both overridable with -D
+        private static final AudioClipCache CACHE = new AudioClipCache(
+                Long.getLong("mcq.audioCacheBytes", 64L * 1024 * 1024));
+        private static final int PREFETCH_AHEAD = Integer.getInteger("mcq.audioPrefetch", 3);
+        private static final AudioScheduler LANE = new AudioScheduler(CACHE);
 
         public static void playAudioAsync(String filePath) {
-            stopCurrentAudio(); // Stop any audio already playing
-
-            new Thread(() -> {
-                try {
-                    File audioFile = new File(filePath);
-                    AudioInputStream audioStream = AudioSystem.getAudioInputStream(audioFile);
-                    currentClip = AudioSystem.getClip();
-                    currentClip.open(audioStream);
-                    currentClip.start();
-                } catch (UnsupportedAudioFileException | IOException | LineUnavailableException e) {
-                    System.err.println("Error playing audio: " + e.getMessage());
-                }
-            }).start();
+            LANE.play(filePath); // Stops any audio already playing
         }
 
         public static void stopCurrentAudio() {
-            if (currentClip != null && currentClip.isRunning()) {
-                currentClip.stop();
-                currentClip.close();
-            }
+            LANE.stop();
+        }
+
+        // Decodes audio for the current question and the next few in the background
+        public static void prefetch(List<MCQ> questions, int currentIndex) {
+            CACHE.prefetch(questions, currentIndex, PREFETCH_AHEAD + 1);
+        }
+
+        public static AudioClipCache cache() {
+            return CACHE;
         }
     }
 
     private void startTimer() {
+        stopTimer();
+        int generation = countdownGeneration;
         timeLeft = timeBetweenQuestions; // Use the selected time for each question
         timerLabel.setText("Time left: " + timeLeft);
-        timer = new Timer(1000, (ActionEvent e) -> {
-            timeLeft--;
-            timerLabel.setText("Time left: " + timeLeft);
-            if (timeLeft <= 0) {
-                timer.stop();
-                checkAnswer();
-                nextQuestion();
-            }
-        });
-        timer.start();
+        countdown = DeadlineScheduler.shared().countdown(timeBetweenQuestions,
+                left -> SwingUtilities.invokeLater(() -> {
+                    if (generation == countdownGeneration) {
+                        timeLeft = left;
+                        timerLabel.setText("Time left: " + timeLeft);
+                    }
+                }),
+                () -> SwingUtilities.invokeLater(() -> {
+                    if (generation == countdownGeneration) {
+                        stopTimer();
+                        checkAnswer();
+                        nextQuestion();
+                    }
+                }));
+    }
+
+    private void stopTimer() {
+        countdownGeneration++;
+        if (countdown != null) {
+            countdown.cancel();
+            countdown = null;
+        }
     }
 
     private void selectChoice(int index) {
@@ -238,21 +335,25 @@ public class Main extends JFrame {
             return;
         }
 
-        MCQ question = questions.get(currentQuestionIndex);
+        MCQ question = session.currentQuestion();
         String selectedAnswer = selectedButton.getText().substring(0, 1).toUpperCase();
 
         // Store user's answer
-        userAnswers.add(selectedAnswer);
+        QuizMetrics.Span grading = QuizMetrics.begin(QuizMetrics.Phase.GRADING);
+        boolean correct = session.answer(selectedAnswer);
+        grading.end();
+        answerNanos = System.nanoTime() - questionShownNanos;
 
         // Play explanation audio asynchronously
         AudioPlayer.playAudioAsync(question.getExplanationAudioPath());
 
         // Show result dialog
-        if (selectedAnswer.equals(question.getAnswer())) {
+        QuizMetrics.Span dialog = QuizMetrics.begin(QuizMetrics.Phase.DIALOG)
+                .detail(correct ? "Correct" : "Incorrect");
+        if (correct) {
             JOptionPane.showMessageDialog(this,
                     "<html><font color='green'>Correct!</font><br>Reason: " + question.getReason() + "</html>",
                     "Result", JOptionPane.INFORMATION_MESSAGE);
-            correctAnswers++;
         } else {
             JOptionPane.showMessageDialog(this,
                     "<html><font color='red'>Incorrect!</font><br>The correct answer was: " + "<font color='green'>"
@@ -260,20 +361,23 @@ public class Main extends JFrame {
                             + extractAnswerText(question.getAnswer(), question.getChoices()) + "</font><br>Reason: "
                             + question.getReason() + "</html>",
                     "Result", JOptionPane.ERROR_MESSAGE);
-            incorrectQuestions.add(question); // Add to incorrect list
         }
+        dialog.end();
 
         // Stop explanation audio after dialog is closed
         AudioPlayer.stopCurrentAudio();
     }
 
     private void nextQuestion() {
-        timer.stop();
-        currentQuestionIndex++;
+        stopTimer();
+        recordAnswer();
+        boolean more = session.next();
         selectedButton = null;
         resetButtonColors();
-        loadQuestion();
-        startTimer();
+        loadQuestion(); // Shows the results instead once the last question is done
+        if (more) {
+            startTimer();
+        }
     }
 
     private void resetButtonColors() {
@@ -284,26 +388,28 @@ public class Main extends JFrame {
     }
     
     private void showResults() {
-         timer.stop(); // Stop the timer
+        stopTimer(); // Stop the timer
 
-        double percentage = (double) correctAnswers / questions.size() * 100;
-        updateHistory(quizFileName, percentage); // Update history after quiz completion
-        saveHistoryToFile(); // Save the updated history to the file
+        double percentage = session.getScorePercentage();
+        updateHistory(quizFileName, percentage); // Append this result to the history log
+        updateItemStats();
+        flushReviews();
+        finishJournal(); // Scored and saved; a crash from here on has nothing to resume
         StringBuilder review = new StringBuilder("<html>Quiz Complete!<br><font color='green'>Correct Answers: "
-                + correctAnswers + "</font><br>Your score: " + String.format("%.2f", percentage) + "%</html>");
+                + session.getCorrectAnswers() + "</font><br>Your score: " + String.format("%.2f", percentage)
+                + "%</html>");
                 
         JOptionPane.showMessageDialog(this, review.toString(), "Results", JOptionPane.INFORMATION_MESSAGE);
         dispose(); // Close the quiz window
         showPerformanceHistory(quizFileName); // Show history in a new window
 
-        if (!incorrectQuestions.isEmpty()) {
+        if (session.hasIncorrect()) {
             int retry = JOptionPane.showConfirmDialog(this, "Would you like to retry the incorrect questions?", "Retry",
                     JOptionPane.YES_NO_OPTION);
             if (retry == JOptionPane.YES_OPTION) {
-                questions = new ArrayList<>(incorrectQuestions); // Restart quiz with incorrect questions
-                incorrectQuestions.clear(); // Clear incorrect list for this session
-                currentQuestionIndex = 0;
-                correctAnswers = 0;
+                session.retryIncorrect(); // Restart quiz with incorrect questions
+                retrying = true;
+                setVisible(true); // The frame was disposed above; show it again for the retry
                 loadQuestion();
                 startTimer();
                 return;
@@ -311,17 +417,85 @@ public class Main extends JFrame {
         }
 
         dispose(); // Close the quiz window
-        timer.stop();
+        stopTimer();
+        session.review();
         showReviewWindow(); // Show the review window
     }
 
+    // Feeds the current question's outcome to the item statistics and the review schedule
+    private void recordAnswer() {
+        int index = session.getCurrentQuestionIndex();
+        MCQ question = session.currentQuestion();
+        boolean correct = session.isCorrect(index);
+        if (!retrying) {
+            long nanos = answerNanos >= 0 ? answerNanos : System.nanoTime() - questionShownNanos;
+            itemStats.recordAnswer(question, session.getAnswer(index), correct, nanos);
+            if (journal != null) {
+                journal.append(index, session.getAnswer(index), nanos); // Written off the EDT
+            }
+        }
+        if (reviews != null) {
+            try {
+                reviews.record(question, correct);
+            } catch (IOException e) {
+                System.err.println("Error saving review: " + e.getMessage());
+            }
+        }
+    }
+
+    // Reviews are written in the background as the quiz goes; waits for the last of them
+    private void flushReviews() {
+        if (reviews == null) {
+            return;
+        }
+        try {
+            reviews.flush();
+        } catch (IOException e) {
+            System.err.println("Error saving reviews: " + e.getMessage());
+        }
+    }
+
+    private void finishJournal() {
+        if (journal == null) {
+            return;
+        }
+        try {
+            journal.finish();
+        } catch (IOException e) {
+            System.err.println("Error closing session journal: " + e.getMessage());
+        }
+        journal = null;
+    }
+
+    private static ItemAnalysis loadItemStats() {
+        try {
+            return ItemAnalysis.load(new File(ItemAnalysis.STATS_FILE));
+        } catch (IOException e) {
+            System.err.println("Error loading item statistics: " + e.getMessage());
+            return new ItemAnalysis();
+        }
+    }
+
+    private void updateItemStats() {
+        if (retrying) {
+            return;
+        }
+        itemStats.recordAttempt(session);
+        try {
+            itemStats.save(new File(ItemAnalysis.STATS_FILE));
+        } catch (IOException e) {
+            System.err.println("Error saving item statistics: " + e.getMessage());
+        }
+    }
+
     private void updateHistory(String quizName, double percentage) {
-        quizHistory.putIfAbsent(quizName, new LinkedList<>());
-        Queue<Double> history = quizHistory.get(quizName);
-        if (history.size() == 5) {
-            history.poll(); // Remove oldest entry to maintain size limit
+        try {
+            long now = System.currentTimeMillis();
+            quizHistory.append(quizName, now, percentage);
+            scoreHistory.append(quizName, System.getProperty("user.name"), now, (float) percentage);
+        } catch (IOException e) {
+            System.err.println("Error saving history: " + e.getMessage());
         }
-        history.offer(percentage);
     }
 
     private void showPerformanceHistory(String quizName) {
@@ -335,8 +509,14 @@ public class Main extends JFrame {
         JLabel titleLabel = new JLabel("<html><h2>Performance History:</h2></html>");
         historyPanel.add(titleLabel);
 
-        Queue<Double> history = quizHistory.get(quizName);
-        if (history == null || history.isEmpty()) {
+        List<Double> history;
+        try {
+            history = quizHistory.recent(quizName, QuizHistoryLog.KEEP_PER_QUIZ);
+        } catch (IOException e) {
+            System.err.println("Error loading history: " + e.getMessage());
+            history = Collections.emptyList();
+        }
+        if (history.isEmpty()) {
             JLabel noHistoryLabel = new JLabel("No performance history available.");
             historyPanel.add(noHistoryLabel);
         } else {
@@ -352,6 +532,20 @@ public class Main extends JFrame {
             }
         }
 
+        // Long-range trend from the daily or weekly rollups; as cheap for years of attempts as for a few
+        try {
+            ScoreHistory.Series series = scoreHistory.series(quizName, System.getProperty("user.name"));
+            if (series.count() > 1) {
+                ScoreHistory.Rollup trend = series.trend(TrendChart.BUCKETS);
+                String resolution = trend.width == ScoreHistory.DAY_MILLIS ? "Daily" : "Weekly";
+                historyPanel.add(new JLabel("<html><h3>" + resolution + " trend over "
+                        + series.count() + " attempts (min, mean, max):</h3></html>"));
+                historyPanel.add(new TrendChart(trend));
+            }
+        } catch (IOException e) {
+            System.err.println("Error loading score trend: " + e.getMessage());
+        }
+
         JScrollPane scrollPane = new JScrollPane(historyPanel);
         scrollPane.setVerticalScrollBarPolicy(JScrollPane.VERTICAL_SCROLLBAR_AS_NEEDED);
         historyFrame.add(scrollPane);
@@ -363,35 +557,93 @@ public class Main extends JFrame {
         historyFrame.setVisible(true);
     }
 
-    private void saveHistoryToFile() {
-        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(HISTORY_FILE))) {
-            oos.writeObject(quizHistory);
-        } catch (IOException e) {
-            System.err.println("Error saving history: " + e.getMessage());
+    // Min-max band and mean line per rollup bucket, scores 0-100 bottom to top
+    private static class TrendChart extends JComponent {
+        private static final long serialVersionUID = 1L;
+        static final int BUCKETS = 60;
+        private final ScoreHistory.Rollup trend;
+
+        TrendChart(ScoreHistory.Rollup trend) {
+            this.trend = trend;
+            setPreferredSize(new Dimension(360, 120));
+            setAlignmentX(Component.LEFT_ALIGNMENT);
         }
-    }
 
-@SuppressWarnings("unchecked")
-private void loadHistoryFromFile() {
-    File file = new File(HISTORY_FILE);
-    if (!file.exists()) {
-        try {
-            file.createNewFile(); // Create the file if it doesn't exist
-            System.out.println("History file created: " + HISTORY_FILE);
-        } catch (IOException e) {
-            System.err.println("Error creating history file: " + e.getMessage());
+        @Override
+        protected void paintComponent(Graphics g) {
+            int width = getWidth();
+            int height = getHeight() - 1;
+            double step = trend.size > 1 ? (double) width / (trend.size - 1) : 0;
+            int[] xs = new int[trend.size];
+            int[] means = new int[trend.size];
+            g.setColor(new Color(200, 200, 255));
+            for (int i = 0; i < trend.size; i++) {
+                xs[i] = (int) Math.round(i * step);
+                int top = height - Math.round(trend.max[i] / 100 * height);
+                int bottom = height - Math.round(trend.min[i] / 100 * height);
+                g.fillRect(xs[i] - 1, top, 3, Math.max(1, bottom - top));
+                means[i] = height - Math.round(trend.mean(i) / 100 * height);
+            }
+            g.setColor(Color.BLUE);
+            g.drawPolyline(xs, means, trend.size);
         }
     }
 
-    try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(file))) {
-        Object data = ois.readObject();
-        if (data instanceof Map) {
-            quizHistory.putAll((Map<String, Queue<Double>>) data);
+    // Draws one review row (question, correct answer, user's answer, explanation) for whichever
+    // index the list asks for; the same labels are reused for every visible row
+    private class ReviewRowRenderer extends JPanel implements ListCellRenderer<Integer> {
+        private static final long serialVersionUID = 1L;
+
+        private final JLabel questionLabel = new JLabel();
+        private final JLabel correctAnswerLabel = new JLabel();
+        private final JLabel userAnswerLabel = new JLabel();
+        private final JLabel explanationLabel = new JLabel();
+
+        ReviewRowRenderer() {
+            setLayout(new BoxLayout(this, BoxLayout.Y_AXIS));
+            setBackground(Color.DARK_GRAY);
+            setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+            questionLabel.setForeground(Color.WHITE);
+            correctAnswerLabel.setForeground(Color.GREEN);
+            explanationLabel.setForeground(Color.YELLOW);
+            add(questionLabel);
+            add(correctAnswerLabel);
+            add(userAnswerLabel);
+            add(explanationLabel);
+        }
+
+        // Every row is four single-line labels, so one sample row gives the height of all of them
+        int rowHeight(JList<? extends Integer> list) {
+            int height = session.size() == 0 ? 0
+                    : getListCellRendererComponent(list, 0, 0, false, false).getPreferredSize().height;
+            return Math.max(height, 4 * getFontMetrics(list.getFont()).getHeight() + 20);
+        }
+
+        @Override
+        public Component getListCellRendererComponent(JList<? extends Integer> list, Integer index, int row,
+                boolean isSelected, boolean cellHasFocus) {
+            MCQ question = session.getQuestions().get(index);
+
+            questionLabel.setText("<html><b>Question " + (index + 1) + ":</b> " + question.getQuestion() + "</html>");
+            correctAnswerLabel.setText("<html>Correct Answer: <font color='green'>" + question.getAnswer() + ") "
+                    + extractAnswerText(question.getAnswer(), question.getChoices()) + "</font></html>");
+
+            String userAnswer = session.getAnswer(index) == null ? "-" : session.getAnswer(index); // "-" if skipped
+            String userAnswerText = extractAnswerText(session.getAnswer(index), question.getChoices());
+            String color = session.isCorrect(index) ? "green" : "red";
+            userAnswerLabel.setText("<html>Your Answer: <font color='" + color + "'>" + userAnswer + ") "
+                    + userAnswerText + "</font></html>");
+            userAnswerLabel.setForeground(session.isCorrect(index) ? Color.GREEN : Color.RED);
+
+            explanationLabel.setText("<html><b>Explanation:</b> " + question.getReason() + "</html>");
+
+            // Long lines are clipped at the row width; the tooltip shows them in full
+            setToolTipText("<html><p width='500'>" + question.getQuestion() + "<br><br>" + question.getReason()
+                    + "</p></html>");
+            setBackground(isSelected ? Color.GRAY : Color.DARK_GRAY);
+            return this;
         }
-    } catch (IOException | ClassNotFoundException e) {
-        System.err.println("Error loading history: " + e.getMessage());
     }
-}
 
     private class NextButtonListener implements ActionListener {
         @Override
@@ -402,6 +654,7 @@ private void loadHistoryFromFile() {
     }
 
     static ArrayList<MCQ> loadQuestionsFromFile(String fileName, File baseDirectory) throws IOException {
+        QuizMetrics.Span span = QuizMetrics.begin(QuizMetrics.Phase.LOAD).detail(fileName);
         ArrayList<MCQ> questions = new ArrayList<>();
         try (BufferedReader reader = new BufferedReader(new FileReader(fileName))) {
             String line;
@@ -414,9 +667,9 @@ private void loadHistoryFromFile() {
             
             while ((line = reader.readLine()) != null) {
                 if (line.startsWith("Question")) {
+                    questionNumber = QuestionBankLoader.questionNumber(line, questionNumber);
                     question = reader.readLine().trim();
                     choiceIndex = 0;
-                    questionNumber++;
                 } else if (line.startsWith("A)") || line.startsWith("B)") || line.startsWith("C)") || line.startsWith("D)")) {
                     choices[choiceIndex++] = line.trim();
                 } else if (line.startsWith("Answer:")) {
@@ -424,21 +677,24 @@ private void loadHistoryFromFile() {
                 } else if (line.startsWith("Explanation:")) {
                     reason = line.split(":")[1].trim();
                     
-                    // Dynamically resolve paths relative to the base directory
-                    File questionAudioFile = new File(baseDirectory, "audio/complete/question" + questionNumber + "/question " + questionNumber + ".wav");
-                    File explanationAudioFile = new File(baseDirectory, "audio/complete/question" + questionNumber + "/question " + questionNumber + "(explanation).wav");
+                    // Resolve paths relative to the base directory, inside audio/complete.pack if present
+                    String questionAudioPath = QuestionBankLoader.questionAudioPath(baseDirectory, questionNumber);
+                    String explanationAudioPath = QuestionBankLoader.explanationAudioPath(baseDirectory,
+                            questionNumber);
                     
                     // Add MCQ object
-                    questions.add(new MCQ(
+                    questions.add(MCQ.of(
                             question,
                             choices.clone(),
                             answer,
                             reason,
-                            questionAudioFile.getAbsolutePath(),
-                            explanationAudioFile.getAbsolutePath()
+                            questionAudioPath,
+                            explanationAudioPath
                     ));
                 }
             }
+        } finally {
+            span.end();
         }
         return questions;
     }
@@ -449,73 +705,44 @@ private void loadHistoryFromFile() {
     }
 
     String extractAnswerText(String letter, String[] choices) {
-        return switch (letter) {
-            case "A" -> choices[0].substring(3);
-            case "B" -> choices[1].substring(3);
-            case "C" -> choices[2].substring(3);
-            case "D" -> choices[3].substring(3);
-            default -> "";
-        }; // Remove "A) " prefix
+        return QuizSession.answerText(letter, choices); // Remove "A) " prefix
     }
 
     private void showReviewWindow() {
-        timer.stop();
+        stopTimer();
         JFrame reviewFrame = new JFrame("Quiz Review");
         reviewFrame.setSize(800, 600);
         reviewFrame.setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE); // Allow the user to close only the review window
         reviewFrame.setLayout(new BorderLayout());
 
-        JPanel reviewPanel = new JPanel();
-        reviewPanel.setLayout(new BoxLayout(reviewPanel, BoxLayout.Y_AXIS));
-        reviewPanel.setBackground(Color.DARK_GRAY);
-
-        for (int i = 0; i < questions.size(); i++) {
-            MCQ question = questions.get(i);
-
-            // Question text
-            JLabel questionLabel = new JLabel(
-                    "<html><b>Question " + (i + 1) + ":</b> " + question.getQuestion() + "</html>");
-            questionLabel.setForeground(Color.WHITE);
-
-            // Correct answer text
-            JLabel correctAnswerLabel = new JLabel(
-                    "<html>Correct Answer: <font color='green'>" + question.getAnswer() + ") "
-                            + extractAnswerText(question.getAnswer(), question.getChoices()) + "</font></html>");
-            correctAnswerLabel.setForeground(Color.GREEN);
-
-            // User's answer
-            String userAnswerText = extractAnswerText(userAnswers.get(i), question.getChoices());
-            JLabel userAnswerLabel;
-            if (incorrectQuestions.contains(question)) {
-                userAnswerLabel = new JLabel("<html>Your Answer: <font color='red'>" + userAnswers.get(i) + ") "
-                        + userAnswerText + "</font></html>");
-                userAnswerLabel.setForeground(Color.RED);
-            } else {
-                userAnswerLabel = new JLabel("<html>Your Answer: <font color='green'>" + userAnswers.get(i) + ") "
-                        + userAnswerText + "</font></html>");
-                userAnswerLabel.setForeground(Color.GREEN);
+        // Virtualized list: rows are rendered on demand by one reused renderer, so opening the review
+        // costs the same for 5 questions or 5,000
+        JList<Integer> reviewList = new JList<>(new AbstractListModel<Integer>() {
+            @Override
+            public int getSize() {
+                return session.size();
             }
 
-            // Explanation or reason
-            JLabel explanationLabel = new JLabel("<html><b>Explanation:</b> " + question.getReason() + "</html>");
-            explanationLabel.setForeground(Color.YELLOW);
-
-            // Add components to the panel
-            JPanel questionPanel = new JPanel();
-            questionPanel.setLayout(new BoxLayout(questionPanel, BoxLayout.Y_AXIS));
-            questionPanel.setBackground(Color.DARK_GRAY);
-            questionPanel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
-
-            questionPanel.add(questionLabel);
-            questionPanel.add(correctAnswerLabel);
-            questionPanel.add(userAnswerLabel);
-            questionPanel.add(explanationLabel);
-
-            reviewPanel.add(questionPanel);
-        }
-
-        JScrollPane scrollPane = new JScrollPane(reviewPanel);
+            @Override
+            public Integer getElementAt(int index) {
+                return index;
+            }
+        });
+        reviewList.setBackground(Color.DARK_GRAY);
+        ReviewRowRenderer renderer = new ReviewRowRenderer();
+        reviewList.setCellRenderer(renderer);
+        // Fixed cell sizes stop JList from measuring every row up front
+        reviewList.setFixedCellHeight(renderer.rowHeight(reviewList));
+        reviewList.setFixedCellWidth(760);
+
+        JScrollPane scrollPane = new JScrollPane(reviewList);
         scrollPane.setVerticalScrollBarPolicy(JScrollPane.VERTICAL_SCROLLBAR_AS_NEEDED);
+        scrollPane.getViewport().addChangeListener(e -> {
+            int width = scrollPane.getViewport().getWidth();
+            if (width > 0 && width != reviewList.getFixedCellWidth()) {
+                reviewList.setFixedCellWidth(width);
+            }
+        });
         reviewFrame.add(scrollPane, BorderLayout.CENTER);
 
         JButton closeButton = new JButton("Close");
@@ -525,7 +752,26 @@ private void loadHistoryFromFile() {
         reviewFrame.setVisible(true);
     }
 
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
+        if (args.length > 0 && args[0].equals("--server")) {
+            QuizServer.main(Arrays.copyOfRange(args, 1, args.length)); // Headless multi-candidate mode
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--grade")) {
+            BatchGrader.main(Arrays.copyOfRange(args, 1, args.length)); // Headless grading of answer sheets
+            return;
+        }
+
+        try {
+            quizHistory.importLegacy(new File(LEGACY_HISTORY_FILE));
+        } catch (IOException e) {
+            System.err.println("Error importing history: " + e.getMessage());
+        }
+        QuizMetrics.install(true); // Timings over JMX and JFR, plus the EDT stall detector
+        if (resume(new File(JOURNAL_FILE))) {
+            return;
+        }
+
         String[] options = { "15 seconds", "30 seconds", "45 seconds", "60 seconds" };
         int timeSelection = JOptionPane.showOptionDialog(null, "Select time per question:", "Select Time",
                 JOptionPane.DEFAULT_OPTION, JOptionPane.INFORMATION_MESSAGE, null, options, options[0]);
@@ -552,6 +798,19 @@ private void loadHistoryFromFile() {
             case 5 -> fontSize = 46;
         }
 
+        // Spaced repetition puts the questions this user missed or is due to review first
+        ReviewScheduler reviews = null;
+        int spaced = JOptionPane.showConfirmDialog(null,
+                "Put questions you missed or are due to review first (spaced repetition)?", "Question Order",
+                JOptionPane.YES_NO_OPTION);
+        if (spaced == JOptionPane.YES_OPTION) {
+            try {
+                reviews = ReviewScheduler.forUser(System.getProperty("user.name"));
+            } catch (IOException e) {
+                System.err.println("Error loading reviews: " + e.getMessage());
+            }
+        }
+
         JFileChooser fileChooser = new JFileChooser(Paths.get("").toAbsolutePath().toString());
         fileChooser.setMultiSelectionEnabled(true);
         fileChooser.setDialogTitle("Select Quiz Files");
@@ -560,26 +819,227 @@ private void loadHistoryFromFile() {
         int result = fileChooser.showOpenDialog(null);
         if (result == JFileChooser.APPROVE_OPTION) {
             File[] files = fileChooser.getSelectedFiles();
-            File selectedFile = files[0]; 
-            String quizFileName = selectedFile.getName();
-        
-            // Get the directory of the first selected file
-            File baseDirectory = files[0].getParentFile();
-        
-            ArrayList<MCQ> questions = new ArrayList<>();
-            for (File file : files) {
+            String quizFileName = files[0].getName();
+            startTiming(files.length + " files");
+
+            // -Dmcq.sample=N draws an N-question exam; the same -Dmcq.seed draws the same one again
+            int sampleSize = Integer.getInteger("mcq.sample", 0);
+            long seed = Long.getLong("mcq.seed", System.nanoTime());
+            boolean stratified = Boolean.getBoolean("mcq.sampleStratified");
+            // -Dmcq.progressive=true shows the first question while the rest of the bank is parsed
+            boolean progressive = Boolean.getBoolean("mcq.progressive");
+            String[] filter = { "" };
+            List<MCQ> questions = buildQuiz(files, seed, sampleSize, stratified, progressive, reviews,
+                    count -> filter[0] = JOptionPane.showInputDialog(null,
+                            "Only include questions matching (e.g. hypothesis, hyp*, test -theory, a OR b).\n"
+                                    + "Leave blank to use all " + count + " questions:",
+                            "Filter Questions", JOptionPane.QUESTION_MESSAGE));
+            if (questions == null) {
+                return;
+            }
+
+            // A spaced-repetition order depends on review state that the quiz itself updates, so only
+            // seeded orders can be rebuilt after a crash
+            SessionJournal journal = null;
+            if (reviews == null) {
+                List<String> paths = new ArrayList<>();
+                for (File file : files) {
+                    paths.add(file.getAbsolutePath());
+                }
                 try {
-                    questions.addAll(loadQuestionsFromFile(file.getAbsolutePath(), baseDirectory));
-                    
-                } catch (IOException ex) {
-                    JOptionPane.showMessageDialog(null, "Error reading file: " + file.getName(), "Error",
-                            JOptionPane.ERROR_MESSAGE);
+                    journal = SessionJournal.create(new File(JOURNAL_FILE), new SessionJournal.Header(quizFileName,
+                            paths, filter[0], seed, sampleSize, stratified, progressive, fontSize, timeBetweenQuestions,
+                            questions.size(), SessionJournal.fingerprint(questions)));
+                } catch (IOException e) {
+                    System.err.println("Error creating session journal: " + e.getMessage());
                 }
             }
-        
-            MCQ.shuffleQuestions(questions);
-            Main app = new Main(questions, fontSize, timeBetweenQuestions,quizFileName);
+
+            Main app = new Main(new QuizSession(questions), fontSize, timeBetweenQuestions, quizFileName, reviews,
+                    journal);
             app.setVisible(true);
         }
     }
+
+    // Loads the selected files into a quiz. filter is given the number of unique questions (of all questions
+    // when loading progressively) and returns a search, or null/blank for all of them. Without spaced repetition
+    // the order depends only on the files, the filter and the seed. Returns null when there is nothing to ask.
+    static List<MCQ> buildQuiz(File[] files, long seed, int sampleSize, boolean stratified, boolean progressive,
+            ReviewScheduler reviews, IntFunction<String> filter) {
+        File selectedFile = files[0];
+        File baseDirectory = selectedFile.getParentFile(); // Audio is resolved next to the first file
+        BiConsumer<File, IOException> onError = (file, ex) -> JOptionPane.showMessageDialog(null,
+                "Error reading file: " + file.getName(), "Error", JOptionPane.ERROR_MESSAGE);
+
+        if (files.length == 1 && selectedFile.getName().endsWith(CompiledQuestionBank.EXTENSION)) {
+            // Compiled bank: questions are decoded lazily as the quiz reaches them
+            CompiledQuestionBank bank;
+            try {
+                bank = CompiledQuestionBank.open(selectedFile);
+            } catch (IOException ex) {
+                onError.accept(selectedFile, ex);
+                return null;
+            }
+            List<MCQ> questions = compiledQuiz(bank, seed, reviews, filter);
+            if (questions != null && sampleSize > 0 && sampleSize < questions.size()) {
+                questions = questions.subList(0, sampleSize); // Only these are ever decoded
+            }
+            return questions;
+        }
+        if (sampleSize > 0) {
+            // Draw the sample while streaming the files; only the chosen questions are kept
+            ArrayList<MCQ> sample = new QuestionSampler(sampleSize, seed, stratified).sample(Arrays.asList(files),
+                    baseDirectory, onError);
+            System.out.println("Sampled " + sample.size() + " questions with -Dmcq.seed=" + seed);
+            return reviews != null ? reviews.order(sample, new Random(seed)) : sample;
+        }
+        if (progressive && reviews == null) {
+            // Only the split is waited for; questions are parsed in quiz order behind the scenes
+            ProgressiveBank bank = ProgressiveBank.open(Arrays.asList(files), baseDirectory, seed,
+                    (file, ex) -> SwingUtilities.invokeLater(() -> onError.accept(file, ex)));
+            String search = filter.apply(bank.size());
+            if (search == null || search.isBlank()) {
+                if (files.length > 1) {
+                    noteStartup("progressive loading keeps duplicate questions across the selected files");
+                }
+                return bank.isEmpty() ? null : bank;
+            }
+            // A search needs every question parsed, so load the whole bank below with the same search
+            bank.close();
+            noteStartup("search given, parsed the whole bank before the quiz started");
+            filter = count -> search;
+        }
+
+        // Parse all selected files in parallel, keeping the questions in file order: the shuffle below must
+        // start from the same list every time for a seed to rebuild the same quiz
+        List<MCQ> questions;
+        QuestionIndex index = null;
+        if (Boolean.getBoolean("mcq.compact")) {
+            // -Dmcq.compact=true keeps the text in one shared arena; the quiz holds small views into it. The
+            // duplicate check and a search decode one question at a time from the arena, and no index is
+            // built, since its terms would take as much heap as the questions did
+            questions = CompactQuestionBank.load(Arrays.asList(files), baseDirectory, onError).asList();
+        } else {
+            index = new QuestionIndex();
+            index.addAll(QuestionBankLoader.loadAll(Arrays.asList(files), baseDirectory, onError));
+            questions = index.all();
+        }
+        // Merged banks repeat questions; keep the first of each exact duplicate, and of near duplicates only
+        // when -Dmcq.dedupThreshold asks for it
+        QuestionDeduplicator.Result duplicates = QuestionDeduplicator.find(questions,
+                QuestionDeduplicator.threshold());
+        if (duplicates.uniqueCount() < questions.size()) {
+            System.out.println("Removed duplicate questions: " + duplicates.summary());
+        }
+        String search = filter.apply(duplicates.uniqueCount());
+        ArrayList<MCQ> parsed = search == null || search.isBlank() ? duplicates.merged()
+                : duplicates.merged(index != null ? index.search(search) : QuestionIndex.scan(questions, search));
+        if (parsed.isEmpty()) {
+            JOptionPane.showMessageDialog(null, "No questions match \"" + search + "\"", "Error",
+                    JOptionPane.ERROR_MESSAGE);
+            return null;
+        }
+        if (reviews != null) {
+            return reviews.order(parsed, new Random(System.nanoTime()));
+        }
+        Collections.shuffle(parsed, new Random(seed));
+        return parsed;
+    }
+
+    // The quiz from a compiled bank, deduplicated and filtered as buildQuiz does for text banks. Exact duplicates
+    // were dropped when the bank was compiled, so unless a near-duplicate threshold or a search needs the text,
+    // no question is decoded here; when one does, each is decoded for the pass and not kept.
+    private static List<MCQ> compiledQuiz(CompiledQuestionBank bank, long seed, ReviewScheduler reviews,
+            IntFunction<String> filter) {
+        List<MCQ> all = bank.scanList();
+        double threshold = QuestionDeduplicator.threshold();
+        QuestionDeduplicator.Result duplicates = null;
+        if (threshold <= 1 || !bank.isUnique()) {
+            duplicates = QuestionDeduplicator.find(all, threshold);
+            if (duplicates.uniqueCount() < all.size()) {
+                System.out.println("Removed duplicate questions: " + duplicates.summary());
+            }
+        }
+        String search = filter.apply(duplicates != null ? duplicates.uniqueCount() : all.size());
+        int[] matches = search == null || search.isBlank() ? null : QuestionIndex.scan(all, search);
+        int[] kept = new int[matches != null ? matches.length : all.size()];
+        int count = 0;
+        for (int i = 0; i < kept.length; i++) {
+            int index = matches != null ? matches[i] : i;
+            if (duplicates == null || !duplicates.isDuplicate(index)) {
+                kept[count++] = index;
+            }
+        }
+        if (count == 0) {
+            JOptionPane.showMessageDialog(null, "No questions match \"" + search + "\"", "Error",
+                    JOptionPane.ERROR_MESSAGE);
+            return null;
+        }
+        kept = Arrays.copyOf(kept, count);
+        return reviews != null ? reviews.order(bank.list(kept), new Random(System.nanoTime()))
+                : bank.shuffledList(kept, new Random(seed));
+    }
+
+    private static void startTiming(String detail) {
+        startup = QuizMetrics.begin(QuizMetrics.Phase.FIRST_QUESTION).detail(detail);
+    }
+
+    // Records how the quiz was loaded on the time-to-first-question span, when one is being timed
+    private static void noteStartup(String note) {
+        QuizMetrics.Span span = startup;
+        if (span != null) {
+            span.note(note);
+        }
+    }
+
+    // Offers to pick up a quiz that was cut short by a crash; returns true when it was resumed
+    private static boolean resume(File journalFile) {
+        SessionJournal.Recovered recovered;
+        try {
+            recovered = SessionJournal.read(journalFile);
+        } catch (IOException e) {
+            System.err.println("Error reading session journal: " + e.getMessage());
+            recovered = null;
+        }
+        if (recovered == null) {
+            journalFile.delete(); // Nothing there, or too damaged to use
+            return false;
+        }
+        SessionJournal.Header header = recovered.header;
+        int choice = JOptionPane.showConfirmDialog(null, "Resume the unfinished quiz " + header.quizName + " ("
+                + recovered.size() + " of " + header.questionCount + " questions done)?", "Resume Quiz",
+                JOptionPane.YES_NO_OPTION);
+        if (choice != JOptionPane.YES_OPTION) {
+            journalFile.delete();
+            return false;
+        }
+
+        long start = System.nanoTime();
+        File[] files = header.files.stream().map(File::new).toArray(File[]::new);
+        startTiming("resume");
+        List<MCQ> questions = buildQuiz(files, header.seed, header.sampleSize, header.stratified,
+                header.progressive, null, count -> header.filter);
+        if (questions == null || SessionJournal.fingerprint(questions) != header.fingerprint) {
+            JOptionPane.showMessageDialog(null, "The question files changed since the quiz was interrupted, so it "
+                    + "cannot be resumed.", "Resume Quiz", JOptionPane.ERROR_MESSAGE);
+            journalFile.delete();
+            return false;
+        }
+        long loaded = System.nanoTime();
+        QuizSession session = recovered.replay(questions, itemStats::recordAnswer);
+        SessionJournal journal;
+        try {
+            journal = SessionJournal.reopen(journalFile, recovered);
+        } catch (IOException e) {
+            System.err.println("Error reopening session journal: " + e.getMessage());
+            journal = null;
+        }
+        System.out.printf("Resumed %s at question %d of %d: bank loaded in %.1f ms, session rebuilt in %.2f ms%n",
+                header.quizName, recovered.size() + 1, header.questionCount, (loaded - start) / 1e6,
+                (System.nanoTime() - loaded) / 1e6);
+
+        Main app = new Main(session, header.fontSize, header.timeBetweenQuestions, header.quizName, null, journal);
+        app.setVisible(true);
+        return true;
+    }
 }
@@ -16,7 +16,7 @@ public class MainTest {
         ArrayList<MCQ> questions = loadQuestionsForTest(); 
         Main app = new Main(questions, 24, 15, "test_quiz.txt"); 
         assertNotNull(app);
-        assertEquals(0, app.currentQuestionIndex);
+        assertEquals(0, app.getSession().getCurrentQuestionIndex());
     }
    // testLoadQuestionsFromFile(): This test checks if the loadQuestionsFromFile() method correctly
    // reads and parses questions from a file. It uses a temporary file with sample data to ensure the test is
@@ -24,7 +24,7 @@ public class MainTest {
     @Test
     void testLoadQuestionsFromFile() throws IOException {
         // Prepare a temporary test file
-        File tempFile = createTempQuizFile();
+        File tempFile = TestBanks.sample();
 
         // Load questions using the method
         ArrayList<MCQ> questions = Main.loadQuestionsFromFile(tempFile.getAbsolutePath(), tempFile.getParentFile());
@@ -42,38 +42,6 @@ public class MainTest {
         tempFile.delete();
     }
 
-    // Helper method to create a temporary quiz file
-    private File createTempQuizFile() throws IOException {
-        File tempFile = File.createTempFile("temp_quiz", ".txt");
-
-        String quizData = "Question 1\n" +
-                "Question 1 Text\n" +
-                "A) Choice A1\n" +
-                "B) Choice B1\n" +
-                "C) Choice C1\n" +
-                "D) Choice D1\n" +
-                "Answer: A\n" +
-                "Explanation: Explanation 1\n" +
-                "Question 2\n" +
-                "Question 2 Text\n" +
-                "A) Choice A2\n" +
-                "B) Choice B2\n" +
-                "C) Choice C2\n" +
-                "D) Choice D2\n" +
-                "Answer: B\n" +
-                "Explanation: Explanation 2\n" +
-                "Question 3\n" +
-                "Question 3 Text\n" +
-                "A) Choice A3\n" +
-                "B) Choice B3\n" +
-                "C) Choice C3\n" +
-                "D) Choice D3\n" +
-                "Answer: C\n" +
-                "Explanation: Explanation 3\n";
-        java.nio.file.Files.writeString(tempFile.toPath(), quizData);
-
-        return tempFile;
-    }
 //testShuffleQuestions(): Verifies that the shuffleQuestions() method actually changes the order
 // of the questions in the questions ArrayList.
     @Test
@@ -113,9 +81,9 @@ public class MainTest {
     private ArrayList<MCQ> loadQuestionsForTest() {
         ArrayList<MCQ> questions = new ArrayList<>();
         String[] choices = {"A) Choice A", "B) Choice B", "C) Choice C", "D) Choice D"};
-        questions.add(new MCQ("Question 1?", choices, "A", "Reason 1", "q1.wav", "e1.wav"));
-        questions.add(new MCQ("Question 2?", choices, "B", "Reason 2", "q2.wav", "e2.wav")); // Different question
-        questions.add(new MCQ("Question 3?", choices, "C", "Reason 3", "q3.wav", "e3.wav")); // Different question
+        questions.add(MCQ.of("Question 1?", choices, "A", "Reason 1", "q1.wav", "e1.wav"));
+        questions.add(MCQ.of("Question 2?", choices, "B", "Reason 2", "q2.wav", "e2.wav")); // Different question
+        questions.add(MCQ.of("Question 3?", choices, "C", "Reason 3", "q3.wav", "e3.wav")); // Different question
         // ... add more unique questions ...
         return questions;
     }
@@ -0,0 +1,226 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.BiConsumer;
+import java.util.zip.CRC32C;
+
+// A shuffled quiz that can start before its bank files are parsed. The files are read and split
+// into question blocks, a byte scan far cheaper than parsing, which gives the number of questions;
+// the quiz order is then drawn as a seeded permutation of all of them, so it is exactly as uniform
+// as shuffling the parsed list. A background thread parses the blocks in quiz order, and a question
+// the quiz reaches first is parsed on the spot, so the first question shows as soon as the split is
+// done.
+//
+// A block that fails to parse is reported once per file and its place is taken by the last question
+// in the order. The questions not yet shown stay in uniform random order, one fewer.
+class ProgressiveBank extends AbstractList<MCQ> {
+    private final List<File> files;
+    private final File baseDirectory;
+    private final BiConsumer<File, IOException> onError;
+    private final byte[][] bytes; // Per file; released once every question is parsed
+    private final QuestionBankLoader.Blocks[] blocks;
+    private final int[] fileOf; // Per question: file, and block within the file
+    private final int[] blockOf;
+    private final int[] order; // Quiz position -> question
+    private final MCQ[] parsed; // Per question, null until parsed
+    private final Set<File> reported = new HashSet<>();
+    private final long fingerprint;
+    private int size;
+    private int parsedCount;
+    private boolean closed;
+
+    private ProgressiveBank(List<File> files, File baseDirectory, BiConsumer<File, IOException> onError,
+            byte[][] bytes, QuestionBankLoader.Blocks[] blocks, long fingerprint, long seed) {
+        this.files = files;
+        this.baseDirectory = baseDirectory;
+        this.onError = onError;
+        this.bytes = bytes;
+        this.blocks = blocks;
+
+        for (QuestionBankLoader.Blocks split : blocks) {
+            for (int b = 0; split != null && b < split.count; b++) {
+                size += split.complete[b] ? 1 : 0;
+            }
+        }
+        fileOf = new int[size];
+        blockOf = new int[size];
+        int question = 0;
+        for (int f = 0; f < blocks.length; f++) {
+            for (int b = 0; blocks[f] != null && b < blocks[f].count; b++) {
+                if (blocks[f].complete[b]) {
+                    fileOf[question] = f;
+                    blockOf[question++] = b;
+                }
+            }
+        }
+        // Same draws as Collections.shuffle, over question numbers instead of parsed questions
+        order = new int[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        Random random = new Random(seed);
+        for (int i = size; i > 1; i--) {
+            int j = random.nextInt(i);
+            int swap = order[i - 1];
+            order[i - 1] = order[j];
+            order[j] = swap;
+        }
+        parsed = new MCQ[size];
+        this.fingerprint = fingerprint ^ size;
+    }
+
+    // Reads and splits the files in parallel and starts parsing in the background. A file that
+    // cannot be read is reported and left out.
+    static ProgressiveBank open(List<File> files, File baseDirectory, long seed,
+            BiConsumer<File, IOException> onError) {
+        QuizMetrics.Span span = QuizMetrics.begin(QuizMetrics.Phase.LOAD).detail(files.size() + " files, split");
+        byte[][] bytes = new byte[files.size()][];
+        QuestionBankLoader.Blocks[] blocks = new QuestionBankLoader.Blocks[files.size()];
+        long[] checksums = new long[files.size()];
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(files.size());
+        for (int f = 0; f < files.size(); f++) {
+            int index = f;
+            tasks.add(ForkJoinPool.commonPool().submit(() -> {
+                byte[] content = Files.readAllBytes(files.get(index).toPath());
+                blocks[index] = QuestionBankLoader.split(content);
+                CRC32C crc = new CRC32C();
+                crc.update(content);
+                checksums[index] = crc.getValue() | (long) content.length << 32;
+                bytes[index] = content;
+                return null;
+            }));
+        }
+        long fingerprint = 0xcbf29ce484222325L;
+        for (int f = 0; f < tasks.size(); f++) {
+            try {
+                tasks.get(f).get();
+            } catch (Exception e) {
+                onError.accept(files.get(f), QuestionBankLoader.asIOException(e));
+            }
+            fingerprint = (fingerprint ^ checksums[f]) * 0x100000001b3L;
+        }
+        ProgressiveBank bank = new ProgressiveBank(files, baseDirectory, onError, bytes, blocks, fingerprint, seed);
+        span.end();
+
+        Thread parser = new Thread(bank::parseAll, "bank-parser");
+        parser.setDaemon(true);
+        parser.setPriority(Thread.MIN_PRIORITY); // The question on screen comes first
+        parser.start();
+        return bank;
+    }
+
+    // Identifies the files and their contents; with the seed it determines the whole quiz
+    long fingerprint() {
+        return fingerprint;
+    }
+
+    @Override
+    public synchronized int size() {
+        return size;
+    }
+
+    // Questions parsed so far, by the background thread or on demand
+    synchronized int parsedCount() {
+        return parsedCount;
+    }
+
+    // Stops the background parse, for a quiz that is loaded another way after all
+    synchronized void close() {
+        closed = true;
+    }
+
+    @Override
+    public synchronized MCQ get(int position) {
+        while (true) {
+            if (position >= size) {
+                throw new IndexOutOfBoundsException("Position " + position + " of " + size);
+            }
+            int question = order[position];
+            if (parsed[question] != null) {
+                return parsed[question];
+            }
+            try {
+                store(question, parse(question)); // Reached before the background thread got to it
+            } catch (IOException e) {
+                remove(position, question, e);
+            }
+        }
+    }
+
+    private void parseAll() {
+        QuizMetrics.Span span = QuizMetrics.begin(QuizMetrics.Phase.LOAD).detail("background parse");
+        for (int position = 0;; position++) {
+            int question;
+            synchronized (this) {
+                if (closed || position >= size) {
+                    break;
+                }
+                question = order[position];
+                if (parsed[question] != null) {
+                    continue;
+                }
+            }
+            try {
+                MCQ result = parse(question);
+                synchronized (this) {
+                    store(question, result);
+                }
+            } catch (IOException e) {
+                synchronized (this) {
+                    if (position < size && order[position] == question && parsed[question] == null) {
+                        remove(position, question, e);
+                    }
+                }
+                position--; // The position now holds another question
+            }
+        }
+        span.end();
+        synchronized (this) {
+            if (parsedCount == size) {
+                Arrays.fill(bytes, null); // Every question is parsed; the file contents are no longer needed
+            }
+        }
+    }
+
+    // Parses without holding the lock; the file bytes and block tables never change
+    private MCQ parse(int question) throws IOException {
+        int f = fileOf[question];
+        int b = blockOf[question];
+        QuestionBankLoader.Blocks split = blocks[f];
+        MCQ[] result = new MCQ[1];
+        QuestionBankLoader.parse(files.get(f), bytes[f], split.starts[b], split.end(b), b, split.linesBefore[b],
+                QuestionBankLoader.toMCQ(baseDirectory, mcq -> {
+                    if (result[0] == null) {
+                        result[0] = mcq;
+                    }
+                }));
+        if (result[0] == null) {
+            throw new IOException("Question " + (b + 1) + " is incomplete in " + files.get(f).getName());
+        }
+        return result[0];
+    }
+
+    private void store(int question, MCQ mcq) {
+        if (parsed[question] == null) {
+            parsed[question] = mcq;
+            parsedCount++;
+        }
+    }
+
+    // Drops a question that does not parse; the last one in the order takes its place
+    private void remove(int position, int question, IOException e) {
+        order[position] = order[--size];
+        if (reported.add(files.get(fileOf[question]))) {
+            onError.accept(files.get(fileOf[question]), e);
+        }
+    }
+}
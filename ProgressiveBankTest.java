@@ -0,0 +1,148 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ProgressiveBankTest {
+    private static List<String> texts(List<MCQ> questions) {
+        List<String> texts = new ArrayList<>();
+        for (MCQ question : questions) {
+            texts.add(question.getQuestion());
+        }
+        return texts;
+    }
+
+    private static void awaitParsed(ProgressiveBank bank) throws InterruptedException {
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (bank.parsedCount() < bank.size() && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+    }
+
+    // testSameAsShuffledParse(): The quiz holds the same questions in the same order as parsing every
+    // file and shuffling with the same seed, audio paths included; the fingerprint only changes with
+    // the files.
+    @Test
+    void testSameAsShuffledParse() throws IOException, InterruptedException {
+        List<File> files = List.of(TestBanks.numbered("first", 30), TestBanks.numbered("second", 5),
+                TestBanks.numbered("third", 65));
+        File base = files.get(0).getParentFile();
+        ProgressiveBank bank = ProgressiveBank.open(files, base, 99, (f, e) -> {
+            throw new AssertionError(e);
+        });
+        ArrayList<MCQ> parsed = QuestionBankLoader.loadAll(files, base, (f, e) -> {
+        });
+        Collections.shuffle(parsed, new Random(99));
+
+        assertEquals(100, bank.size());
+        assertEquals(texts(parsed), texts(bank));
+        for (int i = 0; i < parsed.size(); i++) {
+            assertEquals(parsed.get(i).getQuestionAudioPath(), bank.get(i).getQuestionAudioPath());
+        }
+        awaitParsed(bank);
+        assertEquals(100, bank.parsedCount());
+
+        long fingerprint = bank.fingerprint();
+        assertEquals(fingerprint, ProgressiveBank.open(files, base, 99, (f, e) -> {
+        }).fingerprint());
+        Files.writeString(files.get(1).toPath(), Files.readString(files.get(1).toPath()).replace("second 3",
+                "second three"));
+        assertNotEquals(fingerprint, ProgressiveBank.open(files, base, 99, (f, e) -> {
+        }).fingerprint());
+        files.forEach(File::delete);
+    }
+
+    // testFilter(): A progressive quiz asks for the filter too; a search loads the whole bank and gives the
+    // same quiz as a full load, while a blank one keeps loading progressively.
+    @Test
+    void testFilter() throws IOException {
+        File[] files = { TestBanks.numbered("first", 30), TestBanks.numbered("second", 20) };
+        List<MCQ> filtered = Main.buildQuiz(files, 7, 0, false, true, null, count -> {
+            assertEquals(50, count);
+            return "second";
+        });
+        List<MCQ> full = Main.buildQuiz(files, 7, 0, false, false, null, count -> "second");
+        List<MCQ> unfiltered = Main.buildQuiz(files, 7, 0, false, true, null, count -> " ");
+        for (File file : files) {
+            file.delete();
+        }
+
+        assertEquals(20, filtered.size());
+        assertEquals(texts(full), texts(filtered));
+        assertTrue(unfiltered instanceof ProgressiveBank);
+        assertEquals(50, unfiltered.size());
+    }
+
+    // testUniformFirstQuestion(): Over many seeds every question is as likely to come first, including
+    // those at the end of the last file.
+    @Test
+    void testUniformFirstQuestion() throws IOException {
+        List<File> files = List.of(TestBanks.numbered("small", 4), TestBanks.numbered("large", 36));
+        int runs = 4000;
+        int[] first = new int[40];
+        for (int seed = 0; seed < runs; seed++) {
+            String[] parts = ProgressiveBank.open(files, null, seed, (f, e) -> {
+            }).get(0).getQuestion().split(" ");
+            first[(parts[0].equals("small") ? 0 : 4) + Integer.parseInt(parts[1])]++;
+        }
+        files.forEach(File::delete);
+
+        // Expected 100 each; 5 standard deviations is about 50
+        for (int i = 0; i < first.length; i++) {
+            assertTrue(Math.abs(first[i] - 100) < 50, "question " + i + " first " + first[i] + " times");
+        }
+    }
+
+    // testBrokenQuestion(): A question that does not parse is reported once and replaced by the last
+    // one in the order; every other question is still asked exactly once.
+    @Test
+    void testBrokenQuestion() throws IOException {
+        File file = TestBanks.numbered("mixed", 50);
+        Files.writeString(file.toPath(), Files.readString(file.toPath()).replaceFirst("Answer: A\\) a\n",
+                "Answer:\n"));
+        AtomicInteger errors = new AtomicInteger();
+        ProgressiveBank bank = ProgressiveBank.open(List.of(file), null, 5, (f, e) -> errors.incrementAndGet());
+
+        List<String> asked = new ArrayList<>();
+        for (int i = 0; i < bank.size(); i++) {
+            asked.add(bank.get(i).getQuestion());
+        }
+        file.delete();
+        assertEquals(49, bank.size());
+        assertEquals(49, new HashSet<>(asked).size());
+        assertTrue(!asked.contains("mixed 0"));
+        assertEquals(1, errors.get());
+    }
+
+    // testFirstQuestion(): The first question of a multi-file bank, asked for straight after the split, is
+    // the one a full load and shuffle would put first; the rest arrive in the background.
+    @Test
+    void testFirstQuestion() throws IOException, InterruptedException {
+        List<File> files = new ArrayList<>();
+        for (int f = 0; f < 4; f++) {
+            files.add(TestBanks.numbered("part" + f, 5_000));
+        }
+        ArrayList<MCQ> all = QuestionBankLoader.loadAll(files, null, (f, e) -> {
+        });
+        Collections.shuffle(all, new Random(1));
+
+        ProgressiveBank bank = ProgressiveBank.open(files, null, 1, (f, e) -> {
+        });
+        MCQ first = bank.get(0);
+        awaitParsed(bank);
+
+        assertEquals(all.get(0).getQuestion(), first.getQuestion());
+        assertEquals(20_000, bank.parsedCount());
+        files.forEach(File::delete);
+    }
+}
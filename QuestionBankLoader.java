@@ -0,0 +1,421 @@
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Parallel replacement for Main.loadQuestionsFromFile. Each bank file is read through a FileChannel
+// into a reusable byte buffer and scanned on a fork-join pool; Strings are only built for the
+// fields an MCQ keeps, never for whole lines. The text format and audio path layout are the same as before.
+//
+// A question's number, which names its audio clips, is the one in its "Question N:" header, or one more
+// than the previous question's when the header has none. In a bank numbered 1, 2, 3... both agree.
+class QuestionBankLoader {
+    private static final byte[] QUESTION = ascii("Question");
+    private static final byte[] ANSWER = ascii("Answer:");
+    private static final byte[] EXPLANATION = ascii("Explanation:");
+    private static final int BUFFER_SIZE = 64 * 1024;
+    static final String AUDIO_DIRECTORY = "audio/complete";
+    private static final Pattern AUDIO_NUMBER = Pattern.compile("question(\\d+)[/\\\\]question \\1\\.wav$");
+
+    // Receives every parsed question before it is turned into an MCQ
+    interface RecordSink {
+        void accept(File source, int questionNumber, String question, String[] choices, String answer,
+                String reason);
+    }
+
+    private QuestionBankLoader() {
+    }
+
+    // Loads all files in parallel and returns the questions in file order, like the old loop in main()
+    static ArrayList<MCQ> loadAll(List<File> files, File baseDirectory, BiConsumer<File, IOException> onError) {
+        List<ForkJoinTask<ArrayList<MCQ>>> tasks = new ArrayList<>(files.size());
+        for (File file : files) {
+            tasks.add(ForkJoinTask.adapt(() -> {
+                ArrayList<MCQ> parsed = new ArrayList<>();
+                parse(file, toMCQ(baseDirectory, parsed::add));
+                return parsed;
+            }));
+        }
+        tasks.forEach(ForkJoinPool.commonPool()::execute);
+
+        ArrayList<MCQ> questions = new ArrayList<>();
+        for (int i = 0; i < tasks.size(); i++) {
+            try {
+                questions.addAll(tasks.get(i).get());
+            } catch (ExecutionException | InterruptedException e) {
+                onError.accept(files.get(i), asIOException(e));
+            }
+        }
+        return questions;
+    }
+
+    // Streams questions to the sink as soon as they are parsed. The sink is called concurrently
+    // from pool threads and must be thread-safe; order is only preserved within a file.
+    static void stream(List<File> files, File baseDirectory, Consumer<MCQ> sink,
+            BiConsumer<File, IOException> onError) {
+        streamRecords(files, toMCQ(baseDirectory, sink), onError);
+    }
+
+    static void streamRecords(List<File> files, RecordSink sink, BiConsumer<File, IOException> onError) {
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(files.size());
+        for (File file : files) {
+            tasks.add(ForkJoinTask.adapt(() -> {
+                parse(file, sink);
+                return null;
+            }));
+        }
+        tasks.forEach(ForkJoinPool.commonPool()::execute);
+        for (int i = 0; i < tasks.size(); i++) {
+            try {
+                tasks.get(i).get();
+            } catch (ExecutionException | InterruptedException e) {
+                onError.accept(files.get(i), asIOException(e));
+            }
+        }
+    }
+
+    static RecordSink toMCQ(File baseDirectory, Consumer<MCQ> sink) {
+        AudioPaths audio = new AudioPaths(baseDirectory);
+        return (source, number, question, choices, answer, reason) -> sink.accept(MCQ.of(question, choices,
+                answer, reason, audio.question(number), audio.explanation(number)));
+    }
+
+    static String questionAudioPath(File baseDirectory, int questionNumber) {
+        return new AudioPaths(baseDirectory).question(questionNumber);
+    }
+
+    static String explanationAudioPath(File baseDirectory, int questionNumber) {
+        return new AudioPaths(baseDirectory).explanation(questionNumber);
+    }
+
+    // Audio clip paths under one base directory. The directory and its audio/complete.pack are resolved
+    // once, so a load builds each path with a single concatenation instead of going through File.
+    static final class AudioPaths {
+        private final String directory; // Absolute, ending in a separator
+        private final AudioPack pack;
+
+        AudioPaths(File baseDirectory) {
+            File audio = new File(baseDirectory, AUDIO_DIRECTORY);
+            directory = audio.getAbsolutePath() + File.separator;
+            pack = AudioPack.forDirectory(audio);
+        }
+
+        String question(int number) {
+            return path(number, ".wav");
+        }
+
+        String explanation(int number) {
+            return path(number, "(explanation).wav");
+        }
+
+        // The clip inside audio/complete.pack when that pack exists and holds it, otherwise the .wav file
+        private String path(int number, String suffix) {
+            if (pack != null) {
+                String name = "question" + number + "/question " + number + suffix;
+                if (pack.contains(name)) {
+                    return pack.path(name);
+                }
+            }
+            return directory + "question" + number + File.separator + "question " + number + suffix;
+        }
+    }
+
+    // Writes questions in UTF-8 in the text format parse() reads. Each question keeps the number its audio
+    // clips were named for, so a merged or sampled bank in the same directory still plays them; questions
+    // without audio are numbered by position from 1.
+    static void write(List<MCQ> questions, File output) throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(output.toPath(), StandardCharsets.UTF_8)) {
+            for (int i = 0; i < questions.size(); i++) {
+                MCQ question = questions.get(i);
+                int number = audioNumber(question);
+                writeLine(out, "Question " + (number > 0 ? number : i + 1) + ":");
+                writeLine(out, question.getQuestion());
+                String answerLine = question.getAnswer();
+                for (String choice : question.getChoices()) {
+                    if (choice == null) {
+                        continue;
+                    }
+                    writeLine(out, choice);
+                    if (choice.startsWith(question.getAnswer() + ")")) {
+                        answerLine = choice;
+                    }
+                }
+                writeLine(out, "Answer: " + answerLine);
+                writeLine(out, "Explanation: " + question.getReason());
+                out.newLine();
+            }
+        }
+    }
+
+    private static void writeLine(BufferedWriter out, String line) throws IOException {
+        out.write(line);
+        out.newLine();
+    }
+
+    // Number the question's audio clips were named for, or 0 when its audio path is not one of ours
+    static int audioNumber(MCQ question) {
+        String path = question.getQuestionAudioPath();
+        Matcher matcher = path == null ? null : AUDIO_NUMBER.matcher(path);
+        return matcher != null && matcher.find() ? Integer.parseInt(matcher.group(1)) : 0;
+    }
+
+    // The number in a "Question N:" header, or previous + 1 when it has none
+    static int questionNumber(String header, int previous) {
+        int at = "Question".length();
+        while (at < header.length() && header.charAt(at) == ' ') {
+            at++;
+        }
+        int start = at;
+        while (at < header.length() && at - start < 9 && header.charAt(at) >= '0' && header.charAt(at) <= '9') {
+            at++;
+        }
+        int number = at > start ? Integer.parseInt(header.substring(start, at)) : 0;
+        return number > 0 ? number : previous + 1;
+    }
+
+    // The same for a header line held in buffer[start, end), read without decoding it
+    static int questionNumber(byte[] buffer, int start, int end, int previous) {
+        int at = start + QUESTION.length;
+        while (at < end && buffer[at] == ' ') {
+            at++;
+        }
+        int number = 0;
+        for (int digits = 0; at < end && digits < 9 && buffer[at] >= '0' && buffer[at] <= '9'; at++, digits++) {
+            number = number * 10 + buffer[at] - '0';
+        }
+        return number > 0 ? number : previous + 1;
+    }
+
+    // Parses a single file on the calling thread
+    static void parse(File file, RecordSink sink) throws IOException {
+        QuizMetrics.Span span = QuizMetrics.begin(QuizMetrics.Phase.LOAD).detail(file.getName());
+        Parser parser = new Parser(file, sink);
+        byte[] buffer = new byte[BUFFER_SIZE];
+        ByteBuffer window = ByteBuffer.wrap(buffer);
+        int filled = 0;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            while (true) {
+                if (filled == buffer.length) { // A single line longer than the buffer
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                    window = ByteBuffer.wrap(buffer);
+                }
+                window.limit(buffer.length).position(filled);
+                int read = channel.read(window);
+                if (read < 0) {
+                    break;
+                }
+                filled += read;
+                int consumed = parser.scan(buffer, filled, false);
+                System.arraycopy(buffer, consumed, buffer, 0, filled - consumed);
+                filled -= consumed;
+            }
+            parser.scan(buffer, filled, true);
+            parser.finish();
+        } catch (IOException | RuntimeException e) {
+            span.cancel(); // Only successful parses are timed
+            throw e;
+        }
+        span.end();
+    }
+
+    // Parses bytes[from, to) that are already in memory, such as one question block of a file.
+    // Numbers and error line numbers continue from the questions and lines before the range.
+    static void parse(File file, byte[] bytes, int from, int to, int questionsBefore, int linesBefore,
+            RecordSink sink) throws IOException {
+        Parser parser = new Parser(file, sink);
+        parser.questionNumber = questionsBefore;
+        parser.lineNumber = linesBefore;
+        parser.scan(bytes, from, to, true);
+        parser.finish();
+    }
+
+    // Line state machine equivalent to the one in Main.loadQuestionsFromFile
+    private static final class Parser {
+        private final File file;
+        private final RecordSink sink;
+        private final String[] choices = new String[4];
+        private String question;
+        private String answer;
+        private int choiceIndex;
+        private int questionNumber;
+        private int lineNumber;
+        private boolean expectQuestionText;
+
+        Parser(File file, RecordSink sink) {
+            this.file = file;
+            this.sink = sink;
+        }
+
+        // Handles every complete line in buffer[0, filled) and returns how many bytes were used
+        int scan(byte[] buffer, int filled, boolean atEof) throws IOException {
+            return scan(buffer, 0, filled, atEof);
+        }
+
+        int scan(byte[] buffer, int from, int filled, boolean atEof) throws IOException {
+            int pos = from;
+            while (pos < filled) {
+                int end = pos;
+                while (end < filled && buffer[end] != '\n') {
+                    end++;
+                }
+                if (end == filled && !atEof) {
+                    break; // Incomplete line, wait for more input
+                }
+                int lineEnd = end > pos && buffer[end - 1] == '\r' ? end - 1 : end;
+                line(buffer, pos, lineEnd);
+                pos = end + 1;
+            }
+            return Math.min(pos, filled);
+        }
+
+        private void line(byte[] buffer, int start, int end) throws IOException {
+            lineNumber++;
+            if (expectQuestionText) {
+                question = decodeTrimmed(buffer, start, end);
+                expectQuestionText = false;
+            } else if (startsWith(buffer, start, end, QUESTION)) {
+                expectQuestionText = true;
+                choiceIndex = 0;
+                questionNumber = questionNumber(buffer, start, end, questionNumber);
+            } else if (end - start >= 2 && buffer[start + 1] == ')' && buffer[start] >= 'A' && buffer[start] <= 'D') {
+                if (choiceIndex == choices.length) {
+                    throw new IOException("Too many choices at line " + lineNumber + " of " + file.getName());
+                }
+                choices[choiceIndex++] = decodeTrimmed(buffer, start, end);
+            } else if (startsWith(buffer, start, end, ANSWER)) {
+                int from = start + ANSWER.length;
+                String letter = decodeTrimmed(buffer, from, fieldEnd(buffer, from, end));
+                if (letter.isEmpty()) {
+                    throw new IOException("Missing answer at line " + lineNumber + " of " + file.getName());
+                }
+                answer = letter.substring(0, 1); // Extract only the letter
+            } else if (startsWith(buffer, start, end, EXPLANATION)) {
+                if (question == null || answer == null) {
+                    throw new IOException("Incomplete question before line " + lineNumber + " of " + file.getName());
+                }
+                int from = start + EXPLANATION.length;
+                String reason = decodeTrimmed(buffer, from, fieldEnd(buffer, from, end));
+                sink.accept(file, questionNumber, question, choices.clone(), answer, reason);
+            }
+        }
+
+        void finish() throws IOException {
+            if (expectQuestionText) {
+                throw new IOException("Question " + questionNumber + " has no text in " + file.getName());
+            }
+        }
+    }
+
+    // Same field boundary as line.split(":")[1]: the text runs up to the next colon
+    private static int fieldEnd(byte[] buffer, int from, int end) {
+        for (int i = from; i < end; i++) {
+            if (buffer[i] == ':') {
+                return i;
+            }
+        }
+        return end;
+    }
+
+    // Question blocks of a file held in memory: each runs from a "Question" header to the next one
+    static final class Blocks {
+        int[] starts = new int[64];
+        int[] linesBefore = new int[64]; // Lines of the file before the block
+        boolean[] complete = new boolean[64]; // Has an Explanation line, so it parses to a question
+        int count;
+        final int length;
+
+        Blocks(int length) {
+            this.length = length;
+        }
+
+        int end(int block) {
+            return block + 1 < count ? starts[block + 1] : length;
+        }
+
+        private void add(int start, int lines) {
+            if (count == starts.length) {
+                starts = Arrays.copyOf(starts, count * 2);
+                linesBefore = Arrays.copyOf(linesBefore, count * 2);
+                complete = Arrays.copyOf(complete, count * 2);
+            }
+            starts[count] = start;
+            linesBefore[count++] = lines;
+        }
+    }
+
+    // Splits a file into question blocks by the parser's own rule (the line after a header is
+    // question text, whatever it says) without parsing them; much cheaper than a full parse
+    static Blocks split(byte[] bytes) {
+        Blocks blocks = new Blocks(bytes.length);
+        int lines = 0;
+        boolean expectText = false;
+        for (int pos = 0; pos < bytes.length; lines++) {
+            int end = pos;
+            while (end < bytes.length && bytes[end] != '\n') {
+                end++;
+            }
+            if (expectText) {
+                expectText = false;
+            } else if (startsWith(bytes, pos, end, QUESTION)) {
+                blocks.add(pos, lines);
+                expectText = true;
+            } else if (blocks.count > 0 && startsWith(bytes, pos, end, EXPLANATION)) {
+                blocks.complete[blocks.count - 1] = true;
+            }
+            pos = end + 1;
+        }
+        return blocks;
+    }
+
+    private static boolean startsWith(byte[] buffer, int start, int end, byte[] prefix) {
+        if (end - start < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (buffer[start + i] != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String decodeTrimmed(byte[] buffer, int start, int end) {
+        while (start < end && (buffer[start] & 0xFF) <= ' ') {
+            start++;
+        }
+        while (end > start && (buffer[end - 1] & 0xFF) <= ' ') {
+            end--;
+        }
+        return new String(buffer, start, end - start, StandardCharsets.UTF_8);
+    }
+
+    static IOException asIOException(Exception e) {
+        Throwable cause = e;
+        // ForkJoinTask.adapt wraps checked exceptions in a RuntimeException
+        while ((cause instanceof ExecutionException || cause instanceof RuntimeException) && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        if (cause instanceof IOException) {
+            return (IOException) cause;
+        }
+        return new IOException(cause.getMessage(), cause);
+    }
+
+    private static byte[] ascii(String s) {
+        return s.getBytes(StandardCharsets.US_ASCII);
+    }
+}
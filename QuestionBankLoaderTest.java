@@ -0,0 +1,58 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+public class QuestionBankLoaderTest {
+    // testQuestionBankLoader(): The parallel loader must produce the same questions and audio paths as
+    // loadQuestionsFromFile() for the same file.
+    @Test
+    void testQuestionBankLoader() throws IOException {
+        File tempFile = TestBanks.sample();
+
+        ArrayList<MCQ> expected = Main.loadQuestionsFromFile(tempFile.getAbsolutePath(), tempFile.getParentFile());
+        ArrayList<MCQ> actual = QuestionBankLoader.loadAll(List.of(tempFile), tempFile.getParentFile(),
+                (file, ex) -> { throw new AssertionError(ex); });
+
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getQuestion(), actual.get(i).getQuestion());
+            assertArrayEquals(expected.get(i).getChoices(), actual.get(i).getChoices());
+            assertEquals(expected.get(i).getAnswer(), actual.get(i).getAnswer());
+            assertEquals(expected.get(i).getReason(), actual.get(i).getReason());
+            assertEquals(expected.get(i).getQuestionAudioPath(), actual.get(i).getQuestionAudioPath());
+            assertEquals(expected.get(i).getExplanationAudioPath(), actual.get(i).getExplanationAudioPath());
+        }
+
+        tempFile.delete();
+    }
+
+    // testQuestionNumbers(): Audio is named for the number in each "Question N" header, or one more than the
+    // previous question's when the header has none, as loadQuestionsFromFile() numbers them.
+    @Test
+    void testQuestionNumbers() throws IOException {
+        File file = File.createTempFile("numbers", ".txt");
+        Files.writeString(file.toPath(), "Question 12:\nFirst?\nA) a\nB) b\nAnswer: A\nExplanation: One\n"
+                + "Question:\nSecond?\nA) a\nB) b\nAnswer: B\nExplanation: Two\n"
+                + "Question  7\nThird?\nA) a\nB) b\nAnswer: A\nExplanation: Three\n");
+        File base = file.getParentFile();
+        List<MCQ> loaded = QuestionBankLoader.loadAll(List.of(file), base, (f, e) -> {
+            throw new AssertionError(e);
+        });
+        List<MCQ> expected = Main.loadQuestionsFromFile(file.getAbsolutePath(), base);
+        file.delete();
+
+        int[] numbers = { 12, 13, 7 };
+        for (int i = 0; i < numbers.length; i++) {
+            assertEquals(QuestionBankLoader.questionAudioPath(base, numbers[i]), loaded.get(i).getQuestionAudioPath());
+            assertEquals(new File(base, "audio/complete/question" + numbers[i] + "/question " + numbers[i]
+                    + "(explanation).wav").getAbsolutePath(), loaded.get(i).getExplanationAudioPath());
+            assertEquals(expected.get(i).getQuestionAudioPath(), loaded.get(i).getQuestionAudioPath());
+        }
+    }
+}
@@ -0,0 +1,432 @@
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+// Finds repeated questions across merged banks, in two passes that both run on the common pool:
+//
+//   exact  questions whose normalized text and set of choices hash alike (letters, case,
+//          punctuation and choice order ignored) and compare equal
+//   near   the remaining questions are MinHashed over character shingles and bucketed by LSH bands;
+//          questions sharing a bucket are candidates, kept when their shingle sets' Jaccard
+//          similarity reaches the threshold
+//
+// Questions whose correct answers differ are never duplicates, however alike their wording: a bank
+// template such as "Which organelle ...?" over one set of choices is several questions, not one.
+//
+// Both passes sort packed (hash, id) longs instead of building hash maps, so memory is a few
+// longs per question and the work grows with n log n. Each duplicate joins the group of the
+// earliest question it matches, which is the one a merged bank keeps.
+class QuestionDeduplicator {
+    static final double DEFAULT_THRESHOLD = 0.8;
+    private static final int SHINGLE = 5; // Characters per shingle
+    private static final int BANDS = 12;
+    private static final int ROWS = 5; // Candidates from about 0.6 similarity; 99% recall at 0.8
+    private static final int WINDOW = 4; // Earlier bucket members each question is compared with
+    private static final long[] MULTIPLIERS = new long[BANDS * ROWS];
+    private static final long[] OFFSETS = new long[BANDS * ROWS];
+
+    static {
+        Random random = new Random(0x5EED); // Fixed, so signatures are the same on every run
+        for (int i = 0; i < MULTIPLIERS.length; i++) {
+            MULTIPLIERS[i] = random.nextLong() | 1;
+            OFFSETS[i] = random.nextLong();
+        }
+    }
+
+    static final class Result {
+        private final List<MCQ> questions;
+        private final int[] group; // Index of the kept question each question belongs to
+        private final boolean[] exact; // Removed by the exact pass
+        private final int exactDuplicates;
+        private final int nearDuplicates;
+
+        private Result(List<MCQ> questions, int[] group, boolean[] exact) {
+            this.questions = questions;
+            this.group = group;
+            this.exact = exact;
+            int exactCount = 0;
+            int nearCount = 0;
+            for (int i = 0; i < group.length; i++) {
+                if (group[i] != i) {
+                    if (exact[i]) {
+                        exactCount++;
+                    } else {
+                        nearCount++;
+                    }
+                }
+            }
+            exactDuplicates = exactCount;
+            nearDuplicates = nearCount;
+        }
+
+        boolean isDuplicate(int index) {
+            return group[index] != index;
+        }
+
+        // The question kept in place of the given one; itself when it is not a duplicate
+        int keptIndex(int index) {
+            return group[index];
+        }
+
+        int getExactDuplicates() {
+            return exactDuplicates;
+        }
+
+        int getNearDuplicates() {
+            return nearDuplicates;
+        }
+
+        int uniqueCount() {
+            return group.length - exactDuplicates - nearDuplicates;
+        }
+
+        // The questions with every duplicate removed, in their original order
+        ArrayList<MCQ> merged() {
+            ArrayList<MCQ> merged = new ArrayList<>(uniqueCount());
+            for (int i = 0; i < group.length; i++) {
+                if (group[i] == i) {
+                    merged.add(questions.get(i));
+                }
+            }
+            return merged;
+        }
+
+        // The given question indices (e.g. a QuestionIndex search) with duplicates removed
+        ArrayList<MCQ> merged(int[] indices) {
+            ArrayList<MCQ> merged = new ArrayList<>(indices.length);
+            for (int i : indices) {
+                if (group[i] == i) {
+                    merged.add(questions.get(i));
+                }
+            }
+            return merged;
+        }
+
+        String summary() {
+            return String.format("%d questions, %d exact and %d near duplicates, %d unique", group.length,
+                    exactDuplicates, nearDuplicates, uniqueCount());
+        }
+
+        // Every group with duplicates: the kept question, then each duplicate and how it matched
+        String report() {
+            int[] next = new int[group.length]; // Members of each group as linked lists
+            int[] last = new int[group.length];
+            Arrays.fill(next, -1);
+            for (int i = 0; i < group.length; i++) {
+                last[i] = i;
+            }
+            for (int i = 0; i < group.length; i++) {
+                if (group[i] != i) {
+                    next[last[group[i]]] = i;
+                    last[group[i]] = i;
+                }
+            }
+            StringBuilder sb = new StringBuilder(summary()).append(System.lineSeparator());
+            for (int i = 0; i < group.length; i++) {
+                if (group[i] == i && next[i] >= 0) {
+                    sb.append(String.format("#%d %s%n", i + 1, questions.get(i).getQuestion()));
+                    for (int j = next[i]; j >= 0; j = next[j]) {
+                        sb.append(String.format("    %-5s #%d %s%n", exact[j] ? "exact" : "near", j + 1,
+                                questions.get(j).getQuestion()));
+                    }
+                }
+            }
+            return sb.toString();
+        }
+    }
+
+    private QuestionDeduplicator() {
+    }
+
+    // Threshold for the quiz from -Dmcq.dedupThreshold. Unset, or above 1, only exact duplicates are removed;
+    // near duplicates are for the report, where someone reads them before a merge drops any
+    static double threshold() {
+        String threshold = System.getProperty("mcq.dedupThreshold");
+        return threshold == null ? Double.POSITIVE_INFINITY : Double.parseDouble(threshold);
+    }
+
+    static Result find(List<MCQ> questions) {
+        return find(questions, DEFAULT_THRESHOLD);
+    }
+
+    static Result find(List<MCQ> questions, double threshold) {
+        int n = questions.size();
+        int[] parent = new int[n];
+        for (int i = 0; i < n; i++) {
+            parent[i] = i;
+        }
+        boolean[] exact = new boolean[n];
+        int idBits = Math.max(1, 32 - Integer.numberOfLeadingZeros(n));
+
+        // Exact pass: sort (content hash, id) and join equal neighbours after comparing the text
+        long[] hashes = new long[n];
+        IntStream.range(0, n).parallel().forEach(i -> hashes[i] = pack(contentHash(questions.get(i)), i, idBits));
+        Arrays.parallelSort(hashes);
+        long idMask = (1L << idBits) - 1;
+        for (int start = 0, end; start < n; start = end) {
+            end = start + 1;
+            while (end < n && sameKey(hashes[start], hashes[end], idMask)) {
+                end++;
+            }
+            for (int a = start + 1; a < end; a++) {
+                int id = (int) (hashes[a] & idMask);
+                for (int b = start; b < a; b++) {
+                    int other = (int) (hashes[b] & idMask);
+                    if (find(parent, other) == other && content(questions.get(id)).equals(
+                            content(questions.get(other))) && sameAnswer(questions.get(id), questions.get(other))) {
+                        union(parent, other, id); // Ids ascend within a run, so other < id
+                        exact[id] = true;
+                        break;
+                    }
+                }
+            }
+        }
+
+        if (threshold <= 1) {
+            for (long[] pair : nearPairs(questions, parent, threshold, idBits)) {
+                union(parent, (int) pair[0], (int) pair[1]);
+            }
+        }
+
+        int[] group = new int[n];
+        for (int i = 0; i < n; i++) {
+            group[i] = find(parent, i);
+        }
+        return new Result(questions, group, exact);
+    }
+
+    // Pairs of distinct exact groups whose shingle sets are at least threshold-similar
+    private static List<long[]> nearPairs(List<MCQ> questions, int[] parent, double threshold, int idBits) {
+        int[] kept = IntStream.range(0, parent.length).filter(i -> parent[i] == i).toArray();
+        long[][] bands = new long[BANDS][kept.length];
+        IntStream.range(0, kept.length).parallel().forEach(k -> {
+            long[] signature = signature(shingles(questions.get(kept[k])));
+            for (int band = 0; band < BANDS; band++) {
+                long hash = band;
+                for (int row = 0; row < ROWS; row++) {
+                    hash = mix(hash ^ signature[band * ROWS + row]);
+                }
+                bands[band][k] = pack(hash, kept[k], idBits);
+            }
+        });
+
+        // Candidates from every band, deduplicated as packed (lower id, higher id) longs
+        long idMask = (1L << idBits) - 1;
+        long[] candidates = IntStream.range(0, BANDS).parallel().mapToObj(band -> {
+            long[] entries = bands[band];
+            Arrays.sort(entries);
+            long[] pairs = new long[16];
+            int count = 0;
+            for (int i = 1; i < entries.length; i++) {
+                for (int j = i - 1; j >= Math.max(0, i - WINDOW) && sameKey(entries[i], entries[j], idMask); j--) {
+                    if (count == pairs.length) {
+                        pairs = Arrays.copyOf(pairs, count * 2);
+                    }
+                    pairs[count++] = (entries[j] & idMask) << 32 | (entries[i] & idMask);
+                }
+            }
+            return Arrays.copyOf(pairs, count);
+        }).flatMapToLong(Arrays::stream).distinct().toArray();
+
+        return Arrays.stream(candidates).parallel()
+                .mapToObj(pair -> new long[] { pair >>> 32, pair & 0xFFFFFFFFL })
+                .filter(pair -> sameAnswer(questions.get((int) pair[0]), questions.get((int) pair[1])))
+                .filter(pair -> jaccard(shingles(questions.get((int) pair[0])),
+                        shingles(questions.get((int) pair[1]))) >= threshold)
+                .toList();
+    }
+
+    // Normalized question followed by its sorted normalized choices
+    static String content(MCQ question) {
+        String[] choices = new String[question.getChoices().length];
+        for (int i = 0; i < choices.length; i++) {
+            choices[i] = normalize(stripLetter(question.getChoices()[i]));
+        }
+        Arrays.sort(choices);
+        StringBuilder sb = new StringBuilder(normalize(question.getQuestion()));
+        for (String choice : choices) {
+            sb.append('|').append(choice);
+        }
+        return sb.toString();
+    }
+
+    // Normalized text of the correct choice, or the answer itself when it names no choice
+    static String answer(MCQ question) {
+        String letter = question.getAnswer();
+        String[] choices = question.getChoices();
+        int index = letter == null || letter.length() != 1 ? -1 : Character.toUpperCase(letter.charAt(0)) - 'A';
+        if (index >= 0 && index < choices.length && choices[index] != null) {
+            return normalize(stripLetter(choices[index]));
+        }
+        return "?" + normalize(letter);
+    }
+
+    private static boolean sameAnswer(MCQ a, MCQ b) {
+        return answer(a).equals(answer(b));
+    }
+
+    // Lower case, letters and digits only, single spaces between words
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder(text.length());
+        boolean space = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                if (space && sb.length() > 0) {
+                    sb.append(' ');
+                }
+                sb.append(Character.toLowerCase(c));
+                space = false;
+            } else {
+                space = true;
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String stripLetter(String choice) {
+        if (choice != null && choice.length() >= 2 && choice.charAt(1) == ')') {
+            return choice.substring(2);
+        }
+        return choice;
+    }
+
+    private static long contentHash(MCQ question) {
+        String content = content(question);
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < content.length(); i++) {
+            hash ^= content.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    // Sorted, distinct hashes of every SHINGLE-character window of the normalized content
+    static long[] shingles(MCQ question) {
+        String content = content(question);
+        int count = Math.max(1, content.length() - SHINGLE + 1);
+        long[] shingles = new long[count];
+        for (int i = 0; i < count; i++) {
+            long hash = 0xcbf29ce484222325L;
+            for (int j = i; j < Math.min(content.length(), i + SHINGLE); j++) {
+                hash ^= content.charAt(j);
+                hash *= 0x100000001b3L;
+            }
+            shingles[i] = mix(hash);
+        }
+        Arrays.sort(shingles);
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (i == 0 || shingles[i] != shingles[i - 1]) {
+                shingles[distinct++] = shingles[i];
+            }
+        }
+        return Arrays.copyOf(shingles, distinct);
+    }
+
+    // One minimum per hash function; two sets agree on a row with probability equal to their Jaccard similarity
+    private static long[] signature(long[] shingles) {
+        long[] signature = new long[MULTIPLIERS.length];
+        Arrays.fill(signature, Long.MAX_VALUE);
+        for (long shingle : shingles) {
+            for (int i = 0; i < signature.length; i++) {
+                long value = (shingle * MULTIPLIERS[i] + OFFSETS[i]) >>> 1;
+                if (value < signature[i]) {
+                    signature[i] = value;
+                }
+            }
+        }
+        return signature;
+    }
+
+    static double jaccard(long[] a, long[] b) {
+        int common = 0;
+        for (int i = 0, j = 0; i < a.length && j < b.length;) {
+            if (a[i] == b[j]) {
+                common++;
+                i++;
+                j++;
+            } else if (a[i] < b[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return (double) common / (a.length + b.length - common);
+    }
+
+    // Hash in the high bits and id in the low bits, so sorting groups equal hashes with ids ascending
+    private static long pack(long hash, int id, int idBits) {
+        return (hash & -(1L << idBits)) | id;
+    }
+
+    private static boolean sameKey(long a, long b, long idMask) {
+        return (a & ~idMask) == (b & ~idMask);
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static int find(int[] parent, int i) {
+        while (parent[i] != i) {
+            parent[i] = parent[parent[i]];
+            i = parent[i];
+        }
+        return i;
+    }
+
+    // Joins the two groups under whichever root is the earlier question
+    private static void union(int[] parent, int a, int b) {
+        int rootA = find(parent, a);
+        int rootB = find(parent, b);
+        if (rootA < rootB) {
+            parent[rootB] = rootA;
+        } else if (rootB < rootA) {
+            parent[rootA] = rootB;
+        }
+    }
+
+    // Usage: java QuestionDeduplicator [--threshold 0.8] [--merge merged.txt] bank1.txt [bank2.txt ...]
+    public static void main(String[] args) throws IOException {
+        double threshold = DEFAULT_THRESHOLD;
+        File merge = null;
+        List<File> banks = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--threshold" -> threshold = Double.parseDouble(args[++i]);
+                case "--merge" -> merge = new File(args[++i]);
+                default -> banks.add(new File(args[i]).getAbsoluteFile());
+            }
+        }
+        if (banks.isEmpty()) {
+            System.err.println("Usage: java QuestionDeduplicator [--threshold 0.8] [--merge merged.txt] <bank.txt>...");
+            System.exit(1);
+        }
+        ArrayList<MCQ> questions = QuestionBankLoader.loadAll(banks, banks.get(0).getParentFile(),
+                (file, e) -> System.err.println("Error reading " + file + ": " + e.getMessage()));
+        long start = System.nanoTime();
+        Result result = find(questions, threshold);
+        long elapsed = System.nanoTime() - start;
+        if (merge != null) {
+            QuestionBankLoader.write(result.merged(), merge);
+            System.out.println(result.summary());
+            System.out.println("Wrote " + result.uniqueCount() + " questions to " + merge);
+        } else {
+            System.out.print(result.report());
+        }
+        System.out.printf("Checked in %.1f ms%n", elapsed / 1e6);
+    }
+}
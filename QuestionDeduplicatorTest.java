@@ -0,0 +1,167 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class QuestionDeduplicatorTest {
+    private static MCQ question(String text, String... choices) {
+        return MCQ.of(text, choices, "A", "Reason", "q.wav", "e.wav");
+    }
+
+    private static final String[] THEORY = { "A) A guess or hunch with little evidence",
+            "B) A testable hypothesis for a specific observation",
+            "C) A well-supported explanation that has undergone extensive testing",
+            "D) A statement based on unverified assumptions" };
+
+    // testExactAndNear(): Case, punctuation and choice order do not hide an exact duplicate, a small
+    // rewording is caught as a near duplicate, and a different question on the same topic is kept.
+    @Test
+    void testExactAndNear() {
+        List<MCQ> questions = new ArrayList<>();
+        questions.add(question("Which of the following best describes a scientific theory?", THEORY));
+        questions.add(question("What is the primary focus of science?", "A) Supernatural causes",
+                "B) Natural causes", "C) Untestable ideas", "D) Subjective experiences"));
+        questions.add(MCQ.of("which of the following BEST describes a scientific theory", new String[] { THEORY[2],
+                THEORY[0], THEORY[3], THEORY[1] }, "B", "Reason", "q.wav", "e.wav")); // Same answer, now B
+        questions.add(question("Which one of the following best describes a scientific theory?", THEORY));
+        questions.add(question("Which of the following best describes a scientific hypothesis?",
+                "A) An untested explanation for an observation", "B) A proven law", "C) A theory",
+                "D) An opinion"));
+
+        QuestionDeduplicator.Result result = QuestionDeduplicator.find(questions);
+        assertEquals(1, result.getExactDuplicates());
+        assertEquals(1, result.getNearDuplicates());
+        assertEquals(0, result.keptIndex(2));
+        assertEquals(0, result.keptIndex(3));
+        assertFalse(result.isDuplicate(4));
+        assertEquals(List.of(questions.get(0), questions.get(1), questions.get(4)), result.merged());
+        assertEquals(List.of(questions.get(1), questions.get(4)), result.merged(new int[] { 1, 2, 4 }));
+        assertTrue(result.report().contains("near  #4"), result.report());
+
+        QuestionDeduplicator.Result exactOnly = QuestionDeduplicator.find(questions, 1.1);
+        assertEquals(1, exactOnly.getExactDuplicates());
+        assertEquals(0, exactOnly.getNearDuplicates());
+    }
+
+    // testDifferentAnswers(): Questions from one template over the same choices are alike enough to be
+    // near duplicates by wording, but each has a different correct answer, so none of them is merged.
+    @Test
+    void testDifferentAnswers() {
+        String[] organelles = { "A) Mitochondria", "B) Ribosome", "C) Nucleus", "D) Golgi apparatus" };
+        List<MCQ> questions = new ArrayList<>();
+        questions.add(MCQ.of("Which organelle of a eukaryotic cell produces most of its ATP?", organelles, "A",
+                "Respiration", "", ""));
+        questions.add(MCQ.of("Which organelle of a eukaryotic cell produces most of its proteins?", organelles, "B",
+                "Translation", "", ""));
+        questions.add(MCQ.of("Which organelle of a eukaryotic cell produces most of its RNA?", organelles, "C",
+                "Transcription", "", ""));
+        questions.add(MCQ.of("Which organelle of an eukaryotic cell produces most of its ATP?", organelles, "A",
+                "Respiration", "", ""));
+        assertTrue(QuestionDeduplicator.jaccard(QuestionDeduplicator.shingles(questions.get(0)),
+                QuestionDeduplicator.shingles(questions.get(1))) >= QuestionDeduplicator.DEFAULT_THRESHOLD);
+
+        QuestionDeduplicator.Result result = QuestionDeduplicator.find(questions);
+        assertEquals(1, result.getNearDuplicates());
+        assertEquals(0, result.keptIndex(3));
+        assertEquals(List.of(questions.get(0), questions.get(1), questions.get(2)), result.merged());
+
+        questions.add(MCQ.of("which organelle of a eukaryotic cell produces most of its ATP", organelles, "C",
+                "A conflicting copy", "", ""));
+        assertEquals(0, QuestionDeduplicator.find(questions, 1.1).getExactDuplicates());
+    }
+
+    // testPlantedDuplicates(): Among 40,000 random questions, every planted one-word variant is found
+    // and no unrelated questions are merged.
+    @Test
+    void testPlantedDuplicates() {
+        Random random = new Random(17);
+        String[] words = new String[5000];
+        for (int i = 0; i < words.length; i++) {
+            words[i] = Long.toString(random.nextLong() & 0xFFFFFFFFFFL, 36);
+        }
+        List<MCQ> questions = new ArrayList<>();
+        for (int i = 0; i < 40_000; i++) {
+            StringBuilder text = new StringBuilder();
+            for (int w = 0; w < 14; w++) {
+                text.append(words[random.nextInt(words.length)]).append(' ');
+            }
+            String[] choices = new String[4];
+            for (int c = 0; c < 4; c++) {
+                choices[c] = (char) ('A' + c) + ") " + words[random.nextInt(words.length)] + " "
+                        + words[random.nextInt(words.length)];
+            }
+            questions.add(question(text.toString(), choices));
+        }
+        int planted = 400;
+        for (int i = 0; i < planted; i++) {
+            MCQ original = questions.get(i * 97);
+            String[] tokens = original.getQuestion().split(" ");
+            tokens[random.nextInt(tokens.length)] = words[random.nextInt(words.length)];
+            questions.add(question(String.join(" ", tokens), original.getChoices()));
+        }
+
+        QuestionDeduplicator.Result result = QuestionDeduplicator.find(questions);
+        assertEquals(planted, result.getNearDuplicates());
+        for (int i = 0; i < planted; i++) {
+            assertEquals(i * 97, result.keptIndex(40_000 + i));
+        }
+    }
+
+    // testWriteMergedBank(): A merged bank written out loads back as the same questions.
+    @Test
+    void testWriteMergedBank() throws IOException {
+        List<MCQ> questions = List.of(
+                MCQ.of("What is 2+2?", new String[] { "A) 3", "B) 4", "C) 5", "D) 22" }, "B", "Arithmetic", "", ""),
+                MCQ.of("What is 3+3?", new String[] { "A) 6", "B) 9", "C) 33", "D) 0" }, "A", "Also arithmetic", "",
+                        ""));
+        File file = File.createTempFile("merged", ".txt");
+        QuestionBankLoader.write(questions, file);
+        List<MCQ> loaded = Main.loadQuestionsFromFile(file.getAbsolutePath(), file.getParentFile());
+        file.delete();
+
+        assertEquals(2, loaded.size());
+        for (int i = 0; i < 2; i++) {
+            assertEquals(questions.get(i).getQuestion(), loaded.get(i).getQuestion());
+            assertEquals(questions.get(i).getAnswer(), loaded.get(i).getAnswer());
+            assertEquals(questions.get(i).getReason(), loaded.get(i).getReason());
+            assertEquals(List.of(questions.get(i).getChoices()), List.of(loaded.get(i).getChoices()));
+        }
+    }
+
+    // testWriteKeepsNumbers(): Questions written from a sample of a bank keep their original numbers, so
+    // they load back with the same audio paths, and text outside Latin-1 survives the round trip.
+    @Test
+    void testWriteKeepsNumbers() throws IOException {
+        File bank = File.createTempFile("bank", ".txt");
+        List<MCQ> questions = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            questions.add(MCQ.of("Which letter is \u03a3 (" + i + ")?", new String[] { "A) sigma", "B) omega",
+                    "C) mu", "D) pi" }, "A", "Greek", "", ""));
+        }
+        QuestionBankLoader.write(questions, bank);
+        File base = bank.getParentFile();
+        List<MCQ> loaded = QuestionBankLoader.loadAll(List.of(bank), base, (f, e) -> {
+            throw new AssertionError(e);
+        });
+        File sample = File.createTempFile("sample", ".txt");
+        QuestionBankLoader.write(List.of(loaded.get(2), loaded.get(1)), sample);
+        List<MCQ> reloaded = QuestionBankLoader.loadAll(List.of(sample), base, (f, e) -> {
+            throw new AssertionError(e);
+        });
+        List<MCQ> legacy = Main.loadQuestionsFromFile(sample.getAbsolutePath(), base);
+        bank.delete();
+        sample.delete();
+
+        assertEquals(3, QuestionBankLoader.audioNumber(loaded.get(2)));
+        assertEquals(loaded.get(2).getQuestionAudioPath(), reloaded.get(0).getQuestionAudioPath());
+        assertEquals(loaded.get(1).getExplanationAudioPath(), reloaded.get(1).getExplanationAudioPath());
+        assertEquals(loaded.get(1).getQuestionAudioPath(), legacy.get(1).getQuestionAudioPath());
+        assertEquals("Which letter is \u03a3 (2)?", reloaded.get(0).getQuestion());
+    }
+}
@@ -0,0 +1,304 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+// In-memory inverted index over the question text, choices and explanation of every MCQ. Each
+// question gets an int id in the order it was added; each term maps to a sorted int[] of ids, so a
+// query only touches the posting lists of its terms instead of every question in the bank.
+//
+// Queries are case-insensitive words:
+//   hypothesis test       questions containing both words
+//   hypothesis OR theory  questions containing either
+//   -theory               questions not containing the word
+//   hyp*                  any word starting with "hyp"
+class QuestionIndex {
+    private final List<MCQ> questions = new ArrayList<>();
+    private final TreeMap<String, Postings> terms = new TreeMap<>(); // Sorted for prefix queries
+
+    // Adds a question and returns its id. Safe to call from several loader threads at once.
+    int add(MCQ question) {
+        Set<String> tokens = tokens(question);
+        synchronized (this) {
+            int id = questions.size();
+            questions.add(question);
+            for (String token : tokens) {
+                terms.computeIfAbsent(token, k -> new Postings()).add(id);
+            }
+            return id;
+        }
+    }
+
+    void addAll(Collection<? extends MCQ> questions) {
+        for (MCQ question : questions) {
+            add(question);
+        }
+    }
+
+    synchronized int size() {
+        return questions.size();
+    }
+
+    synchronized int termCount() {
+        return terms.size();
+    }
+
+    synchronized MCQ get(int id) {
+        return questions.get(id);
+    }
+
+    // Ids of the matching questions, ascending
+    synchronized int[] search(String query) {
+        int[] result = new int[0];
+        for (Clause clause : parse(query)) {
+            result = union(result, evaluate(clause));
+        }
+        return result;
+    }
+
+    // Matching questions in the order they were added, ready to shuffle into a quiz session
+    ArrayList<MCQ> select(String query) {
+        int[] ids = search(query);
+        ArrayList<MCQ> selected = new ArrayList<>(ids.length);
+        synchronized (this) {
+            for (int id : ids) {
+                selected.add(questions.get(id));
+            }
+        }
+        return selected;
+    }
+
+    synchronized ArrayList<MCQ> all() {
+        return new ArrayList<>(questions);
+    }
+
+    // Reference implementation: tokenizes every question and tests it against the query
+    static int[] scan(List<MCQ> questions, String query) {
+        List<Clause> clauses = parse(query);
+        int[] ids = new int[16];
+        int count = 0;
+        for (int id = 0; id < questions.size(); id++) {
+            Set<String> tokens = tokens(questions.get(id));
+            for (Clause clause : clauses) {
+                if (clause.matches(tokens)) {
+                    if (count == ids.length) {
+                        ids = Arrays.copyOf(ids, count * 2);
+                    }
+                    ids[count++] = id;
+                    break;
+                }
+            }
+        }
+        return Arrays.copyOf(ids, count);
+    }
+
+    private int[] evaluate(Clause clause) {
+        int[] result = null;
+        for (Term term : clause.required) {
+            int[] ids = lookup(term);
+            result = result == null ? ids : intersect(result, ids);
+            if (result.length == 0) {
+                return result;
+            }
+        }
+        if (result == null) { // Only exclusions: start from every question
+            result = new int[questions.size()];
+            Arrays.setAll(result, i -> i);
+        }
+        for (Term term : clause.excluded) {
+            result = difference(result, lookup(term));
+        }
+        return result;
+    }
+
+    private int[] lookup(Term term) {
+        if (!term.prefix) {
+            Postings postings = terms.get(term.token);
+            return postings == null ? new int[0] : Arrays.copyOf(postings.ids, postings.size);
+        }
+        NavigableMap<String, Postings> matches = terms.subMap(term.token, true, term.token + Character.MAX_VALUE,
+                false);
+        if (matches.size() == 1) {
+            Postings postings = matches.firstEntry().getValue();
+            return Arrays.copyOf(postings.ids, postings.size);
+        }
+        // Many terms can share a prefix; mark them in a bitset rather than merging lists pairwise
+        long[] bits = new long[(questions.size() + 63) >>> 6];
+        for (Postings postings : matches.values()) {
+            for (int i = 0; i < postings.size; i++) {
+                bits[postings.ids[i] >>> 6] |= 1L << postings.ids[i];
+            }
+        }
+        int count = 0;
+        for (long word : bits) {
+            count += Long.bitCount(word);
+        }
+        int[] ids = new int[count];
+        int n = 0;
+        for (int w = 0; w < bits.length; w++) {
+            for (long word = bits[w]; word != 0; word &= word - 1) {
+                ids[n++] = (w << 6) + Long.numberOfTrailingZeros(word);
+            }
+        }
+        return ids;
+    }
+
+    private static int[] intersect(int[] a, int[] b) {
+        int[] out = new int[Math.min(a.length, b.length)];
+        int i = 0, j = 0, n = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                out[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    private static int[] union(int[] a, int[] b) {
+        int[] out = new int[a.length + b.length];
+        int i = 0, j = 0, n = 0;
+        while (i < a.length || j < b.length) {
+            if (j == b.length || (i < a.length && a[i] < b[j])) {
+                out[n++] = a[i++];
+            } else if (i == a.length || b[j] < a[i]) {
+                out[n++] = b[j++];
+            } else {
+                out[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    private static int[] difference(int[] a, int[] b) {
+        int[] out = new int[a.length];
+        int j = 0, n = 0;
+        for (int id : a) {
+            while (j < b.length && b[j] < id) {
+                j++;
+            }
+            if (j == b.length || b[j] != id) {
+                out[n++] = id;
+            }
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    private static Set<String> tokens(MCQ question) {
+        Set<String> tokens = new HashSet<>();
+        tokenize(question.getQuestion(), tokens);
+        for (String choice : question.getChoices()) {
+            // Skip the "A) " prefix so every question does not contain the letters a-d
+            tokenize(choice.length() >= 2 && choice.charAt(1) == ')' ? choice.substring(2) : choice, tokens);
+        }
+        tokenize(question.getReason(), tokens);
+        return tokens;
+    }
+
+    // Lower-cased runs of letters and digits
+    static void tokenize(String text, Collection<String> into) {
+        if (text == null) {
+            return;
+        }
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean word = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (word && start < 0) {
+                start = i;
+            } else if (!word && start >= 0) {
+                into.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+    }
+
+    private static List<Clause> parse(String query) {
+        List<Clause> clauses = new ArrayList<>();
+        Clause clause = new Clause();
+        for (String word : query.trim().split("\\s+")) {
+            if (word.equals("OR")) {
+                clauses.add(clause);
+                clause = new Clause();
+                continue;
+            }
+            boolean excluded = word.startsWith("-");
+            boolean prefix = word.endsWith("*");
+            List<String> tokens = new ArrayList<>();
+            tokenize(word, tokens);
+            for (int i = 0; i < tokens.size(); i++) {
+                // A word like "t-test" yields several tokens; only the last can be a prefix
+                Term term = new Term(tokens.get(i), prefix && i == tokens.size() - 1);
+                (excluded ? clause.excluded : clause.required).add(term);
+            }
+        }
+        clauses.add(clause);
+        clauses.removeIf(c -> c.required.isEmpty() && c.excluded.isEmpty());
+        return clauses;
+    }
+
+    private static final class Term {
+        final String token;
+        final boolean prefix;
+
+        Term(String token, boolean prefix) {
+            this.token = token;
+            this.prefix = prefix;
+        }
+
+        boolean matches(Set<String> tokens) {
+            if (!prefix) {
+                return tokens.contains(token);
+            }
+            for (String candidate : tokens) {
+                if (candidate.startsWith(token)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    // Terms that must all appear and terms that must not
+    private static final class Clause {
+        final List<Term> required = new ArrayList<>();
+        final List<Term> excluded = new ArrayList<>();
+
+        boolean matches(Set<String> tokens) {
+            for (Term term : required) {
+                if (!term.matches(tokens)) {
+                    return false;
+                }
+            }
+            for (Term term : excluded) {
+                if (term.matches(tokens)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private static final class Postings {
+        int[] ids = new int[4];
+        int size;
+
+        void add(int id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+    }
+}
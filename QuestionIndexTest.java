@@ -0,0 +1,61 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+public class QuestionIndexTest {
+    private static MCQ question(String text, String reason, String... choices) {
+        return MCQ.of(text, choices, "A", reason, "q.wav", "e.wav");
+    }
+
+    // testQueries(): Boolean, prefix and exclusion queries match words in the question, the choices
+    // (without their "A) " prefixes) and the explanation, ignoring case.
+    @Test
+    void testQueries() {
+        QuestionIndex index = new QuestionIndex();
+        index.add(question("What is a Hypothesis?", "A testable guess.", "A) Guess", "B) Law", "C) Fact", "D) Theory"));
+        index.add(question("Define a theory.", "Well supported.", "A) Idea", "B) Model", "C) Guess", "D) Rule"));
+        index.add(question("What is a t-test?", "Compares means.", "A) Test", "B) Plot", "C) Mean", "D) Mode"));
+
+        assertArrayEquals(new int[] { 0 }, index.search("hypothesis"));
+        assertArrayEquals(new int[] { 0, 1 }, index.search("guess"));
+        assertArrayEquals(new int[] { 0, 1 }, index.search("theory"));
+        assertArrayEquals(new int[] { 1 }, index.search("theory -hypothesis"));
+        assertArrayEquals(new int[] { 0, 2 }, index.search("hyp* OR means"));
+        assertArrayEquals(new int[] { 0, 2 }, index.search("test*"));
+        assertArrayEquals(new int[] { 2 }, index.search("-guess"));
+        assertArrayEquals(new int[0], index.search("d")); // Choice letters are not indexed
+        assertArrayEquals(new int[0], index.search("missing"));
+        assertEquals("Define a theory.", index.select("well").get(0).getQuestion());
+    }
+
+    // testMatchesLinearScan(): On a random bank, every query returns exactly what scanning each
+    // question returns, including when questions are added from several threads.
+    @Test
+    void testMatchesLinearScan() {
+        String[] words = { "cell", "cells", "energy", "enzyme", "force", "mass", "mean", "median", "model", "mode" };
+        Random random = new Random(42);
+        List<MCQ> bank = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            String[] choices = new String[4];
+            for (int c = 0; c < 4; c++) {
+                choices[c] = (char) ('A' + c) + ") " + words[random.nextInt(words.length)];
+            }
+            bank.add(question("About " + words[random.nextInt(words.length)] + " " + i,
+                    words[random.nextInt(words.length)], choices));
+        }
+        QuestionIndex index = new QuestionIndex();
+        IntStream.range(0, bank.size()).parallel().forEach(i -> index.add(bank.get(i)));
+        List<MCQ> inIndexOrder = index.all();
+
+        String[] queries = { "cell", "cel*", "mode", "mod*", "energy mass", "energy -mass", "force OR enzyme -mean",
+                "me*", "-m*", "about" };
+        for (String query : queries) {
+            assertArrayEquals(QuestionIndex.scan(inIndexOrder, query), index.search(query), query);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+import java.awt.Color;
+import java.awt.Font;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import javax.swing.JLabel;
+import javax.swing.plaf.basic.BasicHTML;
+import javax.swing.text.View;
+
+// Prepares the next question's label while the current one is on screen. Parsing the <html><h2>
+// markup into a View and laying it out is the slow part of showing a question; here it runs on a
+// background thread, and loadQuestion only installs the finished View, which costs the same
+// whatever the question's length or font size.
+//
+// Swing components belong to the EDT, so the background thread never reads the question label.
+// prefetch() runs on the EDT: it copies the label's font and colour onto a detached prototype label,
+// and the View is built against that. take() hands it out only while the label still has that font
+// and colour; installing it happens on the EDT.
+class QuestionPrefetcher {
+    // A question's label content, parsed and measured
+    static final class Prepared {
+        final MCQ question;
+        final View view;
+        final Font font;
+        final Color foreground;
+        final float width;
+        final float height;
+
+        private Prepared(MCQ question, View view, Font font, Color foreground) {
+            this.question = question;
+            this.view = view;
+            this.font = font;
+            this.foreground = foreground;
+            this.width = view.getPreferredSpan(View.X_AXIS); // Forces layout of the whole document
+            this.height = view.getPreferredSpan(View.Y_AXIS);
+        }
+    }
+
+    private final JLabel label;
+    private final ThreadPoolExecutor worker;
+    private volatile CompletableFuture<Prepared> next;
+
+    QuestionPrefetcher(JLabel label) {
+        this.label = label;
+        // Only the newest request matters, like the audio lane
+        worker = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(1), r -> {
+            Thread thread = new Thread(r, "question-prefetch");
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.DiscardOldestPolicy());
+    }
+
+    static String html(MCQ question) {
+        return "<html><h2>" + question.getQuestion() + "</h2></html>";
+    }
+
+    // Starts preparing the question on the background thread. Must run on the EDT. The future completes
+    // with the content, or is cancelled once a later prefetch supersedes it.
+    CompletableFuture<Prepared> prefetch(MCQ question) {
+        JLabel prototype = prototype(label.getFont(), label.getForeground());
+        CompletableFuture<Prepared> future = new CompletableFuture<>();
+        CompletableFuture<Prepared> previous = next;
+        next = future;
+        if (previous != null) {
+            previous.cancel(false); // Also covers a request the queue dropped before it ran
+        }
+        worker.execute(() -> {
+            if (future.isCancelled()) {
+                return; // Superseded while waiting
+            }
+            QuizMetrics.Span span = QuizMetrics.begin(QuizMetrics.Phase.PREFETCH);
+            try {
+                future.complete(prepare(question, prototype));
+            } catch (RuntimeException e) {
+                future.completeExceptionally(e);
+            } finally {
+                span.end();
+            }
+        });
+        return future;
+    }
+
+    // A label nobody displays, carrying what the View needs from the real one. Create it on the EDT; after
+    // that only the thread preparing the View touches it.
+    static JLabel prototype(Font font, Color foreground) {
+        JLabel prototype = new JLabel();
+        prototype.setFont(font);
+        prototype.setForeground(foreground);
+        return prototype;
+    }
+
+    // Parses and lays out the question's label content against a prototype label
+    static Prepared prepare(MCQ question, JLabel prototype) {
+        return new Prepared(question, BasicHTML.createHTMLView(prototype, html(question)), prototype.getFont(),
+                prototype.getForeground());
+    }
+
+    // The prepared content for the question if it is ready, otherwise null; never waits. Must run on the EDT.
+    Prepared take(MCQ question) {
+        CompletableFuture<Prepared> future = next;
+        next = null;
+        if (future == null || !future.isDone() || future.isCompletedExceptionally() || future.isCancelled()) {
+            return null;
+        }
+        Prepared prepared = future.join();
+        if (!prepared.font.equals(label.getFont()) || !prepared.foreground.equals(label.getForeground())) {
+            return null; // Laid out for a font or colour the label no longer has
+        }
+        return prepared.question.equals(question) ? prepared : null; // Views of one question are equal
+    }
+
+    // Shows prepared content on the label without parsing the HTML again. The label's text is set to
+    // the plain question, which drops any existing View, and the prepared View is installed in its
+    // place; BasicLabelUI paints and sizes the label from that View. Must run on the EDT.
+    static void install(JLabel label, Prepared prepared) {
+        label.setText(prepared.question.getQuestion());
+        label.putClientProperty(BasicHTML.propertyKey, prepared.view);
+        label.revalidate();
+        label.repaint();
+    }
+}
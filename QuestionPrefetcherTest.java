@@ -0,0 +1,89 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Font;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import javax.swing.JLabel;
+import javax.swing.SwingConstants;
+import javax.swing.plaf.basic.BasicHTML;
+
+public class QuestionPrefetcherTest {
+    private static MCQ question(String text) {
+        return MCQ.of(text, new String[] { "A) a", "B) b", "C) c", "D) d" }, "A", "Reason", "q.wav", "e.wav");
+    }
+
+    // testInstallMatchesSetText(): A prefetched question sizes the label exactly as parsing the HTML
+    // on the spot would, and the installed View is the prefetched one.
+    @Test
+    void testInstallMatchesSetText() {
+        MCQ question = question("Which of the following best describes the relationship between pressure and "
+                + "volume of an ideal gas held at constant temperature?");
+        JLabel direct = new JLabel("", SwingConstants.CENTER);
+        direct.setFont(new Font("Arial", Font.PLAIN, 46));
+        direct.setText(QuestionPrefetcher.html(question));
+        Dimension expected = direct.getPreferredSize();
+
+        JLabel label = new JLabel("", SwingConstants.CENTER);
+        label.setFont(new Font("Arial", Font.PLAIN, 46));
+        QuestionPrefetcher prefetcher = new QuestionPrefetcher(label);
+        prefetcher.prefetch(question).join();
+        QuestionPrefetcher.Prepared prepared = prefetcher.take(question);
+        assertNotNull(prepared);
+        assertEquals(expected.width, (int) prepared.width, 1);
+
+        QuestionPrefetcher.install(label, prepared);
+        assertSame(prepared.view, label.getClientProperty(BasicHTML.propertyKey));
+        assertEquals(expected, label.getPreferredSize());
+        assertEquals(question.getQuestion(), label.getText());
+    }
+
+    // testStalePrefetch(): Content prepared for another question, or for a font or colour the label no
+    // longer has, is never handed out.
+    @Test
+    void testStalePrefetch() {
+        JLabel label = new JLabel();
+        QuestionPrefetcher prefetcher = new QuestionPrefetcher(label);
+        MCQ first = question("First");
+        MCQ second = question("Second");
+        assertNull(prefetcher.take(first)); // Nothing prefetched yet
+        prefetcher.prefetch(first).join();
+        assertNull(prefetcher.take(second));
+        prefetcher.prefetch(second).join();
+        assertNotNull(prefetcher.take(second));
+
+        prefetcher.prefetch(second).join();
+        label.setFont(label.getFont().deriveFont(30f));
+        assertNull(prefetcher.take(second));
+        prefetcher.prefetch(second).join();
+        label.setForeground(Color.RED);
+        assertNull(prefetcher.take(second));
+    }
+
+    // testSupersededPrefetch(): A prefetch replaced by a newer one before it is taken is cancelled or
+    // finished, never left pending, and only the newest question is handed out.
+    @Test
+    void testSupersededPrefetch() {
+        QuestionPrefetcher prefetcher = new QuestionPrefetcher(new JLabel());
+        List<CompletableFuture<QuestionPrefetcher.Prepared>> futures = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            futures.add(prefetcher.prefetch(question("Question " + i)));
+        }
+        futures.get(19).join();
+        for (CompletableFuture<QuestionPrefetcher.Prepared> future : futures) {
+            assertTrue(future.isDone());
+        }
+        MCQ last = question("Last");
+        assertNull(prefetcher.take(last));
+        prefetcher.prefetch(last).join();
+        assertSame(last, prefetcher.take(last).question);
+    }
+}
@@ -0,0 +1,251 @@
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+// Draws N questions from banks of any size in one streaming pass, keeping only the chosen MCQs.
+// Every question gets a pseudo-random key from the seed, its file and its number in the file, and
+// the sample is the N smallest keys: a reservoir that holds the best N seen so far. Because the
+// keys do not depend on parse order, the files are still scanned in parallel and the same seed
+// always gives the same questions, in the same (random) order.
+//
+// A stratified sample keeps one reservoir per file and splits N between the files in proportion
+// to their sizes, which are only known once the pass is over; memory is then N per file.
+class QuestionSampler {
+    private final int size;
+    private final long seed;
+    private final boolean stratified;
+
+    // Bounded max-heap on keys; the largest kept key is the bar a new question has to beat
+    private static final class Reservoir {
+        private final long[] keys;
+        private final MCQ[] items;
+        private int count;
+        private volatile long bar = Long.MAX_VALUE;
+
+        Reservoir(int capacity) {
+            keys = new long[capacity];
+            items = new MCQ[capacity];
+        }
+
+        // Builds the MCQ only when the key makes it into the reservoir
+        void offer(long key, Supplier<MCQ> question) {
+            if (key >= bar || keys.length == 0) {
+                return; // Lock-free rejection of almost every question once the reservoir is full
+            }
+            MCQ item = question.get();
+            synchronized (this) {
+                if (count < keys.length) {
+                    keys[count] = key;
+                    items[count] = item;
+                    siftUp(count++);
+                } else if (key < keys[0]) {
+                    keys[0] = key;
+                    items[0] = item;
+                    siftDown(0);
+                } else {
+                    return;
+                }
+                if (count == keys.length) {
+                    bar = keys[0];
+                }
+            }
+        }
+
+        private void siftUp(int i) {
+            while (i > 0) {
+                int parent = (i - 1) / 2;
+                if (keys[parent] >= keys[i]) {
+                    return;
+                }
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        private void siftDown(int i) {
+            while (true) {
+                int largest = i;
+                int left = 2 * i + 1;
+                if (left < count && keys[left] > keys[largest]) {
+                    largest = left;
+                }
+                if (left + 1 < count && keys[left + 1] > keys[largest]) {
+                    largest = left + 1;
+                }
+                if (largest == i) {
+                    return;
+                }
+                swap(i, largest);
+                i = largest;
+            }
+        }
+
+        private void swap(int a, int b) {
+            long key = keys[a];
+            keys[a] = keys[b];
+            keys[b] = key;
+            MCQ item = items[a];
+            items[a] = items[b];
+            items[b] = item;
+        }
+
+        // Kept entries as (key, index) pairs sorted by key
+        synchronized long[][] sorted() {
+            long[][] entries = new long[count][];
+            for (int i = 0; i < count; i++) {
+                entries[i] = new long[] { keys[i], i };
+            }
+            Arrays.sort(entries, (a, b) -> Long.compare(a[0], b[0]));
+            return entries;
+        }
+
+        synchronized MCQ item(long index) {
+            return items[(int) index];
+        }
+    }
+
+    QuestionSampler(int size, long seed, boolean stratified) {
+        this.size = size;
+        this.seed = seed;
+        this.stratified = stratified;
+    }
+
+    // The sample in key order, which is itself a uniformly random order
+    ArrayList<MCQ> sample(List<File> files, File baseDirectory, BiConsumer<File, IOException> onError) {
+        Map<File, Integer> fileIndex = new HashMap<>();
+        for (int i = 0; i < files.size(); i++) {
+            fileIndex.putIfAbsent(files.get(i), i);
+        }
+        Reservoir[] reservoirs = new Reservoir[stratified ? files.size() : 1];
+        for (int i = 0; i < reservoirs.length; i++) {
+            reservoirs[i] = new Reservoir(size);
+        }
+        AtomicIntegerArray counts = new AtomicIntegerArray(files.size());
+
+        QuestionBankLoader.streamRecords(files, (source, number, question, choices, answer, reason) -> {
+            int file = fileIndex.get(source);
+            counts.incrementAndGet(file);
+            reservoirs[stratified ? file : 0].offer(key(file, number), () -> MCQ.of(question, choices, answer,
+                    reason, QuestionBankLoader.questionAudioPath(baseDirectory, number),
+                    QuestionBankLoader.explanationAudioPath(baseDirectory, number)));
+        }, onError);
+
+        int[] quotas = new int[reservoirs.length];
+        if (stratified) {
+            int[] sizes = new int[files.size()];
+            for (int i = 0; i < sizes.length; i++) {
+                sizes[i] = counts.get(i);
+            }
+            quotas = allocate(size, sizes);
+        } else {
+            quotas[0] = size;
+        }
+
+        // Merge the reservoirs' kept entries by key, taking each file's quota of smallest keys
+        List<long[]> chosen = new ArrayList<>(size);
+        for (int r = 0; r < reservoirs.length; r++) {
+            long[][] entries = reservoirs[r].sorted();
+            for (int i = 0; i < Math.min(quotas[r], entries.length); i++) {
+                chosen.add(new long[] { entries[i][0], r, entries[i][1] });
+            }
+        }
+        chosen.sort((a, b) -> Long.compare(a[0], b[0]));
+        ArrayList<MCQ> sample = new ArrayList<>(chosen.size());
+        for (long[] entry : chosen) {
+            sample.add(reservoirs[(int) entry[1]].item(entry[2]));
+        }
+        return sample;
+    }
+
+    // Splits total between strata in proportion to their sizes, by largest remainder; no stratum
+    // gets more than it has
+    static int[] allocate(int total, int[] sizes) {
+        long all = 0;
+        for (int s : sizes) {
+            all += s;
+        }
+        int[] quotas = new int[sizes.length];
+        if (all <= total) {
+            return sizes.clone();
+        }
+        double[] remainders = new double[sizes.length];
+        int given = 0;
+        for (int i = 0; i < sizes.length; i++) {
+            double exact = (double) total * sizes[i] / all;
+            quotas[i] = (int) exact;
+            remainders[i] = exact - quotas[i];
+            given += quotas[i];
+        }
+        while (given < total) {
+            int best = -1;
+            for (int i = 0; i < sizes.length; i++) {
+                if (quotas[i] < sizes[i] && (best < 0 || remainders[i] > remainders[best])) {
+                    best = i;
+                }
+            }
+            quotas[best]++;
+            remainders[best] = -1;
+            given++;
+        }
+        return quotas;
+    }
+
+    // Uniform 63-bit key for question number within file; a different seed gives an independent order
+    private long key(int file, int number) {
+        long h = seed ^ (((long) file << 32) | (number & 0xFFFFFFFFL)) * 0x9E3779B97F4A7C15L;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h >>> 1;
+    }
+
+    // Usage: java QuestionSampler [--seed 42] [--stratified] [--out exam.txt] count bank1.txt [bank2.txt ...]
+    public static void main(String[] args) throws IOException {
+        long seed = System.nanoTime();
+        boolean stratified = false;
+        File out = null;
+        int count = -1;
+        List<File> banks = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--seed" -> seed = Long.parseLong(args[++i]);
+                case "--stratified" -> stratified = true;
+                case "--out" -> out = new File(args[++i]);
+                default -> {
+                    if (count < 0) {
+                        count = Integer.parseInt(args[i]);
+                    } else {
+                        banks.add(new File(args[i]).getAbsoluteFile());
+                    }
+                }
+            }
+        }
+        if (count < 0 || banks.isEmpty()) {
+            System.err.println("Usage: java QuestionSampler [--seed n] [--stratified] [--out exam.txt] <count> "
+                    + "<bank.txt>...");
+            System.exit(1);
+        }
+        long start = System.nanoTime();
+        ArrayList<MCQ> sample = new QuestionSampler(count, seed, stratified).sample(banks,
+                banks.get(0).getParentFile(), (file, e) -> System.err.println("Error reading " + file + ": "
+                        + e.getMessage()));
+        System.out.printf("Sampled %d questions with seed %d in %.1f ms%n", sample.size(), seed,
+                (System.nanoTime() - start) / 1e6);
+        if (out != null) {
+            QuestionBankLoader.write(sample, out);
+        } else {
+            for (MCQ question : sample) {
+                System.out.println(question.getQuestion());
+            }
+        }
+    }
+}
@@ -0,0 +1,84 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+public class QuestionSamplerTest {
+    private static List<String> texts(List<MCQ> questions) {
+        List<String> texts = new ArrayList<>();
+        for (MCQ question : questions) {
+            texts.add(question.getQuestion());
+        }
+        return texts;
+    }
+
+    // testReproducible(): The same seed draws the same questions in the same order; another seed
+    // draws a different sample. Every question drawn is distinct.
+    @Test
+    void testReproducible() throws IOException {
+        List<File> files = List.of(TestBanks.numbered("first", 300), TestBanks.numbered("second", 700));
+        List<String> a = texts(new QuestionSampler(50, 42, false).sample(files, null, (f, e) -> {
+            throw new AssertionError(e);
+        }));
+        List<String> b = texts(new QuestionSampler(50, 42, false).sample(files, null, (f, e) -> {
+        }));
+        List<String> c = texts(new QuestionSampler(50, 43, false).sample(files, null, (f, e) -> {
+        }));
+        files.forEach(File::delete);
+
+        assertEquals(50, a.size());
+        assertEquals(50, new HashSet<>(a).size());
+        assertEquals(a, b);
+        assertNotEquals(a, c);
+    }
+
+    // testUniform(): Over many seeds each question is drawn about N / total of the time, whichever
+    // file it is in, and a bank smaller than N is returned whole.
+    @Test
+    void testUniform() throws IOException {
+        List<File> files = List.of(TestBanks.numbered("small", 10), TestBanks.numbered("medium", 20),
+                TestBanks.numbered("large", 70));
+        int runs = 2000;
+        int[] drawn = new int[100];
+        for (int seed = 0; seed < runs; seed++) {
+            for (MCQ question : new QuestionSampler(10, seed, false).sample(files, null, (f, e) -> {
+            })) {
+                String[] parts = question.getQuestion().split(" ");
+                int offset = parts[0].equals("small") ? 0 : parts[0].equals("medium") ? 10 : 30;
+                drawn[offset + Integer.parseInt(parts[1])]++;
+            }
+        }
+        assertEquals(100, new QuestionSampler(500, 1, false).sample(files, null, (f, e) -> {
+        }).size());
+        files.forEach(File::delete);
+
+        // Expected 200 draws each; 5 standard deviations is about 67
+        for (int i = 0; i < drawn.length; i++) {
+            assertTrue(Math.abs(drawn[i] - 200) < 67, "question " + i + " drawn " + drawn[i] + " times");
+        }
+    }
+
+    // testStratified(): A stratified sample takes each file's share of N exactly.
+    @Test
+    void testStratified() throws IOException {
+        assertArrayEquals(new int[] { 1, 2, 7 }, QuestionSampler.allocate(10, new int[] { 10, 20, 70 }));
+        assertArrayEquals(new int[] { 0, 4, 6 }, QuestionSampler.allocate(10, new int[] { 2, 30, 50 }));
+        assertArrayEquals(new int[] { 3, 4 }, QuestionSampler.allocate(10, new int[] { 3, 4 }));
+
+        List<File> files = List.of(TestBanks.numbered("small", 10), TestBanks.numbered("medium", 20),
+                TestBanks.numbered("large", 70));
+        List<String> sample = texts(new QuestionSampler(10, 7, true).sample(files, null, (f, e) -> {
+        }));
+        files.forEach(File::delete);
+        assertEquals(1, sample.stream().filter(t -> t.startsWith("small")).count());
+        assertEquals(2, sample.stream().filter(t -> t.startsWith("medium")).count());
+        assertEquals(7, sample.stream().filter(t -> t.startsWith("large")).count());
+    }
+}
@@ -0,0 +1,324 @@
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+
+// Append-only quiz history. Every result is one small record (quiz, timestamp, score) added to the
+// end of the log, so saving costs one write instead of re-serializing the whole history. Writers in
+// other sessions are serialized with a lock on a side file; a record with a bad checksum marks the
+// end of the log, so a crash mid-write only loses that record.
+//
+// Layout (big-endian):
+//   header  magic, version, generation (long, bumped by every compaction)
+//   record  payload length, name length (short), name UTF-8, timestamp (long), score (double),
+//           CRC32 of the payload
+class QuizHistoryLog {
+    static final int KEEP_PER_QUIZ = 5; // Attempts shown per quiz; compaction drops older ones
+    private static final int MAGIC = 0x4D435148; // "MCQH"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    private static final int COMPACT_MIN_RECORDS = 1024;
+    static final int MAX_NAME_BYTES = 65535;
+
+    // A FileLock is held by the whole process, so sessions in one JVM also share a monitor per lock file
+    private static final Map<String, Object> PROCESS_LOCKS = new ConcurrentHashMap<>();
+
+    private final File file;
+    private final File lockFile;
+    private final Object processLock;
+    // Record offsets of the quizzes this session has asked about, keyed by UTF-8 name. A quiz is indexed the
+    // first time it is shown, by comparing name bytes; scores are read from the offsets when it is shown.
+    private final Map<ByteBuffer, Offsets> index = new HashMap<>();
+    private long generation = -1;
+    private long indexedLength;
+    private int recordCount;
+    private int keptRecords; // Records the last compaction kept, so compaction waits until the log has grown
+
+    private QuizHistoryLog(File file) {
+        this.file = file;
+        this.lockFile = new File(file.getPath() + ".lock");
+        this.processLock = PROCESS_LOCKS.computeIfAbsent(lockFile.getAbsolutePath(), path -> new Object());
+    }
+
+    // Opening is free; the log is scanned on first use
+    static QuizHistoryLog open(File file) {
+        return new QuizHistoryLog(file);
+    }
+
+    synchronized void append(String quizName, long timestamp, double score) throws IOException {
+        byte[] name = quizName.getBytes(StandardCharsets.UTF_8);
+        if (name.length > MAX_NAME_BYTES) { // The length is stored in a short
+            throw new IllegalArgumentException("Quiz name longer than " + MAX_NAME_BYTES + " bytes: "
+                    + quizName.substring(0, 40) + "...");
+        }
+        ByteBuffer record = ByteBuffer.allocate(4 + 2 + name.length + 8 + 8 + 4);
+        record.putInt(2 + name.length + 16);
+        record.putShort((short) name.length).put(name).putLong(timestamp).putDouble(score);
+        CRC32 crc = new CRC32();
+        crc.update(record.array(), 4, record.position() - 4);
+        record.putInt((int) crc.getValue());
+        record.flip();
+
+        synchronized (processLock) {
+            try (FileChannel lockChannel = FileChannel.open(lockFile.toPath(), StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE)) {
+                lockChannel.lock(); // Held until the channel is closed
+                catchUp();
+                try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+                    if (raf.length() < HEADER_SIZE) {
+                        writeHeader(raf, 0);
+                        generation = 0;
+                        indexedLength = HEADER_SIZE;
+                    }
+                    FileChannel channel = raf.getChannel();
+                    channel.truncate(indexedLength); // Drop a torn record left by a crash
+                    channel.write(record, indexedLength);
+                    channel.force(false);
+                }
+                Offsets offsets = index.get(ByteBuffer.wrap(name));
+                if (offsets != null) { // Quizzes not shown yet are indexed when they are
+                    offsets.add(indexedLength);
+                }
+                indexedLength += record.limit();
+                recordCount++;
+
+                if (recordCount > COMPACT_MIN_RECORDS && recordCount > 4 * keptRecords) {
+                    compactLocked();
+                }
+            }
+        }
+    }
+
+    // Most recent scores for a quiz, oldest first. Holds the lock so another session cannot compact the log
+    // between indexing it and reading the offsets.
+    synchronized List<Double> recent(String quizName, int limit) throws IOException {
+        List<Double> scores = new ArrayList<>();
+        if (!file.exists()) {
+            return scores;
+        }
+        synchronized (processLock) {
+            try (FileChannel lockChannel = FileChannel.open(lockFile.toPath(), StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE)) {
+                lockChannel.lock(); // Held until the channel is closed
+                catchUp();
+                byte[] name = quizName.getBytes(StandardCharsets.UTF_8);
+                Offsets offsets = indexed(ByteBuffer.wrap(name));
+                try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+                    for (int i = Math.max(0, offsets.size - limit); i < offsets.size; i++) {
+                        raf.seek(offsets.values[i] + 4 + 2 + name.length + 8);
+                        scores.add(raf.readDouble());
+                    }
+                }
+            }
+        }
+        return scores;
+    }
+
+    // Rewrites the log keeping only the last KEEP_PER_QUIZ records per quiz
+    synchronized void compact() throws IOException {
+        synchronized (processLock) {
+            try (FileChannel lockChannel = FileChannel.open(lockFile.toPath(), StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE)) {
+                lockChannel.lock(); // Held until the channel is closed
+                catchUp();
+                compactLocked();
+            }
+        }
+    }
+
+    // Compaction is the only operation that needs every quiz, so it indexes the whole log itself
+    private void compactLocked() throws IOException {
+        Map<ByteBuffer, Offsets> all = new HashMap<>();
+        scan(indexedLength, (name, offset) -> all.computeIfAbsent(name, k -> new Offsets()).add(offset));
+        // Copy records in file order so timestamps stay ordered within each quiz
+        Offsets kept = new Offsets();
+        for (Offsets offsets : all.values()) {
+            for (int i = Math.max(0, offsets.size - KEEP_PER_QUIZ); i < offsets.size; i++) {
+                kept.add(offsets.values[i]);
+            }
+        }
+        keptRecords = kept.size;
+        if (kept.size == recordCount) { // Every quiz is within KEEP_PER_QUIZ, nothing to drop
+            return;
+        }
+        Arrays.sort(kept.values, 0, kept.size);
+
+        File tmp = new File(file.getPath() + ".tmp");
+        Map<ByteBuffer, Offsets> compacted = new HashMap<>();
+        long position = HEADER_SIZE;
+        try (RandomAccessFile in = new RandomAccessFile(file, "r");
+                RandomAccessFile out = new RandomAccessFile(tmp, "rw")) {
+            out.setLength(0);
+            writeHeader(out, generation + 1);
+            for (int r = 0; r < kept.size; r++) {
+                in.seek(kept.values[r]);
+                int length = in.readInt();
+                byte[] payload = new byte[length + 4];
+                in.readFully(payload);
+                out.writeInt(length);
+                out.write(payload);
+                ByteBuffer name = ByteBuffer.wrap(payload, 2, ((payload[0] & 0xFF) << 8) | (payload[1] & 0xFF));
+                if (index.containsKey(name)) {
+                    compacted.computeIfAbsent(name, k -> new Offsets()).add(position);
+                }
+                position += 4 + payload.length;
+            }
+            out.getChannel().force(true);
+        }
+        Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        for (Map.Entry<ByteBuffer, Offsets> entry : index.entrySet()) {
+            entry.setValue(compacted.getOrDefault(entry.getKey(), new Offsets()));
+        }
+        generation++;
+        indexedLength = position;
+        recordCount = kept.size;
+    }
+
+    // Offsets of one quiz's records, indexing the log up to indexedLength for it the first time it is asked for
+    private Offsets indexed(ByteBuffer name) throws IOException {
+        Offsets offsets = index.get(name);
+        if (offsets == null) {
+            Offsets found = new Offsets();
+            scan(indexedLength, (recordName, offset) -> {
+                if (recordName.equals(name)) {
+                    found.add(offset);
+                }
+            });
+            index.put(name, found);
+            offsets = found;
+        }
+        return offsets;
+    }
+
+    // Visits the records already checked by catchUp, up to end
+    private void scan(long end, RecordVisitor visitor) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            in.skipNBytes(HEADER_SIZE);
+            for (long position = HEADER_SIZE; position < end; ) {
+                int length = in.readInt();
+                byte[] payload = new byte[length];
+                in.readFully(payload);
+                in.skipNBytes(4); // CRC
+                visitor.visit(ByteBuffer.wrap(payload, 2, ((payload[0] & 0xFF) << 8) | (payload[1] & 0xFF)),
+                        position);
+                position += 4 + length + 4;
+            }
+        }
+    }
+
+    // Checks records appended since the last scan, by this or another session, and indexes them for the quizzes
+    // already asked about
+    private void catchUp() throws IOException {
+        if (!file.exists()) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (file.length() < HEADER_SIZE) {
+                return;
+            }
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Not a quiz history log: " + file.getName());
+            }
+            long fileGeneration = in.readLong();
+            if (fileGeneration != generation) { // Compacted by another session, offsets are stale
+                index.clear();
+                generation = fileGeneration;
+                indexedLength = HEADER_SIZE;
+                recordCount = 0;
+                keptRecords = 0;
+            }
+            in.skipNBytes(indexedLength - HEADER_SIZE);
+
+            CRC32 crc = new CRC32();
+            while (true) {
+                int length;
+                byte[] payload;
+                try {
+                    length = in.readInt();
+                    if (length < 2 + 16 || length > 2 + MAX_NAME_BYTES + 16) {
+                        return; // Torn or corrupt tail
+                    }
+                    payload = new byte[length];
+                    in.readFully(payload);
+                    crc.reset();
+                    crc.update(payload);
+                    if (in.readInt() != (int) crc.getValue()) {
+                        return;
+                    }
+                } catch (EOFException e) {
+                    return;
+                }
+                int nameLength = ((payload[0] & 0xFF) << 8) | (payload[1] & 0xFF);
+                Offsets offsets = index.get(ByteBuffer.wrap(payload, 2, nameLength));
+                if (offsets != null) {
+                    offsets.add(indexedLength);
+                }
+                indexedLength += 4 + length + 4;
+                recordCount++;
+            }
+        }
+    }
+
+    private static void writeHeader(RandomAccessFile raf, long generation) throws IOException {
+        raf.seek(0);
+        raf.writeInt(MAGIC);
+        raf.writeInt(VERSION);
+        raf.writeLong(generation);
+    }
+
+    // One-time import of the old ObjectOutputStream snapshot (quiz_history.dat)
+    @SuppressWarnings("unchecked")
+    void importLegacy(File legacyFile) throws IOException {
+        if (!legacyFile.exists() || legacyFile.length() == 0 || file.exists()) {
+            return;
+        }
+        try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(legacyFile))) {
+            Object data = ois.readObject();
+            if (data instanceof Map) {
+                long timestamp = legacyFile.lastModified();
+                for (Map.Entry<String, Collection<Double>> entry : ((Map<String, Collection<Double>>) data)
+                        .entrySet()) {
+                    for (Double score : entry.getValue()) {
+                        append(entry.getKey(), timestamp, score);
+                    }
+                }
+            }
+        } catch (ClassNotFoundException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    private interface RecordVisitor {
+        void visit(ByteBuffer name, long offset);
+    }
+
+    private static final class Offsets {
+        long[] values = new long[4];
+        int size;
+
+        void add(long offset) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = offset;
+        }
+    }
+}
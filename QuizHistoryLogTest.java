@@ -0,0 +1,155 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+public class QuizHistoryLogTest {
+    // testAppendAndRecent(): Scores come back per quiz, oldest first, limited to the requested count.
+    @Test
+    void testAppendAndRecent() throws IOException {
+        File file = tempLog();
+        QuizHistoryLog log = QuizHistoryLog.open(file);
+        for (int i = 1; i <= 7; i++) {
+            log.append("quiz_a.txt", i, i * 10.0);
+        }
+        log.append("quiz_b.txt", 8, 55.5);
+
+        assertEquals(List.of(30.0, 40.0, 50.0, 60.0, 70.0), log.recent("quiz_a.txt", 5));
+        assertEquals(List.of(55.5), QuizHistoryLog.open(file).recent("quiz_b.txt", 5));
+        assertEquals(List.of(), log.recent("missing.txt", 5));
+        deleteLog(file);
+    }
+
+    // testConcurrentSessions(): Two sessions sharing one log see each other's appends.
+    @Test
+    void testConcurrentSessions() throws IOException {
+        File file = tempLog();
+        QuizHistoryLog first = QuizHistoryLog.open(file);
+        QuizHistoryLog second = QuizHistoryLog.open(file);
+        first.append("quiz.txt", 1, 10.0);
+        second.append("quiz.txt", 2, 20.0);
+        first.append("quiz.txt", 3, 30.0);
+
+        assertEquals(List.of(10.0, 20.0, 30.0), second.recent("quiz.txt", 5));
+        second.compact();
+        assertEquals(List.of(10.0, 20.0, 30.0), first.recent("quiz.txt", 5));
+        deleteLog(file);
+    }
+
+    // testTornRecord(): A record cut short by a crash is ignored and overwritten by the next append.
+    @Test
+    void testTornRecord() throws IOException {
+        File file = tempLog();
+        QuizHistoryLog log = QuizHistoryLog.open(file);
+        log.append("quiz.txt", 1, 10.0);
+        log.append("quiz.txt", 2, 20.0);
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(raf.length() - 6);
+        }
+
+        QuizHistoryLog reopened = QuizHistoryLog.open(file);
+        assertEquals(List.of(10.0), reopened.recent("quiz.txt", 5));
+        reopened.append("quiz.txt", 3, 30.0);
+        assertEquals(List.of(10.0, 30.0), QuizHistoryLog.open(file).recent("quiz.txt", 5));
+        deleteLog(file);
+    }
+
+    // testCompaction(): Compaction keeps the last KEEP_PER_QUIZ scores of every quiz.
+    @Test
+    void testCompaction() throws IOException {
+        File file = tempLog();
+        QuizHistoryLog log = QuizHistoryLog.open(file);
+        for (int i = 0; i < 3000; i++) {
+            log.append("quiz" + (i % 3) + ".txt", i, i);
+        }
+        log.compact();
+
+        assertEquals(List.of(2985.0, 2988.0, 2991.0, 2994.0, 2997.0), log.recent("quiz0.txt", 10));
+        assertEquals(List.of(2987.0, 2990.0, 2993.0, 2996.0, 2999.0),
+                QuizHistoryLog.open(file).recent("quiz2.txt", 10));
+        deleteLog(file);
+    }
+
+    // testIndexOnDemand(): A quiz first shown after the session has appended to and compacted the log is indexed
+    // from the log then, and only records with exactly its name are counted.
+    @Test
+    void testIndexOnDemand() throws IOException {
+        File file = tempLog();
+        QuizHistoryLog log = QuizHistoryLog.open(file);
+        assertEquals(List.of(), log.recent("quiz.txt", 5));
+        for (int i = 0; i < 1100; i++) {
+            log.append(i % 2 == 0 ? "quiz.txt" : "quiz.txt.bak", i, i); // The 1025th append compacts
+        }
+
+        assertEquals(List.of(1091.0, 1093.0, 1095.0, 1097.0, 1099.0), log.recent("quiz.txt.bak", 5));
+        assertEquals(List.of(1090.0, 1092.0, 1094.0, 1096.0, 1098.0), log.recent("quiz.txt", 5));
+        assertEquals(List.of(), log.recent("quiz", 5));
+        deleteLog(file);
+    }
+
+    // testRecentWhileCompacting(): Reading scores while another session appends and compacts the log never
+    // reads through offsets into the old file: every read gives real scores in order.
+    @Test
+    void testRecentWhileCompacting() throws Exception {
+        File file = tempLog();
+        QuizHistoryLog reader = QuizHistoryLog.open(file);
+        QuizHistoryLog writer = QuizHistoryLog.open(file);
+        for (int i = 0; i < 20; i++) {
+            writer.append("other" + i + ".txt", i, -1.0); // Other quizzes move quiz.txt's records on compaction
+            writer.append("quiz.txt", i, i);
+        }
+        Thread compactor = new Thread(() -> {
+            try {
+                for (int i = 20; i < 220; i++) {
+                    writer.append("quiz.txt", i, i);
+                    writer.compact();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        compactor.start();
+        while (compactor.isAlive()) {
+            List<Double> scores = reader.recent("quiz.txt", 5);
+            assertEquals(5, scores.size());
+            for (int i = 1; i < scores.size(); i++) {
+                assertEquals(scores.get(i - 1) + 1, scores.get(i), scores.toString());
+            }
+        }
+        compactor.join();
+        assertEquals(List.of(215.0, 216.0, 217.0, 218.0, 219.0), reader.recent("quiz.txt", 5));
+        deleteLog(file);
+    }
+
+    // testLongName(): A quiz name too long for the record's length field is refused, not wrapped.
+    @Test
+    void testLongName() throws IOException {
+        File file = tempLog();
+        QuizHistoryLog log = QuizHistoryLog.open(file);
+        log.append("quiz.txt", 1, 10.0);
+        String name = "q".repeat(QuizHistoryLog.MAX_NAME_BYTES + 1);
+        assertThrows(IllegalArgumentException.class, () -> log.append(name, 2, 20.0));
+        log.append("q".repeat(QuizHistoryLog.MAX_NAME_BYTES), 3, 30.0);
+
+        QuizHistoryLog reopened = QuizHistoryLog.open(file);
+        assertEquals(List.of(10.0), reopened.recent("quiz.txt", 5));
+        assertEquals(List.of(30.0), reopened.recent("q".repeat(QuizHistoryLog.MAX_NAME_BYTES), 5));
+        deleteLog(file);
+    }
+
+    private File tempLog() throws IOException {
+        File file = File.createTempFile("quiz_history", ".log");
+        file.delete();
+        return file;
+    }
+
+    private void deleteLog(File file) {
+        file.delete();
+        new File(file.getPath() + ".lock").delete();
+    }
+}
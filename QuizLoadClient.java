@@ -0,0 +1,144 @@
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Load test for QuizServer: simulated candidates each start a session, fetch every question and
+// submit an answer, and the latency of each answer submission is reported as p50/p99.
+//
+// Usage: java QuizLoadClient [--url http://localhost:8080] [--candidates 2000] [--questions 50]
+// Without --url an in-process server is started on a synthetic bank of --questions questions. Several
+// comma-separated URLs for nodes sharing a session store spread each candidate's requests over them in turn.
+public class QuizLoadClient {
+    private static final Pattern SESSION_ID = Pattern.compile("\"session\": \"([^\"]+)\"");
+
+    public static void main(String[] args) throws Exception {
+        String url = null;
+        int candidates = 2000;
+        int questions = 50;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--url" -> url = args[++i];
+                case "--candidates" -> candidates = Integer.parseInt(args[++i]);
+                case "--questions" -> questions = Integer.parseInt(args[++i]);
+                default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+
+        QuizServer local = null;
+        if (url == null) {
+            local = new QuizServer(syntheticBank(questions), 3600);
+            local.start(0);
+            url = "http://localhost:" + local.getPort();
+        }
+
+        ExecutorService clientExecutor = QuizServer.newConnectionExecutor();
+        HttpClient client = HttpClient.newBuilder().executor(clientExecutor).build();
+        ExecutorService pool = QuizServer.newConnectionExecutor();
+        String[] nodes = url.split(",");
+        List<Future<long[]>> runs = new ArrayList<>(candidates);
+        long start = System.nanoTime();
+        for (int c = 0; c < candidates; c++) {
+            int first = c;
+            runs.add(pool.submit(() -> candidate(client, nodes, first)));
+        }
+
+        long[][] perCandidate = new long[candidates][];
+        int total = 0;
+        int failed = 0;
+        for (int c = 0; c < candidates; c++) {
+            try {
+                perCandidate[c] = runs.get(c).get();
+                total += perCandidate[c].length;
+            } catch (Exception e) {
+                perCandidate[c] = new long[0];
+                failed++;
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        pool.shutdown();
+        clientExecutor.shutdown();
+
+        long[] latencies = new long[total];
+        int n = 0;
+        for (long[] run : perCandidate) {
+            System.arraycopy(run, 0, latencies, n, run.length);
+            n += run.length;
+        }
+        Arrays.sort(latencies);
+        System.out.printf("%d candidates (%d failed), %d answers in %.2f s (%.0f answers/s)%n", candidates, failed,
+                total, elapsed / 1e9, total / (elapsed / 1e9));
+        if (total > 0) {
+            System.out.printf("Answer latency: p50 %.2f ms, p99 %.2f ms, max %.2f ms%n",
+                    percentile(latencies, 50) / 1e6, percentile(latencies, 99) / 1e6,
+                    latencies[latencies.length - 1] / 1e6);
+        }
+        if (local != null) {
+            local.stop();
+        }
+    }
+
+    // Takes one full quiz and returns the latency of each answer submission in nanoseconds. Each request
+    // goes to the next node, starting from node first.
+    static long[] candidate(HttpClient client, String[] nodes, int first) throws IOException, InterruptedException {
+        int request = first;
+        String created = send(client, HttpRequest.newBuilder(URI.create(nodes[request++ % nodes.length]
+                + "/sessions")).POST(HttpRequest.BodyPublishers.noBody()).build());
+        Matcher matcher = SESSION_ID.matcher(created);
+        if (!matcher.find()) {
+            throw new IOException("No session in " + created);
+        }
+        String path = "/sessions/" + matcher.group(1);
+        long[] latencies = new long[16];
+        int count = 0;
+        while (true) {
+            String question = send(client, HttpRequest.newBuilder(URI.create(nodes[request++ % nodes.length] + path
+                    + "/question")).GET().build());
+            if (question.contains("\"state\"")) {
+                break; // Finished
+            }
+            String letter = String.valueOf((char) ('A' + ThreadLocalRandom.current().nextInt(4)));
+            long start = System.nanoTime();
+            send(client, HttpRequest.newBuilder(URI.create(nodes[request++ % nodes.length] + path + "/answer"))
+                    .POST(HttpRequest.BodyPublishers.ofString(letter)).build());
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = System.nanoTime() - start;
+        }
+        send(client, HttpRequest.newBuilder(URI.create(nodes[request % nodes.length] + path)).DELETE().build());
+        return Arrays.copyOf(latencies, count);
+    }
+
+    private static String send(HttpClient client, HttpRequest request) throws IOException, InterruptedException {
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() >= 400) {
+            throw new IOException(request.method() + " " + request.uri() + ": " + response.body());
+        }
+        return response.body();
+    }
+
+    private static long percentile(long[] sorted, int percent) {
+        int index = (int) Math.ceil(percent / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+
+    private static List<MCQ> syntheticBank(int size) {
+        List<MCQ> bank = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            String[] choices = { "A) First " + i, "B) Second " + i, "C) Third " + i, "D) Fourth " + i };
+            bank.add(MCQ.of("Question " + i + "?", choices, String.valueOf((char) ('A' + i % 4)), "Reason " + i,
+                    "q" + i + ".wav", "e" + i + ".wav"));
+        }
+        return bank;
+    }
+}
@@ -0,0 +1,342 @@
+import java.awt.AWTEvent;
+import java.awt.EventQueue;
+import java.awt.Toolkit;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+// Timings for the hot paths: bank loading and reloading, time to the first question, question
+// rendering and prefetching, audio start-up, result dialogs, grading, and event-dispatch stalls. Each
+// phase feeds a LatencyHistogram and emits a JDK Flight Recorder event, so a recording
+// (java -XX:StartFlightRecording ...) shows every occurrence while the histograms give percentiles
+// without one.
+//
+// The report is available through the QuizMetrics MBean (jconsole, "MCQ:type=QuizMetrics") and is
+// written to -Dmcq.metricsFile on exit. EDT stalls longer than -Dmcq.edtStallMillis (default 100)
+// are also logged to System.err with the event-dispatch thread's stack.
+final class QuizMetrics {
+    enum Phase {
+        LOAD("Bank load", LoadEvent::new),
+        RELOAD("Bank reload", ReloadEvent::new),
+        FIRST_QUESTION("Time to first question", FirstQuestionEvent::new),
+        RENDER("Question render", RenderEvent::new),
+        PREFETCH("Render prefetch", PrefetchEvent::new),
+        FRAME("Question frame", FrameEvent::new),
+        AUDIO_START("Audio start", AudioStartEvent::new),
+        DIALOG("Dialog wait", DialogEvent::new),
+        GRADING("Grading", GradingEvent::new),
+        EDT_STALL("EDT stall", EdtStallEvent::new);
+
+        final String label;
+        private final Supplier<PhaseEvent> events;
+        private final LatencyHistogram histogram = new LatencyHistogram();
+
+        Phase(String label, Supplier<PhaseEvent> events) {
+            this.label = label;
+            this.events = events;
+        }
+
+        LatencyHistogram histogram() {
+            return histogram;
+        }
+    }
+
+    // One timed occurrence of a phase; end() records it. Usable with try-with-resources.
+    static final class Span implements AutoCloseable {
+        private final Phase phase;
+        private final long start = System.nanoTime();
+        private final PhaseEvent event;
+        private String detail;
+        private boolean ended;
+
+        private Span(Phase phase) {
+            this.phase = phase;
+            PhaseEvent candidate = phase.events.get();
+            event = candidate.isEnabled() ? candidate : null; // No JFR bookkeeping unless recording
+            if (event != null) {
+                event.begin();
+            }
+        }
+
+        synchronized Span detail(String detail) {
+            this.detail = detail;
+            return this;
+        }
+
+        // Adds to the detail something that happened during the span, e.g. how the work was done
+        synchronized Span note(String note) {
+            detail = detail == null ? note : detail + "; " + note;
+            return this;
+        }
+
+        synchronized void end() {
+            if (ended) {
+                return;
+            }
+            ended = true;
+            phase.histogram.record(System.nanoTime() - start);
+            if (event != null) {
+                event.end();
+                if (event.shouldCommit()) {
+                    event.detail = detail;
+                    event.commit();
+                }
+            }
+        }
+
+        // Drops a span whose work never finished (a superseded request, a failure) without recording it;
+        // nothing happens once it has ended
+        synchronized void cancel() {
+            ended = true;
+        }
+
+        @Override
+        public void close() {
+            end();
+        }
+    }
+
+    @Category("MCQ")
+    abstract static class PhaseEvent extends Event {
+        @Label("Detail")
+        String detail;
+    }
+
+    @Name("mcq.Load")
+    @Label("Bank Load")
+    @Description("Parsing or opening a question bank file")
+    static final class LoadEvent extends PhaseEvent {
+    }
+
+    @Name("mcq.Reload")
+    @Label("Bank Reload")
+    @Description("Re-parsing the changed question blocks of an edited bank file")
+    static final class ReloadEvent extends PhaseEvent {
+    }
+
+    @Name("mcq.FirstQuestion")
+    @Label("Time to First Question")
+    @Description("From choosing the bank files until the first question has been painted")
+    static final class FirstQuestionEvent extends PhaseEvent {
+    }
+
+    @Name("mcq.Render")
+    @Label("Question Render")
+    @Description("Building the question HTML and fonts on the event-dispatch thread")
+    static final class RenderEvent extends PhaseEvent {
+    }
+
+    @Name("mcq.Prefetch")
+    @Label("Render Prefetch")
+    @Description("Parsing and laying out the next question off the event-dispatch thread")
+    static final class PrefetchEvent extends PhaseEvent {
+    }
+
+    @Name("mcq.Frame")
+    @Label("Question Frame")
+    @Description("From swapping in a question until its label has been painted")
+    static final class FrameEvent extends PhaseEvent {
+    }
+
+    @Name("mcq.AudioStart")
+    @Label("Audio Start")
+    @Description("From an audio request until its line starts playing")
+    static final class AudioStartEvent extends PhaseEvent {
+    }
+
+    @Name("mcq.Dialog")
+    @Label("Dialog Wait")
+    @Description("Time a user spends on a result dialog")
+    static final class DialogEvent extends PhaseEvent {
+    }
+
+    @Name("mcq.Grading")
+    @Label("Grading")
+    @Description("Recording and checking one answer")
+    static final class GradingEvent extends PhaseEvent {
+    }
+
+    @Name("mcq.EdtStall")
+    @Label("EDT Stall")
+    @Description("An event-dispatch thread event that ran longer than the stall threshold")
+    static final class EdtStallEvent extends PhaseEvent {
+        @Label("Blocked")
+        @Timespan
+        long blocked;
+    }
+
+    // JMX view; a public interface so the platform MBean server can introspect it
+    public interface QuizMetricsMBean {
+        String getReport();
+
+        long getEdtStalls();
+
+        void dump(String path) throws IOException;
+
+        void reset();
+    }
+
+    private static final AtomicLong edtStalls = new AtomicLong();
+    private static boolean installed;
+
+    private QuizMetrics() {
+    }
+
+    static Span begin(Phase phase) {
+        return new Span(phase);
+    }
+
+    // Registers the MBean and the exit dump; with edtWatch, also the EDT stall detector
+    static synchronized void install(boolean edtWatch) {
+        if (installed) {
+            return;
+        }
+        installed = true;
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(new StandardMBean(new QuizMetricsMBean() {
+                public String getReport() {
+                    return report();
+                }
+
+                public long getEdtStalls() {
+                    return edtStalls.get();
+                }
+
+                public void dump(String path) throws IOException {
+                    QuizMetrics.dump(new File(path));
+                }
+
+                public void reset() {
+                    QuizMetrics.reset();
+                }
+            }, QuizMetricsMBean.class), new ObjectName("MCQ:type=QuizMetrics"));
+        } catch (JMException e) {
+            System.err.println("Error registering metrics MBean: " + e.getMessage());
+        }
+        String file = System.getProperty("mcq.metricsFile");
+        if (file != null) {
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    dump(new File(file));
+                } catch (IOException e) {
+                    System.err.println("Error writing metrics: " + e.getMessage());
+                }
+            }, "metrics-dump"));
+        }
+        if (edtWatch) {
+            EventQueue.invokeLater(() -> Toolkit.getDefaultToolkit().getSystemEventQueue()
+                    .push(new StallDetector(Long.getLong("mcq.edtStallMillis", 100))));
+        }
+    }
+
+    static String report() {
+        StringBuilder sb = new StringBuilder();
+        for (Phase phase : Phase.values()) {
+            sb.append(String.format("%-16s %s%n", phase.label, phase.histogram));
+        }
+        sb.append(String.format("%-16s %d%n", "EDT stalls", edtStalls.get()));
+        return sb.toString();
+    }
+
+    static void dump(File file) throws IOException {
+        try (PrintWriter out = new PrintWriter(file, StandardCharsets.UTF_8)) {
+            out.print(report());
+        }
+    }
+
+    static void reset() {
+        for (Phase phase : Phase.values()) {
+            phase.histogram.reset();
+        }
+        edtStalls.set(0);
+    }
+
+    // A stall is only known once it is over, so it is recorded with its length rather than as a span
+    static void recordStall(long nanos, String detail) {
+        edtStalls.incrementAndGet();
+        Phase.EDT_STALL.histogram.record(nanos);
+        EdtStallEvent event = new EdtStallEvent();
+        if (event.isEnabled()) {
+            event.blocked = nanos;
+            event.detail = detail;
+            event.commit();
+        }
+    }
+
+    static long getEdtStalls() {
+        return edtStalls.get();
+    }
+
+    // Times every dispatched event. Modal dialogs dispatch nested events from inside an outer one, so
+    // only the time since the last nested event finished counts against the outer event; a watchdog
+    // thread reports an event while it is still blocking, with the EDT's stack at that moment.
+    static final class StallDetector extends EventQueue {
+        private final long thresholdNanos;
+        private volatile long dispatchStart; // 0 while idle
+        private volatile Thread dispatchThread;
+        private int depth;
+
+        StallDetector(long thresholdMillis) {
+            thresholdNanos = thresholdMillis * 1_000_000L;
+            Thread watchdog = new Thread(this::watch, "edt-stall-detector");
+            watchdog.setDaemon(true);
+            watchdog.start();
+        }
+
+        @Override
+        protected void dispatchEvent(AWTEvent event) {
+            dispatchThread = Thread.currentThread();
+            depth++;
+            dispatchStart = System.nanoTime();
+            try {
+                super.dispatchEvent(event);
+            } finally {
+                depth--;
+                long elapsed = System.nanoTime() - dispatchStart;
+                if (elapsed >= thresholdNanos) {
+                    recordStall(elapsed, event.getClass().getSimpleName() + " " + event.paramString());
+                }
+                dispatchStart = depth > 0 ? System.nanoTime() : 0; // The outer event resumes now
+            }
+        }
+
+        private void watch() {
+            long interval = Math.max(1, thresholdNanos / 2_000_000L);
+            long lastReported = 0;
+            while (true) {
+                try {
+                    Thread.sleep(interval);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                long start = dispatchStart;
+                Thread thread = dispatchThread;
+                if (start != 0 && start != lastReported && thread != null
+                        && System.nanoTime() - start >= thresholdNanos) {
+                    lastReported = start; // Once per blocking stretch
+                    StringBuilder stack = new StringBuilder("EDT blocked for over "
+                            + thresholdNanos / 1_000_000 + " ms:");
+                    for (StackTraceElement frame : thread.getStackTrace()) {
+                        stack.append("\n\tat ").append(frame);
+                    }
+                    System.err.println(stack);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,118 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.EventQueue;
+import java.awt.Toolkit;
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import javax.management.ObjectName;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+public class QuizMetricsTest {
+    // testHistogram(): Percentiles land within the 1/16 bucket width of the exact values.
+    @Test
+    void testHistogram() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long v = 1; v <= 100_000; v++) {
+            histogram.record(v * 1000);
+        }
+        assertEquals(100_000, histogram.getCount());
+        assertEquals(100_000_000, histogram.getMax());
+        assertEquals(50_000_500, histogram.getMean(), 1);
+        assertEquals(50_000_000, histogram.percentile(50), 50_000_000 / 16.0);
+        assertEquals(99_000_000, histogram.percentile(99), 99_000_000 / 16.0);
+        for (long v = 0; v < 1_000_000; v += 37) {
+            assertTrue(LatencyHistogram.upperBound(LatencyHistogram.bucket(v)) >= v, "bucket of " + v);
+        }
+    }
+
+    // testSpansAndJfr(): Spans feed the phase histogram and, while recording, become JFR events.
+    @Test
+    void testSpansAndJfr() throws Exception {
+        File file = File.createTempFile("metrics", ".jfr");
+        long before = QuizMetrics.Phase.GRADING.histogram().getCount();
+        try (Recording recording = new Recording()) {
+            recording.enable("mcq.Grading");
+            recording.start();
+            try (QuizMetrics.Span span = QuizMetrics.begin(QuizMetrics.Phase.GRADING)) {
+                span.detail("test answer");
+            }
+            recording.stop();
+            recording.dump(file.toPath());
+        }
+        assertEquals(before + 1, QuizMetrics.Phase.GRADING.histogram().getCount());
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file.toPath()).stream()
+                .filter(e -> e.getEventType().getName().equals("mcq.Grading")).collect(Collectors.toList());
+        file.delete();
+        assertEquals(1, events.size());
+        assertEquals("test answer", events.get(0).getString("detail"));
+    }
+
+    // testCancelledSpan(): A cancelled span records nothing and is not sent to JFR, and cancelling a span that
+    // has ended, or ending one that was cancelled, changes nothing.
+    @Test
+    void testCancelledSpan() throws Exception {
+        File file = File.createTempFile("metrics", ".jfr");
+        long before = QuizMetrics.Phase.AUDIO_START.histogram().getCount();
+        try (Recording recording = new Recording()) {
+            recording.enable("mcq.AudioStart");
+            recording.start();
+            QuizMetrics.Span superseded = QuizMetrics.begin(QuizMetrics.Phase.AUDIO_START).detail("superseded.wav");
+            superseded.cancel();
+            superseded.end();
+            QuizMetrics.Span played = QuizMetrics.begin(QuizMetrics.Phase.AUDIO_START).detail("played.wav");
+            played.end();
+            played.cancel();
+            recording.stop();
+            recording.dump(file.toPath());
+        }
+        assertEquals(before + 1, QuizMetrics.Phase.AUDIO_START.histogram().getCount());
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file.toPath()).stream()
+                .filter(e -> e.getEventType().getName().equals("mcq.AudioStart")).collect(Collectors.toList());
+        file.delete();
+        assertEquals(1, events.size());
+        assertEquals("played.wav", events.get(0).getString("detail"));
+    }
+
+    // testMBeanAndStalls(): A blocked event-dispatch thread is counted as a stall and shows up in the
+    // report read over JMX and in a dump file.
+    @Test
+    void testMBeanAndStalls() throws Exception {
+        System.setProperty("mcq.edtStallMillis", "50");
+        QuizMetrics.install(true);
+        EventQueue.invokeAndWait(() -> {
+        }); // The detector is pushed from the EDT
+        assertTrue(Toolkit.getDefaultToolkit().getSystemEventQueue() instanceof QuizMetrics.StallDetector);
+
+        long stalls = QuizMetrics.getEdtStalls();
+        EventQueue.invokeAndWait(() -> {
+            try {
+                Thread.sleep(120);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        // The stall is recorded just after invokeAndWait is released
+        for (int i = 0; i < 100 && QuizMetrics.getEdtStalls() == stalls; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(stalls + 1, QuizMetrics.getEdtStalls());
+
+        ObjectName name = new ObjectName("MCQ:type=QuizMetrics");
+        String report = (String) ManagementFactory.getPlatformMBeanServer().getAttribute(name, "Report");
+        assertTrue(report.contains("EDT stall"), report);
+        File dump = File.createTempFile("metrics", ".txt");
+        ManagementFactory.getPlatformMBeanServer().invoke(name, "dump", new Object[] { dump.getPath() },
+                new String[] { String.class.getName() });
+        assertTrue(Files.readString(dump.toPath()).contains("Question render"));
+        dump.delete();
+    }
+}
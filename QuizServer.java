@@ -0,0 +1,640 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.RandomAccess;
+import java.util.UUID;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+// Multi-candidate quiz server. The bank is loaded once and its MCQ objects are shared by every
+// session; each session only owns its question order, timer and answers (a QuizSession). With
+// --watch the bank is a LiveBank: edits to the bank files reach new sessions, while sessions already
+// running keep the questions they started with. With --compact the bank is a CompactQuestionBank,
+// for banks too large to hold as MCQ objects.
+//
+//   POST   /sessions                 start a session      -> {"session": id, "questions": n}
+//   GET    /sessions/{id}/question   current question     -> index, remaining, secondsLeft, question, choices
+//   POST   /sessions/{id}/answer     body "A".."D"        -> correct, answer, reason; moves to the next question
+//   GET    /sessions/{id}/result     score once finished
+//   DELETE /sessions/{id}            end a session
+//   GET    /items                    item analysis report over this node's candidates (plain text)
+//   GET    /history                  finished attempts on every node -> attempts, meanScore
+//
+// Session state lives in a SessionStore: in memory by default, or with --store host:port in a
+// RemoteSessionStore shared by several server processes over the same bank files. A stored session is
+// its seed, deadline and answers; any node rebuilds it from those, so each request can go to a
+// different node. A write only succeeds against the version the node read. A change is made to a copy of
+// the session, and its item statistics and history entry are only recorded once the store has taken it,
+// so a request that loses the race and is retried counts once. Every node must rebuild sessions over the
+// same questions, so --watch, which reloads each node's bank on its own schedule, cannot be combined with
+// --store; a single --watch node keeps sessions started before a reload cached over their own snapshot.
+//
+// A question whose time has run out counts as skipped, like the Swing timer in Main. The node that last
+// wrote a session keeps its deadline on the shared DeadlineScheduler, which moves the session on when
+// it fires; any node also skips expired questions when the session is next requested.
+//
+// Sessions do not live forever: one whose candidate has not answered for 30 minutes is abandoned, and a
+// finished one is kept for an hour so that its result can be read. The same timer then removes it from
+// the store and from every node's cache that still holds it.
+class QuizServer {
+    private static final String HISTORY = "history"; // Store list of finished attempts, shared by every node
+    private static final long STALE = Long.MIN_VALUE; // Version of a cached session that must be read again
+    private static final long IDLE_MILLIS = TimeUnit.MINUTES.toMillis(30);
+    private static final long FINISHED_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    private final Supplier<List<MCQ>> bank;
+    private final int secondsPerQuestion;
+    private final SessionStore store;
+    private final Map<String, Candidate> sessions = new ConcurrentHashMap<>(); // Sessions seen here, by id
+    private final ItemAnalysis itemStats = new ItemAnalysis(); // This node's answers only
+    private long idleMillis = IDLE_MILLIS; // Without an answer, after which a session is abandoned
+    private long finishedMillis = FINISHED_MILLIS; // A finished session is kept this long
+    private List<MCQ> fingerprinted; // Bank snapshot the fingerprint below was computed for
+    private long bankFingerprint;
+    private HttpServer server;
+    private ExecutorService executor;
+
+    // One candidate's session as this node last read or wrote it; all access is synchronized on the candidate
+    private static final class Candidate {
+        QuizSession session; // Replaced by a changed copy once the store has taken it
+        final long seed; // Rebuilds the question order from the bank
+        final long bankFingerprint;
+        long version; // Store version this state matches
+        // Wall-clock time, so that every node agrees when the question runs out; when it finished, once it has
+        long deadlineMillis;
+        DeadlineScheduler.Timeout timeout;
+        final List<Runnable> onSaved = new ArrayList<>(); // Statistics to record once a changed copy is stored
+
+        Candidate(QuizSession session, long seed, long bankFingerprint) {
+            this.session = session;
+            this.seed = seed;
+            this.bankFingerprint = bankFingerprint;
+        }
+
+        Candidate copy() {
+            Candidate copy = new Candidate(session.copy(), seed, bankFingerprint);
+            copy.version = version;
+            copy.deadlineMillis = deadlineMillis;
+            return copy;
+        }
+
+        boolean expired(long now) {
+            return session.getState() == QuizSession.State.ANSWERING && now >= deadlineMillis;
+        }
+
+        // When the candidate last answered (or started); skipped questions since then ran their full time
+        long lastAnswerMillis(long millisPerQuestion) {
+            int skipped = 0;
+            for (int i = session.getCurrentQuestionIndex() - 1; i >= 0 && session.getAnswer(i) == null; i--) {
+                skipped++;
+            }
+            return deadlineMillis - (skipped + 1) * millisPerQuestion;
+        }
+    }
+
+    // A session's question order over the shared bank. Holding positions instead of a copy of the list
+    // means a compact bank's views are only made for the questions the candidate reaches.
+    private static final class Order extends AbstractList<MCQ> implements RandomAccess {
+        private final List<MCQ> bank;
+        private final int[] order;
+
+        Order(List<MCQ> bank, Random random) {
+            this.bank = bank;
+            order = new int[bank.size()];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            for (int i = order.length; i > 1; i--) { // Same draws as Collections.shuffle
+                int j = random.nextInt(i);
+                int swap = order[i - 1];
+                order[i - 1] = order[j];
+                order[j] = swap;
+            }
+        }
+
+        @Override
+        public MCQ get(int index) {
+            return bank.get(order[index]);
+        }
+
+        @Override
+        public int size() {
+            return order.length;
+        }
+    }
+
+    QuizServer(List<MCQ> bank, int secondsPerQuestion) {
+        this(bank, secondsPerQuestion, SessionStore.inMemory());
+    }
+
+    QuizServer(List<MCQ> bank, int secondsPerQuestion, SessionStore store) {
+        List<MCQ> fixed = Collections.unmodifiableList(bank);
+        this.bank = () -> fixed;
+        this.secondsPerQuestion = secondsPerQuestion;
+        this.store = store;
+    }
+
+    // Each new session takes the bank's current snapshot
+    QuizServer(LiveBank bank, int secondsPerQuestion) {
+        this(bank, secondsPerQuestion, SessionStore.inMemory());
+    }
+
+    QuizServer(LiveBank bank, int secondsPerQuestion, SessionStore store) {
+        this.bank = bank::snapshot;
+        this.secondsPerQuestion = secondsPerQuestion;
+        this.store = store;
+    }
+
+    void start(int port) throws IOException {
+        // Responses are small; without TCP_NODELAY each one waits on the client's delayed ACK
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        server = HttpServer.create(new InetSocketAddress("localhost", port), 1024);
+        executor = newConnectionExecutor();
+        server.setExecutor(executor);
+        server.createContext("/sessions", this::handle);
+        server.createContext("/items", this::items);
+        server.createContext("/history", this::history);
+        server.start();
+    }
+
+    int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+        store.close(); // Sends queued history writes
+    }
+
+    ItemAnalysis getItemStats() {
+        return itemStats;
+    }
+
+    // How long a session may go without an answer, and a finished one is kept, before they are removed
+    void setRetention(long idleMillis, long finishedMillis) {
+        this.idleMillis = idleMillis;
+        this.finishedMillis = finishedMillis;
+    }
+
+    // Sessions this node has served and still holds a copy of
+    int activeSessions() {
+        return sessions.size();
+    }
+
+    // A virtual thread per connection when the JDK has them (21+), otherwise a bounded pool
+    static ExecutorService newConnectionExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newFixedThreadPool(Math.max(16, Runtime.getRuntime().availableProcessors() * 8));
+        }
+    }
+
+    private void items(HttpExchange exchange) throws IOException {
+        try {
+            send(exchange, 200, "text/plain", itemStats.report(bank.get()));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void history(HttpExchange exchange) throws IOException {
+        try {
+            List<byte[]> attempts = store.list(HISTORY).join();
+            double total = 0;
+            for (byte[] attempt : attempts) {
+                ByteBuffer record = ByteBuffer.wrap(attempt);
+                record.getLong(); // Finish time
+                int correct = record.getInt();
+                int questions = record.getInt();
+                total += questions == 0 ? 0 : 100.0 * correct / questions;
+            }
+            send(exchange, 200, "{\"attempts\": " + attempts.size() + ", \"meanScore\": "
+                    + String.format("%.2f", attempts.isEmpty() ? 0 : total / attempts.size()) + "}");
+        } catch (CompletionException e) {
+            send(exchange, 503, "{\"error\": " + json("Session store unavailable: " + e.getCause()) + "}");
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String[] path = exchange.getRequestURI().getPath().split("/");
+            String method = exchange.getRequestMethod();
+            // path is ["", "sessions", id?, action?]
+            if (path.length == 2 && method.equals("POST")) {
+                send(exchange, 201, createSession());
+                return;
+            }
+            String id = path.length >= 3 ? path[2] : null;
+            Candidate candidate = id != null ? load(id) : null;
+            if (candidate == null) {
+                send(exchange, 404, "{\"error\": \"Unknown session\"}");
+                return;
+            }
+            String action = path.length == 4 ? path[3] : "";
+            if (path.length == 3 && method.equals("DELETE")) {
+                store.remove(id).join();
+                forget(id);
+                send(exchange, 200, "{}");
+            } else if (action.equals("question") && method.equals("GET")) {
+                send(exchange, 200, question(id, candidate));
+            } else if (action.equals("answer") && method.equals("POST")) {
+                String letter = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8).trim()
+                        .toUpperCase();
+                send(exchange, 200, answer(id, candidate, letter));
+            } else if (action.equals("result") && method.equals("GET")) {
+                send(exchange, 200, result(id, candidate));
+            } else {
+                send(exchange, 405, "{\"error\": \"Unsupported request\"}");
+            }
+        } catch (IllegalStateException | IllegalArgumentException e) {
+            send(exchange, 409, "{\"error\": " + json(e.getMessage()) + "}");
+        } catch (CompletionException e) {
+            send(exchange, 503, "{\"error\": " + json("Session store unavailable: " + e.getCause()) + "}");
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private String createSession() {
+        long seed = System.nanoTime();
+        List<MCQ> current = bank.get();
+        List<MCQ> order = new Order(current, new Random(seed)); // Only the order is per session
+        Candidate candidate = new Candidate(new QuizSession(order), seed, fingerprint(current));
+        String id = UUID.randomUUID().toString();
+        synchronized (candidate) {
+            candidate.version = SessionStore.ABSENT;
+            candidate.deadlineMillis = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(secondsPerQuestion);
+            save(id, candidate, candidate);
+        }
+        sessions.put(id, candidate);
+        return "{\"session\": " + json(id) + ", \"questions\": " + order.size() + "}";
+    }
+
+    private String question(String id, Candidate candidate) {
+        synchronized (candidate) {
+            catchUp(id, candidate);
+            QuizSession session = candidate.session;
+            if (session.getState() != QuizSession.State.ANSWERING) {
+                return "{\"state\": \"" + session.getState() + "\"}";
+            }
+            MCQ question = session.currentQuestion();
+            StringBuilder choices = new StringBuilder();
+            for (String choice : question.getChoices()) {
+                choices.append(choices.length() == 0 ? "" : ", ").append(json(choice));
+            }
+            long secondsLeft = TimeUnit.MILLISECONDS.toSeconds(candidate.deadlineMillis - System.currentTimeMillis());
+            return "{\"index\": " + session.getCurrentQuestionIndex() + ", \"remaining\": "
+                    + (session.size() - session.getCurrentQuestionIndex() - 1) + ", \"secondsLeft\": " + secondsLeft
+                    + ", \"question\": " + json(question.getQuestion()) + ", \"choices\": [" + choices + "]}";
+        }
+    }
+
+    private String answer(String id, Candidate candidate, String letter) {
+        if (!letter.matches("[A-D]")) {
+            throw new IllegalArgumentException("Answer must be one of A, B, C or D");
+        }
+        synchronized (candidate) {
+            catchUp(id, candidate);
+            Candidate changed = candidate.copy();
+            QuizSession session = changed.session;
+            MCQ question = session.currentQuestion();
+            QuizMetrics.Span grading = QuizMetrics.begin(QuizMetrics.Phase.GRADING);
+            boolean correct = session.answer(letter);
+            grading.end();
+            long now = System.currentTimeMillis();
+            long questionStart = changed.deadlineMillis - TimeUnit.SECONDS.toMillis(secondsPerQuestion);
+            long nanosToAnswer = TimeUnit.MILLISECONDS.toNanos(now - questionStart);
+            changed.onSaved.add(() -> itemStats.recordAnswer(question, letter, correct, nanosToAnswer));
+            if (session.next()) {
+                changed.deadlineMillis = now + TimeUnit.SECONDS.toMillis(secondsPerQuestion);
+            } else {
+                changed.deadlineMillis = now;
+                finished(changed);
+            }
+            save(id, candidate, changed);
+            return "{\"correct\": " + correct + ", \"answer\": " + json(question.getAnswer()) + ", \"reason\": "
+                    + json(question.getReason()) + ", \"finished\": "
+                    + (session.getState() != QuizSession.State.ANSWERING) + "}";
+        }
+    }
+
+    private String result(String id, Candidate candidate) {
+        synchronized (candidate) {
+            catchUp(id, candidate);
+            QuizSession session = candidate.session;
+            if (session.getState() == QuizSession.State.ANSWERING) {
+                return "{\"state\": \"ANSWERING\", \"correct\": " + session.getCorrectAnswers() + "}";
+            }
+            return "{\"state\": \"" + session.getState() + "\", \"correct\": " + session.getCorrectAnswers()
+                    + ", \"total\": " + session.size() + ", \"score\": "
+                    + String.format("%.2f", session.getScorePercentage()) + "}";
+        }
+    }
+
+    // The session as the store holds it. A cached copy is used while it is current; otherwise it is
+    // rebuilt, for instance when the candidate's previous request went to another node.
+    private Candidate load(String id) {
+        SessionStore.Entry entry = store.get(id).join();
+        if (entry == null) {
+            forget(id);
+            return null;
+        }
+        Candidate cached = sessions.get(id);
+        if (cached != null) {
+            synchronized (cached) {
+                if (cached.version >= entry.version) { // Versions only grow; a newer one was written here since
+                    return cached;
+                }
+            }
+        }
+        Candidate candidate = decode(entry);
+        synchronized (candidate) {
+            armTimeout(id, candidate); // So that this copy is dropped when the session moves on or is removed
+        }
+        Candidate previous = sessions.put(id, candidate);
+        if (previous != null) {
+            synchronized (previous) {
+                previous.version = STALE;
+                cancelTimeout(previous);
+            }
+        }
+        return candidate;
+    }
+
+    // Writes the changed copy back if nobody else changed the session since it was read, then makes it the
+    // candidate's state and records its statistics; caller holds the lock. The node that writes last owns
+    // the question timer.
+    private void save(String id, Candidate candidate, Candidate changed) {
+        long version = store.put(id, encode(changed), candidate.version).join();
+        if (version < 0) {
+            candidate.version = STALE;
+            cancelTimeout(candidate);
+            sessions.remove(id, candidate);
+            throw new IllegalStateException("Session was changed on another node; try again");
+        }
+        candidate.session = changed.session;
+        candidate.deadlineMillis = changed.deadlineMillis;
+        candidate.version = version;
+        armTimeout(id, candidate);
+        changed.onSaved.forEach(Runnable::run);
+    }
+
+    private void forget(String id) {
+        Candidate candidate = sessions.remove(id);
+        if (candidate != null) {
+            synchronized (candidate) {
+                cancelTimeout(candidate);
+            }
+        }
+    }
+
+    // Skips every question whose time has run out, as the timer would have, and saves the result; returns
+    // whether anything changed. Catches up sessions whose timer was on a node that has since gone away.
+    private boolean catchUp(String id, Candidate candidate) {
+        long now = System.currentTimeMillis();
+        if (!candidate.expired(now)) {
+            return false;
+        }
+        Candidate changed = candidate.copy();
+        while (changed.expired(now)) {
+            MCQ question = changed.session.currentQuestion();
+            changed.onSaved.add(() -> itemStats.recordAnswer(question, null, false,
+                    TimeUnit.SECONDS.toNanos(secondsPerQuestion)));
+            if (changed.session.next()) {
+                changed.deadlineMillis += TimeUnit.SECONDS.toMillis(secondsPerQuestion);
+            } else {
+                finished(changed);
+            }
+        }
+        save(id, candidate, changed);
+        return true;
+    }
+
+    // Records a scored attempt once the change is saved; the shared history write is queued and not waited for
+    private void finished(Candidate changed) {
+        QuizSession session = changed.session;
+        changed.onSaved.add(() -> {
+            itemStats.recordAttempt(session);
+            ByteBuffer attempt = ByteBuffer.allocate(16).putLong(System.currentTimeMillis())
+                    .putInt(session.getCorrectAnswers()).putInt(session.size());
+            store.append(HISTORY, attempt.array());
+        });
+    }
+
+    // Layout: bank fingerprint, seed, deadline, answered count, then one letter per answered question (0 if skipped)
+    private static byte[] encode(Candidate candidate) {
+        QuizSession session = candidate.session;
+        int answered = session.getState() == QuizSession.State.ANSWERING ? session.getCurrentQuestionIndex()
+                : session.size();
+        ByteBuffer state = ByteBuffer.allocate(28 + answered).putLong(candidate.bankFingerprint)
+                .putLong(candidate.seed).putLong(candidate.deadlineMillis).putInt(answered);
+        for (int i = 0; i < answered; i++) {
+            String letter = session.getAnswer(i);
+            state.put(letter == null ? 0 : (byte) letter.charAt(0));
+        }
+        return state.array();
+    }
+
+    // Replays the stored answers over the order the seed gives; item statistics were recorded when they
+    // were first given, on whichever node that was
+    private Candidate decode(SessionStore.Entry entry) {
+        ByteBuffer state = ByteBuffer.wrap(entry.value);
+        long fingerprint = state.getLong();
+        long seed = state.getLong();
+        long deadlineMillis = state.getLong();
+        int answered = state.getInt();
+        List<MCQ> current = bank.get();
+        if (fingerprint != fingerprint(current)) {
+            throw new IllegalStateException("Session was started on a different version of the bank");
+        }
+        QuizSession session = new QuizSession(new Order(current, new Random(seed)));
+        for (int i = 0; i < answered; i++) {
+            byte letter = state.get();
+            if (letter != 0) {
+                session.answer(String.valueOf((char) letter));
+            }
+            session.next();
+        }
+        Candidate candidate = new Candidate(session, seed, fingerprint);
+        candidate.version = entry.version;
+        candidate.deadlineMillis = deadlineMillis;
+        return candidate;
+    }
+
+    // Identifies the bank snapshot, so that every node rebuilds a session over the same questions
+    private synchronized long fingerprint(List<MCQ> current) {
+        if (current != fingerprinted) {
+            bankFingerprint = SessionJournal.fingerprint(current);
+            fingerprinted = current;
+        }
+        return bankFingerprint;
+    }
+
+    // Replaces the candidate's timer with one for its current deadline, or for a finished session the end of
+    // the time it is kept; caller holds the lock
+    private void armTimeout(String id, Candidate candidate) {
+        cancelTimeout(candidate);
+        long at = candidate.session.getState() == QuizSession.State.ANSWERING ? candidate.deadlineMillis
+                : candidate.deadlineMillis + finishedMillis;
+        long delay = TimeUnit.MILLISECONDS.toNanos(Math.max(0, at - System.currentTimeMillis()));
+        candidate.timeout = DeadlineScheduler.shared().scheduleAt(System.nanoTime() + delay, () -> {
+            if (executor != null) {
+                executor.execute(() -> timeOut(id, candidate)); // Keeps store round trips off the scheduler thread
+            } else {
+                timeOut(id, candidate);
+            }
+        });
+    }
+
+    private static void cancelTimeout(Candidate candidate) {
+        if (candidate.timeout != null) {
+            candidate.timeout.cancel();
+            candidate.timeout = null;
+        }
+    }
+
+    // Skips the question, or removes the session once it is abandoned or has been kept long enough, if it
+    // is still as this node left it; if another node has written it since, that node owns the timer now
+    private void timeOut(String id, Candidate candidate) {
+        try {
+            SessionStore.Entry entry = store.get(id).join();
+            synchronized (candidate) {
+                if (entry == null || entry.version > candidate.version) {
+                    sessions.remove(id, candidate);
+                    cancelTimeout(candidate);
+                } else if (entry.version == candidate.version) {
+                    if (isOver(candidate, System.currentTimeMillis())) {
+                        store.remove(id).join();
+                        sessions.remove(id, candidate);
+                        cancelTimeout(candidate);
+                    } else if (!catchUp(id, candidate)) {
+                        armTimeout(id, candidate); // Woke up early
+                    }
+                }
+            }
+        } catch (IllegalStateException | CompletionException e) {
+            // Lost a race with another node, or the store is down; the next request catches the session up
+        }
+    }
+
+    // Whether the session is abandoned, or finished and kept long enough
+    private boolean isOver(Candidate candidate, long now) {
+        if (candidate.session.getState() != QuizSession.State.ANSWERING) {
+            return now >= candidate.deadlineMillis + finishedMillis;
+        }
+        return now - candidate.lastAnswerMillis(TimeUnit.SECONDS.toMillis(secondsPerQuestion)) >= idleMillis;
+    }
+
+    private static void send(HttpExchange exchange, int status, String body) throws IOException {
+        send(exchange, status, "application/json", body);
+    }
+
+    private static void send(HttpExchange exchange, int status, String type, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", type + "; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    static String json(String value) {
+        StringBuilder sb = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+                }
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+    // Usage: java QuizServer [--port 8080] [--time 60] [--watch | --compact] [--store host:port] bank1.txt ...
+    public static void main(String[] args) throws IOException {
+        int port = 8080;
+        int seconds = 60;
+        boolean watch = false;
+        boolean compact = false;
+        SessionStore store = null;
+        List<File> files = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--port" -> port = Integer.parseInt(args[++i]);
+                case "--time" -> seconds = Integer.parseInt(args[++i]);
+                case "--watch" -> watch = true;
+                case "--compact" -> compact = true;
+                case "--store" -> store = RemoteSessionStore.connect(args[++i]);
+                default -> files.add(new File(args[i]).getAbsoluteFile());
+            }
+        }
+        if (files.isEmpty()) {
+            System.err.println("Usage: java QuizServer [--port 8080] [--time 60] [--watch | --compact] "
+                    + "[--store host:port] <bank.txt>...");
+            System.exit(1);
+        }
+        if (watch && store != null) {
+            System.err.println("--watch reloads the bank on this node only; it cannot be used with --store");
+            System.exit(1);
+        }
+        if (store == null) {
+            store = SessionStore.inMemory();
+        }
+
+        BiConsumer<File, IOException> onError = (file, ex) -> System.err.println("Error reading file: "
+                + file.getName() + ": " + ex.getMessage());
+        QuizMetrics.install(false);
+        QuizServer server;
+        int size;
+        if (watch) {
+            LiveBank bank = new LiveBank(files, files.get(0).getParentFile(), onError);
+            bank.watch();
+            server = new QuizServer(bank, seconds, store);
+            size = bank.snapshot().size();
+        } else if (compact) {
+            CompactQuestionBank bank = CompactQuestionBank.load(files, files.get(0).getParentFile(), onError);
+            server = new QuizServer(bank.asList(), seconds, store);
+            size = bank.size();
+        } else {
+            ArrayList<MCQ> bank = QuestionBankLoader.loadAll(files, files.get(0).getParentFile(), onError);
+            server = new QuizServer(bank, seconds, store);
+            size = bank.size();
+        }
+        server.start(port);
+        System.out.println("Serving " + size + " questions on http://localhost:" + server.getPort() + "/sessions"
+                + (watch ? " (reloading edited banks)" : ""));
+    }
+}
@@ -0,0 +1,131 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public class QuizServerTest {
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    private static List<MCQ> questions(int count) {
+        List<MCQ> questions = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            questions.add(MCQ.of("Question " + i + "?", new String[] { "A) a", "B) b", "C) c", "D) d" }, "A",
+                    "Reason " + i, "", ""));
+        }
+        return questions;
+    }
+
+    private HttpResponse<String> request(String method, String url, String body)
+            throws IOException, InterruptedException {
+        HttpRequest.BodyPublisher publisher = body == null ? HttpRequest.BodyPublishers.noBody()
+                : HttpRequest.BodyPublishers.ofString(body);
+        return client.send(HttpRequest.newBuilder(URI.create(url)).method(method, publisher).build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    private String ok(String method, String url, String body) throws IOException, InterruptedException {
+        HttpResponse<String> response = request(method, url, body);
+        assertTrue(response.statusCode() < 400, url + ": " + response.body());
+        return response.body();
+    }
+
+    // Starts a session and returns its URL
+    private String create(QuizServer server) throws IOException, InterruptedException {
+        Matcher matcher = Pattern.compile("\"session\": \"([^\"]+)\"")
+                .matcher(ok("POST", "http://localhost:" + server.getPort() + "/sessions", null));
+        assertTrue(matcher.find());
+        return "http://localhost:" + server.getPort() + "/sessions/" + matcher.group(1);
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Timed out waiting");
+            Thread.sleep(20);
+        }
+    }
+
+    // testSessionOverHttp(): A candidate starts a session, reads each question, answers it and gets the
+    // score; bad answers and unknown sessions are refused.
+    @Test
+    void testSessionOverHttp() throws IOException, InterruptedException {
+        QuizServer server = new QuizServer(questions(3), 600);
+        server.start(0);
+        try {
+            String session = create(server);
+            assertTrue(ok("GET", session + "/question", null).contains("\"index\": 0, \"remaining\": 2"));
+            assertEquals(409, request("POST", session + "/answer", "E").statusCode());
+            assertTrue(ok("POST", session + "/answer", "a").contains("\"correct\": true"));
+            assertTrue(ok("POST", session + "/answer", "B").contains("\"correct\": false"));
+            assertTrue(ok("GET", session + "/result", null).contains("\"state\": \"ANSWERING\", \"correct\": 1"));
+            String last = ok("POST", session + "/answer", "A");
+            assertTrue(last.contains("\"finished\": true"), last);
+            String result = ok("GET", session + "/result", null);
+            assertTrue(result.contains("\"state\": \"SCORED\", \"correct\": 2, \"total\": 3"), result);
+            assertEquals(409, request("POST", session + "/answer", "A").statusCode());
+
+            assertEquals(200, request("DELETE", session, null).statusCode());
+            assertEquals(404, request("GET", session + "/result", null).statusCode());
+            assertEquals(0, server.activeSessions());
+        } finally {
+            server.stop();
+        }
+    }
+
+    // testTimeout(): A question that runs out of time is skipped by the server's timer, without any request
+    // from the candidate, and counts as unanswered in the score.
+    @Test
+    void testTimeout() throws IOException, InterruptedException {
+        List<MCQ> questions = questions(2);
+        QuizServer server = new QuizServer(questions, 1);
+        server.start(0);
+        try {
+            String session = create(server);
+            ItemAnalysis stats = server.getItemStats();
+            await(() -> stats.attempts(stats.id(questions.get(0))) + stats.attempts(stats.id(questions.get(1))) == 1);
+            assertTrue(ok("GET", session + "/question", null).contains("\"index\": 1"));
+            ok("POST", session + "/answer", "A");
+            String result = ok("GET", session + "/result", null);
+            assertTrue(result.contains("\"state\": \"SCORED\", \"correct\": 1, \"total\": 2"), result);
+        } finally {
+            server.stop();
+        }
+    }
+
+    // testEviction(): A finished session is removed from the store and the cache once it has been kept long
+    // enough, and a session nobody answers is removed once it has been idle long enough.
+    @Test
+    void testEviction() throws IOException, InterruptedException {
+        SessionStore store = SessionStore.inMemory();
+        QuizServer server = new QuizServer(questions(1), 1, store);
+        server.setRetention(2500, 300);
+        server.start(0);
+        try {
+            String finished = create(server);
+            ok("POST", finished + "/answer", "A");
+            assertTrue(ok("GET", finished + "/result", null).contains("\"state\": \"SCORED\""));
+            await(() -> server.activeSessions() == 0);
+            assertEquals(404, request("GET", finished + "/result", null).statusCode());
+
+            server.setRetention(300, 600_000);
+            String idle = create(server);
+            String id = idle.substring(idle.lastIndexOf('/') + 1);
+            await(() -> server.activeSessions() == 0);
+            assertNull(store.get(id).join());
+            assertEquals(404, request("GET", idle + "/question", null).statusCode());
+        } finally {
+            server.stop();
+        }
+    }
+}
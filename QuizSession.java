@@ -0,0 +1,167 @@
+import java.util.ArrayList;
+import java.util.List;
+
+// UI-free quiz engine. Holds the question order, answers and score for one candidate and moves
+// through an explicit state machine:
+//
+//   load -> ANSWERING --answer/next--> ... --last next--> SCORED --retryIncorrect--> ANSWERING
+//                                                         SCORED --review--> REVIEW
+//
+// Main is a Swing view over this class; it can also be driven directly, e.g. by a server or benchmark.
+class QuizSession {
+    enum State {
+        ANSWERING, SCORED, REVIEW
+    }
+
+    private List<MCQ> questions;
+    private String[] answers; // Letter chosen per question, null when the question was skipped
+    private boolean[] correct;
+    private int currentQuestionIndex;
+    private int correctAnswers;
+    private int incorrectCount;
+    private State state;
+
+    QuizSession(List<MCQ> questions) {
+        load(questions);
+    }
+
+    private QuizSession(QuizSession other) {
+        questions = other.questions;
+        answers = other.answers.clone();
+        correct = other.correct.clone();
+        currentQuestionIndex = other.currentQuestionIndex;
+        correctAnswers = other.correctAnswers;
+        incorrectCount = other.incorrectCount;
+        state = other.state;
+    }
+
+    // An independent copy over the same questions, e.g. to try a change that may be thrown away
+    QuizSession copy() {
+        return new QuizSession(this);
+    }
+
+    private void load(List<MCQ> questions) {
+        this.questions = questions;
+        answers = new String[questions.size()];
+        correct = new boolean[questions.size()];
+        currentQuestionIndex = 0;
+        correctAnswers = 0;
+        incorrectCount = 0;
+        state = questions.isEmpty() ? State.SCORED : State.ANSWERING;
+    }
+
+    State getState() {
+        return state;
+    }
+
+    MCQ currentQuestion() {
+        requireState(State.ANSWERING);
+        return questions.get(currentQuestionIndex);
+    }
+
+    // Records the answer for the current question and returns whether it was right
+    boolean answer(String letter) {
+        requireState(State.ANSWERING);
+        if (answers[currentQuestionIndex] != null) {
+            throw new IllegalStateException("Question " + currentQuestionIndex + " already answered");
+        }
+        MCQ question = questions.get(currentQuestionIndex);
+        boolean right = isCorrect(question, letter);
+        answers[currentQuestionIndex] = letter;
+        correct[currentQuestionIndex] = right;
+        if (right) {
+            correctAnswers++;
+        } else {
+            incorrectCount++;
+        }
+        return right;
+    }
+
+    // Moves to the next question; an unanswered question counts as skipped. Returns false once scored.
+    boolean next() {
+        requireState(State.ANSWERING);
+        currentQuestionIndex++;
+        if (currentQuestionIndex >= questions.size()) {
+            state = State.SCORED;
+            return false;
+        }
+        return true;
+    }
+
+    double getScorePercentage() {
+        requireState(State.SCORED);
+        return (double) correctAnswers / questions.size() * 100;
+    }
+
+    boolean hasIncorrect() {
+        return incorrectCount > 0;
+    }
+
+    // Restarts with only the incorrectly answered questions
+    void retryIncorrect() {
+        requireState(State.SCORED);
+        if (incorrectCount == 0) {
+            throw new IllegalStateException("No incorrect questions to retry");
+        }
+        List<MCQ> retry = new ArrayList<>(incorrectCount);
+        for (int i = 0; i < questions.size(); i++) {
+            if (answers[i] != null && !correct[i]) {
+                retry.add(questions.get(i));
+            }
+        }
+        load(retry);
+    }
+
+    void review() {
+        requireState(State.SCORED);
+        state = State.REVIEW;
+    }
+
+    int getCurrentQuestionIndex() {
+        return currentQuestionIndex;
+    }
+
+    int size() {
+        return questions.size();
+    }
+
+    int getCorrectAnswers() {
+        return correctAnswers;
+    }
+
+    List<MCQ> getQuestions() {
+        return questions;
+    }
+
+    String getAnswer(int index) {
+        return answers[index];
+    }
+
+    boolean isCorrect(int index) {
+        return correct[index];
+    }
+
+    static boolean isCorrect(MCQ question, String letter) {
+        return letter != null && letter.equals(question.getAnswer());
+    }
+
+    // Choice text without the "A) " prefix
+    static String answerText(String letter, String[] choices) {
+        if (letter == null) {
+            return "";
+        }
+        return switch (letter) {
+            case "A" -> choices[0].substring(3);
+            case "B" -> choices[1].substring(3);
+            case "C" -> choices[2].substring(3);
+            case "D" -> choices[3].substring(3);
+            default -> "";
+        };
+    }
+
+    private void requireState(State expected) {
+        if (state != expected) {
+            throw new IllegalStateException("Quiz is " + state + ", expected " + expected);
+        }
+    }
+}
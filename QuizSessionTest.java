@@ -0,0 +1,75 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class QuizSessionTest {
+    // testScoreAndRetry(): Answers are graded, the score is computed once the last question is passed,
+    // and a retry restarts with only the incorrectly answered questions.
+    @Test
+    void testScoreAndRetry() {
+        QuizSession session = new QuizSession(questions());
+        assertEquals(QuizSession.State.ANSWERING, session.getState());
+
+        assertTrue(session.answer("A"));
+        assertTrue(session.next());
+        assertFalse(session.answer("C"));
+        assertTrue(session.next());
+        assertTrue(session.next()); // Question 3 skipped
+        assertTrue(session.answer("D"));
+        assertFalse(session.next());
+
+        assertEquals(QuizSession.State.SCORED, session.getState());
+        assertEquals(50.0, session.getScorePercentage(), 0.001);
+        assertTrue(session.hasIncorrect());
+
+        session.retryIncorrect();
+        assertEquals(QuizSession.State.ANSWERING, session.getState());
+        assertEquals(1, session.size());
+        assertEquals("Question 2?", session.currentQuestion().getQuestion());
+        assertTrue(session.answer("B"));
+        assertFalse(session.next());
+        assertEquals(100.0, session.getScorePercentage(), 0.001);
+    }
+
+    // testReview(): The review exposes each answer and whether it was right, and rejects further answers.
+    @Test
+    void testReview() {
+        QuizSession session = new QuizSession(questions());
+        session.answer("B");
+        session.next();
+        session.answer("B");
+        session.next();
+        session.next();
+        session.next();
+        session.review();
+
+        assertEquals(QuizSession.State.REVIEW, session.getState());
+        assertFalse(session.isCorrect(0));
+        assertTrue(session.isCorrect(1));
+        assertEquals(null, session.getAnswer(2));
+        assertThrows(IllegalStateException.class, () -> session.answer("A"));
+    }
+
+    // testAnswerText(): Same text extraction as Main.extractAnswerText, without a frame.
+    @Test
+    void testAnswerText() {
+        String[] choices = { "A) Choice A", "B) Choice B", "C) Choice C", "D) Choice D" };
+        assertEquals("Choice C", QuizSession.answerText("C", choices));
+        assertEquals("", QuizSession.answerText(null, choices));
+    }
+
+    private List<MCQ> questions() {
+        List<MCQ> questions = new ArrayList<>();
+        String[] choices = { "A) Choice A", "B) Choice B", "C) Choice C", "D) Choice D" };
+        questions.add(MCQ.of("Question 1?", choices, "A", "Reason 1", "q1.wav", "e1.wav"));
+        questions.add(MCQ.of("Question 2?", choices, "B", "Reason 2", "q2.wav", "e2.wav"));
+        questions.add(MCQ.of("Question 3?", choices, "C", "Reason 3", "q3.wav", "e3.wav"));
+        questions.add(MCQ.of("Question 4?", choices, "D", "Reason 4", "q4.wav", "e4.wav"));
+        return questions;
+    }
+}
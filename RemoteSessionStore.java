@@ -0,0 +1,308 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+// SessionStore client for a key-value server on this machine, the stand-in for a shared store that
+// lets several QuizServer processes serve the same sessions. Calls never touch the socket: they queue
+// an operation and return its future. One sender thread takes everything queued, sends it as one
+// batch and completes the futures from the replies, so concurrent requests share a round trip.
+//
+// Protocol (DataOutputStream, one connection per client, batches strictly in turn):
+//   request  count, then per operation: code, key (UTF), [version for PUT], [length, bytes for PUT/APPEND]
+//   reply    per operation: GET version (0 if absent) [length, bytes]; PUT new version or -1;
+//            LIST count, then length and bytes per item; REMOVE and APPEND nothing
+//
+// Run the server with: java RemoteSessionStore [--port 7070]
+class RemoteSessionStore implements SessionStore {
+    private static final int MAX_BATCH = 512;
+    private static final byte GET = 1;
+    private static final byte PUT = 2;
+    private static final byte REMOVE = 3;
+    private static final byte APPEND = 4;
+    private static final byte LIST = 5;
+
+    private final InetSocketAddress address;
+    private final BlockingQueue<Operation> queue = new LinkedBlockingQueue<>();
+    private final Thread sender;
+    private volatile boolean closed;
+    private volatile long batches;
+    private Socket socket; // Sender thread only
+    private DataInputStream in;
+    private DataOutputStream out;
+
+    private static final class Operation {
+        final byte code;
+        final String key;
+        final long version;
+        final byte[] value;
+        final CompletableFuture<Object> result = new CompletableFuture<>();
+
+        Operation(byte code, String key, long version, byte[] value) {
+            this.code = code;
+            this.key = key;
+            this.version = version;
+            this.value = value;
+        }
+    }
+
+    RemoteSessionStore(String host, int port) {
+        address = new InetSocketAddress(host, port);
+        sender = new Thread(this::send, "session-store-client");
+        sender.setDaemon(true);
+        sender.start();
+    }
+
+    // Parses "host:port"
+    static RemoteSessionStore connect(String hostAndPort) {
+        int colon = hostAndPort.lastIndexOf(':');
+        return new RemoteSessionStore(hostAndPort.substring(0, colon),
+                Integer.parseInt(hostAndPort.substring(colon + 1)));
+    }
+
+    @Override
+    public CompletableFuture<Entry> get(String key) {
+        return submit(GET, key, 0, null).thenApply(result -> (Entry) result);
+    }
+
+    @Override
+    public CompletableFuture<Long> put(String key, byte[] value, long expectedVersion) {
+        return submit(PUT, key, expectedVersion, value).thenApply(result -> (Long) result);
+    }
+
+    @Override
+    public CompletableFuture<Void> remove(String key) {
+        return submit(REMOVE, key, 0, null).thenApply(result -> null);
+    }
+
+    @Override
+    public CompletableFuture<Void> append(String key, byte[] value) {
+        return submit(APPEND, key, 0, value).thenApply(result -> null);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public CompletableFuture<List<byte[]>> list(String key) {
+        return submit(LIST, key, 0, null).thenApply(result -> (List<byte[]>) result);
+    }
+
+    // Round trips so far; fewer than operations when requests overlap
+    long batches() {
+        return batches;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            sender.join(); // Sends whatever is still queued first
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private CompletableFuture<Object> submit(byte code, String key, long version, byte[] value) {
+        Operation operation = new Operation(code, key, version, value);
+        if (closed) {
+            operation.result.completeExceptionally(new IOException("Session store client is closed"));
+        } else {
+            queue.add(operation);
+        }
+        return operation.result;
+    }
+
+    private void send() {
+        List<Operation> batch = new ArrayList<>(MAX_BATCH);
+        while (!closed || !queue.isEmpty()) {
+            try {
+                Operation first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                // The request threads that woke this one are usually a moment from queuing their own
+                // operations; letting them run first makes the batch several times larger, so fewer
+                // round trips wake the store server. It matters most with several nodes, whose queues
+                // each hold only part of the traffic.
+                Thread.yield();
+                queue.drainTo(batch, MAX_BATCH - 1);
+                exchange(batch);
+                batches++;
+            } catch (IOException e) {
+                disconnect(); // Reconnects for the next batch
+                for (Operation operation : batch) {
+                    operation.result.completeExceptionally(e);
+                }
+            } catch (InterruptedException e) {
+                break;
+            }
+            batch.clear();
+        }
+        disconnect();
+    }
+
+    private void exchange(List<Operation> batch) throws IOException {
+        if (socket == null) {
+            socket = new Socket();
+            socket.setTcpNoDelay(true);
+            socket.connect(address, 5000);
+            in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        }
+        out.writeInt(batch.size());
+        for (Operation operation : batch) {
+            out.writeByte(operation.code);
+            out.writeUTF(operation.key);
+            if (operation.code == PUT) {
+                out.writeLong(operation.version);
+            }
+            if (operation.code == PUT || operation.code == APPEND) {
+                out.writeInt(operation.value.length);
+                out.write(operation.value);
+            }
+        }
+        out.flush();
+        for (Operation operation : batch) {
+            operation.result.complete(switch (operation.code) {
+                case GET -> {
+                    long version = in.readLong();
+                    yield version == ABSENT ? null : new Entry(version, readBytes(in));
+                }
+                case PUT -> in.readLong();
+                case LIST -> {
+                    int count = in.readInt();
+                    List<byte[]> items = new ArrayList<>(count);
+                    for (int i = 0; i < count; i++) {
+                        items.add(readBytes(in));
+                    }
+                    yield items;
+                }
+                default -> null;
+            });
+        }
+    }
+
+    private void disconnect() {
+        if (socket != null) {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                System.err.println("Error closing session store connection: " + e.getMessage());
+            }
+            socket = null;
+        }
+    }
+
+    private static byte[] readBytes(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+    // The key-value server: a SessionStore.Memory behind a socket on the loopback address
+    static final class Server implements AutoCloseable {
+        private final SessionStore.Memory store = new SessionStore.Memory();
+        private final ServerSocket serverSocket;
+
+        private Server(int port) throws IOException {
+            serverSocket = new ServerSocket(port, 256, InetAddress.getLoopbackAddress());
+            Thread acceptor = new Thread(this::accept, "session-store-server");
+            acceptor.setDaemon(true);
+            acceptor.start();
+        }
+
+        int getPort() {
+            return serverSocket.getLocalPort();
+        }
+
+        @Override
+        public void close() throws IOException {
+            serverSocket.close();
+        }
+
+        private void accept() {
+            while (!serverSocket.isClosed()) {
+                try {
+                    Socket connection = serverSocket.accept();
+                    connection.setTcpNoDelay(true);
+                    Thread handler = new Thread(() -> serve(connection), "session-store-connection");
+                    handler.setDaemon(true);
+                    handler.start();
+                } catch (IOException e) {
+                    if (!serverSocket.isClosed()) {
+                        System.err.println("Error accepting session store connection: " + e.getMessage());
+                    }
+                }
+            }
+        }
+
+        private void serve(Socket connection) {
+            try (connection;
+                    DataInputStream in = new DataInputStream(new BufferedInputStream(connection.getInputStream()));
+                    DataOutputStream out = new DataOutputStream(
+                            new BufferedOutputStream(connection.getOutputStream()))) {
+                while (true) {
+                    int count = in.readInt();
+                    for (int i = 0; i < count; i++) {
+                        apply(in.readByte(), in.readUTF(), in, out);
+                    }
+                    out.flush(); // One reply per batch
+                }
+            } catch (IOException e) {
+                // The client disconnected
+            }
+        }
+
+        // Operations on the in-memory store complete at once
+        private void apply(byte code, String key, DataInputStream in, DataOutputStream out) throws IOException {
+            switch (code) {
+                case GET -> {
+                    Entry entry = store.get(key).join();
+                    out.writeLong(entry == null ? ABSENT : entry.version);
+                    if (entry != null) {
+                        out.writeInt(entry.value.length);
+                        out.write(entry.value);
+                    }
+                }
+                case PUT -> {
+                    long version = in.readLong();
+                    out.writeLong(store.put(key, readBytes(in), version).join());
+                }
+                case REMOVE -> store.remove(key);
+                case APPEND -> store.append(key, readBytes(in));
+                case LIST -> {
+                    List<byte[]> items = store.list(key).join();
+                    out.writeInt(items.size());
+                    for (byte[] item : items) {
+                        out.writeInt(item.length);
+                        out.write(item);
+                    }
+                }
+                default -> throw new IOException("Unknown session store operation " + code);
+            }
+        }
+    }
+
+    static Server serve(int port) throws IOException {
+        return new Server(port);
+    }
+
+    // Usage: java RemoteSessionStore [--port 7070]
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int port = args.length == 2 && args[0].equals("--port") ? Integer.parseInt(args[1]) : 7070;
+        Server server = serve(port);
+        System.out.println("Session store on localhost:" + server.getPort());
+        Thread.currentThread().join(); // The server threads are daemons
+    }
+}
@@ -0,0 +1,208 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.LongSupplier;
+
+// Spaced repetition over a user's ReviewStore, in the style of SM-2. A right answer pushes the
+// question out to 1 day, then 6 days, then the previous interval times the ease; a wrong or skipped
+// answer brings it back in 10 minutes and lowers its ease.
+//
+// order() replaces MCQ.shuffleQuestions: the bank is put in a min-heap keyed on due time, so
+// overdue questions come first (most overdue first), then unseen ones in random order, then those
+// not yet due. Questions are popped as the quiz reaches them, O(log n) each. Building the heap needs
+// every question's key; a KeyedList (a compiled bank) hashes its stored UTF-8 directly, so only the
+// questions the quiz reaches are decoded.
+class ReviewScheduler {
+    static final String REVIEW_DIRECTORY = "reviews";
+    static final int NEW_EASE = 2500; // Permille
+    static final int MIN_EASE = 1300;
+    static final int EASE_PENALTY = 200;
+    static final int RELEARN_MINUTES = 10;
+    static final int FIRST_INTERVAL_MINUTES = 24 * 60;
+    static final int SECOND_INTERVAL_MINUTES = 6 * 24 * 60;
+    private static final int MAX_INTERVAL_MINUTES = 365 * 24 * 60;
+    static final long FNV_OFFSET = 0xcbf29ce484222325L; // 64-bit FNV-1a, for key()
+    static final long FNV_PRIME = 0x100000001b3L;
+
+    private final ReviewStore store;
+    private final LongSupplier clock;
+
+    ReviewScheduler(ReviewStore store, LongSupplier clock) {
+        this.store = store;
+        this.clock = clock;
+    }
+
+    // Scheduler backed by reviews/<user>.srs in the working directory, next to the history log
+    static ReviewScheduler forUser(String user) throws IOException {
+        String name = user.replaceAll("[^A-Za-z0-9._-]", "_");
+        return new ReviewScheduler(ReviewStore.open(new File(REVIEW_DIRECTORY, name + ".srs")),
+                System::currentTimeMillis);
+    }
+
+    ReviewStore getStore() {
+        return store;
+    }
+
+    // Waits until every review recorded so far is on disk
+    void flush() throws IOException {
+        store.flush();
+    }
+
+    // A bank list that can give key(get(index)) without decoding the question
+    interface KeyedList {
+        long reviewKey(int index);
+    }
+
+    // Updates the question's schedule after an answer; a skipped question counts as wrong
+    void record(MCQ question, boolean correct) throws IOException {
+        long key = key(question);
+        boolean seen = store.contains(key);
+        int ease = seen ? store.easePermille(key) : NEW_EASE;
+        int streak = store.streak(key);
+        int lapses = store.lapses(key);
+        int interval;
+        if (correct) {
+            if (streak == 0) {
+                interval = FIRST_INTERVAL_MINUTES;
+            } else if (streak == 1) {
+                interval = SECOND_INTERVAL_MINUTES;
+            } else {
+                interval = (int) Math.min(MAX_INTERVAL_MINUTES, (long) store.intervalMinutes(key) * ease / 1000);
+            }
+            streak++;
+        } else {
+            interval = RELEARN_MINUTES;
+            ease = Math.max(MIN_EASE, ease - EASE_PENALTY);
+            streak = 0;
+            lapses++;
+        }
+        store.put(key, clock.getAsLong() + interval * 60_000L, interval, ease, streak, lapses);
+    }
+
+    // The bank in review order, built lazily from a heap
+    List<MCQ> order(List<MCQ> bank, Random random) {
+        return new ReviewOrder(bank, clock.getAsLong(), random);
+    }
+
+    // Stable identity for a question across runs and bank files: 64-bit FNV-1a of the UTF-8 of its text
+    // and choices
+    static long key(MCQ question) {
+        long hash = FNV_OFFSET;
+        hash = fnv(hash, question.getQuestion());
+        for (String choice : question.getChoices()) {
+            hash = fnv(hash * FNV_PRIME, choice); // Separator so "ab","c" and "a","bc" differ
+        }
+        return finishKey(hash);
+    }
+
+    private static long fnv(long hash, String text) {
+        byte[] bytes = text == null ? new byte[0] : text.getBytes(StandardCharsets.UTF_8);
+        return fnv(hash, ByteBuffer.wrap(bytes), 0, bytes.length);
+    }
+
+    // Continues a key over UTF-8 bytes [start, end) of a buffer, for KeyedList
+    static long fnv(long hash, ByteBuffer utf8, int start, int end) {
+        for (int i = start; i < end; i++) {
+            hash ^= utf8.get(i) & 0xFF;
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+
+    static long finishKey(long hash) {
+        return hash == 0 ? 1 : hash; // 0 marks an empty slot in ReviewStore
+    }
+
+    // Binary min-heap of bank positions ordered by (due, random rank), drained on demand
+    private final class ReviewOrder extends AbstractList<MCQ> {
+        private final List<MCQ> bank;
+        private final long[] due;
+        private final int[] rank;
+        private final int[] item;
+        private final ArrayList<MCQ> taken;
+        private int heapSize;
+
+        ReviewOrder(List<MCQ> bank, long now, Random random) {
+            this.bank = bank;
+            heapSize = bank.size();
+            due = new long[heapSize];
+            rank = new int[heapSize];
+            item = new int[heapSize];
+            taken = new ArrayList<>(Math.min(heapSize, 1024));
+            KeyedList keyed = bank instanceof KeyedList list ? list : null;
+            for (int i = 0; i < heapSize; i++) {
+                long next = store.due(keyed != null ? keyed.reviewKey(i) : key(bank.get(i)));
+                due[i] = next == Long.MIN_VALUE ? now : next; // Unseen questions are due now
+                rank[i] = random.nextInt();
+                item[i] = i;
+            }
+            for (int i = heapSize / 2 - 1; i >= 0; i--) {
+                siftDown(i);
+            }
+        }
+
+        @Override
+        public MCQ get(int index) {
+            if (index < 0 || index >= bank.size()) {
+                throw new IndexOutOfBoundsException("Index " + index + " of " + bank.size());
+            }
+            while (taken.size() <= index) {
+                taken.add(bank.get(poll()));
+            }
+            return taken.get(index);
+        }
+
+        @Override
+        public int size() {
+            return bank.size();
+        }
+
+        private int poll() {
+            int top = item[0];
+            heapSize--;
+            swap(0, heapSize);
+            siftDown(0);
+            return top;
+        }
+
+        private void siftDown(int i) {
+            while (true) {
+                int smallest = i;
+                int left = 2 * i + 1;
+                int right = left + 1;
+                if (left < heapSize && less(left, smallest)) {
+                    smallest = left;
+                }
+                if (right < heapSize && less(right, smallest)) {
+                    smallest = right;
+                }
+                if (smallest == i) {
+                    return;
+                }
+                swap(i, smallest);
+                i = smallest;
+            }
+        }
+
+        private boolean less(int a, int b) {
+            return due[a] < due[b] || (due[a] == due[b] && rank[a] < rank[b]);
+        }
+
+        private void swap(int a, int b) {
+            long d = due[a];
+            due[a] = due[b];
+            due[b] = d;
+            int r = rank[a];
+            rank[a] = rank[b];
+            rank[b] = r;
+            int t = item[a];
+            item[a] = item[b];
+            item[b] = t;
+        }
+    }
+}
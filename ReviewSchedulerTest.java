@@ -0,0 +1,186 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class ReviewSchedulerTest {
+    private static final long MINUTE = 60_000L;
+
+    private static List<MCQ> bank(int size) {
+        List<MCQ> bank = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            bank.add(MCQ.of("Question " + i, new String[] { "A) a" + i, "B) b", "C) c", "D) d" }, "A", "Reason",
+                    "q.wav", "e.wav"));
+        }
+        return bank;
+    }
+
+    // testIntervals(): Right answers move a question out to 1 day, 6 days, then interval x ease; a
+    // wrong answer brings it back in 10 minutes with a lower ease. The state survives a reopen.
+    @Test
+    void testIntervals() throws IOException {
+        File file = tempStore("user");
+        AtomicLong now = new AtomicLong(1_000_000);
+        ReviewScheduler scheduler = new ReviewScheduler(ReviewStore.open(file), now::get);
+        MCQ question = bank(1).get(0);
+        long key = ReviewScheduler.key(question);
+
+        scheduler.record(question, true);
+        assertEquals(ReviewScheduler.FIRST_INTERVAL_MINUTES, scheduler.getStore().intervalMinutes(key));
+        scheduler.record(question, true);
+        assertEquals(ReviewScheduler.SECOND_INTERVAL_MINUTES, scheduler.getStore().intervalMinutes(key));
+        scheduler.record(question, true);
+        assertEquals(ReviewScheduler.SECOND_INTERVAL_MINUTES * 25 / 10, scheduler.getStore().intervalMinutes(key));
+        scheduler.record(question, false);
+        assertEquals(ReviewScheduler.RELEARN_MINUTES, scheduler.getStore().intervalMinutes(key));
+        assertEquals(ReviewScheduler.NEW_EASE - ReviewScheduler.EASE_PENALTY, scheduler.getStore().easePermille(key));
+        assertEquals(now.get() + ReviewScheduler.RELEARN_MINUTES * MINUTE, scheduler.getStore().due(key));
+
+        scheduler.flush();
+        ReviewStore reopened = ReviewStore.open(file);
+        assertEquals(1, reopened.size());
+        assertEquals(1, reopened.lapses(key));
+        assertEquals(0, reopened.streak(key));
+        assertEquals(now.get() + ReviewScheduler.RELEARN_MINUTES * MINUTE, reopened.due(key));
+    }
+
+    // testOrder(): Overdue questions come first, most overdue first, then unseen ones, then those not
+    // yet due; every question appears exactly once.
+    @Test
+    void testOrder() throws IOException {
+        AtomicLong now = new AtomicLong(0);
+        ReviewScheduler scheduler = new ReviewScheduler(ReviewStore.open(tempStore("order")),
+                now::get);
+        List<MCQ> bank = bank(50);
+        scheduler.record(bank.get(7), false); // Due at 10 minutes
+        now.set(5 * MINUTE);
+        scheduler.record(bank.get(3), false); // Due at 15 minutes
+        scheduler.record(bank.get(9), true); // Due in a day
+        now.set(20 * MINUTE);
+
+        List<MCQ> order = scheduler.order(bank, new Random(1));
+        assertEquals(50, order.size());
+        assertEquals(bank.get(7), order.get(0));
+        assertEquals(bank.get(3), order.get(1));
+        assertEquals(bank.get(9), order.get(49));
+        Set<MCQ> seen = new HashSet<>(order);
+        assertEquals(50, seen.size());
+    }
+
+    // testLargeStore(): A store tracking 20k questions reloads, and ordering a larger bank from it
+    // hands out the due questions first.
+    @Test
+    void testLargeStore() throws IOException {
+        File file = tempStore("large");
+        AtomicLong now = new AtomicLong(0);
+        ReviewScheduler scheduler = new ReviewScheduler(ReviewStore.open(file), now::get);
+        List<MCQ> bank = bank(60_000);
+        for (int i = 0; i < 20_000; i++) {
+            scheduler.record(bank.get(i), i % 2 == 0); // Odd questions missed, due in 10 minutes
+        }
+        scheduler.flush();
+        assertTrue(scheduler.getStore().commits() < 20_000); // Reviews put while one is forced share a write
+        ReviewStore reopened = ReviewStore.open(file);
+        assertEquals(20_000, reopened.size());
+        assertEquals(20_000L * ReviewStore.RECORD_SIZE, file.length());
+
+        now.set(60 * MINUTE);
+        List<MCQ> order = new ReviewScheduler(reopened, now::get).order(bank, new Random(2));
+        for (int i = 0; i < 10_000; i++) {
+            String text = order.get(i).getQuestion();
+            assertTrue(Integer.parseInt(text.substring("Question ".length())) % 2 == 1, text);
+        }
+    }
+
+    // testTornRecord(): A half-written record at the end is ignored and overwritten by the next review.
+    @Test
+    void testTornRecord() throws IOException {
+        File file = tempStore("torn");
+        ReviewScheduler scheduler = new ReviewScheduler(ReviewStore.open(file), () -> 0L);
+        List<MCQ> bank = bank(3);
+        scheduler.record(bank.get(0), true);
+        scheduler.getStore().close();
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(raf.length());
+            raf.write(new byte[ReviewStore.RECORD_SIZE / 2]);
+        }
+        ReviewScheduler reopened = new ReviewScheduler(ReviewStore.open(file), () -> 0L);
+        assertEquals(1, reopened.getStore().size());
+        reopened.record(bank.get(1), true);
+        reopened.flush();
+        assertEquals(2 * ReviewStore.RECORD_SIZE, file.length());
+        assertEquals(2, ReviewStore.open(file).size());
+        assertFalse(ReviewStore.open(file).contains(ReviewScheduler.key(bank.get(2))));
+    }
+
+    // testCompaction(): Once most records on disk are superseded the file is rewritten with one record per
+    // question, and reviews put while it is rewritten are kept.
+    @Test
+    void testCompaction() throws IOException {
+        File file = tempStore("compact");
+        ReviewScheduler scheduler = new ReviewScheduler(ReviewStore.open(file), () -> 0L);
+        List<MCQ> bank = bank(10);
+        for (int i = 0; i < 5000; i++) {
+            scheduler.record(bank.get(i % 10), i % 3 == 0);
+        }
+        scheduler.getStore().close();
+        assertTrue(file.length() < 5000L * ReviewStore.RECORD_SIZE, file.length() + " bytes");
+
+        ReviewStore reopened = ReviewStore.open(file);
+        assertEquals(10, reopened.size());
+        for (MCQ question : bank) {
+            long key = ReviewScheduler.key(question);
+            assertEquals(scheduler.getStore().streak(key), reopened.streak(key));
+            assertEquals(scheduler.getStore().lapses(key), reopened.lapses(key));
+        }
+    }
+
+    // testCompiledBankOrder(): A compiled bank is ordered from keys hashed straight from its mapped text,
+    // the same keys as its decoded questions, so the order matches the one built from the text bank.
+    @Test
+    void testCompiledBankOrder() throws IOException {
+        List<MCQ> bank = bank(40);
+        bank.set(5, MCQ.of("Which letter is \u03a3?", new String[] { "A) sigma", "B) caf\u00e9", "C) c", "D) d" },
+                "A", "Reason", "q.wav", "e.wav"));
+        File text = File.createTempFile("review", ".txt");
+        File compiled = File.createTempFile("review", CompiledQuestionBank.EXTENSION);
+        QuestionBankLoader.write(bank, text);
+        CompiledQuestionBank.compile(List.of(text), text.getParentFile(), compiled);
+        CompiledQuestionBank open = CompiledQuestionBank.open(compiled);
+        text.delete();
+        compiled.deleteOnExit();
+
+        AtomicLong now = new AtomicLong(0);
+        ReviewScheduler scheduler = new ReviewScheduler(ReviewStore.open(tempStore("compiled")), now::get);
+        scheduler.record(bank.get(5), false);
+        scheduler.record(bank.get(30), false);
+        scheduler.record(bank.get(12), true);
+        now.set(20 * MINUTE);
+
+        List<MCQ> questions = open.asList();
+        for (int i = 0; i < bank.size(); i++) {
+            assertEquals(ReviewScheduler.key(questions.get(i)), ((ReviewScheduler.KeyedList) questions).reviewKey(i));
+        }
+        List<MCQ> order = scheduler.order(questions, new Random(3));
+        assertEquals(bank.get(5).getQuestion(), order.get(0).getQuestion());
+        assertEquals(bank.get(30).getQuestion(), order.get(1).getQuestion());
+        assertEquals(bank.get(12).getQuestion(), order.get(39).getQuestion());
+    }
+
+    private File tempStore(String name) throws IOException {
+        File file = File.createTempFile(name, ".srs");
+        file.delete();
+        file.deleteOnExit();
+        return file;
+    }
+}
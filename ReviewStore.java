@@ -0,0 +1,263 @@
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+// One user's spaced-repetition state: for each question they have seen, when it is next due, the
+// current interval, ease, streak and lapse count. Held in parallel primitive arrays behind an
+// open-addressing table keyed by ReviewScheduler.key, so hundreds of thousands of tracked
+// questions cost a few dozen bytes each rather than an object per entry.
+//
+// On disk every review appends one fixed-size record (big-endian) and the last record for a key
+// wins; a record with a bad checksum ends the file, as in QuizHistoryLog. Records go through a
+// GroupCommitLog and never wait for the disk.
+//   key (long), due millis (long), interval minutes (int), ease permille (short), streak (short),
+//   lapses (int), CRC32 of the preceding 28 bytes
+class ReviewStore implements AutoCloseable {
+    static final int RECORD_SIZE = 32;
+    private static final long EMPTY = 0;
+
+    private final File file;
+    private long[] keys = new long[1024];
+    private long[] due = new long[1024];
+    private int[] interval = new int[1024];
+    private short[] ease = new short[1024];
+    private short[] streak = new short[1024];
+    private int[] lapses = new int[1024];
+    private int size;
+    private long recordsOnDisk; // Guarded by this
+    private final GroupCommitLog log;
+
+    private ReviewStore(File file) throws IOException {
+        this.file = file;
+        replay();
+        log = new GroupCommitLog("review store " + file.getName(), "review-store", RECORD_SIZE, this::openChannel,
+                this::committed);
+    }
+
+    static ReviewStore open(File file) throws IOException {
+        return new ReviewStore(file);
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    synchronized boolean contains(long key) {
+        return keys[slot(key)] == key;
+    }
+
+    // Due time in epoch millis, or Long.MIN_VALUE for a question the user has never seen
+    synchronized long due(long key) {
+        int slot = slot(key);
+        return keys[slot] == key ? due[slot] : Long.MIN_VALUE;
+    }
+
+    synchronized int intervalMinutes(long key) {
+        int slot = slot(key);
+        return keys[slot] == key ? interval[slot] : 0;
+    }
+
+    synchronized int easePermille(long key) {
+        int slot = slot(key);
+        return keys[slot] == key ? ease[slot] : 0;
+    }
+
+    synchronized int streak(long key) {
+        int slot = slot(key);
+        return keys[slot] == key ? streak[slot] : 0;
+    }
+
+    synchronized int lapses(long key) {
+        int slot = slot(key);
+        return keys[slot] == key ? lapses[slot] : 0;
+    }
+
+    // Stores the new state and queues its record; returns at once, the writer thread makes it durable
+    synchronized void put(long key, long dueMillis, int intervalMinutes, int easePermille, int streakCount,
+            int lapseCount) throws IOException {
+        log.checkOpen();
+        set(key, dueMillis, intervalMinutes, easePermille, streakCount, lapseCount);
+        log.append(record -> record.putLong(key).putLong(dueMillis).putInt(intervalMinutes)
+                .putShort((short) easePermille).putShort((short) Math.min(streakCount, Short.MAX_VALUE))
+                .putInt(lapseCount));
+    }
+
+    // Waits until every record put so far is on disk
+    void flush() throws IOException {
+        log.flush();
+    }
+
+    // Forced writes so far; each one covers every record put while the previous one was forced
+    int commits() {
+        return log.commits();
+    }
+
+    // Writes what is queued and stops the writer thread
+    @Override
+    public void close() throws IOException {
+        log.close();
+        IOException failure = log.failure();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    // After each forced write: compacts once most records on disk are superseded. Records put meanwhile are
+    // already in the table, and are appended to the compacted file after it.
+    private synchronized boolean committed(int records) throws IOException {
+        recordsOnDisk += records;
+        if (recordsOnDisk > 4096 && recordsOnDisk > 2L * size) {
+            compact();
+            return true;
+        }
+        return false;
+    }
+
+    // Opens the file for appending after the last good record, dropping a torn record left by a crash
+    private FileChannel openChannel() throws IOException {
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.exists() && !parent.mkdirs()) {
+            throw new IOException("Cannot create " + parent);
+        }
+        long length;
+        synchronized (this) {
+            length = recordsOnDisk * RECORD_SIZE;
+        }
+        FileChannel opened = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        opened.truncate(length);
+        opened.position(length);
+        return opened;
+    }
+
+    // Rewrites the file with one record per tracked question; writer thread only, with the lock held
+    private void compact() throws IOException {
+        File tmp = new File(file.getPath() + ".tmp");
+        ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+        CRC32 crc = new CRC32();
+        try (RandomAccessFile out = new RandomAccessFile(tmp, "rw")) {
+            out.setLength(0);
+            for (int slot = 0; slot < keys.length; slot++) {
+                if (keys[slot] == EMPTY) {
+                    continue;
+                }
+                record.clear();
+                record.putLong(keys[slot]).putLong(due[slot]).putInt(interval[slot]).putShort(ease[slot])
+                        .putShort(streak[slot]).putInt(lapses[slot]);
+                crc.reset();
+                crc.update(record.array(), 0, RECORD_SIZE - 4);
+                record.putInt((int) crc.getValue());
+                out.write(record.array());
+            }
+            out.getChannel().force(true);
+        }
+        Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        recordsOnDisk = size;
+    }
+
+    private void replay() throws IOException {
+        if (!file.exists()) {
+            return;
+        }
+        byte[] record = new byte[RECORD_SIZE];
+        ByteBuffer view = ByteBuffer.wrap(record);
+        CRC32 crc = new CRC32();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            while (true) {
+                try {
+                    in.readFully(record);
+                } catch (EOFException e) {
+                    return; // End of file or a torn record
+                }
+                crc.reset();
+                crc.update(record, 0, RECORD_SIZE - 4);
+                if (view.getInt(RECORD_SIZE - 4) != (int) crc.getValue()) {
+                    return;
+                }
+                set(view.getLong(0), view.getLong(8), view.getInt(16), view.getShort(20), view.getShort(22),
+                        view.getInt(24));
+                recordsOnDisk++;
+            }
+        }
+    }
+
+    private void set(long key, long dueMillis, int intervalMinutes, int easePermille, int streakCount,
+            int lapseCount) {
+        if (key == EMPTY) {
+            throw new IllegalArgumentException("Key 0 is reserved");
+        }
+        int slot = slot(key);
+        if (keys[slot] != key) {
+            if ((size + 1) * 4L > keys.length * 3L) { // Keep the load factor under 0.75
+                grow();
+                slot = slot(key);
+            }
+            keys[slot] = key;
+            size++;
+        }
+        due[slot] = dueMillis;
+        interval[slot] = intervalMinutes;
+        ease[slot] = (short) easePermille;
+        streak[slot] = (short) Math.min(streakCount, Short.MAX_VALUE);
+        lapses[slot] = lapseCount;
+    }
+
+    // Linear probing; returns the key's slot or the empty slot where it would go
+    private int slot(long key) {
+        int mask = keys.length - 1;
+        int slot = (int) mix(key) & mask;
+        while (keys[slot] != EMPTY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        long[] oldDue = due;
+        int[] oldInterval = interval;
+        short[] oldEase = ease;
+        short[] oldStreak = streak;
+        int[] oldLapses = lapses;
+        int capacity = oldKeys.length * 2;
+        keys = new long[capacity];
+        due = new long[capacity];
+        interval = new int[capacity];
+        ease = new short[capacity];
+        streak = new short[capacity];
+        lapses = new int[capacity];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = slot(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                due[slot] = oldDue[i];
+                interval[slot] = oldInterval[i];
+                ease[slot] = oldEase[i];
+                streak[slot] = oldStreak[i];
+                lapses[slot] = oldLapses[i];
+            }
+        }
+    }
+
+    private static long mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        return key;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "ReviewStore[" + file.getName() + ", " + size + " tracked, " + recordsOnDisk + " records, capacity "
+                + keys.length + "]";
+    }
+}
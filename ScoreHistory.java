@@ -0,0 +1,531 @@
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+// Every quiz result ever recorded, per quiz for each user and for everyone, kept as a time series of
+// primitive (timestamp, score) columns. QuizHistoryLog keeps the last few attempts for the results
+// window; this keeps years of them for trends.
+//
+// Each series is two files. New points go to the head, one checksummed 16-byte record each. Once
+// the head holds CHUNK_POINTS points they are sealed into a compressed chunk appended to the chunk
+// file, together with the chunk's daily min / max / sum / count. Opening a series reads only those
+// rollups and the head, never the compressed points, and weekly rollups are built from the daily
+// ones, so a trend over millions of attempts costs as much as one over a handful.
+//
+// Layout (big-endian):
+//   chunks  per chunk: frame length (int), point count (int), first and last timestamp (long),
+//           day count (int), per day [start millis (long), count (int), min, max (float),
+//           sum (double)], CRC32 of the header, deflated points, CRC32 of the deflated points
+//   head    chunk file length this head follows (long), then per point: timestamp (long),
+//           score (float), CRC32 of the 12 bytes
+//   points  timestamps as zigzag varint deltas of deltas, then scores as raw float bits
+class ScoreHistory {
+    static final String DIRECTORY = "score_history"; // Next to the history log
+    static final int CHUNK_POINTS = 4096;
+    static final long DAY_MILLIS = 24L * 60 * 60 * 1000;
+    static final long WEEK_MILLIS = 7 * DAY_MILLIS;
+    private static final long MONDAY = -3 * DAY_MILLIS; // 1970-01-01 was a Thursday
+    private static final int HEAD_RECORD = 16;
+    private static final int DAY_ENTRY = 8 + 4 + 4 + 4 + 8;
+
+    private final File directory;
+    private final Map<String, Series> loaded = new HashMap<>();
+
+    private ScoreHistory(File directory) {
+        this.directory = directory;
+    }
+
+    // Opening is free; each series is read the first time it is used
+    static ScoreHistory open(File directory) {
+        return new ScoreHistory(directory);
+    }
+
+    // Records one result in the user's series and in everyone's series for the quiz
+    void append(String quiz, String user, long timestamp, float score) throws IOException {
+        append(quiz, user, new long[] { timestamp }, new float[] { score });
+    }
+
+    // Records a batch of results, e.g. an import; the files are synced once at the end
+    synchronized void append(String quiz, String user, long[] timestamps, float[] scores) throws IOException {
+        directory.mkdirs();
+        try (FileChannel lockChannel = FileChannel.open(new File(directory, ".lock").toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            lockChannel.lock(); // Held until the channel is closed
+            for (String owner : user == null ? new String[] { null } : new String[] { user, null }) {
+                Series series = seriesLocked(quiz, owner);
+                series.append(timestamps, scores);
+            }
+        }
+    }
+
+    // A user's series for a quiz, or everyone's when user is null
+    synchronized Series series(String quiz, String user) throws IOException {
+        return seriesLocked(quiz, user);
+    }
+
+    private Series seriesLocked(String quiz, String user) throws IOException {
+        String name = fileName(quiz) + File.separator + (user == null ? "all" : "user-" + fileName(user));
+        Series series = loaded.get(name);
+        if (series == null || series.changedOnDisk()) { // Another session may have appended
+            series = new Series(new File(directory, name + ".chunks"), new File(directory, name + ".head"));
+            series.load();
+            loaded.put(name, series);
+        }
+        return series;
+    }
+
+    // Names differing only in characters that are not safe in file names stay apart through the hash
+    private static String fileName(String name) {
+        return name.replaceAll("[^A-Za-z0-9._-]", "_") + "-" + Integer.toHexString(name.hashCode());
+    }
+
+    static long dayStart(long timestamp) {
+        return Math.floorDiv(timestamp, DAY_MILLIS) * DAY_MILLIS;
+    }
+
+    static long weekStart(long timestamp) {
+        return Math.floorDiv(timestamp - MONDAY, WEEK_MILLIS) * WEEK_MILLIS + MONDAY;
+    }
+
+    // Min, max, sum and count per time bucket, in bucket order, held as parallel columns
+    static final class Rollup {
+        final long width; // DAY_MILLIS or WEEK_MILLIS
+        long[] start;
+        int[] count;
+        float[] min;
+        float[] max;
+        double[] sum;
+        int size;
+
+        Rollup(int capacity, long width) {
+            this.width = width;
+            start = new long[capacity];
+            count = new int[capacity];
+            min = new float[capacity];
+            max = new float[capacity];
+            sum = new double[capacity];
+        }
+
+        float mean(int i) {
+            return (float) (sum[i] / count[i]);
+        }
+
+        // Adds points already summarized as one bucket; buckets almost always arrive in order
+        void add(long bucket, int points, float low, float high, double total) {
+            int i = size > 0 && start[size - 1] == bucket ? size - 1 : Arrays.binarySearch(start, 0, size, bucket);
+            if (i < 0) {
+                i = -i - 1;
+                if (size == start.length) {
+                    int capacity = Math.max(16, size * 2);
+                    start = Arrays.copyOf(start, capacity);
+                    count = Arrays.copyOf(count, capacity);
+                    min = Arrays.copyOf(min, capacity);
+                    max = Arrays.copyOf(max, capacity);
+                    sum = Arrays.copyOf(sum, capacity);
+                }
+                System.arraycopy(start, i, start, i + 1, size - i);
+                System.arraycopy(count, i, count, i + 1, size - i);
+                System.arraycopy(min, i, min, i + 1, size - i);
+                System.arraycopy(max, i, max, i + 1, size - i);
+                System.arraycopy(sum, i, sum, i + 1, size - i);
+                start[i] = bucket;
+                count[i] = points;
+                min[i] = low;
+                max[i] = high;
+                sum[i] = total;
+                size++;
+                return;
+            }
+            count[i] += points;
+            min[i] = Math.min(min[i], low);
+            max[i] = Math.max(max[i], high);
+            sum[i] += total;
+        }
+
+        // The last n buckets
+        Rollup tail(int n) {
+            int from = Math.max(0, size - n);
+            Rollup tail = new Rollup(size - from, width);
+            System.arraycopy(start, from, tail.start, 0, tail.start.length);
+            System.arraycopy(count, from, tail.count, 0, tail.start.length);
+            System.arraycopy(min, from, tail.min, 0, tail.start.length);
+            System.arraycopy(max, from, tail.max, 0, tail.start.length);
+            System.arraycopy(sum, from, tail.sum, 0, tail.start.length);
+            tail.size = tail.start.length;
+            return tail;
+        }
+    }
+
+    // Points in time order, as parallel columns
+    static final class Points {
+        final long[] timestamps;
+        final float[] scores;
+
+        Points(long[] timestamps, float[] scores) {
+            this.timestamps = timestamps;
+            this.scores = scores;
+        }
+
+        int size() {
+            return timestamps.length;
+        }
+    }
+
+    // One quiz's results for one user, or for everyone
+    static final class Series {
+        private final File chunkFile;
+        private final File headFile;
+        private long chunkLength; // Bytes of valid chunks
+        private long headLength; // Bytes of valid head, including its 8-byte header
+        private long[] chunkOffsets = new long[16];
+        private long[] chunkFirst = new long[16];
+        private long[] chunkLast = new long[16];
+        private int chunks;
+        private final long[] headTimes = new long[CHUNK_POINTS];
+        private final float[] headScores = new float[CHUNK_POINTS];
+        private int headSize;
+        private long count;
+        private final Rollup daily = new Rollup(64, DAY_MILLIS);
+        private final Rollup weekly = new Rollup(16, WEEK_MILLIS);
+
+        private Series(File chunkFile, File headFile) {
+            this.chunkFile = chunkFile;
+            this.headFile = headFile;
+        }
+
+        synchronized long count() {
+            return count;
+        }
+
+        synchronized Rollup daily() {
+            return daily.tail(daily.size);
+        }
+
+        synchronized Rollup weekly() {
+            return weekly.tail(weekly.size);
+        }
+
+        // At most maxBuckets of the most recent buckets: daily while they fit, weekly beyond that.
+        // Costs the same however many points the series holds.
+        synchronized Rollup trend(int maxBuckets) {
+            return daily.size <= maxBuckets ? daily.tail(maxBuckets) : weekly.tail(maxBuckets);
+        }
+
+        // Every point with from <= timestamp < to; only the chunks overlapping the range are inflated
+        synchronized Points points(long from, long to) throws IOException {
+            long[] times = new long[0];
+            float[] scores = new float[0];
+            int size = 0;
+            try (RandomAccessFile raf = chunks > 0 ? new RandomAccessFile(chunkFile, "r") : null) {
+                for (int c = 0; c < chunks; c++) {
+                    if (chunkLast[c] < from || chunkFirst[c] >= to) {
+                        continue;
+                    }
+                    Points chunk = readChunk(raf, chunkOffsets[c]);
+                    times = Arrays.copyOf(times, size + chunk.size());
+                    scores = Arrays.copyOf(scores, size + chunk.size());
+                    for (int i = 0; i < chunk.size(); i++) {
+                        if (chunk.timestamps[i] >= from && chunk.timestamps[i] < to) {
+                            times[size] = chunk.timestamps[i];
+                            scores[size++] = chunk.scores[i];
+                        }
+                    }
+                }
+            }
+            times = Arrays.copyOf(times, size + headSize);
+            scores = Arrays.copyOf(scores, size + headSize);
+            for (int i = 0; i < headSize; i++) {
+                if (headTimes[i] >= from && headTimes[i] < to) {
+                    times[size] = headTimes[i];
+                    scores[size++] = headScores[i];
+                }
+            }
+            return new Points(Arrays.copyOf(times, size), Arrays.copyOf(scores, size));
+        }
+
+        private synchronized boolean changedOnDisk() {
+            return chunkFile.length() != chunkLength || headFile.length() != headLength;
+        }
+
+        private void load() throws IOException {
+            if (chunkFile.exists()) {
+                try (RandomAccessFile raf = new RandomAccessFile(chunkFile, "r")) {
+                    long length = raf.length();
+                    CRC32 crc = new CRC32();
+                    while (chunkLength + 4 + 28 <= length) {
+                        raf.seek(chunkLength);
+                        int frameLength = raf.readInt();
+                        if (frameLength < 28 || chunkLength + 4 + frameLength > length) {
+                            break; // Torn frame
+                        }
+                        byte[] header = new byte[20];
+                        raf.readFully(header);
+                        int days = raf.readInt();
+                        if (days < 0 || 28 + (long) days * DAY_ENTRY + 4 > frameLength) {
+                            break;
+                        }
+                        byte[] rollup = new byte[days * DAY_ENTRY];
+                        raf.readFully(rollup);
+                        crc.reset();
+                        crc.update(header);
+                        crc.update(ByteBuffer.allocate(4).putInt(days).array());
+                        crc.update(rollup);
+                        if (raf.readInt() != (int) crc.getValue()) {
+                            break;
+                        }
+                        ByteBuffer h = ByteBuffer.wrap(header);
+                        int points = h.getInt();
+                        addChunk(chunkLength, h.getLong(), h.getLong());
+                        count += points;
+                        ByteBuffer r = ByteBuffer.wrap(rollup);
+                        for (int d = 0; d < days; d++) {
+                            long day = r.getLong();
+                            int n = r.getInt();
+                            float low = r.getFloat();
+                            float high = r.getFloat();
+                            double total = r.getDouble();
+                            daily.add(day, n, low, high, total);
+                            weekly.add(weekStart(day), n, low, high, total);
+                        }
+                        chunkLength += 4 + frameLength;
+                    }
+                }
+            }
+            if (headFile.exists()) {
+                byte[] bytes = Files.readAllBytes(headFile.toPath());
+                ByteBuffer buffer = ByteBuffer.wrap(bytes);
+                // A head whose points were already sealed (crash between the two writes) is dropped
+                if (bytes.length >= 8 && buffer.getLong() == chunkLength) {
+                    headLength = 8;
+                    CRC32 crc = new CRC32();
+                    while (headLength + HEAD_RECORD <= bytes.length && headSize < CHUNK_POINTS) {
+                        crc.reset();
+                        crc.update(bytes, (int) headLength, 12);
+                        if (buffer.getInt((int) headLength + 12) != (int) crc.getValue()) {
+                            break;
+                        }
+                        addPoint(buffer.getLong((int) headLength), buffer.getFloat((int) headLength + 8));
+                        headLength += HEAD_RECORD;
+                    }
+                }
+            }
+        }
+
+        private void addChunk(long offset, long first, long last) {
+            if (chunks == chunkOffsets.length) {
+                chunkOffsets = Arrays.copyOf(chunkOffsets, chunks * 2);
+                chunkFirst = Arrays.copyOf(chunkFirst, chunks * 2);
+                chunkLast = Arrays.copyOf(chunkLast, chunks * 2);
+            }
+            chunkOffsets[chunks] = offset;
+            chunkFirst[chunks] = first;
+            chunkLast[chunks++] = last;
+        }
+
+        private void addPoint(long timestamp, float score) {
+            headTimes[headSize] = timestamp;
+            headScores[headSize++] = score;
+            count++;
+            daily.add(dayStart(timestamp), 1, score, score, score);
+            weekly.add(weekStart(timestamp), 1, score, score, score);
+        }
+
+        private synchronized void append(long[] timestamps, float[] scores) throws IOException {
+            chunkFile.getParentFile().mkdirs();
+            try (RandomAccessFile head = new RandomAccessFile(headFile, "rw")) {
+                FileChannel channel = head.getChannel();
+                if (headLength == 0) {
+                    resetHead(channel);
+                }
+                channel.truncate(headLength); // Drop a torn record left by a crash
+                ByteBuffer records = ByteBuffer.allocate(HEAD_RECORD * Math.min(timestamps.length, CHUNK_POINTS));
+                CRC32 crc = new CRC32();
+                for (int i = 0; i < timestamps.length; i++) {
+                    if (headSize == CHUNK_POINTS) {
+                        writeRecords(channel, records);
+                        seal(channel);
+                    }
+                    int start = records.position();
+                    records.putLong(timestamps[i]).putFloat(scores[i]);
+                    crc.reset();
+                    crc.update(records.array(), start, 12);
+                    records.putInt((int) crc.getValue());
+                    addPoint(timestamps[i], scores[i]);
+                    if (!records.hasRemaining()) {
+                        writeRecords(channel, records);
+                    }
+                }
+                writeRecords(channel, records);
+                channel.force(false);
+            }
+        }
+
+        private void writeRecords(FileChannel channel, ByteBuffer records) throws IOException {
+            records.flip();
+            while (records.hasRemaining()) {
+                headLength += channel.write(records, headLength);
+            }
+            records.clear();
+        }
+
+        // Compresses the full head into a chunk, then starts an empty head that follows it
+        private void seal(FileChannel head) throws IOException {
+            ByteArrayOutputStream raw = new ByteArrayOutputStream(headSize * 6);
+            long previous = 0;
+            long delta = 0;
+            for (int i = 0; i < headSize; i++) {
+                long next = headTimes[i] - previous;
+                writeVarLong(raw, (next - delta) << 1 ^ (next - delta) >> 63);
+                delta = next;
+                previous = headTimes[i];
+            }
+            DataOutputStream scoreBits = new DataOutputStream(raw);
+            for (int i = 0; i < headSize; i++) {
+                scoreBits.writeFloat(headScores[i]);
+            }
+            Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+            deflater.setInput(raw.toByteArray());
+            deflater.finish();
+            byte[] buffer = new byte[raw.size() + 64];
+            int compressed = 0;
+            while (!deflater.finished()) {
+                if (compressed == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                }
+                compressed += deflater.deflate(buffer, compressed, buffer.length - compressed);
+            }
+            deflater.end();
+
+            long first = Long.MAX_VALUE;
+            long last = Long.MIN_VALUE;
+            Rollup days = new Rollup(16, DAY_MILLIS);
+            for (int i = 0; i < headSize; i++) {
+                first = Math.min(first, headTimes[i]);
+                last = Math.max(last, headTimes[i]);
+                days.add(dayStart(headTimes[i]), 1, headScores[i], headScores[i], headScores[i]);
+            }
+            int frameLength = 28 + days.size * DAY_ENTRY + compressed + 4;
+            ByteBuffer frame = ByteBuffer.allocate(4 + frameLength);
+            frame.putInt(frameLength).putInt(headSize).putLong(first).putLong(last).putInt(days.size);
+            for (int d = 0; d < days.size; d++) {
+                frame.putLong(days.start[d]).putInt(days.count[d]).putFloat(days.min[d]).putFloat(days.max[d])
+                        .putDouble(days.sum[d]);
+            }
+            CRC32 crc = new CRC32();
+            crc.update(frame.array(), 4, frame.position() - 4);
+            frame.putInt((int) crc.getValue());
+            crc.reset();
+            crc.update(buffer, 0, compressed);
+            frame.put(buffer, 0, compressed).putInt((int) crc.getValue());
+            frame.flip();
+
+            try (FileChannel out = FileChannel.open(chunkFile.toPath(), StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE)) {
+                out.truncate(chunkLength); // Drop a torn frame left by a crash
+                while (frame.hasRemaining()) {
+                    out.write(frame, chunkLength + frame.position());
+                }
+                out.force(false);
+            }
+            addChunk(chunkLength, first, last);
+            chunkLength += 4 + frameLength;
+            headSize = 0; // The points stay counted and rolled up; they now live in the chunk
+            resetHead(head);
+        }
+
+        private void resetHead(FileChannel head) throws IOException {
+            head.truncate(0);
+            ByteBuffer header = ByteBuffer.allocate(8).putLong(chunkLength);
+            header.flip();
+            head.write(header, 0);
+            head.force(false);
+            headLength = 8;
+        }
+
+        private Points readChunk(RandomAccessFile raf, long offset) throws IOException {
+            raf.seek(offset);
+            int frameLength = raf.readInt();
+            int points = raf.readInt();
+            raf.seek(offset + 4 + 20);
+            int days = raf.readInt();
+            int compressedOffset = 28 + days * DAY_ENTRY;
+            byte[] compressed = new byte[frameLength - compressedOffset - 4];
+            raf.seek(offset + 4 + compressedOffset);
+            raf.readFully(compressed);
+            CRC32 crc = new CRC32();
+            crc.update(compressed);
+            if (raf.readInt() != (int) crc.getValue()) {
+                throw new IOException("Corrupt score history chunk in " + chunkFile.getName());
+            }
+
+            Inflater inflater = new Inflater();
+            inflater.setInput(compressed);
+            byte[] raw = new byte[points * 14];
+            int size = 0;
+            try {
+                while (!inflater.finished()) {
+                    if (size == raw.length) {
+                        raw = Arrays.copyOf(raw, raw.length * 2);
+                    }
+                    int n = inflater.inflate(raw, size, raw.length - size);
+                    if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                        throw new IOException("Truncated score history chunk in " + chunkFile.getName());
+                    }
+                    size += n;
+                }
+            } catch (DataFormatException e) {
+                throw new IOException(e.getMessage(), e);
+            } finally {
+                inflater.end();
+            }
+
+            ByteBuffer in = ByteBuffer.wrap(raw, 0, size);
+            long[] times = new long[points];
+            long previous = 0;
+            long delta = 0;
+            for (int i = 0; i < points; i++) {
+                long zigzag = readVarLong(in);
+                delta += zigzag >>> 1 ^ -(zigzag & 1);
+                previous += delta;
+                times[i] = previous;
+            }
+            float[] scores = new float[points];
+            for (int i = 0; i < points; i++) {
+                scores[i] = in.getFloat();
+            }
+            return new Points(times, scores);
+        }
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0;; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+}
@@ -0,0 +1,148 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.TreeMap;
+
+public class ScoreHistoryTest {
+    private static final long START = 1_600_000_000_000L; // 2020-09-13
+
+    private static File directory() throws IOException {
+        File directory = File.createTempFile("score_history", "");
+        directory.delete();
+        directory.mkdirs();
+        return directory;
+    }
+
+    private static void delete(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+
+    // testRoundTrip(): Points written one at a time and in batches, across several sealed chunks, read
+    // back exactly after reopening; daily rollups match the points; the user's series and everyone's
+    // are kept apart; a torn head record is dropped.
+    @Test
+    void testRoundTrip() throws IOException {
+        File directory = directory();
+        ScoreHistory history = ScoreHistory.open(directory);
+        int count = 3 * ScoreHistory.CHUNK_POINTS + 100;
+        long[] times = new long[count];
+        float[] scores = new float[count];
+        Random random = new Random(3);
+        for (int i = 0; i < count; i++) {
+            times[i] = START + i * 600_000L + random.nextInt(1000); // One attempt every ten minutes
+            scores[i] = random.nextInt(21) * 5;
+        }
+        for (int i = 0; i < 50; i++) {
+            history.append("quiz.txt", "alice", times[i], scores[i]);
+        }
+        history.append("quiz.txt", "alice", Arrays.copyOfRange(times, 50, count),
+                Arrays.copyOfRange(scores, 50, count));
+        history.append("quiz.txt", "bob", START, 10f);
+        try (RandomAccessFile raf = new RandomAccessFile(findHead(directory, "user-alice"), "rw")) {
+            raf.seek(raf.length());
+            raf.write(new byte[] { 1, 2, 3, 4, 5 }); // Torn record from a crash
+        }
+
+        ScoreHistory reopened = ScoreHistory.open(directory);
+        ScoreHistory.Series alice = reopened.series("quiz.txt", "alice");
+        assertEquals(count, alice.count());
+        ScoreHistory.Points points = alice.points(Long.MIN_VALUE, Long.MAX_VALUE);
+        assertArrayEquals(times, points.timestamps);
+        assertArrayEquals(scores, points.scores, 0f);
+        assertEquals(count + 1, reopened.series("quiz.txt", null).count());
+        assertEquals(1, reopened.series("quiz.txt", "bob").count());
+
+        TreeMap<Long, float[]> expected = new TreeMap<>(); // count, min, max, sum per day
+        for (int i = 0; i < count; i++) {
+            float[] day = expected.computeIfAbsent(ScoreHistory.dayStart(times[i]),
+                    k -> new float[] { 0, Float.MAX_VALUE, -Float.MAX_VALUE, 0 });
+            day[0]++;
+            day[1] = Math.min(day[1], scores[i]);
+            day[2] = Math.max(day[2], scores[i]);
+            day[3] += scores[i];
+        }
+        ScoreHistory.Rollup daily = alice.daily();
+        assertEquals(expected.size(), daily.size);
+        int d = 0;
+        for (var entry : expected.entrySet()) {
+            assertEquals((long) entry.getKey(), daily.start[d]);
+            assertEquals((int) entry.getValue()[0], daily.count[d]);
+            assertEquals(entry.getValue()[1], daily.min[d], 0f);
+            assertEquals(entry.getValue()[2], daily.max[d], 0f);
+            assertEquals(entry.getValue()[3] / entry.getValue()[0], daily.mean(d), 1e-3);
+            d++;
+        }
+
+        // The series still takes appends after recovering from the torn record
+        reopened.append("quiz.txt", "alice", times[count - 1] + 1, 100f);
+        assertEquals(count + 1, ScoreHistory.open(directory).series("quiz.txt", "alice").count());
+        delete(directory);
+    }
+
+    private static File findHead(File directory, String prefix) {
+        for (File quiz : directory.listFiles(File::isDirectory)) {
+            for (File file : quiz.listFiles()) {
+                if (file.getName().startsWith(prefix) && file.getName().endsWith(".head")) {
+                    return file;
+                }
+            }
+        }
+        throw new AssertionError("No head file for " + prefix);
+    }
+
+    // testLongRangeTrend(): Five years of attempts, two million points, compress to a few bytes each;
+    // reopening reads only rollups, and the trend is the last weeks whatever the series size.
+    @Test
+    void testLongRangeTrend() throws IOException {
+        File directory = directory();
+        ScoreHistory history = ScoreHistory.open(directory);
+        int count = 2_000_000;
+        long span = 5 * 365 * ScoreHistory.DAY_MILLIS;
+        Random random = new Random(5);
+        int batch = 100_000;
+        for (int from = 0; from < count; from += batch) {
+            long[] times = new long[batch];
+            float[] scores = new float[batch];
+            for (int i = 0; i < batch; i++) {
+                times[i] = START + (from + i) * (span / count);
+                scores[i] = random.nextInt(101);
+            }
+            history.append("exam.txt", null, times, scores);
+        }
+        long bytes = 0;
+        for (File quiz : directory.listFiles(File::isDirectory)) {
+            for (File file : quiz.listFiles()) {
+                bytes += file.length();
+            }
+        }
+
+        ScoreHistory.Series series = ScoreHistory.open(directory).series("exam.txt", null);
+        ScoreHistory.Rollup trend = series.trend(60);
+
+        assertEquals(count, series.count());
+        assertEquals(60, trend.size);
+        assertEquals(ScoreHistory.weekStart(START + (count - 1) * (span / count)), trend.start[59]);
+        assertTrue(trend.mean(30) > 40 && trend.mean(30) < 60);
+        assertTrue(bytes < count * 8L, "stored " + bytes + " bytes");
+        long weekly = 0;
+        ScoreHistory.Rollup weeks = series.weekly();
+        for (int i = 0; i < weeks.size; i++) {
+            weekly += weeks.count[i];
+        }
+        assertEquals(count, weekly);
+        delete(directory);
+    }
+}
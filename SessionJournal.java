@@ -0,0 +1,270 @@
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+
+// Write-ahead journal of the quiz in progress, so a crash does not cost the candidate the exam.
+// The header records how the quiz was built (files, filter, sample size and shuffle seed) rather
+// than the question order itself; rebuilding with the same inputs gives the same order, which a
+// fingerprint of the questions confirms. Every question passed adds one fixed-size record.
+//
+// Records go through a GroupCommitLog and never wait for the disk. A record with a bad checksum
+// marks the end of the journal, so a crash mid-write only loses that record.
+//
+// Layout (big-endian):
+//   header  magic, version, payload length, payload (see Header.write), CRC32 of the payload
+//   record  question index (int), answer time in ms (int), letter (byte, 0 when skipped),
+//           3 reserved bytes, CRC32 of the first 12 bytes
+class SessionJournal implements AutoCloseable {
+    private static final int MAGIC = 0x4D43514A; // "MCQJ"
+    private static final int VERSION = 2;
+    static final int RECORD_SIZE = 16;
+
+    private final File file;
+    private final FileChannel channel;
+    private final GroupCommitLog log;
+
+    // How the quiz was built; enough to rebuild the same questions in the same order
+    static final class Header {
+        final String quizName;
+        final List<String> files;
+        final String filter; // Empty when every question was used
+        final long seed;
+        final int sampleSize; // 0 when the whole bank was used
+        final boolean stratified;
+        final boolean progressive; // Started before the bank was parsed, see ProgressiveBank
+        final int fontSize;
+        final int timeBetweenQuestions;
+        final int questionCount;
+        final long fingerprint; // fingerprint() of the questions in quiz order
+
+        Header(String quizName, List<String> files, String filter, long seed, int sampleSize, boolean stratified,
+                boolean progressive, int fontSize, int timeBetweenQuestions, int questionCount, long fingerprint) {
+            this.quizName = quizName;
+            this.files = files;
+            this.filter = filter == null ? "" : filter;
+            this.seed = seed;
+            this.sampleSize = sampleSize;
+            this.stratified = stratified;
+            this.progressive = progressive;
+            this.fontSize = fontSize;
+            this.timeBetweenQuestions = timeBetweenQuestions;
+            this.questionCount = questionCount;
+            this.fingerprint = fingerprint;
+        }
+
+        private void write(DataOutputStream out) throws IOException {
+            out.writeUTF(quizName);
+            out.writeInt(files.size());
+            for (String path : files) {
+                out.writeUTF(path);
+            }
+            out.writeUTF(filter);
+            out.writeLong(seed);
+            out.writeInt(sampleSize);
+            out.writeBoolean(stratified);
+            out.writeBoolean(progressive);
+            out.writeInt(fontSize);
+            out.writeInt(timeBetweenQuestions);
+            out.writeInt(questionCount);
+            out.writeLong(fingerprint);
+        }
+
+        private static Header read(DataInputStream in) throws IOException {
+            String quizName = in.readUTF();
+            int count = in.readInt();
+            List<String> files = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                files.add(in.readUTF());
+            }
+            return new Header(quizName, files, in.readUTF(), in.readLong(), in.readInt(), in.readBoolean(),
+                    in.readBoolean(), in.readInt(), in.readInt(), in.readInt(), in.readLong());
+        }
+    }
+
+    // Called for each answer replayed from the journal, in quiz order
+    interface Replay {
+        void answered(MCQ question, String letter, boolean correct, long answerNanos);
+    }
+
+    // A journal read back after a crash: its header and the questions passed so far
+    static final class Recovered {
+        final Header header;
+        private final int[] indexes;
+        private final String[] letters; // null when the question was skipped
+        private final int[] millis;
+        private final long length; // Bytes up to the last valid record
+
+        private Recovered(Header header, int[] indexes, String[] letters, int[] millis, long length) {
+            this.header = header;
+            this.indexes = indexes;
+            this.letters = letters;
+            this.millis = millis;
+            this.length = length;
+        }
+
+        // Questions passed (answered or skipped) before the crash
+        int size() {
+            return indexes.length;
+        }
+
+        // Rebuilds the session as it was after the last recorded question
+        QuizSession replay(List<MCQ> questions, Replay replay) {
+            QuizSession session = new QuizSession(questions);
+            for (int i = 0; i < indexes.length; i++) {
+                if (session.getState() != QuizSession.State.ANSWERING
+                        || indexes[i] != session.getCurrentQuestionIndex()) {
+                    break; // Not this quiz's journal; fingerprint() should have caught it
+                }
+                MCQ question = session.currentQuestion();
+                if (letters[i] != null) {
+                    session.answer(letters[i]);
+                }
+                replay.answered(question, letters[i], session.isCorrect(indexes[i]), millis[i] * 1_000_000L);
+                session.next();
+            }
+            return session;
+        }
+    }
+
+    private SessionJournal(File file, FileChannel channel) {
+        this.file = file;
+        this.channel = channel;
+        log = new GroupCommitLog("session journal", "session-journal", RECORD_SIZE, () -> channel,
+                records -> false);
+    }
+
+    // Starts a new journal, replacing any previous one; the header is on disk when this returns
+    static SessionJournal create(File file, Header header) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        header.write(new DataOutputStream(bytes));
+        byte[] payload = bytes.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        ByteBuffer buffer = ByteBuffer.allocate(12 + payload.length + 4);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(payload.length).put(payload).putInt((int) crc.getValue());
+        buffer.flip();
+
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        return new SessionJournal(file, channel);
+    }
+
+    // Continues a recovered journal, dropping a torn record left by the crash
+    static SessionJournal reopen(File file, Recovered recovered) throws IOException {
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE);
+        channel.truncate(recovered.length);
+        channel.position(recovered.length);
+        return new SessionJournal(file, channel);
+    }
+
+    // Reads a journal left by an unfinished quiz; null when there is none or its header is damaged
+    static Recovered read(File file) throws IOException {
+        if (!file.exists()) {
+            return null;
+        }
+        byte[] bytes = Files.readAllBytes(file.toPath());
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        if (bytes.length < 16 || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+            return null;
+        }
+        int payloadLength = buffer.getInt();
+        if (payloadLength < 0 || payloadLength > bytes.length - 16) {
+            return null;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 12, payloadLength);
+        buffer.position(12 + payloadLength);
+        if (buffer.getInt() != (int) crc.getValue()) {
+            return null;
+        }
+        Header header = Header.read(new DataInputStream(new ByteArrayInputStream(bytes, 12, payloadLength)));
+
+        int start = buffer.position();
+        int count = (bytes.length - start) / RECORD_SIZE;
+        int[] indexes = new int[count];
+        String[] letters = new String[count];
+        int[] millis = new int[count];
+        int valid = 0;
+        for (; valid < count; valid++) {
+            int offset = start + valid * RECORD_SIZE;
+            crc.reset();
+            crc.update(bytes, offset, RECORD_SIZE - 4);
+            if (buffer.getInt(offset + RECORD_SIZE - 4) != (int) crc.getValue()) {
+                break; // Torn record
+            }
+            indexes[valid] = buffer.getInt(offset);
+            millis[valid] = buffer.getInt(offset + 4);
+            byte letter = buffer.get(offset + 8);
+            letters[valid] = letter == 0 ? null : String.valueOf((char) letter);
+        }
+        return new Recovered(header, Arrays.copyOf(indexes, valid), Arrays.copyOf(letters, valid),
+                Arrays.copyOf(millis, valid), start + (long) valid * RECORD_SIZE);
+    }
+
+    // Identifies a question order; resuming checks that the rebuilt quiz is the one journaled
+    static long fingerprint(List<MCQ> questions) {
+        if (questions instanceof ProgressiveBank bank) {
+            return bank.fingerprint(); // From the file contents, without waiting for the parse
+        }
+        if (questions instanceof CompiledQuestionBank.QuestionList list) {
+            return list.fingerprint(); // From the mapped file, without decoding every question
+        }
+        long hash = 0xcbf29ce484222325L; // FNV-1a over each question's text and answer
+        for (MCQ question : questions) {
+            hash = (hash ^ question.getQuestion().hashCode()) * 0x100000001b3L;
+            hash = (hash ^ question.getAnswer().hashCode()) * 0x100000001b3L;
+        }
+        return hash ^ questions.size();
+    }
+
+    // Queues the outcome of one question; returns at once, the writer thread makes it durable
+    void append(int index, String letter, long answerNanos) {
+        log.append(record -> record.putInt(index)
+                .putInt((int) Math.min(Integer.MAX_VALUE, answerNanos / 1_000_000))
+                .put(letter == null ? 0 : (byte) letter.charAt(0))
+                .put((byte) 0).put((byte) 0).put((byte) 0));
+    }
+
+    // Waits until every record appended so far is on disk
+    void flush() throws IOException {
+        log.flush();
+    }
+
+    // Forced writes so far; each one covers every record queued while the previous one was forced
+    int commits() {
+        return log.commits();
+    }
+
+    // Writes what is queued and closes the journal, which stays on disk for the next launch
+    @Override
+    public void close() throws IOException {
+        log.close();
+        channel.close(); // The log only closes it when a record was written
+    }
+
+    // The quiz was scored and saved; there is nothing left to resume
+    void finish() throws IOException {
+        close();
+        Files.deleteIfExists(file.toPath());
+    }
+}
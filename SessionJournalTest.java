@@ -0,0 +1,156 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+public class SessionJournalTest {
+    private static List<MCQ> questions(int count, long seed) {
+        List<MCQ> questions = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            questions.add(MCQ.of("Question " + i + "?", new String[] { "A) a", "B) b", "C) c", "D) d" },
+                    String.valueOf((char) ('A' + i % 4)), "Reason", "", ""));
+        }
+        Collections.shuffle(questions, new Random(seed));
+        return questions;
+    }
+
+    // A bank file of distinct questions made of random words
+    private static File bankFile(String name, int count, long seed) throws IOException {
+        String[] words = { "cell", "energy", "protein", "membrane", "enzyme", "gene", "tissue", "organ", "acid",
+                "molecule", "nucleus", "sample", "variable", "theory", "model", "force", "charge", "field" };
+        Random random = new Random(seed);
+        return TestBanks.write(name, count, i -> {
+            StringBuilder text = new StringBuilder(name).append(' ').append(i);
+            for (int w = 0; w < 8; w++) {
+                text.append(' ').append(words[random.nextInt(words.length)]);
+            }
+            return MCQ.of(text + "?", new String[] { "A) a" + i, "B) b" + i, "C) c" + i, "D) d" + i },
+                    String.valueOf((char) ('A' + random.nextInt(4))), "Reason", "", "");
+        });
+    }
+
+    private static SessionJournal.Header header(List<MCQ> questions) {
+        return new SessionJournal.Header("bank.txt", List.of("/banks/bank.txt"), "hyp*", 42, 0, false, false, 24,
+                30, questions.size(), SessionJournal.fingerprint(questions));
+    }
+
+    // testResume(): A journal cut off mid-record after 80 of 100 questions rebuilds the same answers,
+    // score and position from the seed alone, and the resumed journal carries on where it stopped.
+    @Test
+    void testResume() throws IOException {
+        File file = File.createTempFile("session", ".journal");
+        List<MCQ> questions = questions(100, 42);
+        QuizSession live = new QuizSession(questions);
+        SessionJournal journal = SessionJournal.create(file, header(questions));
+        Random random = new Random(7);
+        for (int i = 0; i < 80; i++) {
+            String letter = i % 10 == 9 ? null : String.valueOf((char) ('A' + random.nextInt(4)));
+            if (letter != null) {
+                live.answer(letter);
+            }
+            journal.append(i, letter, (i + 1) * 1_000_000L);
+            live.next();
+        }
+        journal.close(); // Not finished: the quiz was never scored
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(raf.length());
+            raf.write(new byte[] { 0, 0, 0, 80, 1, 2, 3 }); // Torn record from the crash
+        }
+
+        SessionJournal.Recovered recovered = SessionJournal.read(file);
+        assertEquals("hyp*", recovered.header.filter);
+        assertEquals(42, recovered.header.seed);
+        assertEquals(List.of("/banks/bank.txt"), recovered.header.files);
+        assertEquals(30, recovered.header.timeBetweenQuestions);
+        assertEquals(80, recovered.size());
+        List<MCQ> rebuilt = questions(100, recovered.header.seed);
+        assertEquals(recovered.header.fingerprint, SessionJournal.fingerprint(rebuilt));
+        assertFalse(recovered.header.fingerprint == SessionJournal.fingerprint(questions(100, 43)));
+        long[] totalMillis = new long[1];
+        QuizSession resumed = recovered.replay(rebuilt, (question, letter, correct, nanos) -> {
+            totalMillis[0] += nanos / 1_000_000;
+        });
+
+        assertEquals(80 * 81 / 2, totalMillis[0]);
+        assertEquals(80, resumed.getCurrentQuestionIndex());
+        assertEquals(live.getCorrectAnswers(), resumed.getCorrectAnswers());
+        for (int i = 0; i < 80; i++) {
+            assertEquals(live.getAnswer(i), resumed.getAnswer(i));
+        }
+        assertEquals(rebuilt.get(80).getQuestion(), resumed.currentQuestion().getQuestion());
+
+        try (SessionJournal reopened = SessionJournal.reopen(file, recovered)) {
+            reopened.append(80, "B", 5_000_000L);
+            reopened.flush();
+        }
+        SessionJournal.Recovered again = SessionJournal.read(file);
+        assertEquals(81, again.size());
+        assertEquals("B", again.replay(rebuilt, (question, letter, correct, nanos) -> {
+        }).getAnswer(80));
+        file.delete();
+    }
+
+    // testResumeFromSeveralFiles(): A quiz Main builds from several bank files is rebuilt in the same order
+    // from the journal header alone, however the parallel parse of the files interleaves.
+    @Test
+    void testResumeFromSeveralFiles() throws IOException {
+        File[] files = { bankFile("first", 40, 1), bankFile("second", 7, 2), bankFile("third", 60, 3) };
+        List<MCQ> questions = Main.buildQuiz(files, 42, 0, false, false, null, count -> "");
+        List<String> paths = new ArrayList<>();
+        for (File file : files) {
+            paths.add(file.getAbsolutePath());
+        }
+        File file = File.createTempFile("session", ".journal");
+        try (SessionJournal journal = SessionJournal.create(file, new SessionJournal.Header(files[0].getName(),
+                paths, "", 42, 0, false, false, 24, 30, questions.size(), SessionJournal.fingerprint(questions)))) {
+            for (int i = 0; i < 10; i++) {
+                journal.append(i, "A", 1_000_000L);
+            }
+        }
+
+        SessionJournal.Recovered recovered = SessionJournal.read(file);
+        SessionJournal.Header header = recovered.header;
+        List<MCQ> rebuilt = null;
+        for (int run = 0; run < 5; run++) {
+            rebuilt = Main.buildQuiz(header.files.stream().map(File::new).toArray(File[]::new), header.seed,
+                    header.sampleSize, header.stratified, header.progressive, null, count -> header.filter);
+            assertEquals(header.fingerprint, SessionJournal.fingerprint(rebuilt));
+        }
+        QuizSession resumed = recovered.replay(rebuilt, (question, letter, correct, nanos) -> {
+        });
+        assertEquals(10, resumed.getCurrentQuestionIndex());
+        assertEquals(questions.get(10).getQuestion(), resumed.currentQuestion().getQuestion());
+        file.delete();
+        for (File bank : files) {
+            bank.delete();
+        }
+    }
+
+    // testGroupCommit(): Appends return without waiting for the disk, records queued during one forced
+    // write share the next one, and finishing the quiz removes the journal.
+    @Test
+    void testGroupCommit() throws IOException {
+        File file = File.createTempFile("session", ".journal");
+        List<MCQ> questions = questions(5000, 1);
+        SessionJournal journal = SessionJournal.create(file, header(questions));
+        for (int i = 0; i < questions.size(); i++) {
+            journal.append(i, "A", 1_000_000L);
+        }
+        journal.flush();
+        assertTrue(journal.commits() < questions.size());
+        assertEquals(5000, SessionJournal.read(file).size());
+
+        journal.finish();
+        assertFalse(file.exists());
+        assertNull(SessionJournal.read(file));
+    }
+}
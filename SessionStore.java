@@ -0,0 +1,90 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+// Where QuizServer keeps session state and finished attempts, so that several server processes can
+// share them and a candidate's requests can land on any of them. Values are versioned: every write
+// gets a new version, and a put can require the version it read, so two nodes changing the same
+// session cannot overwrite each other. Operations return futures; an implementation may queue and
+// batch them, and completes each future once its operation has been applied.
+interface SessionStore extends AutoCloseable {
+    long ANY_VERSION = -1; // put without a version check
+    long ABSENT = 0; // put that only succeeds if the key does not exist yet
+
+    final class Entry {
+        final long version;
+        final byte[] value;
+
+        Entry(long version, byte[] value) {
+            this.version = version;
+            this.value = value;
+        }
+    }
+
+    // The current entry, or null when there is none
+    CompletableFuture<Entry> get(String key);
+
+    // Stores the value if the key is still at expectedVersion and returns its new version, or -1 if not
+    CompletableFuture<Long> put(String key, byte[] value, long expectedVersion);
+
+    CompletableFuture<Void> remove(String key);
+
+    // Adds to the end of a list kept under the key, separate from get/put entries
+    CompletableFuture<Void> append(String key, byte[] value);
+
+    CompletableFuture<List<byte[]>> list(String key);
+
+    // Waits for queued operations to be applied
+    @Override
+    void close();
+
+    static SessionStore inMemory() {
+        return new Memory();
+    }
+
+    // Process-local store; also the storage behind RemoteSessionStore's server
+    final class Memory implements SessionStore {
+        private final Map<String, Entry> entries = new HashMap<>();
+        private final Map<String, List<byte[]>> lists = new HashMap<>();
+        private long lastVersion;
+
+        @Override
+        public synchronized CompletableFuture<Entry> get(String key) {
+            return CompletableFuture.completedFuture(entries.get(key));
+        }
+
+        @Override
+        public synchronized CompletableFuture<Long> put(String key, byte[] value, long expectedVersion) {
+            Entry current = entries.get(key);
+            long currentVersion = current == null ? ABSENT : current.version;
+            if (expectedVersion != ANY_VERSION && expectedVersion != currentVersion) {
+                return CompletableFuture.completedFuture(-1L);
+            }
+            entries.put(key, new Entry(++lastVersion, value));
+            return CompletableFuture.completedFuture(lastVersion);
+        }
+
+        @Override
+        public synchronized CompletableFuture<Void> remove(String key) {
+            entries.remove(key);
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public synchronized CompletableFuture<Void> append(String key, byte[] value) {
+            lists.computeIfAbsent(key, k -> new ArrayList<>()).add(value);
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public synchronized CompletableFuture<List<byte[]>> list(String key) {
+            return CompletableFuture.completedFuture(new ArrayList<>(lists.getOrDefault(key, List.of())));
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,214 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public class SessionStoreTest {
+    private static final Pattern SERVING = Pattern.compile("http://localhost:(\\d+)/sessions");
+
+    private static void checkStore(SessionStore store) {
+        assertNull(store.get("s").join());
+        long first = store.put("s", new byte[] { 1 }, SessionStore.ABSENT).join();
+        assertTrue(first > 0);
+        assertEquals(-1L, (long) store.put("s", new byte[] { 2 }, SessionStore.ABSENT).join());
+        long second = store.put("s", new byte[] { 3 }, first).join();
+        assertTrue(second > first);
+        assertEquals(-1L, (long) store.put("s", new byte[] { 4 }, first).join()); // Stale version
+        assertArrayEquals(new byte[] { 3 }, store.get("s").join().value);
+        assertEquals(second, store.get("s").join().version);
+        store.remove("s").join();
+        assertNull(store.get("s").join());
+
+        store.append("log", new byte[] { 5 });
+        store.append("log", new byte[] { 6, 7 });
+        List<byte[]> log = store.list("log").join();
+        assertEquals(2, log.size());
+        assertArrayEquals(new byte[] { 6, 7 }, log.get(1));
+        assertEquals(0, store.list("missing").join().size());
+    }
+
+    // testStores(): Both stores version every write and refuse a put against a version that has moved
+    // on; the remote client batches operations queued while a round trip is in flight.
+    @Test
+    void testStores() throws IOException {
+        checkStore(SessionStore.inMemory());
+        try (RemoteSessionStore.Server server = RemoteSessionStore.serve(0);
+                RemoteSessionStore store = new RemoteSessionStore("localhost", server.getPort())) {
+            checkStore(store);
+            long before = store.batches();
+            List<CompletableFuture<Long>> writes = new ArrayList<>();
+            for (int i = 0; i < 2000; i++) {
+                writes.add(store.put("key" + i % 100, new byte[] { (byte) i }, SessionStore.ANY_VERSION));
+            }
+            writes.forEach(CompletableFuture::join);
+            assertTrue(store.batches() - before < 2000);
+            assertArrayEquals(new byte[] { (byte) 1999 }, store.get("key99").join().value);
+        }
+    }
+
+    // A process-local store whose next put fails, as if another node had written the session first
+    private static final class ConflictingStore implements SessionStore {
+        private final SessionStore store = SessionStore.inMemory();
+        private volatile boolean conflict;
+
+        @Override
+        public CompletableFuture<Entry> get(String key) {
+            return store.get(key);
+        }
+
+        @Override
+        public CompletableFuture<Long> put(String key, byte[] value, long expectedVersion) {
+            if (conflict) {
+                conflict = false;
+                return CompletableFuture.completedFuture(-1L);
+            }
+            return store.put(key, value, expectedVersion);
+        }
+
+        @Override
+        public CompletableFuture<Void> remove(String key) {
+            return store.remove(key);
+        }
+
+        @Override
+        public CompletableFuture<Void> append(String key, byte[] value) {
+            return store.append(key, value);
+        }
+
+        @Override
+        public CompletableFuture<List<byte[]>> list(String key) {
+            return store.list(key);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    // testRetriedAnswerCountsOnce(): An answer whose write loses the race is refused and retried; the retry
+    // is recorded once in the item statistics and the finished attempt once in the shared history.
+    @Test
+    void testRetriedAnswerCountsOnce() throws IOException, InterruptedException {
+        List<MCQ> questions = List.of(
+                MCQ.of("Question 0?", new String[] { "A) a", "B) b", "C) c", "D) d" }, "A", "Reason 0", "", ""),
+                MCQ.of("Question 1?", new String[] { "A) a", "B) b", "C) c", "D) d" }, "A", "Reason 1", "", ""));
+        ConflictingStore store = new ConflictingStore();
+        QuizServer server = new QuizServer(questions, 600, store);
+        server.start(0);
+        try {
+            String node = "http://localhost:" + server.getPort();
+            HttpClient client = HttpClient.newHttpClient();
+            String created = send(client, HttpRequest.newBuilder(URI.create(node + "/sessions"))
+                    .POST(HttpRequest.BodyPublishers.noBody()).build());
+            Matcher matcher = Pattern.compile("\"session\": \"([^\"]+)\"").matcher(created);
+            assertTrue(matcher.find());
+            HttpRequest answer = HttpRequest.newBuilder(URI.create(node + "/sessions/" + matcher.group(1) + "/answer"))
+                    .POST(HttpRequest.BodyPublishers.ofString("A")).build();
+            for (int i = 0; i < 2; i++) {
+                store.conflict = true;
+                assertEquals(409, client.send(answer, HttpResponse.BodyHandlers.ofString()).statusCode());
+                send(client, answer);
+            }
+
+            ItemAnalysis stats = server.getItemStats();
+            for (MCQ question : questions) {
+                assertEquals(1, stats.attempts(stats.id(question)));
+            }
+            assertEquals(1, store.list("history").join().size());
+        } finally {
+            server.stop();
+        }
+    }
+
+    // Starts a QuizServer process sharing the store and returns it once it is serving
+    private static Process startNode(File bank, int storePort, int[] port) throws IOException {
+        Process node = new ProcessBuilder(new File(System.getProperty("java.home"), "bin/java").getPath(), "-cp",
+                System.getProperty("java.class.path"), "QuizServer", "--port", "0", "--time", "600", "--store",
+                "localhost:" + storePort, bank.getPath()).redirectErrorStream(true).start();
+        BufferedReader out = new BufferedReader(new InputStreamReader(node.getInputStream(), StandardCharsets.UTF_8));
+        for (String line = out.readLine(); line != null; line = out.readLine()) {
+            Matcher matcher = SERVING.matcher(line);
+            if (matcher.find()) {
+                port[0] = Integer.parseInt(matcher.group(1));
+                Thread drain = new Thread(() -> out.lines().forEach(l -> {
+                }));
+                drain.setDaemon(true);
+                drain.start();
+                return node;
+            }
+        }
+        throw new IOException("Node exited before serving");
+    }
+
+    private static String[] startNodes(int count, File bank, int storePort, List<Process> processes)
+            throws IOException {
+        String[] urls = new String[count];
+        for (int i = 0; i < count; i++) {
+            int[] port = new int[1];
+            processes.add(startNode(bank, storePort, port));
+            urls[i] = "http://localhost:" + port[0];
+        }
+        return urls;
+    }
+
+    private static String send(HttpClient client, HttpRequest request) throws IOException, InterruptedException {
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertTrue(response.statusCode() < 400, request.uri() + ": " + response.body());
+        return response.body();
+    }
+
+    // testSessionMovesBetweenNodes(): Two server processes share a store; a candidate alternates between
+    // them question by question, and either node reports the same progress, score and shared history.
+    @Test
+    void testSessionMovesBetweenNodes() throws IOException, InterruptedException {
+        File bank = TestBanks.numbered("cluster", 6);
+        List<Process> processes = new ArrayList<>();
+        try (RemoteSessionStore.Server store = RemoteSessionStore.serve(0)) {
+            String[] nodes = startNodes(2, bank, store.getPort(), processes);
+            HttpClient client = HttpClient.newHttpClient();
+            String created = send(client, HttpRequest.newBuilder(URI.create(nodes[0] + "/sessions"))
+                    .POST(HttpRequest.BodyPublishers.noBody()).build());
+            Matcher matcher = Pattern.compile("\"session\": \"([^\"]+)\"").matcher(created);
+            assertTrue(matcher.find());
+            String path = "/sessions/" + matcher.group(1);
+
+            for (int i = 0; i < 6; i++) {
+                String node = nodes[i % 2];
+                String question = send(client, HttpRequest.newBuilder(URI.create(node + path + "/question")).GET()
+                        .build());
+                assertTrue(question.contains("\"index\": " + i), question);
+                send(client, HttpRequest.newBuilder(URI.create(nodes[(i + 1) % 2] + path + "/answer"))
+                        .POST(HttpRequest.BodyPublishers.ofString(i < 4 ? "A" : "B")).build());
+            }
+            String result = send(client, HttpRequest.newBuilder(URI.create(nodes[0] + path + "/result")).GET()
+                    .build());
+            assertTrue(result.contains("\"state\": \"SCORED\", \"correct\": 4, \"total\": 6"), result);
+
+            String history = "";
+            for (int attempt = 0; attempt < 50 && !history.contains("\"attempts\": 1"); attempt++) {
+                Thread.sleep(20); // The history write is not waited for
+                history = send(client, HttpRequest.newBuilder(URI.create(nodes[1] + "/history")).GET().build());
+            }
+            assertTrue(history.contains("\"attempts\": 1, \"meanScore\": 66.67"), history);
+        } finally {
+            processes.forEach(Process::destroy);
+            bank.delete();
+        }
+    }
+}
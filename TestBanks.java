@@ -0,0 +1,63 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+
+// Question bank files written for tests
+final class TestBanks {
+    private TestBanks() {
+    }
+
+    // A temporary three-question bank in the text format, answered A, B and C
+    static File sample() throws IOException {
+        File tempFile = File.createTempFile("temp_quiz", ".txt");
+
+        String quizData = "Question 1\n" +
+                "Question 1 Text\n" +
+                "A) Choice A1\n" +
+                "B) Choice B1\n" +
+                "C) Choice C1\n" +
+                "D) Choice D1\n" +
+                "Answer: A\n" +
+                "Explanation: Explanation 1\n" +
+                "Question 2\n" +
+                "Question 2 Text\n" +
+                "A) Choice A2\n" +
+                "B) Choice B2\n" +
+                "C) Choice C2\n" +
+                "D) Choice D2\n" +
+                "Answer: B\n" +
+                "Explanation: Explanation 2\n" +
+                "Question 3\n" +
+                "Question 3 Text\n" +
+                "A) Choice A3\n" +
+                "B) Choice B3\n" +
+                "C) Choice C3\n" +
+                "D) Choice D3\n" +
+                "Answer: C\n" +
+                "Explanation: Explanation 3\n";
+        Files.writeString(tempFile.toPath(), quizData);
+
+        return tempFile;
+    }
+
+    // A temporary bank of count questions "<prefix> <i>", each answered A, with choices a to d and reason "Reason <i>"
+    static File numbered(String prefix, int count) throws IOException {
+        return write(prefix, count, i -> MCQ.of(prefix + " " + i, new String[] { "A) a", "B) b", "C) c", "D) d" },
+                "A", "Reason " + i, "", ""));
+    }
+
+    // A temporary bank of count questions written by QuestionBankLoader.write; question(i) is called for
+    // i = 0, 1, ... in order, so it may draw from a seeded Random
+    static File write(String prefix, int count, IntFunction<MCQ> question) throws IOException {
+        List<MCQ> questions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            questions.add(question.apply(i));
+        }
+        File file = File.createTempFile(prefix, ".txt");
+        QuestionBankLoader.write(questions, file);
+        return file;
+    }
+}
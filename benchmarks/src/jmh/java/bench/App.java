@@ -0,0 +1,337 @@
+package bench;
+
+import java.io.File;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Proxy;
+import java.net.http.HttpClient;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+import javax.swing.JLabel;
+
+// Bridge to the quiz classes. They live in the default package, which named packages cannot import,
+// and JMH refuses benchmarks in the default package. Handles are static final so the JIT inlines
+// them like direct calls.
+final class App {
+    static final Class<?> MCQ = type("MCQ");
+
+    private static final MethodHandle LOAD_ALL = handle(type("QuestionBankLoader"), "loadAll",
+            MethodType.methodType(ArrayList.class, List.class, File.class, BiConsumer.class));
+    private static final MethodHandle SHUFFLE_QUESTIONS = handle(MCQ, "shuffleQuestions",
+            MethodType.methodType(void.class, ArrayList.class));
+    private static final MethodHandle NEW_MCQ = handle(MCQ, "of", MethodType.methodType(MCQ, String.class,
+            String[].class, String.class, String.class, String.class, String.class));
+    private static final MethodHandle GET_ANSWER = virtual(MCQ, "getAnswer", MethodType.methodType(String.class));
+    private static final MethodHandle GET_CHOICES = virtual(MCQ, "getChoices", MethodType.methodType(String[].class));
+    private static final MethodHandle IS_CORRECT = handle(type("QuizSession"), "isCorrect",
+            MethodType.methodType(boolean.class, MCQ, String.class));
+    private static final MethodHandle ANSWER_TEXT = handle(type("QuizSession"), "answerText",
+            MethodType.methodType(String.class, String.class, String[].class));
+    private static final Class<?> HISTORY_LOG = type("QuizHistoryLog");
+    private static final MethodHandle OPEN_HISTORY = handle(HISTORY_LOG, "open",
+            MethodType.methodType(HISTORY_LOG, File.class));
+    private static final MethodHandle APPEND_HISTORY = virtual(HISTORY_LOG, "append",
+            MethodType.methodType(void.class, String.class, long.class, double.class));
+    private static final MethodHandle RECENT_HISTORY = virtual(HISTORY_LOG, "recent",
+            MethodType.methodType(List.class, String.class, int.class));
+
+    private static final Class<?> SCORE_HISTORY = type("ScoreHistory");
+    private static final Class<?> SERIES = type("ScoreHistory$Series");
+    private static final MethodHandle OPEN_SCORES = handle(SCORE_HISTORY, "open",
+            MethodType.methodType(SCORE_HISTORY, File.class));
+    private static final MethodHandle APPEND_SCORES = virtual(SCORE_HISTORY, "append",
+            MethodType.methodType(void.class, String.class, String.class, long[].class, float[].class));
+    private static final MethodHandle SERIES_OF = virtual(SCORE_HISTORY, "series",
+            MethodType.methodType(SERIES, String.class, String.class));
+    private static final MethodHandle SERIES_COUNT = virtual(SERIES, "count", MethodType.methodType(long.class));
+    private static final MethodHandle TREND = virtual(SERIES, "trend",
+            MethodType.methodType(type("ScoreHistory$Rollup"), int.class));
+
+    private static final Class<?> PREFETCHER = type("QuestionPrefetcher");
+    private static final MethodHandle QUESTION_HTML = handle(PREFETCHER, "html",
+            MethodType.methodType(String.class, MCQ));
+    private static final MethodHandle PREPARE_QUESTION = handle(PREFETCHER, "prepare",
+            MethodType.methodType(type("QuestionPrefetcher$Prepared"), MCQ, JLabel.class));
+    private static final MethodHandle INSTALL_QUESTION = handle(PREFETCHER, "install",
+            MethodType.methodType(void.class, JLabel.class, type("QuestionPrefetcher$Prepared")));
+
+    private static final Class<?> LIVE_BANK = type("LiveBank");
+    private static final MethodHandle NEW_LIVE_BANK = constructor(LIVE_BANK, MethodType.methodType(void.class,
+            List.class, File.class, BiConsumer.class));
+    private static final MethodHandle RELOAD = virtual(LIVE_BANK, "reload",
+            MethodType.methodType(boolean.class, File.class));
+
+    private static final Class<?> JOURNAL = type("SessionJournal");
+    private static final Class<?> JOURNAL_HEADER = type("SessionJournal$Header");
+    private static final MethodHandle NEW_JOURNAL_HEADER = constructor(JOURNAL_HEADER, MethodType.methodType(
+            void.class, String.class, List.class, String.class, long.class, int.class, boolean.class, boolean.class,
+            int.class, int.class, int.class, long.class));
+    private static final MethodHandle CREATE_JOURNAL = handle(JOURNAL, "create",
+            MethodType.methodType(JOURNAL, File.class, JOURNAL_HEADER));
+    private static final MethodHandle APPEND_JOURNAL = virtual(JOURNAL, "append",
+            MethodType.methodType(void.class, int.class, String.class, long.class));
+    private static final MethodHandle READ_JOURNAL = handle(JOURNAL, "read",
+            MethodType.methodType(type("SessionJournal$Recovered"), File.class));
+    private static final Class<?> REPLAY = type("SessionJournal$Replay");
+    private static final MethodHandle REPLAY_JOURNAL = virtual(type("SessionJournal$Recovered"), "replay",
+            MethodType.methodType(type("QuizSession"), List.class, REPLAY));
+    // Replay is package-private, so a proxy stands in for the lambda the quiz passes
+    private static final Object IGNORE_REPLAY = Proxy.newProxyInstance(REPLAY.getClassLoader(),
+            new Class<?>[] { REPLAY }, (proxy, method, args) -> null);
+
+    private static final Class<?> PROGRESSIVE_BANK = type("ProgressiveBank");
+    private static final MethodHandle OPEN_PROGRESSIVE = handle(PROGRESSIVE_BANK, "open",
+            MethodType.methodType(PROGRESSIVE_BANK, List.class, File.class, long.class, BiConsumer.class));
+    private static final MethodHandle CLOSE_PROGRESSIVE = virtual(PROGRESSIVE_BANK, "close",
+            MethodType.methodType(void.class));
+
+    private static final Class<?> COMPACT_BANK = type("CompactQuestionBank");
+    private static final MethodHandle LOAD_COMPACT = handle(COMPACT_BANK, "load",
+            MethodType.methodType(COMPACT_BANK, List.class, File.class, BiConsumer.class));
+    private static final MethodHandle COMPACT_HEAP_BYTES = virtual(COMPACT_BANK, "heapBytes",
+            MethodType.methodType(long.class));
+
+    private static final Class<?> STORE_SERVER = type("RemoteSessionStore$Server");
+    private static final MethodHandle SERVE_STORE = handle(type("RemoteSessionStore"), "serve",
+            MethodType.methodType(STORE_SERVER, int.class));
+    private static final MethodHandle STORE_PORT = virtual(STORE_SERVER, "getPort", MethodType.methodType(int.class));
+    private static final MethodHandle CANDIDATE = handle(type("QuizLoadClient"), "candidate",
+            MethodType.methodType(long[].class, HttpClient.class, String[].class, int.class));
+
+    private static final Class<?> QUESTION_INDEX = type("QuestionIndex");
+    private static final MethodHandle NEW_INDEX = constructor(QUESTION_INDEX, MethodType.methodType(void.class));
+    private static final MethodHandle INDEX_ADD = virtual(QUESTION_INDEX, "add",
+            MethodType.methodType(int.class, MCQ));
+    private static final MethodHandle INDEX_SEARCH = virtual(QUESTION_INDEX, "search",
+            MethodType.methodType(int[].class, String.class));
+    private static final MethodHandle SCAN = handle(QUESTION_INDEX, "scan",
+            MethodType.methodType(int[].class, List.class, String.class));
+
+    private App() {
+    }
+
+    static ArrayList<?> loadAll(List<File> files, File baseDirectory) throws Throwable {
+        BiConsumer<File, Exception> onError = (file, e) -> {
+            throw new IllegalStateException(file.getName(), e);
+        };
+        return (ArrayList<?>) LOAD_ALL.invokeExact(files, baseDirectory, (BiConsumer<?, ?>) onError);
+    }
+
+    static void shuffleQuestions(ArrayList<?> questions) throws Throwable {
+        SHUFFLE_QUESTIONS.invokeExact(questions);
+    }
+
+    static Object newMCQ(String question, String[] choices, String answer, String reason) throws Throwable {
+        return newMCQ(question, choices, answer, reason, "q.wav", "e.wav");
+    }
+
+    static Object newMCQ(String question, String[] choices, String answer, String reason, String questionAudioPath,
+            String explanationAudioPath) throws Throwable {
+        return NEW_MCQ.invokeExact(question, choices, answer, reason, questionAudioPath, explanationAudioPath);
+    }
+
+    static String getAnswer(Object mcq) throws Throwable {
+        return (String) GET_ANSWER.invokeExact(mcq);
+    }
+
+    static String[] getChoices(Object mcq) throws Throwable {
+        return (String[]) GET_CHOICES.invokeExact(mcq);
+    }
+
+    static boolean isCorrect(Object mcq, String letter) throws Throwable {
+        return (boolean) IS_CORRECT.invokeExact(mcq, letter);
+    }
+
+    static String answerText(String letter, String[] choices) throws Throwable {
+        return (String) ANSWER_TEXT.invokeExact(letter, choices);
+    }
+
+    static Object openHistory(File file) throws Throwable {
+        return OPEN_HISTORY.invokeExact(file);
+    }
+
+    static void appendHistory(Object log, String quizName, long timestamp, double score) throws Throwable {
+        APPEND_HISTORY.invokeExact(log, quizName, timestamp, score);
+    }
+
+    static List<?> recentHistory(Object log, String quizName, int limit) throws Throwable {
+        return (List<?>) RECENT_HISTORY.invokeExact(log, quizName, limit);
+    }
+
+    static Object openScores(File directory) throws Throwable {
+        return OPEN_SCORES.invokeExact(directory);
+    }
+
+    static void appendScores(Object history, String quiz, String user, long[] timestamps, float[] scores)
+            throws Throwable {
+        APPEND_SCORES.invokeExact(history, quiz, user, timestamps, scores);
+    }
+
+    static Object series(Object history, String quiz, String user) throws Throwable {
+        return SERIES_OF.invokeExact(history, quiz, user);
+    }
+
+    static long seriesCount(Object series) throws Throwable {
+        return (long) SERIES_COUNT.invokeExact(series);
+    }
+
+    static Object trend(Object series, int maxBuckets) throws Throwable {
+        return TREND.invokeExact(series, maxBuckets);
+    }
+
+    static String questionHtml(Object mcq) throws Throwable {
+        return (String) QUESTION_HTML.invokeExact(mcq);
+    }
+
+    static Object prepareQuestion(Object mcq, JLabel prototype) throws Throwable {
+        return PREPARE_QUESTION.invokeExact(mcq, prototype);
+    }
+
+    static void installQuestion(JLabel label, Object prepared) throws Throwable {
+        INSTALL_QUESTION.invokeExact(label, prepared);
+    }
+
+    static Object newLiveBank(List<File> files, File baseDirectory) throws Throwable {
+        BiConsumer<File, Exception> onError = (file, e) -> {
+            throw new IllegalStateException(file.getName(), e);
+        };
+        return NEW_LIVE_BANK.invokeExact(files, baseDirectory, (BiConsumer<?, ?>) onError);
+    }
+
+    static boolean reload(Object bank, File file) throws Throwable {
+        return (boolean) RELOAD.invokeExact(bank, file);
+    }
+
+    // Header of a quiz over the whole of one bank file, in bank order
+    static Object newJournalHeader(String quizName, int questionCount) throws Throwable {
+        return NEW_JOURNAL_HEADER.invokeExact(quizName, List.of(quizName), "", 0L, 0, false, false, 24, 30,
+                questionCount, 0L);
+    }
+
+    static Object createJournal(File file, Object header) throws Throwable {
+        return CREATE_JOURNAL.invokeExact(file, header);
+    }
+
+    static void appendJournal(Object journal, int index, String letter, long answerNanos) throws Throwable {
+        APPEND_JOURNAL.invokeExact(journal, index, letter, answerNanos);
+    }
+
+    static Object readJournal(File file) throws Throwable {
+        return READ_JOURNAL.invokeExact(file);
+    }
+
+    static Object replayJournal(Object recovered, List<?> questions) throws Throwable {
+        return REPLAY_JOURNAL.invokeExact(recovered, (List<?>) questions, IGNORE_REPLAY);
+    }
+
+    // The quiz in the order a seeded shuffle of the whole bank gives, parsed in the background
+    static List<?> openProgressive(List<File> files, File baseDirectory, long seed) throws Throwable {
+        BiConsumer<File, Exception> onError = (file, e) -> {
+            throw new IllegalStateException(file.getName(), e);
+        };
+        return (List<?>) (Object) OPEN_PROGRESSIVE.invokeExact(files, baseDirectory, seed,
+                (BiConsumer<?, ?>) onError);
+    }
+
+    static void closeProgressive(List<?> bank) throws Throwable {
+        CLOSE_PROGRESSIVE.invokeExact((Object) bank);
+    }
+
+    static Object loadCompact(List<File> files, File baseDirectory) throws Throwable {
+        BiConsumer<File, Exception> onError = (file, e) -> {
+            throw new IllegalStateException(file.getName(), e);
+        };
+        return LOAD_COMPACT.invokeExact(files, baseDirectory, (BiConsumer<?, ?>) onError);
+    }
+
+    static long compactHeapBytes(Object bank) throws Throwable {
+        return (long) COMPACT_HEAP_BYTES.invokeExact(bank);
+    }
+
+    static Object serveStore(int port) throws Throwable {
+        return SERVE_STORE.invokeExact(port);
+    }
+
+    static int storePort(Object server) throws Throwable {
+        return (int) STORE_PORT.invokeExact(server);
+    }
+
+    // One candidate's whole quiz, requests spread over the nodes; the latency of each answer
+    static long[] candidate(HttpClient client, String[] nodes, int first) throws Throwable {
+        return (long[]) CANDIDATE.invokeExact(client, nodes, first);
+    }
+
+    static Object newIndex() throws Throwable {
+        return NEW_INDEX.invokeExact();
+    }
+
+    static int indexAdd(Object index, Object mcq) throws Throwable {
+        return (int) INDEX_ADD.invokeExact(index, mcq);
+    }
+
+    static int[] indexSearch(Object index, String query) throws Throwable {
+        return (int[]) INDEX_SEARCH.invokeExact(index, query);
+    }
+
+    static int[] scan(List<?> questions, String query) throws Throwable {
+        return (int[]) SCAN.invokeExact((List<?>) questions, query);
+    }
+
+    private static Class<?> type(String name) {
+        try {
+            return Class.forName(name);
+        } catch (ClassNotFoundException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private static MethodHandles.Lookup lookup(Class<?> owner) throws IllegalAccessException {
+        return MethodHandles.privateLookupIn(owner, MethodHandles.lookup());
+    }
+
+    // Static method with class-typed parameters and results erased to Object
+    private static MethodHandle handle(Class<?> owner, String name, MethodType type) {
+        try {
+            return erase(lookup(owner).findStatic(owner, name, type));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private static MethodHandle virtual(Class<?> owner, String name, MethodType type) {
+        try {
+            return erase(lookup(owner).findVirtual(owner, name, type));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private static MethodHandle constructor(Class<?> owner, MethodType type) {
+        try {
+            return erase(lookup(owner).findConstructor(owner, type));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    // Replaces quiz class types with Object so call sites can use invokeExact
+    private static MethodHandle erase(MethodHandle handle) {
+        MethodType type = handle.type();
+        for (int i = 0; i < type.parameterCount(); i++) {
+            if (isQuizType(type.parameterType(i))) {
+                type = type.changeParameterType(i, Object.class);
+            }
+        }
+        if (isQuizType(type.returnType())) {
+            type = type.changeReturnType(Object.class);
+        }
+        return handle.asType(type);
+    }
+
+    private static boolean isQuizType(Class<?> type) {
+        return type.getPackageName().isEmpty() && !type.isPrimitive() && !type.isArray();
+    }
+}
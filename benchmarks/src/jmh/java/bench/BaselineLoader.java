@@ -0,0 +1,62 @@
+package bench;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+// Main.loadQuestionsFromFile and the loop in main() that called it, as they were before QuestionBankLoader
+// replaced them. Main's copy has since picked up header numbering and the audio pack lookup, so it no
+// longer shows what the replacement is measured against.
+final class BaselineLoader {
+    private BaselineLoader() {
+    }
+
+    static ArrayList<Object> loadAll(List<File> files, File baseDirectory) throws Throwable {
+        ArrayList<Object> questions = new ArrayList<>();
+        for (File file : files) {
+            questions.addAll(loadQuestionsFromFile(file.getAbsolutePath(), baseDirectory));
+        }
+        return questions;
+    }
+
+    static ArrayList<Object> loadQuestionsFromFile(String fileName, File baseDirectory) throws Throwable {
+        ArrayList<Object> questions = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new FileReader(fileName))) {
+            String line;
+            String question = null;
+            String[] choices = new String[4];
+            String answer = null;
+            String reason = null;
+            int choiceIndex = 0;
+            int questionNumber = 0;
+
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith("Question")) {
+                    question = reader.readLine().trim();
+                    choiceIndex = 0;
+                    questionNumber++;
+                } else if (line.startsWith("A)") || line.startsWith("B)") || line.startsWith("C)")
+                        || line.startsWith("D)")) {
+                    choices[choiceIndex++] = line.trim();
+                } else if (line.startsWith("Answer:")) {
+                    answer = line.split(":")[1].trim().substring(0, 1); // Extract only the letter
+                } else if (line.startsWith("Explanation:")) {
+                    reason = line.split(":")[1].trim();
+
+                    // Dynamically resolve paths relative to the base directory
+                    File questionAudioFile = new File(baseDirectory, "audio/complete/question" + questionNumber
+                            + "/question " + questionNumber + ".wav");
+                    File explanationAudioFile = new File(baseDirectory, "audio/complete/question" + questionNumber
+                            + "/question " + questionNumber + "(explanation).wav");
+
+                    questions.add(App.newMCQ(question, choices.clone(), answer, reason,
+                            questionAudioFile.getAbsolutePath(), explanationAudioFile.getAbsolutePath()));
+                }
+            }
+        }
+        return questions;
+    }
+}
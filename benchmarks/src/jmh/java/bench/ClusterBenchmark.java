@@ -0,0 +1,110 @@
+package bench;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Closed-loop load on `nodes` QuizServer processes sharing one RemoteSessionStore: 24 candidates each
+// take a 20-question quiz after another, every request going to the next node. The score is answers
+// per second. More nodes only help when each has a core of its own; on fewer cores they take turns, and
+// each extra JVM adds its own compiler, HTTP dispatcher and store connection to the work on that core.
+// The store server itself stays nearly idle: it answers a batch per round trip, not per operation.
+// The warmup is long because every node JVM has to compile its request path before throughput settles.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 20)
+@Measurement(iterations = 5, time = 20)
+@Threads(24)
+@Fork(1)
+public class ClusterBenchmark {
+    private static final Pattern SERVING = Pattern.compile("http://localhost:(\\d+)/sessions");
+    private static final int QUESTIONS = 20;
+
+    @Param({ "1", "3" })
+    public int nodes;
+
+    private Path dir;
+    private Object store;
+    private final List<Process> processes = new ArrayList<>();
+    private String[] urls;
+    private ExecutorService executor;
+    private HttpClient client;
+    private final AtomicInteger candidates = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void start() throws Throwable {
+        dir = Files.createTempDirectory("mcq_bench");
+        File bank = Corpus.generate(dir, QUESTIONS, 1).get(0);
+        store = App.serveStore(0);
+        urls = new String[nodes];
+        for (int i = 0; i < nodes; i++) {
+            urls[i] = startNode(bank, App.storePort(store));
+        }
+        executor = Executors.newCachedThreadPool();
+        client = HttpClient.newBuilder().executor(executor).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() throws Exception {
+        processes.forEach(Process::destroy);
+        executor.shutdownNow();
+        ((AutoCloseable) store).close();
+        Corpus.delete(dir);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(QUESTIONS)
+    public long[] answers() throws Throwable {
+        return App.candidate(client, urls, candidates.getAndIncrement());
+    }
+
+    // Starts a node in its own JVM and returns its URL once it is serving
+    private String startNode(File bank, int storePort) throws IOException {
+        Process node = new ProcessBuilder(new File(System.getProperty("java.home"), "bin/java").getPath(), "-cp",
+                System.getProperty("java.class.path"), "QuizServer", "--port", "0", "--time", "600", "--store",
+                "localhost:" + storePort, bank.getPath()).redirectErrorStream(true).start();
+        processes.add(node);
+        BufferedReader out = new BufferedReader(new InputStreamReader(node.getInputStream(), StandardCharsets.UTF_8));
+        for (String line = out.readLine(); line != null; line = out.readLine()) {
+            Matcher matcher = SERVING.matcher(line);
+            if (matcher.find()) {
+                Thread drain = new Thread(() -> out.lines().forEach(l -> {
+                }));
+                drain.setDaemon(true);
+                drain.start();
+                return "http://localhost:" + matcher.group(1);
+            }
+        }
+        throw new IOException("Node exited before serving");
+    }
+}
@@ -0,0 +1,96 @@
+package bench;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Loading 200,000 questions from two files as MCQ objects (QuestionBankLoader) and into the arena of
+// CompactQuestionBank. Besides the load time, each iteration reports the heap the loaded bank retains
+// per question, measured after full collections around the load; the compact bank also reports its
+// own heapBytes() accounting for comparison.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class CompactBankBenchmark {
+    private static final int QUESTIONS = 200_000;
+
+    private Path dir;
+    private List<File> files;
+
+    // Retained heap of the bank loaded in this iteration, in bytes per question
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Heap {
+        public long retainedBytes;
+        public long accountedBytes;
+        private long before;
+        private Object bank;
+
+        @Setup(Level.Iteration)
+        public void before() {
+            bank = null;
+            retainedBytes = 0;
+            accountedBytes = 0;
+            before = usedHeap();
+        }
+
+        @TearDown(Level.Iteration)
+        public void after() throws Throwable {
+            retainedBytes = (usedHeap() - before) / QUESTIONS;
+            if (!(bank instanceof List)) {
+                accountedBytes = App.compactHeapBytes(bank) / QUESTIONS;
+            }
+            bank = null;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void generate() throws Exception {
+        dir = Files.createTempDirectory("mcq_bench");
+        files = Corpus.generate(dir, QUESTIONS, 2);
+    }
+
+    @TearDown(Level.Trial)
+    public void delete() throws Exception {
+        Corpus.delete(dir);
+    }
+
+    @Benchmark
+    public Object objects(Heap heap) throws Throwable {
+        heap.bank = App.loadAll(files, dir.toFile());
+        return heap.bank;
+    }
+
+    @Benchmark
+    public Object compact(Heap heap) throws Throwable {
+        heap.bank = App.loadCompact(files, dir.toFile());
+        return heap.bank;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
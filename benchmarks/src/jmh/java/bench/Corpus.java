@@ -0,0 +1,57 @@
+package bench;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+// Synthetic question banks in the same text format as questions1.txt
+final class Corpus {
+    private Corpus() {
+    }
+
+    static List<File> generate(Path dir, int totalQuestions, int fileCount) throws IOException {
+        List<File> files = new ArrayList<>();
+        int perFile = (totalQuestions + fileCount - 1) / fileCount;
+        int written = 0;
+        for (int f = 0; f < fileCount && written < totalQuestions; f++) {
+            Path path = dir.resolve("bank" + f + ".txt");
+            try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+                for (int q = 1; q <= perFile && written < totalQuestions; q++, written++) {
+                    writeQuestion(writer, q, written);
+                }
+            }
+            files.add(path.toFile());
+        }
+        return files;
+    }
+
+    static void writeQuestion(BufferedWriter writer, int number, int seed) throws IOException {
+        writer.write("Question " + number + ":\n");
+        writer.write("Which statement about hypothesis " + seed + " is supported by the evidence presented?\n");
+        writer.write("A) The first option for item " + seed + " describes an observation\n");
+        writer.write("B) The second option for item " + seed + " describes a prediction\n");
+        writer.write("C) The third option for item " + seed + " describes a theory\n");
+        writer.write("D) The fourth option for item " + seed + " describes a law\n");
+        writer.write("Answer: " + answerLetter(seed) + ") The option marked correct for item " + seed + "\n");
+        writer.write("Explanation: Item " + seed + " is answered by reading the passage carefully.\n\n");
+    }
+
+    static String answerLetter(int seed) {
+        return String.valueOf((char) ('A' + seed % 4));
+    }
+
+    static void delete(Path dir) throws IOException {
+        File[] files = dir.toFile().listFiles();
+        if (files != null) {
+            for (File file : files) {
+                Files.deleteIfExists(file.toPath());
+            }
+        }
+        Files.deleteIfExists(dir);
+    }
+}
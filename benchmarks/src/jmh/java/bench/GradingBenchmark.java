@@ -0,0 +1,56 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+// Grading one answer the way checkAnswer does: take the letter from the chosen button text,
+// compare it with the answer and, when wrong, build the correct answer text via extractAnswerText
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class GradingBenchmark {
+    private static final int QUESTIONS = 1024;
+
+    private Object[] bank;
+    private String[] buttonTexts;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void build() throws Throwable {
+        bank = new Object[QUESTIONS];
+        buttonTexts = new String[QUESTIONS];
+        String[] choices = { "A) One", "B) Two", "C) Three", "D) Four" };
+        for (int i = 0; i < QUESTIONS; i++) {
+            bank[i] = App.newMCQ("Question " + i, choices, Corpus.answerLetter(i), "Reason " + i);
+            buttonTexts[i] = choices[(i * 7) % 4]; // About a quarter of the answers are right
+        }
+    }
+
+    @Benchmark
+    public void checkAnswer(Blackhole blackhole) throws Throwable {
+        int i = next++ & (QUESTIONS - 1);
+        Object question = bank[i];
+        String selectedAnswer = buttonTexts[i].substring(0, 1).toUpperCase();
+        if (App.isCorrect(question, selectedAnswer)) {
+            blackhole.consume(true);
+        } else {
+            String answer = App.getAnswer(question);
+            blackhole.consume(App.answerText(answer, App.getChoices(question)));
+        }
+    }
+}
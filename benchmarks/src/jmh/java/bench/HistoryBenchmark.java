@@ -0,0 +1,99 @@
+package bench;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Recording one quiz result and reading the history back for display, with `quizzes` quiz files
+// already in the history. serializedSnapshot is the former saveHistoryToFile/loadHistoryFromFile
+// round trip; appendOnlyLog is the QuizHistoryLog that replaced it, opened once as the app does.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class HistoryBenchmark {
+    @Param({ "10", "1000" })
+    public int quizzes;
+
+    private File snapshotFile;
+    private File logFile;
+    private Map<String, Queue<Double>> history;
+    private Object log;
+    private int attempt;
+
+    @Setup(Level.Trial)
+    public void fill() throws Throwable {
+        snapshotFile = Files.createTempFile("quiz_history", ".dat").toFile();
+        logFile = Files.createTempFile("quiz_history", ".log").toFile();
+        logFile.delete();
+        history = new LinkedHashMap<>();
+        log = App.openHistory(logFile);
+        for (int q = 0; q < quizzes; q++) {
+            for (int a = 0; a < 5; a++) {
+                record(history, "quiz" + q + ".txt", a * 20.0);
+                App.appendHistory(log, "quiz" + q + ".txt", a, a * 20.0);
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void delete() {
+        snapshotFile.delete();
+        logFile.delete();
+        new File(logFile.getPath() + ".lock").delete();
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public Queue<Double> serializedSnapshot() throws Exception {
+        String quiz = "quiz" + (attempt++ % quizzes) + ".txt";
+        record(history, quiz, 75.0);
+        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(snapshotFile))) {
+            oos.writeObject(history);
+        }
+        try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(snapshotFile))) {
+            return ((Map<String, Queue<Double>>) ois.readObject()).get(quiz);
+        }
+    }
+
+    @Benchmark
+    public List<?> appendOnlyLog() throws Throwable {
+        String quiz = "quiz" + (attempt++ % quizzes) + ".txt";
+        App.appendHistory(log, quiz, System.currentTimeMillis(), 75.0);
+        return App.recentHistory(log, quiz, 5);
+    }
+
+    // Same five-entry cap the old updateHistory applied
+    private static void record(Map<String, Queue<Double>> history, String quiz, double score) {
+        Queue<Double> scores = history.computeIfAbsent(quiz, k -> new LinkedList<>());
+        if (scores.size() == 5) {
+            scores.poll();
+        }
+        scores.offer(score);
+    }
+}
@@ -0,0 +1,88 @@
+package bench;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// The session journal on both sides of a crash. append is what each answer costs the EDT: 5000 answers
+// queued back to back on a fresh journal while its writer thread group-commits them, per answer.
+// recover is reading a journal cut off after 80 of 100 questions and replaying it into a session.
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+public class JournalBenchmark {
+    private static final int ANSWERS = 5000;
+
+    private File appendFile;
+    private File recoverFile;
+    private List<Object> questions;
+    private Object journal;
+
+    @Setup(Level.Trial)
+    public void write() throws Throwable {
+        appendFile = Files.createTempFile("session", ".journal").toFile();
+        recoverFile = Files.createTempFile("session", ".journal").toFile();
+        questions = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            questions.add(App.newMCQ("Question " + i + "?", new String[] { "A) a", "B) b", "C) c", "D) d" },
+                    Corpus.answerLetter(i), "Reason"));
+        }
+        Object crashed = App.createJournal(recoverFile, App.newJournalHeader("bank.txt", questions.size()));
+        for (int i = 0; i < 80; i++) {
+            App.appendJournal(crashed, i, i % 10 == 9 ? null : Corpus.answerLetter(i * 7), (i + 1) * 1_000_000L);
+        }
+        ((AutoCloseable) crashed).close(); // Left on disk unfinished, as after a crash
+    }
+
+    @Setup(Level.Iteration)
+    public void open() throws Throwable {
+        journal = App.createJournal(appendFile, App.newJournalHeader("bank.txt", ANSWERS));
+    }
+
+    @TearDown(Level.Iteration)
+    public void close() throws Exception {
+        ((AutoCloseable) journal).close();
+    }
+
+    @TearDown(Level.Trial)
+    public void delete() {
+        appendFile.delete();
+        recoverFile.delete();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 50)
+    @Measurement(iterations = 200)
+    @OperationsPerInvocation(ANSWERS)
+    public Object append() throws Throwable {
+        for (int i = 0; i < ANSWERS; i++) {
+            App.appendJournal(journal, i, "A", 1_000_000L);
+        }
+        return journal;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @Warmup(iterations = 3)
+    @Measurement(iterations = 5)
+    public Object recover() throws Throwable {
+        return App.replayJournal(App.readJournal(recoverFile), questions);
+    }
+}
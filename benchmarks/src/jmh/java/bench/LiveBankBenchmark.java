@@ -0,0 +1,73 @@
+package bench;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Picking up a saved edit to one question of a bank file: LiveBank.reload parses only the blocks whose
+// text changed, fullParse is what reloading the file with QuestionBankLoader costs. Before every call the
+// file is saved with one explanation changed, alternating between two versions, so each reload has work.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class LiveBankBenchmark {
+    @Param({ "500", "50000" })
+    public int questions;
+
+    private Path dir;
+    private File file;
+    private String[] versions;
+    private int saves;
+    private Object bank;
+
+    @Setup(Level.Trial)
+    public void generate() throws Throwable {
+        dir = Files.createTempDirectory("mcq_bench");
+        file = Corpus.generate(dir, questions, 1).get(0);
+        String original = Files.readString(file.toPath());
+        String reason = "Item " + questions / 2 + " is answered";
+        versions = new String[] { original.replace(reason, reason + " at once"), original };
+        bank = App.newLiveBank(List.of(file), dir.toFile());
+    }
+
+    @Setup(Level.Invocation)
+    public void save() throws IOException {
+        Files.writeString(file.toPath(), versions[saves++ % 2]);
+    }
+
+    @TearDown(Level.Trial)
+    public void delete() throws Exception {
+        ((AutoCloseable) bank).close();
+        Corpus.delete(dir);
+    }
+
+    @Benchmark
+    public boolean reload() throws Throwable {
+        return App.reload(bank, file);
+    }
+
+    @Benchmark
+    public int fullParse() throws Throwable {
+        return App.loadAll(List.of(file), dir.toFile()).size();
+    }
+}
@@ -0,0 +1,59 @@
+package bench;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Parsing a whole bank: the original Main.loadQuestionsFromFile loop over all files (BaselineLoader) versus
+// QuestionBankLoader. Banks are split into 20 files, like a multi-file selection in the chooser, and both
+// keep every question, as the quiz does.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class LoadBenchmark {
+    @Param({ "1000", "100000", "1000000" })
+    public int questions;
+
+    private Path dir;
+    private List<File> files;
+
+    @Setup(Level.Trial)
+    public void generate() throws Exception {
+        dir = Files.createTempDirectory("mcq_bench");
+        files = Corpus.generate(dir, questions, 20);
+    }
+
+    @TearDown(Level.Trial)
+    public void delete() throws Exception {
+        Corpus.delete(dir);
+    }
+
+    @Benchmark
+    public int loadQuestionsFromFile() throws Throwable {
+        return BaselineLoader.loadAll(files, dir.toFile()).size();
+    }
+
+    @Benchmark
+    public int questionBankLoader() throws Throwable {
+        return App.loadAll(files, dir.toFile()).size();
+    }
+}
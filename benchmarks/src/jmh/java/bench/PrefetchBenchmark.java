@@ -0,0 +1,83 @@
+package bench;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Font;
+import java.util.concurrent.TimeUnit;
+
+import javax.swing.JLabel;
+import javax.swing.SwingConstants;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// What loadQuestion costs on the EDT to swap the question label: parsing the <html><h2> markup with
+// setText and laying it out, against installing a View QuestionPrefetcher prepared in the background.
+// Alternates between two ~600-character questions so every swap changes the text.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class PrefetchBenchmark {
+    private final Object[] questions = new Object[2];
+    private final String[] html = new String[2];
+    private final Object[] prepared = new Object[2];
+    private JLabel label;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void build() throws Throwable {
+        Font font = new Font("Arial", Font.PLAIN, 46); // Main's question font at the default size
+        label = new JLabel("", SwingConstants.CENTER);
+        label.setFont(font);
+        label.setForeground(new Color(255, 165, 0));
+        String[] choices = { "A) One", "B) Two", "C) Three", "D) Four" };
+        for (int i = 0; i < 2; i++) {
+            StringBuilder text = new StringBuilder("Question " + i + ":");
+            while (text.length() < 600) {
+                text.append(" Which statement best describes the relationship between pressure and volume?");
+            }
+            questions[i] = App.newMCQ(text.toString(), choices, "A", "Reason");
+            html[i] = App.questionHtml(questions[i]);
+            JLabel prototype = new JLabel();
+            prototype.setFont(font);
+            prototype.setForeground(label.getForeground());
+            prepared[i] = App.prepareQuestion(questions[i], prototype);
+        }
+    }
+
+    @Benchmark
+    public Dimension setText() {
+        next ^= 1;
+        label.setText(html[next]);
+        return label.getPreferredSize();
+    }
+
+    @Benchmark
+    public Dimension installPrepared() throws Throwable {
+        next ^= 1;
+        App.installQuestion(label, prepared[next]);
+        return label.getPreferredSize();
+    }
+
+    // The background work the prefetch moves off the EDT
+    @Benchmark
+    public Object prepare() throws Throwable {
+        next ^= 1;
+        JLabel prototype = new JLabel();
+        prototype.setFont(label.getFont());
+        prototype.setForeground(label.getForeground());
+        return App.prepareQuestion(questions[next], prototype);
+    }
+}
@@ -0,0 +1,71 @@
+package bench;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Time until the first question of a shuffled 200,000-question quiz in four files can be shown, cold
+// each time: ProgressiveBank splits the files and parses only that question, fullLoadAndShuffle is
+// parsing every question first as the quiz did before.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ProgressiveBenchmark {
+    private Path dir;
+    private List<File> files;
+    private List<?> bank;
+    private long seed;
+
+    @Setup(Level.Trial)
+    public void generate() throws Exception {
+        dir = Files.createTempDirectory("mcq_bench");
+        files = Corpus.generate(dir, 200_000, 4);
+    }
+
+    @TearDown(Level.Iteration)
+    public void close() throws Throwable {
+        if (bank != null) {
+            App.closeProgressive(bank); // Its background parse would run into the next iteration
+            bank = null;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void delete() throws Exception {
+        Corpus.delete(dir);
+    }
+
+    @Benchmark
+    public Object firstQuestion() throws Throwable {
+        bank = App.openProgressive(files, dir.toFile(), ++seed);
+        return bank.get(0);
+    }
+
+    @Benchmark
+    public Object fullLoadAndShuffle() throws Throwable {
+        ArrayList<?> questions = App.loadAll(files, dir.toFile());
+        Collections.shuffle(questions, new Random(++seed));
+        return questions.get(0);
+    }
+}
@@ -0,0 +1,85 @@
+package bench;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Five years of results for one quiz, `points` attempts spread evenly. open is reopening the series as
+// the results window does after a restart, which reads the rollups and the head but no compressed
+// points; trend is the 60-week trend on a series already open.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ScoreHistoryBenchmark {
+    private static final long START = 1_500_000_000_000L;
+    private static final long DAY_MILLIS = 24L * 60 * 60 * 1000;
+
+    @Param({ "100000", "2000000" })
+    public int points;
+
+    private Path dir;
+    private Object series;
+
+    @Setup(Level.Trial)
+    public void write() throws Throwable {
+        dir = Files.createTempDirectory("score_history");
+        Object history = App.openScores(dir.toFile());
+        long span = 5 * 365 * DAY_MILLIS;
+        Random random = new Random(5);
+        int batch = 100_000;
+        for (int from = 0; from < points; from += batch) {
+            long[] times = new long[batch];
+            float[] scores = new float[batch];
+            for (int i = 0; i < batch; i++) {
+                times[i] = START + (from + i) * (span / points);
+                scores[i] = random.nextInt(101);
+            }
+            App.appendScores(history, "exam.txt", null, times, scores);
+        }
+        series = App.series(App.openScores(dir.toFile()), "exam.txt", null);
+    }
+
+    @TearDown(Level.Trial)
+    public void delete() {
+        delete(dir.toFile());
+    }
+
+    @Benchmark
+    public long open() throws Throwable {
+        return App.seriesCount(App.series(App.openScores(dir.toFile()), "exam.txt", null));
+    }
+
+    @Benchmark
+    public Object trend() throws Throwable {
+        return App.trend(series, 60);
+    }
+
+    private static void delete(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+}
@@ -0,0 +1,67 @@
+package bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// QuestionIndex.search against QuestionIndex.scan, which tokenizes and tests every question
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class SearchBenchmark {
+    private static final String[] TOPICS = { "hypothesis", "photosynthesis", "mitochondria", "enzyme", "velocity",
+            "momentum", "entropy", "isotope", "variance", "regression", "genome", "protein", "cell", "orbit",
+            "voltage", "catalyst" };
+
+    @Param({ "10000", "500000" })
+    public int questions;
+
+    @Param({ "hypothesis", "enzyme -cell", "mito* OR photo*" })
+    public String query;
+
+    private List<Object> bank;
+    private Object index;
+
+    @Setup(Level.Trial)
+    public void build() throws Throwable {
+        bank = new ArrayList<>(questions);
+        index = App.newIndex();
+        for (int i = 0; i < questions; i++) {
+            // Each question mentions two topics out of sixteen, so single-word queries hit about 1 in 8
+            String topic = TOPICS[i % TOPICS.length];
+            String other = TOPICS[(i / TOPICS.length) % TOPICS.length];
+            String[] choices = { "A) The " + topic + " rises", "B) The " + other + " falls", "C) Both change",
+                    "D) Neither changes" };
+            Object mcq = App.newMCQ("What happens to the " + topic + " in experiment " + i + "?", choices,
+                    Corpus.answerLetter(i), "Explained by the " + other + " of item " + i);
+            bank.add(mcq);
+            App.indexAdd(index, mcq);
+        }
+    }
+
+    @Benchmark
+    public int[] index() throws Throwable {
+        return App.indexSearch(index, query);
+    }
+
+    @Benchmark
+    public int[] linearScan() throws Throwable {
+        return App.scan(bank, query);
+    }
+}
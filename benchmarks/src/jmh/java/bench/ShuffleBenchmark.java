@@ -0,0 +1,46 @@
+package bench;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// MCQ.shuffleQuestions over an in-memory bank
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ShuffleBenchmark {
+    @Param({ "1000", "100000", "1000000" })
+    public int questions;
+
+    private ArrayList<Object> bank;
+
+    @Setup(Level.Trial)
+    public void build() throws Throwable {
+        bank = new ArrayList<>(questions);
+        String[] choices = { "A) One", "B) Two", "C) Three", "D) Four" };
+        for (int i = 0; i < questions; i++) {
+            bank.add(App.newMCQ("Question " + i, choices, Corpus.answerLetter(i), "Reason " + i));
+        }
+    }
+
+    @Benchmark
+    public ArrayList<Object> shuffleQuestions() throws Throwable {
+        App.shuffleQuestions(bank);
+        return bank;
+    }
+}